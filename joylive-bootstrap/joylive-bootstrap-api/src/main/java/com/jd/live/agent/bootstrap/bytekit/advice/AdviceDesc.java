@@ -18,9 +18,12 @@ package com.jd.live.agent.bootstrap.bytekit.advice;
 import com.jd.live.agent.bootstrap.plugin.PluginEvent;
 import com.jd.live.agent.bootstrap.plugin.PluginListener;
 import com.jd.live.agent.bootstrap.plugin.PluginPublisher;
+import com.jd.live.agent.bootstrap.bytekit.context.ExecutableContext;
 import com.jd.live.agent.bootstrap.plugin.definition.Interceptor;
+import com.jd.live.agent.bootstrap.plugin.definition.Noop;
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,12 +42,29 @@ public class AdviceDesc implements PluginListener {
     @Getter
     private final Object key;
 
+    /**
+     * A unique id of the advice, which is bound as a constant into the enhanced method.
+     */
+    @Getter
+    private final int id;
+
     /**
      * A list of interceptors associated with this advice.
      */
     @Getter
     private final List<Interceptor> interceptors = new CopyOnWriteArrayList<>();
 
+    /**
+     * The interceptors which override {@link Interceptor#onEnter}.
+     */
+    private volatile Interceptor[] enters = new Interceptor[0];
+
+    /**
+     * The interceptors which override any of {@link Interceptor#onSuccess}, {@link Interceptor#onError}
+     * and {@link Interceptor#onExit}.
+     */
+    private volatile Interceptor[] exits = new Interceptor[0];
+
     /**
      * An atomic reference used for thread-safe operations, primarily to manage the owner of this advice.
      */
@@ -61,7 +81,36 @@ public class AdviceDesc implements PluginListener {
      * @param key the unique key for the advice
      */
     public AdviceDesc(Object key) {
+        this(key, -1);
+    }
+
+    /**
+     * Constructs a new AdviceDesc instance with a specified key and id.
+     *
+     * @param key the unique key for the advice
+     * @param id  the unique id for the advice
+     */
+    public AdviceDesc(Object key, int id) {
         this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Returns the interceptors which are invoked when the method is entered.
+     *
+     * @return the interceptors, never null
+     */
+    public Interceptor[] getEnters() {
+        return enters;
+    }
+
+    /**
+     * Returns the interceptors which are invoked when the method exits.
+     *
+     * @return the interceptors, never null
+     */
+    public Interceptor[] getExits() {
+        return exits;
     }
 
     /**
@@ -73,7 +122,22 @@ public class AdviceDesc implements PluginListener {
      */
     public boolean add(Interceptor interceptor) {
         if (interceptor != null && add(interceptor.getClass().getCanonicalName())) {
-            interceptors.add(interceptor);
+            synchronized (interceptors) {
+                interceptors.add(interceptor);
+                List<Interceptor> newEnters = new ArrayList<>(interceptors.size());
+                List<Interceptor> newExits = new ArrayList<>(interceptors.size());
+                for (Interceptor candidate : interceptors) {
+                    Class<?> type = candidate.getClass();
+                    if (isOverridden(type, "onEnter")) {
+                        newEnters.add(candidate);
+                    }
+                    if (isOverridden(type, "onSuccess") || isOverridden(type, "onError") || isOverridden(type, "onExit")) {
+                        newExits.add(candidate);
+                    }
+                }
+                enters = newEnters.toArray(new Interceptor[0]);
+                exits = newExits.toArray(new Interceptor[0]);
+            }
             return true;
         }
         return false;
@@ -119,6 +183,22 @@ public class AdviceDesc implements PluginListener {
         return names.putIfAbsent(interceptor, Boolean.TRUE) == null;
     }
 
+    /**
+     * Checks whether the callback of the interceptor does something, which is the case unless the
+     * implementation found on its class is marked with {@link Noop}.
+     *
+     * @param type the class of the interceptor
+     * @param name the name of the callback
+     * @return true if the callback should be invoked
+     */
+    private static boolean isOverridden(Class<?> type, String name) {
+        try {
+            return !type.getMethod(name, ExecutableContext.class).isAnnotationPresent(Noop.class);
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
     /**
      * Handles plugin events, specifically listening for uninstall events to remove the advice.
      *
@@ -20,24 +20,45 @@ import com.jd.live.agent.bootstrap.logger.Logger;
 import com.jd.live.agent.bootstrap.logger.LoggerFactory;
 import com.jd.live.agent.bootstrap.plugin.definition.Interceptor;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiConsumer;
 
 /**
  * A handler class for managing advices and their associated interceptors. Provides static methods
  * for handling entry and exit points of method execution contexts, as well as managing advice lifecycle.
+ * <p>
+ * Every advice is assigned a unique id when it is created. The id is bound as a constant into the enhanced
+ * method at transform time, so the interceptors are resolved by an array access instead of a key lookup.
+ * </p>
  */
 public class AdviceHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(AdviceHandler.class);
 
+    private static final String ACTION_ENTER = "enter";
+
+    private static final String ACTION_SUCCESS = "success";
+
+    private static final String ACTION_RECOVER = "recover";
+
+    private static final String ACTION_EXIT = "exit";
+
     /**
      * A concurrent map that holds all advices identified by their unique keys.
      */
     private static final Map<Object, AdviceDesc> advices = new ConcurrentHashMap<>(1000);
 
+    /**
+     * The advices indexed by their ids.
+     */
+    private static volatile AdviceDesc[] descs = new AdviceDesc[1024];
+
+    /**
+     * The id of the next advice.
+     */
+    private static int counter;
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -56,18 +77,22 @@ public class AdviceHandler {
         if (context == null || adviceKey == null) {
             return;
         }
-        AdviceDesc adviceDesc = advices.get(adviceKey);
-        List<Interceptor> interceptors = adviceDesc == null ? null : adviceDesc.getInterceptors();
-        int size = interceptors == null ? 0 : interceptors.size();
-        if (size == 1) {
-            onEnter(context, interceptors.get(0));
-        } else if (size > 1) {
-            for (Interceptor interceptor : interceptors) {
-                if (onEnter(context, interceptor)) {
-                    break;
-                }
-            }
+        onEnter(context, advices.get(adviceKey));
+    }
+
+    /**
+     * Handles the entry point for a given execution context and advice id.
+     *
+     * @param <T>      the type of the execution context
+     * @param context  the execution context
+     * @param adviceId the unique id of the advice, which is bound at transform time
+     * @throws Throwable if any exception occurs during interception
+     */
+    public static <T extends ExecutableContext> void onEnter(final T context, final int adviceId) throws Throwable {
+        if (context == null) {
+            return;
         }
+        onEnter(context, get(adviceId));
     }
 
     /**
@@ -79,15 +104,67 @@ public class AdviceHandler {
      * @throws Throwable if any exception occurs during interception
      */
     public static <T extends ExecutableContext> void onExit(final T context, final Object adviceKey) throws Throwable {
-        AdviceDesc adviceDesc = advices.get(adviceKey);
-        List<Interceptor> interceptors = adviceDesc == null ? null : adviceDesc.getInterceptors();
-        int size = interceptors == null ? 0 : interceptors.size();
-        if (size == 1) {
-            onExit(context, interceptors.get(0));
-        } else if (size > 1) {
-            // reverse order
-            for (int i = size - 1; i >= 0; i--) {
-                onExit(context, interceptors.get(i));
+        onExit(context, adviceKey == null ? null : advices.get(adviceKey));
+    }
+
+    /**
+     * Handles the exit point for a given execution context and advice id.
+     *
+     * @param <T>      the type of the execution context
+     * @param context  the execution context
+     * @param adviceId the unique id of the advice, which is bound at transform time
+     * @throws Throwable if any exception occurs during interception
+     */
+    public static <T extends ExecutableContext> void onExit(final T context, final int adviceId) throws Throwable {
+        onExit(context, get(adviceId));
+    }
+
+    /**
+     * Checks whether any interceptor of the advice has to be invoked when the method exits.
+     * <p>
+     * The advice uses it to omit the exit handling of the methods whose interceptors only act on entry.
+     * </p>
+     *
+     * @param adviceId the unique id of the advice, which is bound at transform time
+     * @return true if the exit handling is required
+     */
+    public static boolean hasExit(final int adviceId) {
+        AdviceDesc adviceDesc = get(adviceId);
+        return adviceDesc != null && adviceDesc.getExits().length > 0;
+    }
+
+    /**
+     * Invokes the onEnter method of the interceptors of the advice, until one of them skips the execution.
+     *
+     * @param <T>        the type of the execution context
+     * @param context    the execution context
+     * @param adviceDesc the advice, or null if it is not found
+     * @throws Throwable if any exception occurs during interception
+     */
+    private static <T extends ExecutableContext> void onEnter(final T context, final AdviceDesc adviceDesc) throws Throwable {
+        Interceptor[] interceptors = adviceDesc == null ? null : adviceDesc.getEnters();
+        if (interceptors != null) {
+            for (Interceptor interceptor : interceptors) {
+                if (onEnter(context, interceptor)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Invokes the exit methods of the interceptors of the advice in reverse order.
+     *
+     * @param <T>        the type of the execution context
+     * @param context    the execution context
+     * @param adviceDesc the advice, or null if it is not found
+     * @throws Throwable if any exception occurs during interception
+     */
+    private static <T extends ExecutableContext> void onExit(final T context, final AdviceDesc adviceDesc) throws Throwable {
+        Interceptor[] interceptors = adviceDesc == null ? null : adviceDesc.getExits();
+        if (interceptors != null) {
+            for (int i = interceptors.length - 1; i >= 0; i--) {
+                onExit(context, interceptors[i]);
             }
         }
     }
@@ -105,7 +182,11 @@ public class AdviceHandler {
         if (logger.isDebugEnabled()) {
             logger.debug(String.format("enter [%s], interceptor is [%s].", context.getDescription(), interceptor.getClass().getName()));
         }
-        handle(context, interceptor, Interceptor::onEnter, "enter");
+        try {
+            interceptor.onEnter(context);
+        } catch (Throwable t) {
+            throw fail(context, ACTION_ENTER, t);
+        }
         if (!context.isSuccess()) {
             throw context.getThrowable();
         }
@@ -125,33 +206,48 @@ public class AdviceHandler {
             logger.debug(String.format("exit [%s], interceptor is [%s].", context.getDescription(), interceptor.getClass().getName()));
         }
         if (context.isSuccess()) {
-            handle(context, interceptor, Interceptor::onSuccess, "success");
+            try {
+                interceptor.onSuccess(context);
+            } catch (Throwable t) {
+                throw fail(context, ACTION_SUCCESS, t);
+            }
         } else {
-            handle(context, interceptor, Interceptor::onError, "recover");
+            try {
+                interceptor.onError(context);
+            } catch (Throwable t) {
+                throw fail(context, ACTION_RECOVER, t);
+            }
+        }
+        try {
+            interceptor.onExit(context);
+        } catch (Throwable t) {
+            throw fail(context, ACTION_EXIT, t);
         }
-        handle(context, interceptor, Interceptor::onExit, "exit");
     }
 
     /**
-     * Generic method for handling interception actions.
+     * Logs the failure of an interception action.
      *
-     * @param <T>         the type of the execution context
-     * @param context     the execution context
-     * @param interceptor the interceptor to be executed
-     * @param consumer    the action to be performed by the interceptor
-     * @param action      the name of the action being performed
-     * @throws Throwable if any exception occurs during interception
+     * @param <T>     the type of the execution context
+     * @param context the execution context
+     * @param action  the name of the action being performed
+     * @param t       the failure
+     * @return the failure to be rethrown
      */
-    private static <T extends ExecutableContext> void handle(final T context,
-                                                             final Interceptor interceptor,
-                                                             final BiConsumer<Interceptor, T> consumer,
-                                                             final String action) throws Throwable {
-        try {
-            consumer.accept(interceptor, context);
-        } catch (Throwable t) {
-            logger.error(String.format("failed to %s %s, caused by %s", action, context.getDescription(), t.getMessage()), t);
-            throw t;
-        }
+    private static <T extends ExecutableContext> Throwable fail(final T context, final String action, final Throwable t) {
+        logger.error(String.format("failed to %s %s, caused by %s", action, context.getDescription(), t.getMessage()), t);
+        return t;
+    }
+
+    /**
+     * Retrieves the advice by its id.
+     *
+     * @param adviceId the unique id of the advice
+     * @return the advice, or null if it is not found or has been removed
+     */
+    private static AdviceDesc get(final int adviceId) {
+        AdviceDesc[] values = descs;
+        return adviceId >= 0 && adviceId < values.length ? values[adviceId] : null;
     }
 
     /**
@@ -161,7 +257,7 @@ public class AdviceHandler {
      * @return the AdviceDesc instance
      */
     public static AdviceDesc getOrCreate(final Object adviceKey) {
-        return advices.computeIfAbsent(adviceKey, AdviceDesc::new);
+        return advices.computeIfAbsent(adviceKey, AdviceHandler::create);
     }
 
     /**
@@ -170,8 +266,37 @@ public class AdviceHandler {
      * @param adviceKey the unique key of the advice to be removed
      */
     public static void remove(final Object adviceKey) {
-        advices.remove(adviceKey);
+        AdviceDesc adviceDesc = advices.remove(adviceKey);
+        if (adviceDesc != null) {
+            synchronized (AdviceHandler.class) {
+                AdviceDesc[] values = descs;
+                int id = adviceDesc.getId();
+                if (id >= 0 && id < values.length && values[id] == adviceDesc) {
+                    values[id] = null;
+                    // republish the array
+                    descs = values;
+                }
+            }
+        }
     }
 
-}
+    /**
+     * Creates an advice with the next id and indexes it.
+     *
+     * @param adviceKey the unique key of the advice
+     * @return the AdviceDesc instance
+     */
+    private static synchronized AdviceDesc create(final Object adviceKey) {
+        AdviceDesc adviceDesc = new AdviceDesc(adviceKey, counter++);
+        AdviceDesc[] values = descs;
+        int id = adviceDesc.getId();
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length << 1, id + 1));
+        }
+        values[id] = adviceDesc;
+        // publish the slot through the volatile write
+        descs = values;
+        return adviceDesc;
+    }
 
+}
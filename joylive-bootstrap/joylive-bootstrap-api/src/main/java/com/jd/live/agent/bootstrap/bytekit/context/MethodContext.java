@@ -33,6 +33,12 @@ public class MethodContext extends ExecutableContext {
     @Getter
     private final Method method;
 
+    /**
+     * The id of the advice enhancing the method.
+     */
+    @Getter
+    private final int adviceId;
+
     @Getter
     private final boolean origin;
 
@@ -49,7 +55,7 @@ public class MethodContext extends ExecutableContext {
     private boolean skip;
 
     /**
-     * Constructs a new MethodContext with specified details of the method execution.
+     * Constructs a new MethodContext whose advice is unknown, so its origin invocation is identified by the method.
      *
      * @param type        The class type where the method is declared.
      * @param target      The instance on which the method will be executed.
@@ -60,9 +66,26 @@ public class MethodContext extends ExecutableContext {
      */
     public MethodContext(final Class<?> type, final Object target, final Method method,
                          final Object[] arguments, final String description, final boolean origin) {
+        this(type, target, method, arguments, description, OriginStack.UNKNOWN_ADVICE, origin);
+    }
+
+    /**
+     * Constructs a new MethodContext with specified details of the method execution.
+     *
+     * @param type        The class type where the method is declared.
+     * @param target      The instance on which the method will be executed.
+     * @param method      The method to be executed.
+     * @param arguments   The arguments to be passed to the method.
+     * @param description A description of the execution context.
+     * @param adviceId    The id of the advice enhancing the method.
+     * @param origin      A flag to indicate that it will invoke origin method.
+     */
+    public MethodContext(final Class<?> type, final Object target, final Method method,
+                         final Object[] arguments, final String description, final int adviceId, final boolean origin) {
         super(type, arguments, description);
         super.setTarget(target);
         this.method = method;
+        this.adviceId = adviceId;
         this.origin = origin;
     }
 
@@ -124,7 +147,11 @@ public class MethodContext extends ExecutableContext {
      */
     public Object invokeOrigin(final Object target) throws Exception {
         try {
-            OriginStack.push(target, method);
+            if (adviceId == OriginStack.UNKNOWN_ADVICE) {
+                OriginStack.push(target, method);
+            } else {
+                OriginStack.push(target, adviceId);
+            }
             // method is always a copy object by java.lang.Class.getMethods
             // so we need to set accessible to true
             Accessible.setAccessible(method, true);
@@ -135,7 +162,7 @@ public class MethodContext extends ExecutableContext {
             }
             throw e;
         } finally {
-            OriginStack.tryPop(target, method);
+            OriginStack.tryPop(target, adviceId, method);
         }
     }
 
@@ -15,65 +15,138 @@
  */
 package com.jd.live.agent.bootstrap.bytekit.context;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-
 import java.lang.reflect.Method;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
- * A utility class for managing a stack of origin methods.
+ * A utility class for managing a per-thread stack of origin method invocations.
+ * <p>
+ * An invocation is identified by its target and the id of the advice bound into the enhanced method at
+ * transform time, so both are compared by identity. The stack is kept in growable arrays, which are only
+ * allocated by the threads that actually invoke origin methods. This keeps the footprint of the large number
+ * of virtual threads which never do so at a single thread-local lookup.
+ * </p>
+ * <p>
+ * An invocation whose advice id is unknown, e.g. of a {@link MethodContext} created without it, is pushed
+ * with {@link #UNKNOWN_ADVICE} and matched by its method instead.
+ * </p>
  */
 public class OriginStack {
 
+    /**
+     * The advice id of the invocations identified by their methods.
+     */
+    public static final int UNKNOWN_ADVICE = -1;
+
+    private static final int INITIAL_CAPACITY = 4;
+
     /**
      * A thread-local stack of origin methods.
      */
-    protected static final ThreadLocal<LinkedList<OriginMethod>> INVOKE_ORIGIN_METHOD_STACK = new ThreadLocal<>();
+    private static final ThreadLocal<OriginStack> INVOKE_ORIGIN_METHOD_STACK = new ThreadLocal<>();
+
+    private Object[] targets = new Object[INITIAL_CAPACITY];
+
+    private int[] adviceIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * The methods of the invocations, which are only allocated for an unknown advice.
+     */
+    private Method[] methods;
+
+    private int size;
 
     /**
      * Pushes a new origin method onto the stack.
      *
+     * @param target   the target object of the method
+     * @param adviceId the id of the advice enhancing the method
+     */
+    public static void push(Object target, int adviceId) {
+        OriginStack stack = INVOKE_ORIGIN_METHOD_STACK.get();
+        if (stack == null) {
+            stack = new OriginStack();
+            INVOKE_ORIGIN_METHOD_STACK.set(stack);
+        }
+        stack.add(target, adviceId, null);
+    }
+
+    /**
+     * Pushes a new origin method whose advice id is unknown onto the stack.
+     *
      * @param target the target object of the method
-     * @param method the method itself
+     * @param method the method
      */
     public static void push(Object target, Method method) {
-        LinkedList<OriginMethod> stack = INVOKE_ORIGIN_METHOD_STACK.get();
+        OriginStack stack = INVOKE_ORIGIN_METHOD_STACK.get();
         if (stack == null) {
-            stack = new LinkedList<>();
+            stack = new OriginStack();
             INVOKE_ORIGIN_METHOD_STACK.set(stack);
         }
-        stack.push(new OriginMethod(target, method));
+        stack.add(target, UNKNOWN_ADVICE, method);
     }
 
     /**
      * Attempts to pop an origin method from the stack.
      *
-     * @param target the target object of the method
-     * @param method the method itself
+     * @param target   the target object of the method
+     * @param adviceId the id of the advice enhancing the method
      * @return true if the method was successfully popped, false otherwise
      */
-    public static boolean tryPop(Object target, Method method) {
-        LinkedList<OriginMethod> stack = INVOKE_ORIGIN_METHOD_STACK.get();
-        OriginMethod result = stack == null ? null : stack.peek();
-        // method is always a new instance in bytebuddy, so we use equals to compare
-        if (result != null && result.getTarget() == target && result.getMethod().equals(method)) {
-            stack.pop();
-            return true;
-        }
-        return false;
+    public static boolean tryPop(Object target, int adviceId) {
+        OriginStack stack = INVOKE_ORIGIN_METHOD_STACK.get();
+        return stack != null && stack.remove(target, adviceId, null);
     }
 
     /**
-     * A utility class representing an origin method.
+     * Attempts to pop an origin method from the stack, which is matched by its method if it was pushed
+     * with an unknown advice id.
+     *
+     * @param target   the target object of the method
+     * @param adviceId the id of the advice enhancing the method
+     * @param method   the method
+     * @return true if the method was successfully popped, false otherwise
      */
-    @Getter
-    @AllArgsConstructor
-    protected static class OriginMethod {
-
-        private Object target;
+    public static boolean tryPop(Object target, int adviceId, Method method) {
+        OriginStack stack = INVOKE_ORIGIN_METHOD_STACK.get();
+        return stack != null && stack.remove(target, adviceId, method);
+    }
 
-        private Method method;
+    private void add(Object target, int adviceId, Method method) {
+        if (size == adviceIds.length) {
+            int capacity = size << 1;
+            targets = Arrays.copyOf(targets, capacity);
+            adviceIds = Arrays.copyOf(adviceIds, capacity);
+            if (methods != null) {
+                methods = Arrays.copyOf(methods, capacity);
+            }
+        }
+        if (method != null) {
+            if (methods == null) {
+                methods = new Method[adviceIds.length];
+            }
+            methods[size] = method;
+        }
+        targets[size] = target;
+        adviceIds[size++] = adviceId;
+    }
 
+    private boolean remove(Object target, int adviceId, Method method) {
+        int index = size - 1;
+        if (index < 0 || targets[index] != target) {
+            return false;
+        }
+        int id = adviceIds[index];
+        if (id == adviceId && id != UNKNOWN_ADVICE
+                || id == UNKNOWN_ADVICE && method != null && method.equals(methods[index])) {
+            // release the target and method for garbage collection
+            targets[index] = null;
+            if (methods != null) {
+                methods[index] = null;
+            }
+            size = index;
+            return true;
+        }
+        return false;
     }
 }
@@ -17,15 +17,20 @@ package com.jd.live.agent.bootstrap.classloader;
 
 import lombok.Getter;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * A class loader that supports dynamic loading of classes and resources from URLs,
@@ -33,6 +38,13 @@ import java.util.function.Consumer;
  */
 public class LiveClassLoader extends URLClassLoader implements URLResourcer {
 
+    /**
+     * The maximum number of class names in the negative lookup cache.
+     */
+    private static final int MAX_MISSES = 8192;
+
+    private static final String MULTI_RELEASE_PREFIX = "META-INF/versions/";
+
     /**
      * The type of resources this class loader is concerned with.
      */
@@ -53,6 +65,16 @@ public class LiveClassLoader extends URLClassLoader implements URLResourcer {
      */
     private final Map<String, ClassCache> caches = new ConcurrentHashMap<>(4096);
 
+    /**
+     * A cache of the class names which are not found in the urls of this class loader.
+     */
+    private final Map<String, Boolean> misses = new ConcurrentHashMap<>(256);
+
+    /**
+     * The packages of the urls, which is built on the first lookup.
+     */
+    private volatile PackageIndex index;
+
     /**
      * Flag indicating whether this class loader has been started.
      */
@@ -108,6 +130,12 @@ public class LiveClassLoader extends URLClassLoader implements URLResourcer {
             for (URL url : urls) {
                 addURL(url);
             }
+            // the new urls may contain the missing classes.
+            synchronized (misses) {
+                PackageIndex old = index;
+                index = old == null ? null : old.add(urls);
+                misses.clear();
+            }
         }
     }
 
@@ -152,6 +180,38 @@ public class LiveClassLoader extends URLClassLoader implements URLResourcer {
 
     }
 
+    /**
+     * Finds the class in the urls, the classes in a package that is absent from all the jars and the classes
+     * which were not found before fail fast without scanning the urls.
+     *
+     * @param name The name of the class.
+     * @return The resulting class object.
+     * @throws ClassNotFoundException If the class could not be found.
+     */
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        if (misses.containsKey(name)) {
+            throw new ClassNotFoundException(name);
+        }
+        PackageIndex current = getIndex();
+        try {
+            if (!current.contains(name)) {
+                throw new ClassNotFoundException(name);
+            }
+            return super.findClass(name);
+        } catch (ClassNotFoundException e) {
+            if (misses.size() >= MAX_MISSES) {
+                misses.clear();
+            }
+            misses.put(name, Boolean.TRUE);
+            if (index != current) {
+                // the urls are added during the lookup, which may contain the class.
+                misses.remove(name);
+            }
+            throw e;
+        }
+    }
+
     @Override
     public URL getResource(String name) {
         URL url = filter == null ? null : filter.getResource(name, this);
@@ -173,6 +233,8 @@ public class LiveClassLoader extends URLClassLoader implements URLResourcer {
     public void close() throws IOException {
         if (started.compareAndSet(true, false)) {
             caches.clear();
+            misses.clear();
+            index = null;
             super.close();
         }
     }
@@ -216,6 +278,110 @@ public class LiveClassLoader extends URLClassLoader implements URLResourcer {
         return cache;
     }
 
+    /**
+     * Returns the package index of the urls, building it on first access.
+     *
+     * @return The package index.
+     */
+    private PackageIndex getIndex() {
+        PackageIndex result = index;
+        if (result == null) {
+            synchronized (misses) {
+                result = index;
+                if (result == null) {
+                    result = PackageIndex.EMPTY.add(getURLs());
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * An index of the packages contained in the jar files of the class loader.
+     */
+    private static class PackageIndex {
+
+        /**
+         * The empty index, which is extended by the urls of the class loader.
+         */
+        private static final PackageIndex EMPTY = new PackageIndex(new HashSet<>());
+
+        /**
+         * The index which can not exclude any package, used when some url is not a local jar file.
+         */
+        private static final PackageIndex ALL = new PackageIndex(null);
+
+        private final Set<String> packages;
+
+        PackageIndex(Set<String> packages) {
+            this.packages = packages;
+        }
+
+        /**
+         * Checks if the package of the class is contained in the jar files.
+         *
+         * @param className The name of the class.
+         * @return {@code true} if the class may be found in the jar files.
+         */
+        public boolean contains(String className) {
+            if (packages == null) {
+                return true;
+            }
+            int pos = className.lastIndexOf('.');
+            return packages.contains(pos < 0 ? "" : className.substring(0, pos));
+        }
+
+        /**
+         * Returns a new index extended by the packages of the urls.
+         *
+         * @param urls The added urls.
+         * @return The package index.
+         */
+        public PackageIndex add(URL[] urls) {
+            if (packages == null) {
+                return this;
+            }
+            Set<String> newPackages = new HashSet<>(packages.size() + 1024);
+            newPackages.addAll(packages);
+            for (URL url : urls) {
+                String path = url.getPath();
+                if (!"file".equals(url.getProtocol()) || !path.endsWith(".jar")) {
+                    // directories and remote urls are not indexed.
+                    return ALL;
+                }
+                try (JarFile jarFile = new JarFile(new File(url.toURI()), false)) {
+                    Enumeration<JarEntry> entries = jarFile.entries();
+                    while (entries.hasMoreElements()) {
+                        String entry = entries.nextElement().getName();
+                        if (entry.endsWith(".class")) {
+                            newPackages.add(getPackage(entry));
+                        }
+                    }
+                } catch (Exception e) {
+                    return ALL;
+                }
+            }
+            return new PackageIndex(newPackages);
+        }
+
+        /**
+         * Returns the package name of the class entry.
+         *
+         * @param entry The name of the class entry.
+         * @return The package name.
+         */
+        private static String getPackage(String entry) {
+            int start = 0;
+            if (entry.startsWith(MULTI_RELEASE_PREFIX)) {
+                // META-INF/versions/<version>/<package>/<class>.class
+                start = entry.indexOf('/', MULTI_RELEASE_PREFIX.length()) + 1;
+            }
+            int end = entry.lastIndexOf('/');
+            return end <= start ? "" : entry.substring(start, end).replace('/', '.');
+        }
+    }
+
     /**
      * A simple cache entry for storing class definitions.
      */
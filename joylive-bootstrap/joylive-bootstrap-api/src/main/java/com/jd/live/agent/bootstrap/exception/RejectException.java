@@ -218,6 +218,28 @@ public class RejectException extends LiveException implements Unretryable {
 
     }
 
+    /**
+     * RejectDeadlineException
+     */
+    public static class RejectDeadlineException extends RejectException {
+
+        public RejectDeadlineException() {
+        }
+
+        public RejectDeadlineException(String message) {
+            super(message);
+        }
+
+        public RejectDeadlineException(String message, Throwable cause) {
+            super(message, cause);
+        }
+
+        public RejectDeadlineException(Throwable cause) {
+            super(cause);
+        }
+
+    }
+
     /**
      * RejectCircuitBreakException
      */
@@ -0,0 +1,34 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.bootstrap.plugin.definition;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks an {@link Interceptor} callback which does nothing.
+ * <p>
+ * The interceptors are classified when they are registered to an advice, and the callbacks marked with this
+ * annotation are skipped. An overriding method in a subclass is not annotated, so it is invoked as usual.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Noop {
+
+}
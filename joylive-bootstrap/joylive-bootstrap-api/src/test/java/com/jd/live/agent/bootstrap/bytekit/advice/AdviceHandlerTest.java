@@ -0,0 +1,157 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.bootstrap.bytekit.advice;
+
+import com.jd.live.agent.bootstrap.bytekit.context.ExecutableContext;
+import com.jd.live.agent.bootstrap.bytekit.context.MethodContext;
+import com.jd.live.agent.bootstrap.plugin.definition.Interceptor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tests the dispatch of the advices and measures the cost of an intercepted call.
+ * <p>
+ * The benchmark compares the dispatch by the advice id, which is bound into the enhanced method as a constant,
+ * with the former dispatch by an advice key which is allocated and looked up on every call.
+ * Run it with {@code mvn test -Dtest=AdviceHandlerTest -Dbenchmark=true}.
+ * </p>
+ */
+public class AdviceHandlerTest {
+
+    @Test
+    void testDispatch() throws Throwable {
+        String description = "com.jd.live.agent.bootstrap.bytekit.advice.AdviceHandlerTest.testDispatch()";
+        AdviceKey key = new AdviceKey(description, AdviceHandlerTest.class.getClassLoader());
+        CountingInterceptor interceptor = new CountingInterceptor();
+        AdviceDesc desc = AdviceHandler.getOrCreate(key);
+        Assertions.assertSame(desc, AdviceHandler.getOrCreate(new AdviceKey(description, AdviceHandlerTest.class.getClassLoader())));
+        desc.add(interceptor);
+        Method method = AdviceHandlerTest.class.getDeclaredMethod("testDispatch");
+
+        MethodContext context = new MethodContext(AdviceHandlerTest.class, this, method, new Object[0], description, desc.getId(), false);
+        AdviceHandler.onEnter(context, desc.getId());
+        AdviceHandler.onExit(context, desc.getId());
+        AdviceHandler.onEnter(context, key);
+        AdviceHandler.onExit(context, key);
+        Assertions.assertTrue(AdviceHandler.hasExit(desc.getId()));
+        Assertions.assertEquals(2, interceptor.enters.sum());
+        Assertions.assertEquals(2, interceptor.exits.sum());
+
+        // the removed advice is not invoked anymore
+        AdviceHandler.remove(key);
+        AdviceHandler.onEnter(context, desc.getId());
+        AdviceHandler.onEnter(context, key);
+        Assertions.assertFalse(AdviceHandler.hasExit(desc.getId()));
+        Assertions.assertEquals(2, interceptor.enters.sum());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws Exception {
+        String description = "com.jd.live.agent.bootstrap.bytekit.advice.AdviceHandlerTest.benchmark()";
+        ClassLoader classLoader = AdviceHandlerTest.class.getClassLoader();
+        AdviceDesc desc = AdviceHandler.getOrCreate(new AdviceKey(description, classLoader));
+        desc.add(new CountingInterceptor());
+        // fill the map like an agent with many enhanced methods
+        for (int i = 0; i < 10000; i++) {
+            AdviceHandler.getOrCreate(new AdviceKey(description + i, classLoader));
+        }
+        Method method = AdviceHandlerTest.class.getDeclaredMethod("benchmark");
+        int id = desc.getId();
+        Call byKey = () -> {
+            MethodContext context = new MethodContext(AdviceHandlerTest.class, this, method, null, description, false);
+            AdviceKey key = new AdviceKey(description, classLoader);
+            AdviceHandler.onEnter(context, key);
+            AdviceHandler.onExit(context, key);
+        };
+        Call byId = () -> {
+            MethodContext context = new MethodContext(AdviceHandlerTest.class, this, method, null, description, id, false);
+            AdviceHandler.onEnter(context, id);
+            if (AdviceHandler.hasExit(id)) {
+                AdviceHandler.onExit(context, id);
+            }
+        };
+        // warm up
+        run(byKey, 4);
+        run(byId, 4);
+        for (int threads = 1; threads <= 16; threads <<= 2) {
+            System.out.printf("threads=%d, key %d ops/s, id %d ops/s%n", threads, run(byKey, threads), run(byId, threads));
+        }
+    }
+
+    private static long run(Call call, int threads) throws InterruptedException {
+        LongAdder counter = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        call.invoke();
+                        counter.increment();
+                    }
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(1000);
+        running.set(false);
+        latch.await();
+        return counter.sum();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+
+        void invoke() throws Throwable;
+    }
+
+    private static class CountingInterceptor implements Interceptor {
+
+        private final LongAdder enters = new LongAdder();
+
+        private final LongAdder exits = new LongAdder();
+
+        @Override
+        public void onEnter(ExecutableContext ctx) {
+            enters.increment();
+        }
+
+        @Override
+        public void onSuccess(ExecutableContext ctx) {
+        }
+
+        @Override
+        public void onError(ExecutableContext ctx) {
+        }
+
+        @Override
+        public void onExit(ExecutableContext ctx) {
+            exits.increment();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.bootstrap.classloader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Tests the package index and the negative lookup cache of the live class loader.
+ */
+public class LiveClassLoaderTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void testPackageIndex() throws Exception {
+        URL sample = createJar("sample.jar", Sample.class);
+        try (LiveClassLoader classLoader = new LiveClassLoader(new URL[]{sample}, null, ResourcerType.CORE, null)) {
+            Class<?> type = classLoader.loadClass(Sample.class.getName());
+            Assertions.assertSame(classLoader, type.getClassLoader());
+            // the package is absent from the jars.
+            Assertions.assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass("org.example.Missing"));
+            // the package is indexed, the class is missing.
+            for (int i = 0; i < 2; i++) {
+                Assertions.assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass(Other.class.getName()));
+            }
+            // the new jar extends the index and clears the negative cache.
+            classLoader.add(createJar("other.jar", Other.class));
+            Assertions.assertSame(classLoader, classLoader.loadClass(Other.class.getName()).getClassLoader());
+        }
+    }
+
+    @Test
+    void testPackageJars() throws Exception {
+        URL sample = createJar("sample.jar", Sample.class);
+        URL other = createJar("other.jar", Other.class);
+        try (LiveClassLoader classLoader = new LiveClassLoader(new URL[]{sample, other}, null, ResourcerType.CORE, null)) {
+            // both jars contain the package, the class is read from the jar containing it.
+            Class<?> type = classLoader.loadClass(Other.class.getName());
+            Assertions.assertSame(classLoader, type.getClassLoader());
+            Assertions.assertEquals(other, type.getProtectionDomain().getCodeSource().getLocation());
+            Assertions.assertNotNull(type.getPackage());
+            Assertions.assertEquals(sample, classLoader.loadClass(Sample.class.getName()).getProtectionDomain().getCodeSource().getLocation());
+        }
+    }
+
+    @Test
+    void testDirectory() throws Exception {
+        URL classes = Sample.class.getProtectionDomain().getCodeSource().getLocation();
+        try (LiveClassLoader classLoader = new LiveClassLoader(new URL[]{classes}, null, ResourcerType.CORE, null)) {
+            Assertions.assertSame(classLoader, classLoader.loadClass(Sample.class.getName()).getClassLoader());
+            Assertions.assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass("org.example.Missing"));
+        }
+    }
+
+    private URL createJar(String name, Class<?> type) throws IOException {
+        File file = new File(dir, name);
+        String entry = type.getName().replace('.', '/') + ".class";
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+             InputStream in = type.getClassLoader().getResourceAsStream(entry)) {
+            Assertions.assertNotNull(in);
+            out.putNextEntry(new JarEntry(entry));
+            byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                out.write(buffer, 0, len);
+            }
+            out.closeEntry();
+        }
+        return file.toURI().toURL();
+    }
+
+    public static class Sample {
+
+    }
+
+    public static class Other {
+
+    }
+}
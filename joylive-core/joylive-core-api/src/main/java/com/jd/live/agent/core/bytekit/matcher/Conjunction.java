@@ -15,6 +15,8 @@
  */
 package com.jd.live.agent.core.bytekit.matcher;
 
+import lombok.Getter;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -31,6 +33,7 @@ public class Conjunction<T> extends AbstractJunction<T> {
     /**
      * A list of matchers that are combined in this conjunction.
      */
+    @Getter
     private final List<ElementMatcher<? super T>> matchers;
 
 
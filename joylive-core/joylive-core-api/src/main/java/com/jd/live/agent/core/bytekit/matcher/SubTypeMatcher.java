@@ -19,6 +19,7 @@ import com.jd.live.agent.bootstrap.logger.Logger;
 import com.jd.live.agent.bootstrap.logger.LoggerFactory;
 import com.jd.live.agent.core.bytekit.type.TypeDesc;
 import com.jd.live.agent.core.util.cache.UnsafeLazyObject;
+import lombok.Getter;
 
 
 /**
@@ -31,8 +32,10 @@ public class SubTypeMatcher<T extends TypeDesc> extends AbstractJunction<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(SubTypeMatcher.class);
 
+    @Getter
     private final Class<?> type;
 
+    @Getter
     private final boolean implement;
 
     public SubTypeMatcher(Class<?> type) {
@@ -51,11 +54,13 @@ public class SubTypeMatcher<T extends TypeDesc> extends AbstractJunction<T> {
 
     public static class SubNameMatcher<T extends TypeDesc> extends AbstractJunction<T> {
 
+        @Getter
         private final String type;
 
+        @Getter
         private final boolean implement;
 
-        private final UnsafeLazyObject<Class<?>> optional = new UnsafeLazyObject<>(this::getType);
+        private final UnsafeLazyObject<Class<?>> optional = new UnsafeLazyObject<>(this::loadType);
 
         public SubNameMatcher(String type) {
             this(type, false);
@@ -75,7 +80,7 @@ public class SubTypeMatcher<T extends TypeDesc> extends AbstractJunction<T> {
             return clazz != null && target.isAssignableTo(clazz);
         }
 
-        private Class<?> getType() {
+        private Class<?> loadType() {
             // TODO use cache to improve performance
             try {
                 ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
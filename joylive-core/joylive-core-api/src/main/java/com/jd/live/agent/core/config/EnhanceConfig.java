@@ -35,6 +35,10 @@ public class EnhanceConfig {
 
     private static final int DEFAULT_POOL_CLEAN_INTERVAL = 60 * 1000;
 
+    private static final int DEFAULT_MATCH_CACHE_FLUSH_INTERVAL = 10 * 1000;
+
+    private static final int DEFAULT_MATCH_CACHE_MAX_SIZE = 100000;
+
     private String javaVersion = SUPPORT_JAVA_VERSION;
 
     private long poolExpireTime = 10 * 60 * 1000;
@@ -66,6 +70,24 @@ public class EnhanceConfig {
      */
     private Set<String> edgeClasses;
 
+    /**
+     * persist the types which are not matched by any plugin across restarts
+     */
+    private boolean matchCacheEnabled;
+
+    /**
+     * directory of the match cache, default is the cache directory in the output path.
+     * the outdated cache files are deleted, so the directory should not be shared by different applications.
+     */
+    private String matchCachePath;
+
+    private long matchCacheFlushInterval = DEFAULT_MATCH_CACHE_FLUSH_INTERVAL;
+
+    /**
+     * maximum number of the cached types of a plugin
+     */
+    private int matchCacheMaxSize = DEFAULT_MATCH_CACHE_MAX_SIZE;
+
     public boolean isExclude(Class<?> type) {
         String name = type.getName();
         if (excludeTypes != null) {
@@ -97,4 +119,12 @@ public class EnhanceConfig {
     public long getPoolCleanInterval() {
         return poolCleanInterval <= 0 ? DEFAULT_POOL_CLEAN_INTERVAL : poolCleanInterval;
     }
+
+    public long getMatchCacheFlushInterval() {
+        return matchCacheFlushInterval <= 0 ? DEFAULT_MATCH_CACHE_FLUSH_INTERVAL : matchCacheFlushInterval;
+    }
+
+    public int getMatchCacheMaxSize() {
+        return matchCacheMaxSize <= 0 ? DEFAULT_MATCH_CACHE_MAX_SIZE : matchCacheMaxSize;
+    }
 }
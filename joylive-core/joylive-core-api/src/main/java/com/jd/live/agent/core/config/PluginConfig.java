@@ -44,6 +44,11 @@ public class PluginConfig {
 
     private String profile;
 
+    /**
+     * The maximum number of threads used to load plugins concurrently, 0 or 1 loads them sequentially.
+     */
+    private int loadThreads;
+
     public boolean isSystemActive(String name) {
         return isEnabled(name) && isSystem(name);
     }
@@ -0,0 +1,122 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.extension.index;
+
+import lombok.Getter;
+
+/**
+ * An entry of the extension index, which is generated by {@link ExtensionIndexProcessor} at build time.
+ * <p>
+ * The index of an extensible type is stored in {@code META-INF/live-extensions/<extensible>} beside its service
+ * provider configuration file. Each line describes an extension implementation with tab separated fields:
+ * class name, order, singleton, conditional, provider and the comma separated names.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+@Getter
+public class ExtensionIndex {
+
+    /**
+     * Prefix for extension index files.
+     */
+    public static final String PREFIX = "META-INF/live-extensions/";
+
+    private static final char FIELD_SEPARATOR = '\t';
+
+    private static final String NAME_SEPARATOR = ",";
+
+    private static final int FIELDS = 6;
+
+    /**
+     * The binary name of the extension implementation.
+     */
+    private final String className;
+
+    /**
+     * The names declared by the extension annotation, maybe empty.
+     */
+    private final String[] names;
+
+    private final String provider;
+
+    private final int order;
+
+    private final boolean singleton;
+
+    /**
+     * Whether the extension is annotated by any conditional annotation.
+     */
+    private final boolean conditional;
+
+    public ExtensionIndex(String className, String[] names, String provider, int order, boolean singleton, boolean conditional) {
+        this.className = className;
+        this.names = names == null ? new String[0] : names;
+        this.provider = provider == null ? "" : provider;
+        this.order = order;
+        this.singleton = singleton;
+        this.conditional = conditional;
+    }
+
+    /**
+     * Returns the resource name of the index for the given extensible type.
+     *
+     * @param extensible the binary name of the extensible type
+     * @return the resource name
+     */
+    public static String getResource(String extensible) {
+        return PREFIX + extensible;
+    }
+
+    /**
+     * Parses a line of the index file.
+     *
+     * @param line the line to parse
+     * @return the parsed index, or null if the line is empty, a comment or malformed
+     */
+    public static ExtensionIndex parse(String line) {
+        if (line == null || line.isEmpty() || line.charAt(0) == '#') {
+            return null;
+        }
+        String[] fields = new String[FIELDS];
+        int start = 0;
+        for (int i = 0; i < FIELDS - 1; i++) {
+            int end = line.indexOf(FIELD_SEPARATOR, start);
+            if (end < 0) {
+                return null;
+            }
+            fields[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        fields[FIELDS - 1] = line.substring(start);
+        try {
+            return new ExtensionIndex(fields[0],
+                    fields[5].isEmpty() ? new String[0] : fields[5].split(NAME_SEPARATOR),
+                    fields[4],
+                    Integer.parseInt(fields[1]),
+                    Boolean.parseBoolean(fields[2]),
+                    Boolean.parseBoolean(fields[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return className + FIELD_SEPARATOR + order + FIELD_SEPARATOR + singleton + FIELD_SEPARATOR + conditional
+                + FIELD_SEPARATOR + provider + FIELD_SEPARATOR + String.join(NAME_SEPARATOR, names);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.extension.index;
+
+import com.jd.live.agent.core.extension.annotation.Conditional;
+import com.jd.live.agent.core.extension.annotation.ConditionalComposite;
+import com.jd.live.agent.core.extension.annotation.Extensible;
+import com.jd.live.agent.core.extension.annotation.Extension;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An annotation processor which generates the extension index of the compiled module.
+ * <p>
+ * Each class annotated by {@link Extension} is recorded in the index of every {@link Extensible} super type, so the
+ * extension loader can describe the extension without loading and reflecting over the class.
+ * </p>
+ *
+ * @see ExtensionIndex
+ * @since 1.7.0
+ */
+@SupportedAnnotationTypes("com.jd.live.agent.core.extension.annotation.Extension")
+public class ExtensionIndexProcessor extends AbstractProcessor {
+
+    private final Map<String, Map<String, ExtensionIndex>> indexes = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+        } else {
+            for (Element element : roundEnv.getElementsAnnotatedWith(Extension.class)) {
+                if (isImplement(element)) {
+                    add((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the extension to the index of its extensible types.
+     *
+     * @param type the extension type
+     */
+    private void add(TypeElement type) {
+        Extension extension = type.getAnnotation(Extension.class);
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        ExtensionIndex index = new ExtensionIndex(className, extension.value(), extension.provider(),
+                extension.order(), extension.singleton(), isConditional(type));
+        for (String extensible : getExtensibles(type)) {
+            indexes.computeIfAbsent(extensible, k -> new TreeMap<>()).put(className, index);
+        }
+    }
+
+    /**
+     * Writes the index files into the class output.
+     */
+    private void write() {
+        for (Map.Entry<String, Map<String, ExtensionIndex>> entry : indexes.entrySet()) {
+            String resource = ExtensionIndex.getResource(entry.getKey());
+            try {
+                FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+                try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                    writer.write("# Generated by " + ExtensionIndexProcessor.class.getSimpleName() + "\n");
+                    for (ExtensionIndex index : entry.getValue().values()) {
+                        writer.write(index.toString());
+                        writer.write('\n');
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Failed to write extension index " + resource + ", caused by " + e.getMessage());
+            }
+        }
+        indexes.clear();
+    }
+
+    /**
+     * Checks if the element is a public concrete class, which is required by the extension loader.
+     *
+     * @param element the element to check
+     * @return {@code true} if the element can be instantiated as an extension
+     */
+    private boolean isImplement(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        return element.getKind() == ElementKind.CLASS
+                && modifiers.contains(Modifier.PUBLIC)
+                && !modifiers.contains(Modifier.ABSTRACT);
+    }
+
+    /**
+     * Checks if the type is annotated by any conditional annotation, which has to be evaluated at runtime.
+     *
+     * @param type the extension type
+     * @return {@code true} if the type is conditional
+     */
+    private boolean isConditional(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            Element annotationType = mirror.getAnnotationType().asElement();
+            if (annotationType.getAnnotation(Conditional.class) != null
+                    || annotationType.getAnnotation(ConditionalComposite.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the binary names of the extensible super types.
+     *
+     * @param type the extension type
+     * @return the binary names of the extensible types
+     */
+    private Set<String> getExtensibles(TypeElement type) {
+        Set<String> result = new LinkedHashSet<>();
+        Set<String> visited = new HashSet<>();
+        Deque<TypeMirror> queue = new ArrayDeque<>(processingEnv.getTypeUtils().directSupertypes(type.asType()));
+        while (!queue.isEmpty()) {
+            TypeMirror mirror = queue.poll();
+            if (mirror.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            TypeElement element = (TypeElement) ((DeclaredType) mirror).asElement();
+            String name = processingEnv.getElementUtils().getBinaryName(element).toString();
+            if (visited.add(name)) {
+                if (element.getAnnotation(Extensible.class) != null) {
+                    result.add(name);
+                }
+                queue.addAll(processingEnv.getTypeUtils().directSupertypes(mirror));
+            }
+        }
+        return result;
+    }
+}
@@ -17,6 +17,7 @@ package com.jd.live.agent.core.plugin.definition;
 
 import com.jd.live.agent.bootstrap.bytekit.context.ExecutableContext;
 import com.jd.live.agent.bootstrap.plugin.definition.Interceptor;
+import com.jd.live.agent.bootstrap.plugin.definition.Noop;
 
 /**
  * A base adapter class for {@link Interceptor} that provides empty implementations
@@ -26,7 +27,8 @@ import com.jd.live.agent.bootstrap.plugin.definition.Interceptor;
  * <p>
  * This adapter simplifies the creation of interceptors by allowing developers to
  * override only the methods they are interested in, providing default no-op
- * (no operation) implementations for the rest.
+ * (no operation) implementations for the rest. The methods which are not overridden
+ * are marked with {@link Noop}, so they are skipped by the advice.
  */
 public class InterceptorAdaptor implements Interceptor {
 
@@ -38,6 +40,7 @@ public class InterceptorAdaptor implements Interceptor {
      *
      * @param ctx The execution context of the method being intercepted.
      */
+    @Noop
     @Override
     public void onEnter(ExecutableContext ctx) {
         // Default implementation does nothing
@@ -51,6 +54,7 @@ public class InterceptorAdaptor implements Interceptor {
      *
      * @param ctx The execution context of the method being intercepted.
      */
+    @Noop
     @Override
     public void onSuccess(ExecutableContext ctx) {
         // Default implementation does nothing
@@ -64,6 +68,7 @@ public class InterceptorAdaptor implements Interceptor {
      *
      * @param ctx The execution context of the method being intercepted.
      */
+    @Noop
     @Override
     public void onError(ExecutableContext ctx) {
         // Default implementation does nothing
@@ -78,6 +83,7 @@ public class InterceptorAdaptor implements Interceptor {
      *
      * @param ctx The execution context of the method being intercepted.
      */
+    @Noop
     @Override
     public void onExit(ExecutableContext ctx) {
         // Default implementation does nothing
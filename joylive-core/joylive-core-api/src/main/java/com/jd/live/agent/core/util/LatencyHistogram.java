@@ -0,0 +1,145 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in milliseconds.
+ * <p>
+ * Values are recorded in log-linear buckets: every power of two is split into 8 sub-buckets, so a percentile
+ * is reported with a relative error below 12.5%. When the number of samples reaches the decay limit, all the
+ * buckets are halved by a single thread, so the recent samples weigh more than the old ones.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int MAX_EXPONENT = 40;
+
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final long decayLimit;
+
+    private final AtomicBoolean decaying = new AtomicBoolean(false);
+
+    public LatencyHistogram() {
+        this(10000);
+    }
+
+    public LatencyHistogram(long decayLimit) {
+        this.decayLimit = decayLimit;
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param latency the latency in milliseconds
+     */
+    public void record(long latency) {
+        buckets.incrementAndGet(indexOf(Math.max(latency, 0)));
+        count.increment();
+        if (decayLimit > 0 && count.sum() >= decayLimit && decaying.compareAndSet(false, true)) {
+            try {
+                decay();
+            } finally {
+                decaying.set(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of samples.
+     *
+     * @return the number of samples
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the latency at the given percentile.
+     *
+     * @param percentile the percentile in the range (0, 100]
+     * @return the upper bound of the bucket containing the percentile, or -1 if there is no sample
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long target = Math.max((long) Math.ceil(total * Math.min(percentile, 100D) / 100D), 1L);
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += counts[i];
+            if (sum >= target) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(BUCKETS - 1);
+    }
+
+    /**
+     * Halves all the buckets, and removes the halved samples from the count. The caller must own the
+     * {@link #decaying} flag.
+     */
+    private void decay() {
+        long removed = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long value;
+            do {
+                value = buckets.get(i);
+            } while (value > 0 && !buckets.compareAndSet(i, value, value >> 1));
+            removed += value - (value >> 1);
+        }
+        count.add(-removed);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    private static long valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub) << shift) + (1L << shift) - 1;
+    }
+}
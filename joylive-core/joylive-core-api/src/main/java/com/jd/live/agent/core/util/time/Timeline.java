@@ -0,0 +1,87 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.util.time;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the elapsed time of consecutive phases, such as the steps of the agent bootstrap.
+ * <p>
+ * Each call of {@link #mark(String)} closes the current phase, its duration is measured from the previous mark.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class Timeline {
+
+    private final String name;
+
+    private final long startTime;
+
+    private long lastTime;
+
+    private final List<Phase> phases = new ArrayList<>();
+
+    public Timeline(String name) {
+        this.name = name;
+        this.startTime = System.nanoTime();
+        this.lastTime = startTime;
+    }
+
+    /**
+     * Closes the current phase with the given name.
+     *
+     * @param phase the name of the phase
+     * @return this timeline
+     */
+    public synchronized Timeline mark(String phase) {
+        long now = System.nanoTime();
+        phases.add(new Phase(phase, now - lastTime));
+        lastTime = now;
+        return this;
+    }
+
+    /**
+     * Returns the elapsed time in milliseconds since the timeline was created.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsed() {
+        return (System.nanoTime() - startTime) / 1000000L;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder(name).append(" timeline: total=").append(getElapsed()).append("ms");
+        for (Phase phase : phases) {
+            builder.append(", ").append(phase.name).append('=').append(phase.nanos / 1000000L).append("ms");
+        }
+        return builder.toString();
+    }
+
+    private static class Phase {
+
+        private final String name;
+
+        private final long nanos;
+
+        Phase(String name, long nanos) {
+            this.name = name;
+            this.nanos = nanos;
+        }
+    }
+}
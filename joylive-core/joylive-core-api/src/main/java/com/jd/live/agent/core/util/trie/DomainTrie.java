@@ -0,0 +1,304 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.util.trie;
+
+/**
+ * A trie of domain names indexed by reversed labels.
+ * <p>
+ * {@code api.example.com} is stored along the path {@code com -> example -> api}, and a wildcard host
+ * such as {@code *.example.com} is stored on the {@code example} node. Lookups walk the labels of the
+ * requested host from right to left and compare them in place, so matching costs O(labels) and does not
+ * allocate any substring of the host. Label comparison is case-insensitive.
+ * </p>
+ * <p>
+ * The trie is intended to be built once and then read concurrently. Additions are not thread-safe.
+ * </p>
+ *
+ * @param <T> The type of the value associated with each domain.
+ */
+public class DomainTrie<T> {
+
+    private static final String WILDCARD_PREFIX = "*.";
+
+    private final Node<T> root = new Node<>("", 0);
+
+    private int size;
+
+    private int wildcards;
+
+    /**
+     * Adds a domain with an associated value.
+     * <p>
+     * A host starting with {@code *.} is registered as a wildcard, which matches any host under that domain
+     * but not the domain itself.
+     * </p>
+     *
+     * @param host  The host name or wildcard host name.
+     * @param value The value associated with the host.
+     */
+    public void add(String host, T value) {
+        if (host == null || value == null) {
+            return;
+        }
+        boolean wildcard = host.startsWith(WILDCARD_PREFIX);
+        int begin = wildcard ? WILDCARD_PREFIX.length() : 0;
+        int end = trim(host);
+        if (end <= begin) {
+            return;
+        }
+        Node<T> node = root;
+        int start;
+        while (end > begin) {
+            start = Math.max(host.lastIndexOf('.', end - 1) + 1, begin);
+            node = node.getOrCreate(host, start, end);
+            end = start - 1;
+        }
+        if (wildcard) {
+            if (node.wildcard == null) {
+                size++;
+                wildcards++;
+            }
+            node.wildcard = value;
+        } else {
+            if (node.value == null) {
+                size++;
+            }
+            node.value = value;
+        }
+    }
+
+    /**
+     * Returns the value registered for exactly the given host.
+     *
+     * @param host The host name.
+     * @return The value, or {@code null} if the host is not registered.
+     */
+    public T get(String host) {
+        Node<T> node = host == null ? null : root;
+        int end = host == null ? 0 : trim(host);
+        int start;
+        while (node != null && end > 0) {
+            start = host.lastIndexOf('.', end - 1) + 1;
+            node = node.get(host, start, end);
+            end = start - 1;
+        }
+        return node == null || node == root ? null : node.value;
+    }
+
+    /**
+     * Matches the host against exact and wildcard domains.
+     * <p>
+     * An exact domain wins. Otherwise the closest wildcard ancestor is returned, e.g. {@code a.b.example.com}
+     * matches {@code *.b.example.com} before {@code *.example.com}.
+     * </p>
+     *
+     * @param host The host name.
+     * @return The matched value, or {@code null} if no domain matches.
+     */
+    public T match(String host) {
+        if (host == null) {
+            return null;
+        }
+        Node<T> node = root;
+        T candidate = null;
+        int end = trim(host);
+        int start;
+        while (end > 0) {
+            if (node.wildcard != null) {
+                candidate = node.wildcard;
+            }
+            start = host.lastIndexOf('.', end - 1) + 1;
+            node = node.get(host, start, end);
+            if (node == null) {
+                return candidate;
+            }
+            end = start - 1;
+        }
+        return node.value != null ? node.value : candidate;
+    }
+
+    /**
+     * Matches the host against the longest registered domain suffix.
+     * <p>
+     * Both exact and wildcard domains are considered at label boundaries, e.g. {@code a.b.example.com} matches
+     * {@code example.com} when neither {@code b.example.com} nor {@code *.b.example.com} is registered.
+     * </p>
+     *
+     * @param host The host name.
+     * @return The matched value, or {@code null} if no domain is a suffix of the host.
+     */
+    public T matchSuffix(String host) {
+        if (host == null) {
+            return null;
+        }
+        Node<T> node = root;
+        T candidate = null;
+        int end = trim(host);
+        int start;
+        while (end > 0) {
+            if (node.wildcard != null) {
+                candidate = node.wildcard;
+            } else if (node.value != null) {
+                candidate = node.value;
+            }
+            start = host.lastIndexOf('.', end - 1) + 1;
+            node = node.get(host, start, end);
+            if (node == null) {
+                return candidate;
+            }
+            end = start - 1;
+        }
+        return node.value != null ? node.value : candidate;
+    }
+
+    /**
+     * Returns the number of registered exact and wildcard domains.
+     *
+     * @return The number of domains.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if no domain is registered.
+     *
+     * @return {@code true} if the trie is empty, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if any wildcard domain is registered.
+     *
+     * @return {@code true} if the trie contains wildcard domains, {@code false} otherwise.
+     */
+    public boolean hasWildcard() {
+        return wildcards > 0;
+    }
+
+    /**
+     * Returns the end of the host excluding a trailing root dot.
+     *
+     * @param host The host name.
+     * @return The exclusive end index.
+     */
+    private static int trim(String host) {
+        int end = host.length();
+        return end > 0 && host.charAt(end - 1) == '.' ? end - 1 : end;
+    }
+
+    /**
+     * Computes a case-insensitive hash of the label in the specified range.
+     */
+    private static int hash(String host, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + lower(host.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static char lower(char ch) {
+        return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+    }
+
+    /**
+     * A trie node holding the children in an open-addressing table keyed by label.
+     *
+     * @param <T> The type of the value.
+     */
+    private static class Node<T> {
+
+        private final String label;
+
+        private final int hash;
+
+        private T value;
+
+        private T wildcard;
+
+        private Node<T>[] children;
+
+        private int count;
+
+        Node(String label, int hash) {
+            this.label = label;
+            this.hash = hash;
+        }
+
+        /**
+         * Finds the child whose label equals the specified range of the host.
+         */
+        Node<T> get(String host, int start, int end) {
+            Node<T>[] table = children;
+            if (table == null) {
+                return null;
+            }
+            int length = end - start;
+            int h = hash(host, start, end);
+            int mask = table.length - 1;
+            Node<T> child;
+            for (int i = h & mask; (child = table[i]) != null; i = (i + 1) & mask) {
+                if (child.hash == h && child.label.length() == length
+                        && child.label.regionMatches(true, 0, host, start, length)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        Node<T> getOrCreate(String host, int start, int end) {
+            Node<T> child = get(host, start, end);
+            if (child == null) {
+                StringBuilder builder = new StringBuilder(end - start);
+                for (int i = start; i < end; i++) {
+                    builder.append(lower(host.charAt(i)));
+                }
+                child = new Node<>(builder.toString(), hash(host, start, end));
+                if (children == null || (count + 1) * 2 > children.length) {
+                    resize();
+                }
+                put(children, child);
+                count++;
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize() {
+            Node<T>[] table = new Node[children == null ? 2 : children.length << 1];
+            if (children != null) {
+                for (Node<T> child : children) {
+                    if (child != null) {
+                        put(table, child);
+                    }
+                }
+            }
+            children = table;
+        }
+
+        private static <T> void put(Node<T>[] table, Node<T> child) {
+            int mask = table.length - 1;
+            int i = child.hash & mask;
+            while (table[i] != null) {
+                i = (i + 1) & mask;
+            }
+            table[i] = child;
+        }
+    }
+}
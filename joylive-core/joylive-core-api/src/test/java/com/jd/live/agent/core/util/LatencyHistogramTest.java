@@ -0,0 +1,71 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram(0);
+        Assertions.assertEquals(-1, histogram.getPercentile(95));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        Assertions.assertEquals(1000, histogram.getCount());
+        long p50 = histogram.getPercentile(50);
+        long p95 = histogram.getPercentile(95);
+        Assertions.assertTrue(p50 >= 500 && p50 <= 500 * 1.125, "p50=" + p50);
+        Assertions.assertTrue(p95 >= 950 && p95 <= 950 * 1.125, "p95=" + p95);
+    }
+
+    @Test
+    void testDecay() {
+        LatencyHistogram histogram = new LatencyHistogram(100);
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(10);
+        Assertions.assertTrue(histogram.getCount() < 100);
+        for (int i = 0; i < 60; i++) {
+            histogram.record(10);
+        }
+        Assertions.assertTrue(histogram.getPercentile(50) < 16);
+    }
+
+    @Test
+    void testConcurrentDecay() throws InterruptedException {
+        int threads = 8;
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    histogram.record(10);
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // the buckets are halved once at a time, so the count is not halved repeatedly.
+        long count = histogram.getCount();
+        Assertions.assertTrue(count >= 500 - threads && count < 1000 + threads, "count=" + count);
+    }
+}
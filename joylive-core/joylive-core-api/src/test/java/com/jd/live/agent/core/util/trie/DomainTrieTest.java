@@ -0,0 +1,73 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.util.trie;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DomainTrieTest {
+
+    private DomainTrie<String> trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new DomainTrie<>();
+        trie.add("example.com", "example");
+        trie.add("*.example.com", "*.example");
+        trie.add("api.example.com", "api");
+        trie.add("*.b.example.com", "*.b.example");
+        trie.add("demo.org", "demo");
+    }
+
+    @Test
+    void testGet() {
+        Assertions.assertEquals(5, trie.size());
+        Assertions.assertTrue(trie.hasWildcard());
+        Assertions.assertEquals("example", trie.get("example.com"));
+        Assertions.assertEquals("api", trie.get("API.Example.com"));
+        Assertions.assertEquals("api", trie.get("api.example.com."));
+        Assertions.assertNull(trie.get("www.example.com"));
+        Assertions.assertNull(trie.get("com"));
+        Assertions.assertNull(trie.get(""));
+        Assertions.assertNull(trie.get(null));
+    }
+
+    @Test
+    void testMatch() {
+        Assertions.assertEquals("example", trie.match("example.com"));
+        Assertions.assertEquals("api", trie.match("api.example.com"));
+        Assertions.assertEquals("api", trie.match("API.Example.COM"));
+        Assertions.assertEquals("*.example", trie.match("www.example.com"));
+        Assertions.assertEquals("*.example", trie.match("a.www.example.com"));
+        Assertions.assertEquals("*.example", trie.match("b.example.com"));
+        Assertions.assertEquals("*.b.example", trie.match("a.b.example.com"));
+        Assertions.assertEquals("*.example", trie.match("v1.api.example.com"));
+        Assertions.assertNull(trie.match("www.demo.org"));
+        Assertions.assertNull(trie.match("example.org"));
+    }
+
+    @Test
+    void testMatchSuffix() {
+        Assertions.assertEquals("demo", trie.matchSuffix("demo.org"));
+        Assertions.assertEquals("demo", trie.matchSuffix("a.b.demo.org"));
+        Assertions.assertEquals("demo", trie.matchSuffix("A.B.Demo.ORG"));
+        Assertions.assertEquals("*.example", trie.matchSuffix("www.example.com"));
+        Assertions.assertEquals("*.b.example", trie.matchSuffix("x.b.example.com"));
+        Assertions.assertNull(trie.matchSuffix("xdemo.org"));
+        Assertions.assertNull(trie.matchSuffix("org"));
+    }
+}
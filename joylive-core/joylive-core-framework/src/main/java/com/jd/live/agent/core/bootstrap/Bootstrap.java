@@ -69,6 +69,7 @@ import com.jd.live.agent.core.util.option.Option;
 import com.jd.live.agent.core.util.shutdown.Shutdown;
 import com.jd.live.agent.core.util.shutdown.ShutdownHookAdapter;
 import com.jd.live.agent.core.util.time.TimeScheduler;
+import com.jd.live.agent.core.util.time.Timeline;
 import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.core.util.type.Artifact;
 import com.jd.live.agent.core.util.version.JVM;
@@ -244,6 +245,7 @@ public class Bootstrap implements AgentLifecycle {
 
     @Override
     public void install() {
+        Timeline timeline = new Timeline("Bootstrap");
         try {
             agentPath = createAgentPath();
             conditionMatcher = createConditionMatcher();
@@ -256,8 +258,10 @@ public class Bootstrap implements AgentLifecycle {
             supplyEnv(); //depend on classLoaderManager
             application = createApplication(); //depend on env option
             setupLogger(); //depend on extensionManager
+            timeline.mark("environment");
             option = loadConfig(); // load config.yaml and merge bootstrap.properties.
             agentConfig = createAgentConfig(); //depend on option & injector
+            timeline.mark("config");
             timer = createTimer();
             timer.start();
             eventBus = createEventBus(); //depend on extensionManager & option
@@ -277,17 +281,21 @@ public class Bootstrap implements AgentLifecycle {
             subscriptions = createSubscriptions();
             subscribe();
             printExtensions();
+            timeline.mark("component");
             // TODO In AgentMain mode, it is necessary to enhance the registry first to obtain the service strategy, and then enhance the routing plugin
             if (pluginManager.install(dynamic)) {
                 publisher.offer(AgentEvent.onAgentEnhanceReady("Success installing all plugins."));
             } else {
                 publisher.offer(AgentEvent.onAgentEnhanceFailure("Failed to install plugin.", null));
             }
+            timeline.mark("plugin");
             serviceManager.start().join();
+            timeline.mark("service");
             shutdown = new Shutdown();
             shutdown.addHook(new ShutdownHookAdapter(() -> application.setStatus(AppStatus.DESTROYING), 0));
             shutdown.addHook(() -> serviceManager.stop());
             shutdown.register();
+            logger.info(timeline.toString());
             publisher.offer(AgentEvent.onAgentReady("Success starting LiveAgent."));
         } catch (Throwable e) {
             // TODO Close resource
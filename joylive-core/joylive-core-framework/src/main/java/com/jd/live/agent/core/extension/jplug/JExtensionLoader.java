@@ -23,6 +23,7 @@ import com.jd.live.agent.core.extension.Name;
 import com.jd.live.agent.core.extension.annotation.Extensible;
 import com.jd.live.agent.core.extension.annotation.Extension;
 import com.jd.live.agent.core.extension.condition.ConditionMatcher;
+import com.jd.live.agent.core.extension.index.ExtensionIndex;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -31,9 +32,14 @@ import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Loads SPI (Service Provider Interface) extensions.
+ * <p>
+ * The extensions recorded in the build time {@link ExtensionIndex} without conditions are described from the index,
+ * their classes are loaded when they are instantiated. The others are loaded and reflected over.
+ * </p>
  */
 public class JExtensionLoader implements ExtensionLoader {
 
@@ -100,13 +106,20 @@ public class JExtensionLoader implements ExtensionLoader {
                     // Load plugin names
                     Collection<String> classNames = loadPluginName(extensible, loader, resource);
                     if (!classNames.isEmpty()) {
+                        Map<String, ExtensionIndex> indexes = loadIndex(loader, extensible);
+                        ExtensionIndex index;
                         Class<T> clazz;
                         // Iterate through plugins
                         for (String className : classNames) {
-                            // Load class, filtering out those that don't meet the conditions
-                            clazz = loadPluginClass(extensible, loader, className);
-                            if (clazz != null) {
-                                result.addAll(createExtension(extensible, clazz, loader));
+                            index = indexes.get(className);
+                            if (index != null && !index.isConditional()) {
+                                result.addAll(createExtension(extensible, index, loader));
+                            } else {
+                                // Load class, filtering out those that don't meet the conditions
+                                clazz = loadPluginClass(extensible, loader, className);
+                                if (clazz != null) {
+                                    result.addAll(createExtension(extensible, clazz, loader));
+                                }
                             }
                         }
                         break;
@@ -133,15 +146,57 @@ public class JExtensionLoader implements ExtensionLoader {
      * @return An {@link ExtensionDesc} object representing the created extension.
      */
     private <T> List<ExtensionDesc<T>> createExtension(final Class<T> extensible, final Class<T> type, final ClassLoader loader) {
-        // Retrieve annotations from extensible type and extension implementation
-        Extensible extensibleAnno = extensible.getAnnotation(Extensible.class);
+        // Retrieve annotations from extension implementation
         Extension extensionAnno = type.getAnnotation(Extension.class);
+        return createExtension(extensible,
+                extensionAnno == null ? null : extensionAnno.value(),
+                extensionAnno == null ? null : extensionAnno.provider(),
+                extensionAnno != null ? extensionAnno.order() : Short.MAX_VALUE,
+                extensionAnno == null || extensionAnno.singleton(),
+                loader,
+                name -> new Name<>(type, name));
+    }
+
+    /**
+     * Creates an extension descriptor for the given extension index, the extension class is not loaded.
+     *
+     * @param <T>        The type of the extension.
+     * @param extensible The class object representing the extensible type.
+     * @param index      The index of the extension implementation.
+     * @param loader     The class loader to use for loading the extension.
+     * @return An {@link ExtensionDesc} object representing the created extension.
+     */
+    private <T> List<ExtensionDesc<T>> createExtension(final Class<T> extensible, final ExtensionIndex index, final ClassLoader loader) {
+        return createExtension(extensible, index.getNames(), index.getProvider(), index.getOrder(), index.isSingleton(),
+                loader, name -> new LazyName<>(extensible, index.getClassName(), name, loader));
+    }
 
+    /**
+     * Creates the extension descriptors with the given attributes.
+     *
+     * @param <T>        The type of the extension.
+     * @param extensible The class object representing the extensible type.
+     * @param values     The names of the extension.
+     * @param provider   The provider of the extension.
+     * @param order      The order of the extension.
+     * @param singleton  Whether the extension is a singleton.
+     * @param loader     The class loader to use for loading the extension.
+     * @param nameFunc   The function to create the name of the extension implementation.
+     * @return The created extension descriptors.
+     */
+    private <T> List<ExtensionDesc<T>> createExtension(final Class<T> extensible,
+                                                       final String[] values,
+                                                       final String provider,
+                                                       final int order,
+                                                       final boolean singleton,
+                                                       final ClassLoader loader,
+                                                       final Function<String, Name<T>> nameFunc) {
+        // Retrieve annotations from extensible type
+        Extensible extensibleAnno = extensible.getAnnotation(Extensible.class);
         String extensibleName = extensibleAnno == null || isEmpty(extensibleAnno.value()) ? extensible.getSimpleName() : extensibleAnno.value();
-        String[] values = extensionAnno == null ? null : extensionAnno.value();
-        values = values == null || values.length == 0 ? new String[]{extensible.getSimpleName()} : values;
+        String[] aliases = values == null || values.length == 0 ? new String[]{extensible.getSimpleName()} : values;
         Set<String> names = new HashSet<>();
-        for (String value : values) {
+        for (String value : aliases) {
             names.add(isEmpty(value) ? extensible.getSimpleName() : value);
         }
 
@@ -150,10 +205,10 @@ public class JExtensionLoader implements ExtensionLoader {
             // Create a new JExtension instance with the gathered information
             JExtension<T> ext = new JExtension<>(
                     new Name<>(extensible, extensibleName),
-                    new Name<>(type, name),
-                    extensionAnno == null || isEmpty(extensionAnno.provider()) ? extensible.getName() : extensionAnno.provider(),
-                    extensionAnno != null ? extensionAnno.order() : Short.MAX_VALUE,
-                    extensionAnno == null || extensionAnno.singleton(),
+                    nameFunc.apply(name),
+                    isEmpty(provider) ? extensible.getName() : provider,
+                    order,
+                    singleton,
                     loader,
                     instantiation,
                     listener);
@@ -187,6 +242,37 @@ public class JExtensionLoader implements ExtensionLoader {
         return PREFIX + service.getName();
     }
 
+    /**
+     * Loads the build time index of the extensions, the jars without index are absent in the result.
+     *
+     * @param loader     The class loader to use for loading the resource.
+     * @param extensible The extensible interface class.
+     * @return A map of extension index keyed by the class name.
+     */
+    protected Map<String, ExtensionIndex> loadIndex(final ClassLoader loader, final Class<?> extensible) {
+        Map<String, ExtensionIndex> result = new HashMap<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(ExtensionIndex.getResource(extensible.getName()));
+            while (resources.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String ln;
+                    ExtensionIndex index;
+                    while ((ln = reader.readLine()) != null) {
+                        index = ExtensionIndex.parse(ln);
+                        if (index != null) {
+                            // the first one wins as the class loader does
+                            result.putIfAbsent(index.getClassName(), index);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // fall back to reflection
+            result.clear();
+        }
+        return result;
+    }
+
     /**
      * Loads plugin names from the specified resource.
      *
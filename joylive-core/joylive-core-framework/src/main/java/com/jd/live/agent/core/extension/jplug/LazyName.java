@@ -0,0 +1,73 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.extension.jplug;
+
+import com.jd.live.agent.core.exception.PluginException;
+import com.jd.live.agent.core.extension.Name;
+
+/**
+ * A name of the indexed extension, whose class is loaded on first access.
+ *
+ * @param <T> the extensible type
+ * @since 1.7.0
+ */
+public class LazyName<T> extends Name<T> {
+
+    private final Class<T> extensible;
+
+    private final String className;
+
+    private final ClassLoader classLoader;
+
+    private volatile Class<T> type;
+
+    public LazyName(Class<T> extensible, String className, String name, ClassLoader classLoader) {
+        super(null, name);
+        this.extensible = extensible;
+        this.className = className;
+        this.classLoader = classLoader;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class<T> getClazz() {
+        if (type == null) {
+            synchronized (this) {
+                if (type == null) {
+                    Class<?> result;
+                    try {
+                        result = classLoader == null ? Class.forName(className) : classLoader.loadClass(className);
+                    } catch (ClassNotFoundException | NoClassDefFoundError e) {
+                        throw new PluginException("Extension " + className + " is not found.");
+                    }
+                    if (!extensible.isAssignableFrom(result)) {
+                        throw new PluginException("Extension " + className + " is not a subtype of " + extensible.getName());
+                    }
+                    type = (Class<T>) result;
+                }
+            }
+        }
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "Name{" +
+                "clazz=" + className +
+                ", name='" + getName() + '\'' +
+                '}';
+    }
+}
@@ -66,7 +66,7 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
     protected final Map<String, Boolean> enabled = new ConcurrentHashMap<>();
 
     @Getter
-    protected PluginStatus status = PluginStatus.CREATED;
+    protected volatile PluginStatus status = PluginStatus.CREATED;
 
     @Getter
     protected List<PluginDefinition> definitions = new ArrayList<>(0);
@@ -105,11 +105,12 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 
     /**
      * Loads the plugin by performing the actual loading logic defined in {@link #doLoad()}.
+     * The plugin is loaded only once, a concurrent caller waits until the loading is finished.
      *
      * @param errorHandler a consumer that can be used to handle exceptions during the loading process (can be null)
      * @return {@code true} if the plugin is successfully loaded, otherwise {@code false}
      */
-    protected boolean load(Consumer<Throwable> errorHandler) {
+    protected synchronized boolean load(Consumer<Throwable> errorHandler) {
         if (status == PluginStatus.CREATED) {
             try {
                 status = doLoad() ? PluginStatus.LOADED : PluginStatus.FAILED;
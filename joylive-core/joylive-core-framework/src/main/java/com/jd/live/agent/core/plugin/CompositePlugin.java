@@ -16,21 +16,15 @@
 package com.jd.live.agent.core.plugin;
 
 import com.jd.live.agent.bootstrap.plugin.PluginListener;
-import com.jd.live.agent.core.bytekit.matcher.ElementMatcher;
-import com.jd.live.agent.core.bytekit.matcher.NameMatcher;
-import com.jd.live.agent.core.bytekit.matcher.StringMatcher;
 import com.jd.live.agent.core.bytekit.type.TypeDesc;
 import com.jd.live.agent.core.extension.condition.ConditionMatcher;
 import com.jd.live.agent.core.plugin.definition.PluginDefinition;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
-import static com.jd.live.agent.core.util.CollectionUtils.add;
-
 /**
  * Represents a composite plugin that contains multiple plugins and manages their lifecycle and matching.
  */
@@ -38,9 +32,13 @@ public class CompositePlugin extends AbstractPluginDescriptor {
 
     private final List<Plugin> plugins;
 
-    private final Map<String, List<PluginDefinition>> namedDefinitions = new ConcurrentHashMap<>();
+    private final Executor executor;
 
-    private final List<PluginDefinition> otherDefinitions = new ArrayList<>();
+    /**
+     * The index of the loaded definitions, it is replaced when the plugins are loaded and read by the
+     * transforming threads.
+     */
+    private volatile PluginIndex index = new PluginIndex(null);
 
     /**
      * Constructs a new instance of {@link CompositePlugin} with the specified parameters.
@@ -56,17 +54,34 @@ public class CompositePlugin extends AbstractPluginDescriptor {
                            List<Plugin> plugins,
                            ConditionMatcher conditionMatcher,
                            PluginListener pluginListener) {
+        this(name, type, plugins, conditionMatcher, pluginListener, null);
+    }
+
+    /**
+     * Constructs a new instance of {@link CompositePlugin} whose plugins are loaded concurrently.
+     *
+     * @param name             the name of the plugin composite
+     * @param type             the type of the plugin composite
+     * @param plugins          the list of plugins to be included in the composite
+     * @param conditionMatcher the condition matcher used to evaluate plugin conditions
+     * @param pluginListener   the plugin listener to be added (optional, can be null)
+     * @param executor         the executor used to load the plugins (optional, null loads them sequentially)
+     */
+    public CompositePlugin(String name,
+                           PluginType type,
+                           List<Plugin> plugins,
+                           ConditionMatcher conditionMatcher,
+                           PluginListener pluginListener,
+                           Executor executor) {
         super(name, type, conditionMatcher, pluginListener);
         this.plugins = plugins;
+        this.executor = executor;
     }
 
     @Override
     public List<PluginDefinition> match(TypeDesc typeDesc, ClassLoader classLoader) {
         List<PluginDefinition> result = new ArrayList<>(4);
-        if (typeDesc != null) {
-            add(namedDefinitions.get(typeDesc.getActualName()), result, p -> isEnabled(p, classLoader));
-            add(otherDefinitions, result, p -> match(typeDesc, p, classLoader));
-        }
+        index.match(typeDesc, result, p -> isEnabled(p, classLoader), p -> match(typeDesc, p, classLoader));
         return result;
     }
 
@@ -77,9 +92,17 @@ public class CompositePlugin extends AbstractPluginDescriptor {
 
     @Override
     protected boolean doLoad() {
+        if (executor != null && plugins.size() > 1) {
+            // the plugins have their own class loaders and do not depend on each other.
+            for (Plugin plugin : plugins) {
+                executor.execute(() -> load(plugin));
+            }
+        }
+        // the plugins which are not started by the executor are loaded by this thread, so it never waits for
+        // a task queued behind itself, and the definitions are collected in the declared order of the plugins.
         List<PluginDefinition> definitions = new ArrayList<>();
         for (Plugin plugin : plugins) {
-            if (plugin.load(e -> fail("failed to load plugin " + plugin.getName(), e))) {
+            if (load(plugin)) {
                 if (!plugin.isEmpty()) {
                     definitions.addAll(plugin.getDefinitions());
                 }
@@ -88,31 +111,18 @@ public class CompositePlugin extends AbstractPluginDescriptor {
             }
         }
         this.definitions = definitions;
-        sort();
+        this.index = new PluginIndex(definitions);
         return true;
     }
 
-
     /**
-     * Sorts the plugin definitions into named and other definitions based on the type of matcher.
-     * Named definitions that use a fully equal string matcher are stored in a map, while other definitions
-     * are stored in a separate list.
+     * Loads the given plugin, the failure is reported only once.
+     *
+     * @param plugin the plugin to load
+     * @return {@code true} if the plugin is loaded
      */
-    private void sort() {
-        for (PluginDefinition definition : definitions) {
-            ElementMatcher<?> matcher = definition.getMatcher();
-            if (matcher instanceof NameMatcher) {
-                matcher = ((NameMatcher<?>) matcher).getMatcher();
-                if (matcher instanceof StringMatcher) {
-                    StringMatcher stringMatcher = (StringMatcher) matcher;
-                    if (stringMatcher.getMode() == StringMatcher.OperationMode.EQUALS_FULLY) {
-                        namedDefinitions.computeIfAbsent(stringMatcher.getValue(), k -> new ArrayList<>()).add(definition);
-                        continue;
-                    }
-                }
-            }
-            otherDefinitions.add(definition);
-        }
+    private boolean load(Plugin plugin) {
+        return plugin.load(e -> fail("failed to load plugin " + plugin.getName(), e));
     }
 
     @Override
@@ -0,0 +1,192 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.plugin;
+
+import com.jd.live.agent.core.bytekit.matcher.Conjunction;
+import com.jd.live.agent.core.bytekit.matcher.ElementMatcher;
+import com.jd.live.agent.core.bytekit.matcher.NameMatcher;
+import com.jd.live.agent.core.bytekit.matcher.StringMatcher;
+import com.jd.live.agent.core.bytekit.matcher.SubTypeMatcher;
+import com.jd.live.agent.core.bytekit.type.TypeDesc;
+import com.jd.live.agent.core.plugin.definition.PluginDefinition;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static com.jd.live.agent.core.util.CollectionUtils.add;
+
+/**
+ * An index of plugin definitions by the types their matchers target.
+ * <p>
+ * Definitions matching a type by its full name are looked up by the name of the type. Definitions matching
+ * the sub types of a type are looked up by the names in the hierarchy of the type, so the hierarchy is
+ * resolved once per type instead of once per definition. The matchers of the indexed definitions are still
+ * evaluated on the candidates, and the remaining definitions are evaluated one by one. The matched definitions
+ * are returned in the order of their declaration, as if they were evaluated one by one.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class PluginIndex {
+
+    private final Map<String, List<PluginDefinition>> namedDefinitions = new HashMap<>();
+
+    private final Map<String, List<PluginDefinition>> typedDefinitions = new HashMap<>();
+
+    private final List<PluginDefinition> superDefinitions = new ArrayList<>();
+
+    private final List<PluginDefinition> otherDefinitions = new ArrayList<>();
+
+    /**
+     * The declaration index of the definitions.
+     */
+    private final Map<PluginDefinition, Integer> orders = new IdentityHashMap<>();
+
+    private final Comparator<PluginDefinition> comparator = Comparator.comparingInt(orders::get);
+
+    public PluginIndex(List<PluginDefinition> definitions) {
+        if (definitions != null) {
+            for (PluginDefinition definition : definitions) {
+                if (orders.putIfAbsent(definition, orders.size()) == null) {
+                    index(definition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the definitions which match the given type.
+     *
+     * @param typeDesc the type description to match against
+     * @param result   the list to collect the matched definitions
+     * @param enabled  the predicate to check whether a definition matched by name is enabled
+     * @param matcher  the predicate to check whether a definition is enabled and matches the type
+     */
+    public void match(TypeDesc typeDesc, List<PluginDefinition> result,
+                      Predicate<PluginDefinition> enabled, Predicate<PluginDefinition> matcher) {
+        if (typeDesc == null) {
+            return;
+        }
+        int start = result.size();
+        add(namedDefinitions.get(typeDesc.getActualName()), result, enabled);
+        if (!typedDefinitions.isEmpty()) {
+            int size = result.size();
+            try {
+                matchSuper(typeDesc, result, matcher);
+            } catch (Throwable e) {
+                // fall back to evaluating the definitions one by one if the hierarchy is not resolvable.
+                result.subList(size, result.size()).clear();
+                add(superDefinitions, result, matcher);
+            }
+        }
+        add(otherDefinitions, result, matcher);
+        if (result.size() - start > 1) {
+            result.subList(start, result.size()).sort(comparator);
+        }
+    }
+
+    /**
+     * Walks the hierarchy of the given type and collects the definitions targeting the visited types.
+     *
+     * @param typeDesc the type description
+     * @param result   the list to collect the matched definitions
+     * @param matcher  the predicate to check whether a definition is enabled and matches the type
+     */
+    private void matchSuper(TypeDesc typeDesc, List<PluginDefinition> result, Predicate<PluginDefinition> matcher) {
+        Set<String> visited = new HashSet<>();
+        Deque<TypeDesc> queue = new ArrayDeque<>();
+        queue.add(typeDesc);
+        TypeDesc type;
+        while ((type = queue.poll()) != null) {
+            String name = type.getActualName();
+            if (visited.add(name)) {
+                add(typedDefinitions.get(name), result, matcher);
+                TypeDesc.Generic superClass = type.getSuperClass();
+                if (superClass != null) {
+                    queue.add(superClass.asErasure());
+                }
+                for (TypeDesc.Generic intf : type.getInterfaces()) {
+                    queue.add(intf.asErasure());
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes the definition according to its matcher.
+     *
+     * @param definition the plugin definition
+     */
+    private void index(PluginDefinition definition) {
+        ElementMatcher<?> matcher = definition.getMatcher();
+        String name = getName(matcher);
+        if (name != null) {
+            namedDefinitions.computeIfAbsent(name, k -> new ArrayList<>()).add(definition);
+            return;
+        }
+        name = getSuperName(matcher);
+        if (name != null) {
+            typedDefinitions.computeIfAbsent(name, k -> new ArrayList<>()).add(definition);
+            superDefinitions.add(definition);
+            return;
+        }
+        otherDefinitions.add(definition);
+    }
+
+    /**
+     * Returns the type name if the matcher only matches the type with the fully equal name.
+     *
+     * @param matcher the matcher
+     * @return the type name, or null if the matcher is not a name matcher
+     */
+    private static String getName(ElementMatcher<?> matcher) {
+        if (matcher instanceof NameMatcher) {
+            matcher = ((NameMatcher<?>) matcher).getMatcher();
+            if (matcher instanceof StringMatcher) {
+                StringMatcher stringMatcher = (StringMatcher) matcher;
+                if (stringMatcher.getMode() == StringMatcher.OperationMode.EQUALS_FULLY) {
+                    return stringMatcher.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the name of the super type which must be in the hierarchy of the matched types.
+     *
+     * @param matcher the matcher
+     * @return the name of the super type, or null if the matcher does not require one
+     */
+    private static String getSuperName(ElementMatcher<?> matcher) {
+        if (matcher instanceof SubTypeMatcher) {
+            Class<?> type = ((SubTypeMatcher<?>) matcher).getType();
+            return type == null ? null : type.getName();
+        } else if (matcher instanceof SubTypeMatcher.SubNameMatcher) {
+            String type = ((SubTypeMatcher.SubNameMatcher<?>) matcher).getType();
+            return type == null || type.isEmpty() ? null : type;
+        } else if (matcher instanceof Conjunction) {
+            // all the matchers of a conjunction have to match
+            for (ElementMatcher<?> m : ((Conjunction<?>) matcher).getMatchers()) {
+                String name = getSuperName(m);
+                if (name != null) {
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+}
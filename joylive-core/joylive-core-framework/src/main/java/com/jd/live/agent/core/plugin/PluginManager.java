@@ -31,13 +31,14 @@ import com.jd.live.agent.core.extension.ExtensibleLoader;
 import com.jd.live.agent.core.extension.ExtensionManager;
 import com.jd.live.agent.core.extension.condition.ConditionMatcher;
 import com.jd.live.agent.core.plugin.definition.PluginDefinition;
+import com.jd.live.agent.core.thread.NamedThreadFactory;
 import com.jd.live.agent.core.util.Close;
 
 import java.io.File;
 import java.lang.instrument.Instrumentation;
 import java.net.URL;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -75,6 +76,11 @@ public class PluginManager implements PluginSupervisor {
 
     private final ConditionMatcher conditionMatcher;
 
+    /**
+     * The executor used to load plugins concurrently, null if plugins are loaded sequentially.
+     */
+    private final ExecutorService loadExecutor;
+
     /**
      * A map storing installed plugins.
      */
@@ -111,6 +117,7 @@ public class PluginManager implements PluginSupervisor {
         this.supervisor = supervisor;
         this.byteSupplier = byteSupplier;
         this.conditionMatcher = conditionMatcher;
+        this.loadExecutor = createLoadExecutor(this.pluginConfig.getLoadThreads());
     }
 
     @Override
@@ -166,11 +173,11 @@ public class PluginManager implements PluginSupervisor {
         List<File> actives = getActives(names, type);
         if (type == PluginType.SYSTEM) {
             plugin = installed.computeIfAbsent(SYSTEM_PLUGIN, n ->
-                    new CompositePlugin(SYSTEM_PLUGIN, type, createPlugins(actives, type), conditionMatcher, pluginListener));
+                    new CompositePlugin(SYSTEM_PLUGIN, type, createPlugins(actives, type), conditionMatcher, pluginListener, loadExecutor));
             addPlugin(plugin, result);
         } else if (type == PluginType.STATIC) {
             plugin = installed.computeIfAbsent(STATIC_PLUGIN, n ->
-                    new CompositePlugin(STATIC_PLUGIN, type, createPlugins(actives, type), conditionMatcher, pluginListener));
+                    new CompositePlugin(STATIC_PLUGIN, type, createPlugins(actives, type), conditionMatcher, pluginListener, loadExecutor));
             addPlugin(plugin, result);
         } else if (type == PluginType.DYNAMIC) {
             for (File file : actives) {
@@ -365,15 +372,42 @@ public class PluginManager implements PluginSupervisor {
      * @return true if all plugins are loaded successfully, false if any plugin fails to load.
      */
     private boolean loadPlugins(List<PluginDescriptor> plugins) {
+        long startTime = System.currentTimeMillis();
+        if (loadExecutor != null && plugins.size() > 1) {
+            for (PluginDescriptor plugin : plugins) {
+                loadExecutor.execute(plugin::load);
+            }
+        }
         for (PluginDescriptor plugin : plugins) {
+            // the loaded plugins are skipped, and the plugins which are not started by the executor are loaded
+            // by this thread, so a composite never waits for the tasks queued behind itself.
             plugin.load();
             if (plugin.getStatus() == PluginStatus.FAILED) {
                 return false;
             }
         }
+        logger.info("Success loading plugins " + plugins.stream().map(PluginDescriptor::getName).collect(Collectors.joining(","))
+                + ", elapsed " + (System.currentTimeMillis() - startTime) + "ms.");
         return true;
     }
 
+    /**
+     * Creates a bounded executor to load plugins concurrently.
+     *
+     * @param threads the maximum number of threads
+     * @return the executor, or null if the plugins are loaded sequentially
+     */
+    private static ExecutorService createLoadExecutor(int threads) {
+        if (threads <= 1) {
+            return null;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("LiveAgent-plugin-loader", true));
+        // the threads are released once the plugins are loaded.
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Handles the uninstallation of a plugin from the system. This process includes:
      * - Removing the plugin from the class loader supervisor.
@@ -0,0 +1,73 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.extension.jplug;
+
+import com.jd.live.agent.core.bootstrap.resource.BootResourceLoader;
+import com.jd.live.agent.core.extension.ExtensionDesc;
+import com.jd.live.agent.core.extension.index.ExtensionIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the extensions described from the build time index against the reflected ones.
+ */
+public class JExtensionLoaderTest {
+
+    @Test
+    void testIndex() {
+        ClassLoader classLoader = BootResourceLoader.class.getClassLoader();
+        List<ExtensionDesc<BootResourceLoader>> indexed = new JExtensionLoader(classLoader, null, null).load(BootResourceLoader.class);
+        List<ExtensionDesc<BootResourceLoader>> reflected = new JExtensionLoader(classLoader, null, null) {
+            @Override
+            protected Map<String, ExtensionIndex> loadIndex(ClassLoader loader, Class<?> extensible) {
+                return Collections.emptyMap();
+            }
+        }.load(BootResourceLoader.class);
+        Assertions.assertEquals(3, indexed.size());
+        Assertions.assertEquals(reflected.size(), indexed.size());
+        for (int i = 0; i < indexed.size(); i++) {
+            ExtensionDesc<BootResourceLoader> left = indexed.get(i);
+            ExtensionDesc<BootResourceLoader> right = reflected.get(i);
+            Assertions.assertInstanceOf(LazyName.class, left.getName());
+            Assertions.assertEquals(right.getName().getName(), left.getName().getName());
+            Assertions.assertEquals(right.getExtensible().getName(), left.getExtensible().getName());
+            Assertions.assertEquals(right.getProvider(), left.getProvider());
+            Assertions.assertEquals(right.getOrder(), left.getOrder());
+            Assertions.assertEquals(right.isSingleton(), left.isSingleton());
+            Assertions.assertSame(right.getName().getClazz(), left.getName().getClazz());
+            Assertions.assertSame(right.getName().getClazz(), left.getTarget().getClass());
+        }
+    }
+
+    @Test
+    void testParse() {
+        ExtensionIndex index = new ExtensionIndex("a.b.C$D", new String[]{"x", "y"}, "", 10, false, true);
+        ExtensionIndex parsed = ExtensionIndex.parse(index.toString());
+        Assertions.assertNotNull(parsed);
+        Assertions.assertEquals("a.b.C$D", parsed.getClassName());
+        Assertions.assertArrayEquals(new String[]{"x", "y"}, parsed.getNames());
+        Assertions.assertEquals("", parsed.getProvider());
+        Assertions.assertEquals(10, parsed.getOrder());
+        Assertions.assertFalse(parsed.isSingleton());
+        Assertions.assertTrue(parsed.isConditional());
+        Assertions.assertNull(ExtensionIndex.parse("# comment"));
+        Assertions.assertNull(ExtensionIndex.parse("a.b.C\t1"));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.plugin;
+
+import com.jd.live.agent.bootstrap.plugin.PluginEvent;
+import com.jd.live.agent.bootstrap.plugin.PluginEvent.EventType;
+import com.jd.live.agent.bootstrap.plugin.PluginListener;
+import com.jd.live.agent.core.plugin.definition.PluginDefinition;
+import com.jd.live.agent.core.plugin.definition.PluginDefinitionAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests loading the plugins of a composite concurrently.
+ */
+public class CompositePluginTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testDeclaredOrder() {
+        List<TestPlugin> plugins = new ArrayList<>();
+        List<PluginDefinition> expected = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            // the first plugins are the slowest ones
+            TestPlugin plugin = new TestPlugin("plugin" + i, (6 - i) * 20L, false);
+            plugins.add(plugin);
+            expected.add(plugin.definition);
+        }
+        CompositePlugin composite = create("composite", plugins, null);
+        Assertions.assertTrue(composite.load());
+        Assertions.assertEquals(PluginStatus.LOADED, composite.getStatus());
+        Assertions.assertEquals(expected, composite.getDefinitions());
+        for (TestPlugin plugin : plugins) {
+            Assertions.assertEquals(1, plugin.loads.get());
+        }
+    }
+
+    @Test
+    void testFailure() {
+        List<PluginEvent> events = new CopyOnWriteArrayList<>();
+        List<TestPlugin> plugins = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            plugins.add(new TestPlugin("plugin" + i, 10L, i == 2));
+        }
+        CompositePlugin composite = create("composite", plugins, events::add);
+        Assertions.assertFalse(composite.load());
+        Assertions.assertEquals(PluginStatus.FAILED, composite.getStatus());
+        Assertions.assertEquals(PluginStatus.FAILED, plugins.get(2).getStatus());
+        Assertions.assertEquals(1, events.size());
+        PluginEvent event = events.get(0);
+        Assertions.assertEquals(EventType.FAIL, event.getType());
+        Assertions.assertEquals("failed to load plugin plugin2", event.getMessage());
+        Assertions.assertInstanceOf(IllegalStateException.class, event.getThrowable());
+        // the failure is not reported again
+        Assertions.assertFalse(composite.load());
+        Assertions.assertEquals(1, plugins.get(2).loads.get());
+        Assertions.assertEquals(1, events.size());
+    }
+
+    @Test
+    void testNestedComposites() {
+        // more composites than threads, each composite loads its plugins on the same executor.
+        List<CompositePlugin> composites = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            List<TestPlugin> plugins = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                plugins.add(new TestPlugin("plugin" + i + j, 10L, false));
+            }
+            composites.add(create("composite" + i, plugins, null));
+        }
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (CompositePlugin composite : composites) {
+                executor.execute(composite::load);
+            }
+            for (CompositePlugin composite : composites) {
+                Assertions.assertTrue(composite.load());
+                Assertions.assertEquals(4, composite.getDefinitions().size());
+            }
+        });
+    }
+
+    private CompositePlugin create(String name, List<TestPlugin> plugins, PluginListener listener) {
+        return new CompositePlugin(name, PluginType.STATIC, new ArrayList<>(plugins), null, listener, executor);
+    }
+
+    private static class TestPlugin extends Plugin {
+
+        private final PluginDefinition definition = new PluginDefinitionAdapter("app.Foo");
+
+        private final long delay;
+
+        private final boolean failed;
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        TestPlugin(String name, long delay, boolean failed) {
+            super(null, name, PluginType.STATIC, null, null, null);
+            this.delay = delay;
+            this.failed = failed;
+        }
+
+        @Override
+        protected boolean doLoad() throws Exception {
+            loads.incrementAndGet();
+            Thread.sleep(delay);
+            if (failed) {
+                throw new IllegalStateException("failed to load " + getName());
+            }
+            definitions = Collections.singletonList(definition);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.core.plugin;
+
+import com.jd.live.agent.core.bytekit.matcher.MatcherBuilder;
+import com.jd.live.agent.core.bytekit.type.AnnotationDesc;
+import com.jd.live.agent.core.bytekit.type.MethodDesc;
+import com.jd.live.agent.core.bytekit.type.TypeDesc;
+import com.jd.live.agent.core.plugin.definition.PluginDefinition;
+import com.jd.live.agent.core.plugin.definition.PluginDefinitionAdapter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Tests the plugin index against evaluating the definitions one by one.
+ * <p>
+ * Run the benchmark with {@code mvn test -Dtest=PluginIndexTest -Dbenchmark=true}.
+ * </p>
+ */
+public class PluginIndexTest {
+
+    private static final Class<?>[] TARGETS = new Class<?>[]{
+            Collection.class, List.class, Set.class, Map.class, Queue.class, Deque.class, Iterator.class,
+            Iterable.class, Comparator.class, Comparable.class, Runnable.class, Callable.class, Executor.class,
+            AutoCloseable.class, Closeable.class, Flushable.class, Serializable.class, CharSequence.class,
+            Appendable.class, Readable.class, Cloneable.class, Consumer.class, Function.class, Predicate.class,
+            Supplier.class, EventListener.class, RandomAccess.class, SortedMap.class, SortedSet.class,
+            NavigableMap.class, NavigableSet.class, ListIterator.class, Enumeration.class, Formattable.class,
+            Observer.class, AbstractList.class, AbstractMap.class, AbstractSet.class, AbstractQueue.class,
+            AbstractCollection.class
+    };
+
+    @Test
+    void testMatch() {
+        List<PluginDefinition> definitions = createDefinitions();
+        PluginIndex index = new PluginIndex(definitions);
+        for (SyntheticType type : createTypes(2000)) {
+            Assertions.assertEquals(matchLinear(definitions, type), matchIndex(index, type), type.getActualName());
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() {
+        List<PluginDefinition> definitions = createDefinitions();
+        PluginIndex index = new PluginIndex(definitions);
+        List<SyntheticType> types = createTypes(20000);
+        for (int i = 0; i < 5; i++) {
+            long time = System.nanoTime();
+            int linear = 0;
+            for (SyntheticType type : types) {
+                linear += matchLinear(definitions, type).size();
+            }
+            long linearTime = System.nanoTime() - time;
+            time = System.nanoTime();
+            int indexed = 0;
+            for (SyntheticType type : types) {
+                indexed += matchIndex(index, type).size();
+            }
+            long indexTime = System.nanoTime() - time;
+            System.out.printf("types=%d, definitions=%d, matched=%d/%d, linear=%dms, index=%dms%n",
+                    types.size(), definitions.size(), linear, indexed, linearTime / 1000000, indexTime / 1000000);
+        }
+    }
+
+    private static List<PluginDefinition> matchLinear(List<PluginDefinition> definitions, TypeDesc type) {
+        List<PluginDefinition> result = new ArrayList<>();
+        for (PluginDefinition definition : definitions) {
+            if (definition.getMatcher().match(type)) {
+                result.add(definition);
+            }
+        }
+        return result;
+    }
+
+    private static List<PluginDefinition> matchIndex(PluginIndex index, TypeDesc type) {
+        List<PluginDefinition> result = new ArrayList<>();
+        index.match(type, result, p -> true, p -> p.getMatcher().match(type));
+        return result;
+    }
+
+    /**
+     * Creates the definitions like the plugins, which are mostly matched by super types.
+     */
+    private static List<PluginDefinition> createDefinitions() {
+        List<PluginDefinition> result = new ArrayList<>();
+        for (Class<?> target : TARGETS) {
+            result.add(new PluginDefinitionAdapter(() -> MatcherBuilder.isImplement(target), null));
+            result.add(new PluginDefinitionAdapter(() -> MatcherBuilder.isSubTypeOf(target), null));
+            result.add(new PluginDefinitionAdapter(() -> MatcherBuilder.<TypeDesc>isSubTypeOf(target)
+                    .and(MatcherBuilder.not(MatcherBuilder.isAbstract())), null));
+        }
+        result.add(new PluginDefinitionAdapter(() -> MatcherBuilder.named("app.Type1"), null));
+        result.add(new PluginDefinitionAdapter(() -> MatcherBuilder.startWith("app.Type2"), null));
+        return result;
+    }
+
+    /**
+     * Creates the application types, which extend a few levels of abstract classes and implement
+     * a few interfaces. One in fifty of the base classes and interfaces extends a target type.
+     */
+    private static List<SyntheticType> createTypes(int count) {
+        Random random = new Random(count);
+        Map<String, SyntheticType> targets = new HashMap<>();
+        for (Class<?> target : TARGETS) {
+            targets.put(target.getName(), new SyntheticType(target.getName(), target.isInterface(), null));
+        }
+        List<SyntheticType> interfaces = new ArrayList<>();
+        for (int i = 0; i < count / 20; i++) {
+            SyntheticType type = new SyntheticType("app.Api" + i, true, null);
+            if (random.nextInt(50) == 0) {
+                type.interfaces.add(targets.get(TARGETS[random.nextInt(TARGETS.length)].getName()));
+            }
+            interfaces.add(type);
+        }
+        List<SyntheticType> bases = new ArrayList<>();
+        for (int i = 0; i < count / 20; i++) {
+            SyntheticType parent = random.nextInt(50) == 0
+                    ? targets.get(TARGETS[random.nextInt(TARGETS.length)].getName())
+                    : (bases.isEmpty() ? null : bases.get(random.nextInt(bases.size())));
+            SyntheticType type = new SyntheticType("app.Base" + i, false, parent != null && parent.isInterface() ? null : parent);
+            type.modifiers |= Modifier.ABSTRACT;
+            if (parent != null && parent.isInterface()) {
+                type.interfaces.add(parent);
+            }
+            bases.add(type);
+        }
+        List<SyntheticType> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SyntheticType type = new SyntheticType("app.Type" + i, false, bases.get(random.nextInt(bases.size())));
+            type.interfaces.add(interfaces.get(random.nextInt(interfaces.size())));
+            type.interfaces.add(interfaces.get(random.nextInt(interfaces.size())));
+            result.add(type);
+        }
+        return result;
+    }
+
+    /**
+     * A type description without byte code.
+     */
+    private static class SyntheticType implements TypeDesc, TypeDesc.Generic {
+
+        private final String name;
+
+        private final SyntheticType superClass;
+
+        private final List<SyntheticType> interfaces = new ArrayList<>(2);
+
+        private int modifiers;
+
+        SyntheticType(String name, boolean interfaced, SyntheticType superClass) {
+            this.name = name;
+            this.superClass = superClass;
+            this.modifiers = Modifier.PUBLIC | (interfaced ? Modifier.INTERFACE | Modifier.ABSTRACT : 0);
+        }
+
+        @Override
+        public String getActualName() {
+            return name;
+        }
+
+        @Override
+        public String getSimpleName() {
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+
+        @Override
+        public SyntheticType getComponentType() {
+            return null;
+        }
+
+        @Override
+        public boolean isArray() {
+            return false;
+        }
+
+        @Override
+        public boolean isPrimitive() {
+            return false;
+        }
+
+        @Override
+        public boolean isInterface() {
+            return Modifier.isInterface(modifiers);
+        }
+
+        @Override
+        public boolean isEnum() {
+            return false;
+        }
+
+        @Override
+        public boolean isAnnotation() {
+            return false;
+        }
+
+        @Override
+        public TypeDesc asErasure() {
+            return this;
+        }
+
+        @Override
+        public TypeDesc.Generic getSuperClass() {
+            return superClass;
+        }
+
+        @Override
+        public List<TypeDesc.Generic> getInterfaces() {
+            return new ArrayList<>(interfaces);
+        }
+
+        @Override
+        public boolean isAssignableFrom(Class<?> type) {
+            return false;
+        }
+
+        @Override
+        public boolean isAssignableTo(Class<?> type) {
+            // walks the hierarchy like the byte code description does
+            if (name.equals(type.getName())) {
+                return true;
+            }
+            if (superClass != null && superClass.isAssignableTo(type)) {
+                return true;
+            }
+            for (SyntheticType intf : interfaces) {
+                if (intf.isAssignableTo(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public List<MethodDesc> getDeclaredMethods() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int getModifiers() {
+            return modifiers;
+        }
+
+        @Override
+        public boolean isFinal() {
+            return Modifier.isFinal(modifiers);
+        }
+
+        @Override
+        public boolean isStatic() {
+            return Modifier.isStatic(modifiers);
+        }
+
+        @Override
+        public boolean isPublic() {
+            return Modifier.isPublic(modifiers);
+        }
+
+        @Override
+        public boolean isProtected() {
+            return Modifier.isProtected(modifiers);
+        }
+
+        @Override
+        public boolean isPrivate() {
+            return Modifier.isPrivate(modifiers);
+        }
+
+        @Override
+        public List<AnnotationDesc> getDeclaredAnnotations() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
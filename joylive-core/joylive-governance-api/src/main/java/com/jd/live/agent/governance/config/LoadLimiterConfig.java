@@ -29,6 +29,11 @@ public class LoadLimiterConfig {
 
     private Integer loadUsage;
 
+    /**
+     * The interval in milliseconds to sample the cpu usage.
+     */
+    private long sampleInterval = 500;
+
     public boolean isEmpty() {
         return cpuUsage == null && loadUsage == null;
     }
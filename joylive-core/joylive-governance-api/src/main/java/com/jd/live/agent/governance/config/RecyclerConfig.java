@@ -32,4 +32,12 @@ public abstract class RecyclerConfig {
      * Default is 60,000 milliseconds (60 seconds).
      */
     protected long expireTime = 60000;
+
+    /**
+     * The maximum number of entries. When it is exceeded, the least recently accessed entries which are not
+     * in use are evicted in the background even if they are not expired yet. A value less than or equal to 0
+     * means unlimited.
+     * Default is 100,000 entries.
+     */
+    protected int capacity = 100000;
 }
@@ -129,6 +129,14 @@ public class ServiceConfig {
     @Setter
     private boolean responseException = true;
 
+    /**
+     * The default time budget in milliseconds of the inbound requests which carry neither a propagated deadline
+     * nor a timeout of the framework. A value of 0 disables the default deadline.
+     */
+    @Getter
+    @Setter
+    private long inboundTimeout;
+
     private transient final PathMatcherTrie<PrefixPath> systemPathTrie = new PathMatcherTrie<>(() -> {
         List<PrefixPath> result = new ArrayList<>();
         if (systemPaths != null) {
@@ -194,6 +194,16 @@ public class RequestContext {
         return deadline != null && System.currentTimeMillis() > deadline;
     }
 
+    /**
+     * Returns the absolute deadline of the current request.
+     *
+     * @return the deadline in milliseconds, or 0 if the request has no deadline.
+     */
+    public static long getDeadline() {
+        Long deadline = getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        return deadline == null ? 0 : deadline;
+    }
+
     /**
      * Restores cargo from obj.
      *
@@ -4,6 +4,9 @@ import com.jd.live.agent.core.inject.annotation.Inject;
 
 import java.util.List;
 
+import static com.jd.live.agent.governance.context.bag.Carrier.ATTRIBUTE_DEADLINE;
+import static com.jd.live.agent.governance.context.bag.Carrier.HEADER_TIMEOUT;
+
 /**
  * Abstract base class for propagation implementations.
  * <p>
@@ -35,4 +38,57 @@ public abstract class AbstractPropagation implements Propagation {
         }
         return require;
     }
+
+    /**
+     * Returns the remaining time budget of the carrier.
+     *
+     * @param carrier the carrier holding the deadline
+     * @return the remaining time in milliseconds, 0 if it has expired, or null if the carrier has no deadline.
+     */
+    protected static String getTimeout(Carrier carrier) {
+        Long deadline = carrier.getAttribute(ATTRIBUTE_DEADLINE);
+        return deadline == null || deadline <= 0 ? null : String.valueOf(Math.max(deadline - System.currentTimeMillis(), 0));
+    }
+
+    /**
+     * Converts the received time budget into an absolute deadline of the carrier.
+     * <p>
+     * The budget is relative, so the deadline is independent of the clock skew between the caller and this process.
+     * A tighter deadline which is already present in the carrier is kept.
+     * </p>
+     *
+     * @param carrier the carrier to update
+     * @param timeout the remaining time in milliseconds
+     * @return true if the deadline is accepted
+     */
+    protected static boolean setTimeout(Carrier carrier, String timeout) {
+        if (timeout == null || timeout.isEmpty()) {
+            return false;
+        }
+        long budget;
+        try {
+            budget = Long.parseLong(timeout.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (budget < 0) {
+            return false;
+        }
+        long deadline = System.currentTimeMillis() + budget;
+        Long old = carrier.getAttribute(ATTRIBUTE_DEADLINE);
+        if (old == null || old <= 0 || deadline < old) {
+            carrier.setAttribute(ATTRIBUTE_DEADLINE, deadline);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the given header is the time budget header.
+     *
+     * @param name the header name
+     * @return true if it is the time budget header
+     */
+    protected static boolean isTimeout(String name) {
+        return HEADER_TIMEOUT.equalsIgnoreCase(name);
+    }
 }
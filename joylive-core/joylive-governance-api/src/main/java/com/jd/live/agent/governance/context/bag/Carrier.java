@@ -45,6 +45,11 @@ public interface Carrier extends Attributes {
 
     String ATTRIBUTE_DEADLINE = "deadline";
 
+    /**
+     * The header carrying the remaining time budget of the request in milliseconds.
+     */
+    String HEADER_TIMEOUT = Constants.LABEL_LIVE_PREFIX + "timeout";
+
     String ATTRIBUTE_MQ_PRODUCER = "mq-producer";
 
     String ATTRIBUTE_RESTORE_BY = "restored-by";
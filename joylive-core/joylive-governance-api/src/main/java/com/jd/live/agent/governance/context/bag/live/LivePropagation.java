@@ -16,6 +16,7 @@ import java.util.Map;
 import static com.jd.live.agent.core.util.CollectionUtils.iterate;
 import static com.jd.live.agent.core.util.CollectionUtils.toMap;
 import static com.jd.live.agent.core.util.tag.Label.join;
+import static com.jd.live.agent.governance.context.bag.Carrier.HEADER_TIMEOUT;
 
 @Injectable
 @Extension(value = "live", order = Propagation.ORDER_LIVE)
@@ -47,6 +48,10 @@ public class LivePropagation extends AbstractPropagation {
                 }
             }
         }
+        String timeout = getTimeout(carrier);
+        if (timeout != null) {
+            writer.setHeader(HEADER_TIMEOUT, timeout);
+        }
     }
 
     @Override
@@ -75,8 +80,12 @@ public class LivePropagation extends AbstractPropagation {
             return false;
         }
         CargoRequire require = getRequire();
-        return reader.read((name, values) ->
-                        carrier.addCargo(new Cargo(name, Label.parseValue(values), true)),
-                require::match) > 0;
+        return reader.read((name, values) -> {
+            if (isTimeout(name)) {
+                setTimeout(carrier, values == null ? null : join(values));
+            } else {
+                carrier.addCargo(new Cargo(name, Label.parseValue(values), true));
+            }
+        }, name -> isTimeout(name) || require.match(name)) > 0;
     }
 }
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.List;
 
 import static com.jd.live.agent.core.util.StringUtils.*;
+import static com.jd.live.agent.governance.context.bag.Carrier.HEADER_TIMEOUT;
 import static com.jd.live.agent.core.util.tag.Label.join;
 import static com.jd.live.agent.core.util.tag.Label.parseValue;
 
@@ -47,6 +48,11 @@ public class W3cPropagation extends AbstractPropagation {
         if (carrier == null || writer == null) {
             return;
         }
+        // the time budget is not a baggage member, it must not leak to the third-party consumers of the baggage.
+        String timeout = getTimeout(carrier);
+        if (timeout != null) {
+            writer.setHeader(HEADER_TIMEOUT, timeout);
+        }
         Collection<Cargo> cargos = carrier.getCargos();
         if (cargos == null || cargos.isEmpty()) {
             return;
@@ -68,6 +74,10 @@ public class W3cPropagation extends AbstractPropagation {
         if (reader == null || writer == null) {
             return;
         }
+        String timeout = reader.getHeader(HEADER_TIMEOUT);
+        if (timeout != null && !timeout.isEmpty()) {
+            writer.setHeader(HEADER_TIMEOUT, timeout);
+        }
         Iterable<String> headers = reader.getHeaders(KEY_BAGGAGE);
         if (headers == null) {
             return;
@@ -90,15 +100,16 @@ public class W3cPropagation extends AbstractPropagation {
         if (carrier == null || reader == null) {
             return false;
         }
+        boolean result = setTimeout(carrier, reader.getHeader(HEADER_TIMEOUT));
         Iterable<String> headers = reader.getHeaders(KEY_BAGGAGE);
         if (headers == null) {
-            return false;
+            return result;
         }
         CargoRequires require = getRequire();
         int counter;
         for (String header : headers) {
             counter = splitMap(header, COMMA, true, (key, value) -> {
-                if (require.match(key)) {
+                if (!isTimeout(key) && require.match(key)) {
                     carrier.addCargo(new Cargo(key, parseValue(value), true));
                     return true;
                 }
@@ -108,7 +119,7 @@ public class W3cPropagation extends AbstractPropagation {
                 return true;
             }
         }
-        return false;
+        return result;
     }
 
     /**
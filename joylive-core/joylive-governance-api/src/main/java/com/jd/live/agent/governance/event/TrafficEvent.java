@@ -324,7 +324,17 @@ public class TrafficEvent {
         /**
          * The traffic event is rejected because the circuit breaker has been triggered.
          */
-        REJECT_CIRCUIT_BREAK
+        REJECT_CIRCUIT_BREAK,
+
+        /**
+         * The traffic event is rejected because the deadline of the request has been exceeded.
+         */
+        REJECT_DEADLINE,
+
+        /**
+         * The retry is rejected because the retry budget is exhausted.
+         */
+        REJECT_RETRY_BUDGET
     }
 
     public static class TrafficEventBuilder {
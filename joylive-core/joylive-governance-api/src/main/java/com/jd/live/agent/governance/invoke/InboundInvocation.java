@@ -35,6 +35,9 @@ import com.jd.live.agent.governance.invoke.metadata.parser.ServiceMetadataParser
 import com.jd.live.agent.governance.policy.domain.Domain;
 import com.jd.live.agent.governance.policy.domain.DomainPolicy;
 import com.jd.live.agent.governance.policy.live.Place;
+import com.jd.live.agent.governance.policy.service.ServicePolicy;
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
+import com.jd.live.agent.governance.policy.service.limit.CriticalityPolicy;
 import com.jd.live.agent.governance.request.HttpRequest.HttpInboundRequest;
 import com.jd.live.agent.governance.request.RpcRequest.RpcInboundRequest;
 import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
@@ -69,6 +72,8 @@ public abstract class InboundInvocation<T extends InboundRequest> extends Invoca
 
     protected List<InboundListener> listeners;
 
+    protected Criticality criticality;
+
     /**
      * Constructs an InboundInvocation with the specified request and context.
      *
@@ -96,6 +101,30 @@ public abstract class InboundInvocation<T extends InboundRequest> extends Invoca
         return super.configure(builder).componentType(ComponentType.SERVICE).direction(Direction.INBOUND);
     }
 
+    /**
+     * Returns the criticality of the request, which is decided by the first matched criticality policy
+     * of the service. The requests matching no policy are {@link Criticality#CRITICAL}.
+     *
+     * @return the criticality of the request
+     */
+    public Criticality getCriticality() {
+        if (criticality == null) {
+            ServicePolicy servicePolicy = getServiceMetadata().getServicePolicy();
+            List<CriticalityPolicy> policies = servicePolicy == null ? null : servicePolicy.getCriticalityPolicies();
+            Criticality result = null;
+            if (policies != null) {
+                for (CriticalityPolicy policy : policies) {
+                    if (policy.getCriticality() != null && policy.match(this)) {
+                        result = policy.getCriticality();
+                        break;
+                    }
+                }
+            }
+            criticality = result == null ? Criticality.CRITICAL : result;
+        }
+        return criticality;
+    }
+
     /**
      * Adds a {@link InboundListener} to the list of listeners.
      *
@@ -261,6 +261,8 @@ public abstract class Invocation<T extends ServiceRequest> implements Matcher<Ta
             onRejectEvent(RejectType.REJECT_UNAUTHORIZED);
         } else if (exception instanceof RejectCircuitBreakException) {
             onRejectEvent(RejectType.REJECT_CIRCUIT_BREAK);
+        } else if (exception instanceof RejectDeadlineException) {
+            onRejectEvent(RejectType.REJECT_DEADLINE);
         }
     }
 
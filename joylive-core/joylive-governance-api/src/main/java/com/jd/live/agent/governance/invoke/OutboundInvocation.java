@@ -46,7 +46,7 @@ import java.util.List;
  */
 @Setter
 @Getter
-public abstract class OutboundInvocation<T extends OutboundRequest> extends Invocation<T> {
+public abstract class OutboundInvocation<T extends OutboundRequest> extends Invocation<T> implements Cloneable {
 
     /**
      * A list of endpoints that this outbound invocation targets.
@@ -104,6 +104,23 @@ public abstract class OutboundInvocation<T extends OutboundRequest> extends Invo
         routeTarget = null;
     }
 
+    /**
+     * Creates a copy of this invocation for an attempt sent concurrently with this one, e.g. a hedged attempt.
+     * The copy shares the request and the metadata, but has its own listeners and route target.
+     *
+     * @return the copy of this invocation
+     */
+    @SuppressWarnings("unchecked")
+    public OutboundInvocation<T> fork() {
+        try {
+            OutboundInvocation<T> result = (OutboundInvocation<T>) super.clone();
+            result.resetOnRetry();
+            return result;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Adds a {@link OutboundListener} to the list of listeners.
      *
@@ -219,6 +236,13 @@ public abstract class OutboundInvocation<T extends OutboundRequest> extends Invo
         return routeTarget;
     }
 
+    /**
+     * Handles the event that a retry is rejected because the retry budget is exhausted.
+     */
+    public void onRetryBudgetExhausted() {
+        onRejectEvent(TrafficEvent.RejectType.REJECT_RETRY_BUDGET);
+    }
+
     /**
      * Handles a forward event.
      */
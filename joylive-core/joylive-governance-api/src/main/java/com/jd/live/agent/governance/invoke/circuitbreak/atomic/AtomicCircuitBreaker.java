@@ -0,0 +1,322 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.circuitbreak.atomic;
+
+import com.jd.live.agent.bootstrap.logger.Logger;
+import com.jd.live.agent.bootstrap.logger.LoggerFactory;
+import com.jd.live.agent.core.util.URI;
+import com.jd.live.agent.governance.invoke.circuitbreak.AbstractCircuitBreaker;
+import com.jd.live.agent.governance.invoke.circuitbreak.CircuitBreakerState;
+import com.jd.live.agent.governance.invoke.circuitbreak.CircuitBreakerStateEvent;
+import com.jd.live.agent.governance.invoke.circuitbreak.CircuitBreakerStateListener;
+import com.jd.live.agent.governance.invoke.circuitbreak.CircuitBreakerStateWindow;
+import com.jd.live.agent.governance.policy.PolicyId;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakLevel;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakPolicy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import static com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakPolicy.SLIDING_WINDOW_COUNT;
+
+/**
+ * A circuit breaker without locks.
+ * <p>
+ * The calls are recorded in a {@link CountCallWindow} or a {@link TimeCallWindow} according to the sliding window
+ * type of the policy. The state is an immutable snapshot which is replaced by CAS, so only the thread winning
+ * the CAS publishes a transition, and the permits of the half open state are taken from an atomic counter
+ * carried by the snapshot.
+ * </p>
+ * <p>
+ * The semantics of {@link CircuitBreakPolicy} are the same as the Resilience4j implementation: the circuit is
+ * opened when the failure rate or the slow call rate reaches its threshold after the minimum number of calls,
+ * it is half opened after {@code waitDurationInOpenState} seconds, and it is closed or opened again once the
+ * permitted calls in the half open state are completed.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class AtomicCircuitBreaker extends AbstractCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtomicCircuitBreaker.class);
+
+    private final LongSupplier clock;
+
+    private final boolean countWindow;
+
+    private final int windowSize;
+
+    private final int minCalls;
+
+    private final float failureRateThreshold;
+
+    private final float slowCallRateThreshold;
+
+    private final long slowCallDurationThreshold;
+
+    private final long waitDurationInOpenState;
+
+    private final int allowedCallsInHalfOpenState;
+
+    private final long maxWaitDurationInHalfOpenState;
+
+    private final String instanceId;
+
+    private final AtomicReference<State> state = new AtomicReference<>();
+
+    private final List<CircuitBreakerStateListener> listeners = new CopyOnWriteArrayList<>();
+
+    public AtomicCircuitBreaker(CircuitBreakPolicy policy, URI uri) {
+        this(policy, uri, System::currentTimeMillis);
+    }
+
+    public AtomicCircuitBreaker(CircuitBreakPolicy policy, URI uri, LongSupplier clock) {
+        super(policy, uri);
+        this.clock = clock;
+        this.countWindow = SLIDING_WINDOW_COUNT.equals(policy.getSlidingWindowType());
+        this.windowSize = policy.getSlidingWindowSize();
+        this.minCalls = countWindow ? Math.min(policy.getMinCallsThreshold(), windowSize) : policy.getMinCallsThreshold();
+        this.failureRateThreshold = policy.getFailureRateThreshold();
+        this.slowCallRateThreshold = policy.getSlowCallRateThreshold();
+        this.slowCallDurationThreshold = policy.getSlowCallDurationThreshold();
+        this.waitDurationInOpenState = policy.getWaitDurationInOpenState() * 1000L;
+        this.allowedCallsInHalfOpenState = policy.getAllowedCallsInHalfOpenState();
+        this.maxWaitDurationInHalfOpenState = policy.getMaxWaitDurationInHalfOpenState();
+        this.instanceId = policy.getLevel() == CircuitBreakLevel.INSTANCE && uri != null
+                ? uri.getParameter(PolicyId.KEY_SERVICE_ENDPOINT)
+                : null;
+        long now = clock.getAsLong();
+        State closed = closed(now);
+        state.set(closed);
+        if (policy.isForceOpen()) {
+            transition(closed, new State(CircuitBreakerState.OPEN, now, Long.MAX_VALUE, null, 0));
+        }
+    }
+
+    @Override
+    protected boolean doAcquire() {
+        State current;
+        long now;
+        while (true) {
+            current = state.get();
+            switch (current.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    now = clock.getAsLong();
+                    if (now < current.endTime) {
+                        return false;
+                    }
+                    transition(current, halfOpen(now));
+                    break;
+                case HALF_OPEN:
+                    if (maxWaitDurationInHalfOpenState > 0) {
+                        now = clock.getAsLong();
+                        if (now - current.startTime > maxWaitDurationInHalfOpenState) {
+                            transition(current, open(now));
+                            break;
+                        }
+                    }
+                    return current.tryAcquire();
+                default:
+                    return true;
+            }
+        }
+    }
+
+    @Override
+    protected void doRelease() {
+        State current = state.get();
+        if (current.state == CircuitBreakerState.HALF_OPEN) {
+            current.permits.incrementAndGet();
+        }
+    }
+
+    @Override
+    protected void doOnError(long durationInMs, Throwable throwable) {
+        record(durationInMs, true);
+    }
+
+    @Override
+    protected void doOnSuccess(long durationInMs) {
+        record(durationInMs, false);
+    }
+
+    @Override
+    public boolean isExpired(long timeout) {
+        return state.get().state == CircuitBreakerState.CLOSED && super.isExpired(timeout);
+    }
+
+    @Override
+    public void addListener(CircuitBreakerStateListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Returns the current state of the circuit breaker.
+     *
+     * @return the current state
+     */
+    public CircuitBreakerState getState() {
+        return state.get().state;
+    }
+
+    @Override
+    protected void doClose() {
+        long now = clock.getAsLong();
+        windowRef.set(new CircuitBreakerStateWindow(CircuitBreakerState.DISABLED, now, now + policy.getRecoveryDuration()));
+        if (instanceId != null) {
+            policy.removeInspector(instanceId, this);
+        }
+    }
+
+    /**
+     * Records the outcome of a call in the window of the current state, and transitions the state if the
+     * thresholds are reached.
+     *
+     * @param durationInMs the elapsed time of the call in milliseconds
+     * @param failure      whether the call is failed
+     */
+    private void record(long durationInMs, boolean failure) {
+        boolean slow = durationInMs > slowCallDurationThreshold;
+        State current = state.get();
+        long now;
+        switch (current.state) {
+            case CLOSED:
+                now = clock.getAsLong();
+                current.window.record(now, failure, slow);
+                if (current.window.isExceeded(minCalls, failureRateThreshold, slowCallRateThreshold)) {
+                    transition(current, open(now));
+                }
+                break;
+            case HALF_OPEN:
+                now = clock.getAsLong();
+                current.window.record(now, failure, slow);
+                if (current.completed.incrementAndGet() == allowedCallsInHalfOpenState) {
+                    boolean exceeded = current.window.isExceeded(allowedCallsInHalfOpenState, failureRateThreshold, slowCallRateThreshold);
+                    transition(current, exceeded ? open(now) : closed(now));
+                }
+                break;
+            default:
+                // the calls permitted before opening the circuit are ignored.
+        }
+    }
+
+    /**
+     * Replaces the state and publishes the transition if the state has not been changed by another thread.
+     *
+     * @param from the expected state
+     * @param to   the new state
+     * @return true if the state is replaced
+     */
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("[CircuitBreak]State is transitioned from " + from.state + " to " + to.state + ", uri=" + uri);
+        }
+        long now = to.startTime;
+        switch (to.state) {
+            case OPEN:
+                windowRef.set(new CircuitBreakerStateWindow(CircuitBreakerState.OPEN, now,
+                        to.endTime == Long.MAX_VALUE ? Long.MAX_VALUE : now + waitDurationInOpenState));
+                if (instanceId != null) {
+                    policy.addInspector(instanceId, this);
+                }
+                break;
+            case HALF_OPEN:
+                windowRef.set(new CircuitBreakerStateWindow(CircuitBreakerState.HALF_OPEN, now, null));
+                break;
+            case CLOSED:
+                windowRef.set(new CircuitBreakerStateWindow(CircuitBreakerState.CLOSED, now, now + policy.getRecoveryDuration()));
+                if (instanceId != null) {
+                    policy.addInspector(instanceId, this);
+                }
+                break;
+            default:
+        }
+        if (!listeners.isEmpty()) {
+            CircuitBreakerStateEvent event = new CircuitBreakerStateEvent();
+            event.setUri(uri == null ? null : uri.toString());
+            event.setFrom(from.state);
+            event.setTo(to.state);
+            for (CircuitBreakerStateListener listener : listeners) {
+                listener.onStateChange(event);
+            }
+        }
+        return true;
+    }
+
+    private State closed(long now) {
+        CallWindow window = countWindow ? new CountCallWindow(windowSize) : new TimeCallWindow(windowSize, now);
+        return new State(CircuitBreakerState.CLOSED, now, 0, window, 0);
+    }
+
+    private State open(long now) {
+        return new State(CircuitBreakerState.OPEN, now, now + waitDurationInOpenState, null, 0);
+    }
+
+    private State halfOpen(long now) {
+        return new State(CircuitBreakerState.HALF_OPEN, now, 0,
+                new CountCallWindow(allowedCallsInHalfOpenState), allowedCallsInHalfOpenState);
+    }
+
+    /**
+     * An immutable snapshot of the state, except for the counters owned by the snapshot.
+     */
+    private static class State {
+
+        private final CircuitBreakerState state;
+
+        private final long startTime;
+
+        private final long endTime;
+
+        private final CallWindow window;
+
+        private final AtomicInteger permits;
+
+        private final AtomicInteger completed = new AtomicInteger();
+
+        State(CircuitBreakerState state, long startTime, long endTime, CallWindow window, int permits) {
+            this.state = state;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.window = window;
+            this.permits = new AtomicInteger(permits);
+        }
+
+        /**
+         * Takes a permit of the half open state.
+         */
+        boolean tryAcquire() {
+            int current;
+            do {
+                current = permits.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!permits.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
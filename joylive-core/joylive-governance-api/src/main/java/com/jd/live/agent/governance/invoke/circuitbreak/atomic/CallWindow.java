@@ -0,0 +1,103 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.circuitbreak.atomic;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The window of the recent calls of a circuit breaker.
+ * <p>
+ * The totals of the window are kept in {@link LongAdder}s, which are striped across cells under contention,
+ * so recording a call never takes a lock and the failure rate is read without scanning the window.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public abstract class CallWindow {
+
+    protected static final int RECORDED = 1;
+
+    protected static final int FAILURE = 2;
+
+    protected static final int SLOW = 4;
+
+    protected final LongAdder calls = new LongAdder();
+
+    protected final LongAdder failures = new LongAdder();
+
+    protected final LongAdder slowCalls = new LongAdder();
+
+    /**
+     * Records a call.
+     *
+     * @param now     the current time in milliseconds
+     * @param failure whether the call is failed
+     * @param slow    whether the call is slow
+     */
+    public abstract void record(long now, boolean failure, boolean slow);
+
+    /**
+     * Checks if the failure rate or the slow call rate of the window reaches its threshold.
+     *
+     * @param minCalls             the minimum number of calls to evaluate the rates
+     * @param failureRateThreshold the failure rate threshold in percentage
+     * @param slowCallRateThreshold the slow call rate threshold in percentage
+     * @return true if any threshold is reached
+     */
+    public boolean isExceeded(int minCalls, float failureRateThreshold, float slowCallRateThreshold) {
+        long total = calls.sum();
+        if (total <= 0 || total < minCalls) {
+            return false;
+        }
+        return failures.sum() * 100F / total >= failureRateThreshold
+                || slowCalls.sum() * 100F / total >= slowCallRateThreshold;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getSlowCalls() {
+        return slowCalls.sum();
+    }
+
+    /**
+     * Adds the outcome of a call to the totals.
+     *
+     * @param failure whether the call is failed
+     * @param slow    whether the call is slow
+     */
+    protected void increment(boolean failure, boolean slow) {
+        calls.increment();
+        if (failure) {
+            failures.increment();
+        }
+        if (slow) {
+            slowCalls.increment();
+        }
+    }
+
+    /**
+     * Encodes the outcome of a call.
+     */
+    protected static int outcome(boolean failure, boolean slow) {
+        return RECORDED | (failure ? FAILURE : 0) | (slow ? SLOW : 0);
+    }
+}
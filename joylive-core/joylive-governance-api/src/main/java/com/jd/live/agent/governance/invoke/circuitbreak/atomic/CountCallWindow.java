@@ -0,0 +1,63 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.circuitbreak.atomic;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A window of the last N calls.
+ * <p>
+ * Each call claims a slot of the ring by incrementing a sequence, and swaps its outcome into the slot. The totals
+ * are adjusted by the difference between the new outcome and the evicted one.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class CountCallWindow extends CallWindow {
+
+    private final int size;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicIntegerArray ring;
+
+    public CountCallWindow(int size) {
+        this.size = Math.max(size, 1);
+        this.ring = new AtomicIntegerArray(this.size);
+    }
+
+    @Override
+    public void record(long now, boolean failure, boolean slow) {
+        int slot = (int) (sequence.getAndIncrement() % size);
+        int evicted = ring.getAndSet(slot, outcome(failure, slow));
+        if ((evicted & RECORDED) == 0) {
+            calls.increment();
+        }
+        adjust(failures, evicted, FAILURE, failure);
+        adjust(slowCalls, evicted, SLOW, slow);
+    }
+
+    private static void adjust(LongAdder adder, int evicted, int mask, boolean current) {
+        boolean previous = (evicted & mask) != 0;
+        if (current && !previous) {
+            adder.increment();
+        } else if (!current && previous) {
+            adder.decrement();
+        }
+    }
+}
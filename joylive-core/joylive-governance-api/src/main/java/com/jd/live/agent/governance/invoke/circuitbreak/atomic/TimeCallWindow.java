@@ -0,0 +1,112 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.circuitbreak.atomic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A window of the calls in the last N seconds, which is divided into buckets of one second.
+ * <p>
+ * The thread that moves the window forward claims the move by a CAS on the latest epoch, and subtracts the
+ * counts of the buckets sliding out of the window from both the buckets and the totals. Unlike
+ * {@link LongAdder#sumThenReset()}, the subtraction never loses a concurrent increment: a call racing with it
+ * either is subtracted with the bucket, or stays in the bucket until it slides out again. The totals equal the
+ * sum of the buckets once the concurrent calls are recorded, they may differ by the calls being recorded.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class TimeCallWindow extends CallWindow {
+
+    private static final long BUCKET_MILLIS = 1000L;
+
+    private final int size;
+
+    private final Bucket[] buckets;
+
+    private final AtomicLong latest;
+
+    public TimeCallWindow(int seconds, long now) {
+        this.size = Math.max(seconds, 1);
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.latest = new AtomicLong(now / BUCKET_MILLIS);
+    }
+
+    @Override
+    public void record(long now, boolean failure, boolean slow) {
+        roll(now);
+        buckets[(int) (now / BUCKET_MILLIS % size)].increment(failure, slow);
+        increment(failure, slow);
+    }
+
+    /**
+     * Evicts the calls which are out of the window ending at the given time.
+     *
+     * @param now the current time in milliseconds
+     */
+    public void roll(long now) {
+        long epoch = now / BUCKET_MILLIS;
+        long last = latest.get();
+        if (epoch > last && latest.compareAndSet(last, epoch)) {
+            for (long i = Math.max(last + 1, epoch - size + 1); i <= epoch; i++) {
+                Bucket bucket = buckets[(int) (i % size)];
+                evict(bucket.calls, calls);
+                evict(bucket.failures, failures);
+                evict(bucket.slowCalls, slowCalls);
+            }
+        }
+    }
+
+    /**
+     * Subtracts the count of a bucket from the bucket and the total.
+     *
+     * @param counter the counter of the bucket
+     * @param total   the total of the window
+     */
+    private static void evict(LongAdder counter, LongAdder total) {
+        long count = counter.sum();
+        if (count != 0) {
+            counter.add(-count);
+            total.add(-count);
+        }
+    }
+
+    /**
+     * The counters of one second.
+     */
+    private static class Bucket {
+
+        private final LongAdder calls = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder slowCalls = new LongAdder();
+
+        void increment(boolean failure, boolean slow) {
+            calls.increment();
+            if (failure) {
+                failures.increment();
+            }
+            if (slow) {
+                slowCalls.increment();
+            }
+        }
+    }
+}
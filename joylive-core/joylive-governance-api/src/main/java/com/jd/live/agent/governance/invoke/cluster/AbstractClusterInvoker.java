@@ -18,6 +18,7 @@ package com.jd.live.agent.governance.invoke.cluster;
 import com.jd.live.agent.bootstrap.exception.LiveException;
 import com.jd.live.agent.bootstrap.logger.Logger;
 import com.jd.live.agent.bootstrap.logger.LoggerFactory;
+import com.jd.live.agent.core.util.Futures;
 import com.jd.live.agent.governance.exception.ServiceError;
 import com.jd.live.agent.governance.instance.Endpoint;
 import com.jd.live.agent.governance.invoke.InvocationContext;
@@ -27,9 +28,12 @@ import com.jd.live.agent.governance.request.RoutedRequest;
 import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
 import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Abstract implementation of {@link ClusterInvoker} that manages the invocation of services
@@ -65,10 +69,35 @@ public abstract class AbstractClusterInvoker implements ClusterInvoker {
      * This future may complete exceptionally if the invocation fails or if no suitable endpoints
      * can be found.
      */
-    @SuppressWarnings("unchecked")
     protected <R extends OutboundRequest,
             O extends OutboundResponse,
             E extends Endpoint> CompletionStage<O> invoke(LiveCluster<R, O, E> cluster, OutboundInvocation<R> invocation, int counter) {
+        return invoke(cluster, invocation, counter, null);
+    }
+
+    /**
+     * Invokes a service method on a cluster of endpoints, excluding the endpoints that have been tried.
+     * <p>
+     * The selected endpoint is added to the excluded endpoints. If the returned stage is cancelled, the
+     * request is cancelled by {@link LiveCluster#cancel}, and the cluster is not notified of its outcome.
+     * </p>
+     *
+     * @param <R>        The type of the outbound request that extends {@link OutboundRequest}.
+     * @param <O>        The type of the outbound response that extends {@link OutboundResponse}.
+     * @param <E>        The type of the endpoint that extends {@link Endpoint}.
+     * @param cluster    The {@link LiveCluster} managing the distribution and processing of the request.
+     * @param invocation The {@link OutboundInvocation} representing the specific request and its routing information.
+     * @param counter    The counter that records the current number of retry attempts..
+     * @param excludes   The endpoints that have been tried, or null.
+     * @return A {@link CompletionStage} that completes with the result of the service invocation.
+     */
+    @SuppressWarnings("unchecked")
+    protected <R extends OutboundRequest,
+            O extends OutboundResponse,
+            E extends Endpoint> CompletionStage<O> invoke(LiveCluster<R, O, E> cluster,
+                                                           OutboundInvocation<R> invocation,
+                                                           int counter,
+                                                           List<E> excludes) {
         CompletableFuture<O> result = new CompletableFuture<>();
         InvocationContext context = invocation.getContext();
         R request = invocation.getRequest();
@@ -80,12 +109,36 @@ public abstract class AbstractClusterInvoker implements ClusterInvoker {
             if (t == null) {
                 E endpoint = null;
                 try {
-                    endpoint = request instanceof RoutedRequest ? ((RoutedRequest) request).getEndpoint() : context.route(invocation, v);
+                    endpoint = request instanceof RoutedRequest ? ((RoutedRequest) request).getEndpoint() : context.route(invocation, exclude(v, excludes));
+                    if (excludes != null && endpoint != null) {
+                        excludes.add(endpoint);
+                    }
                     E instance = endpoint;
                     onStartRequest(cluster, request, endpoint);
-                    CompletionStage<O> stage = context.outbound(invocation, endpoint, () -> cluster.invoke(request, instance));
+                    // the filters may wrap the stage, so the stage returned by the cluster is kept to be cancelled.
+                    AtomicReference<CompletionStage<O>> sent = new AtomicReference<>();
+                    CompletionStage<O> stage = context.outbound(invocation, endpoint, () -> {
+                        if (result.isCancelled()) {
+                            return Futures.future(new CancellationException());
+                        }
+                        CompletionStage<O> s = cluster.invoke(request, instance);
+                        sent.set(s);
+                        if (result.isCancelled()) {
+                            cluster.cancel(s, request, instance);
+                        }
+                        return s;
+                    });
+                    result.whenComplete((o, r) -> {
+                        CompletionStage<O> s = sent.get();
+                        if (s != null && result.isCancelled()) {
+                            cluster.cancel(s, request, instance);
+                        }
+                    });
                     stage.whenComplete((o, r) -> {
-                        if (r != null) {
+                        if (result.isCancelled()) {
+                            // the request is abandoned, e.g. it has lost the race of hedging.
+                            return;
+                        } else if (r != null) {
                             error("Exception occurred when invoke, caused by " + r.getMessage(), r);
                             onException(cluster, invocation, o, new ServiceError(r, false), instance, result);
                         } else {
@@ -109,6 +162,26 @@ public abstract class AbstractClusterInvoker implements ClusterInvoker {
         return result;
     }
 
+    /**
+     * Removes the excluded endpoints from the instances.
+     *
+     * @param instances the instances
+     * @param excludes  the endpoints to exclude, or null
+     * @return the remaining instances
+     */
+    private <E extends Endpoint> List<E> exclude(List<E> instances, List<E> excludes) {
+        if (excludes == null || excludes.isEmpty() || instances == null || instances.isEmpty()) {
+            return instances;
+        }
+        List<E> result = new ArrayList<>(instances.size());
+        for (E instance : instances) {
+            if (!excludes.contains(instance)) {
+                result.add(instance);
+            }
+        }
+        return result;
+    }
+
     /**
      * Handles the start of an invocation process. This method is called before the actual invocation
      * takes place. Subclasses can override this method to perform additional setup or initialization.
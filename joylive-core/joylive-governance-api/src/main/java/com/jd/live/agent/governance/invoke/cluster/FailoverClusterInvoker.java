@@ -21,6 +21,8 @@ import com.jd.live.agent.core.extension.annotation.Extension;
 import com.jd.live.agent.core.inject.annotation.Inject;
 import com.jd.live.agent.core.inject.annotation.Injectable;
 import com.jd.live.agent.core.util.Futures;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.context.RequestContext;
 import com.jd.live.agent.governance.exception.ErrorCause;
 import com.jd.live.agent.governance.exception.RetryException.RetryExhaustedException;
 import com.jd.live.agent.governance.exception.RetryException.RetryTimeoutException;
@@ -35,8 +37,12 @@ import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
 import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
 
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
@@ -48,14 +54,49 @@ import static com.jd.live.agent.governance.util.Predicates.isError;
  * This invoker is designed to automatically retry a failed request based on a defined {@link RetryPolicy}.
  * The failover mechanism is essential for enhancing the reliability and availability of service invocations
  * by rerouting failed requests to alternative instances within the cluster.
+ * <p>
+ * The waiting interval between the retries of an asynchronous request, or of a request whose cluster provides
+ * a {@link LiveCluster#getRetryExecutor retry executor}, is scheduled on the {@link Timer}, so no thread is
+ * parked while waiting, even if the previous attempt completed on an event loop. The retries of a synchronous
+ * request wait and run in the caller thread, which is blocked for the response anyway, so the blocking calls
+ * do not occupy the timer and the thread locals of the caller are kept.
+ * </p>
+ * <p>
+ * If the retry policy enables a retry budget, the retries of a service are limited to a ratio of its recent
+ * successful requests, so that retries do not multiply the load during a downstream brownout.
+ * </p>
  */
 @Injectable
 @Extension(value = ClusterInvoker.TYPE_FAILOVER, order = ClusterInvoker.ORDER_FAILOVER)
 public class FailoverClusterInvoker extends AbstractClusterInvoker {
 
+    private static final String TASK_NAME = "Retry";
+
+    /**
+     * A task marking the completion of a synchronous request.
+     */
+    private static final Runnable DONE = () -> {
+    };
+
     @Inject
     private Map<String, ErrorParser> codeParsers;
 
+    @Inject(Timer.COMPONENT_TIMER)
+    private Timer timer;
+
+    /**
+     * The retry budgets of the services.
+     */
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public FailoverClusterInvoker() {
+    }
+
+    public FailoverClusterInvoker(Map<String, ErrorParser> codeParsers, Timer timer) {
+        this.codeParsers = codeParsers;
+        this.timer = timer;
+    }
+
     @Override
     public <R extends OutboundRequest,
             O extends OutboundResponse,
@@ -68,7 +109,8 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
         retryPolicy = retryPolicy == null && defaultPolicy != null ? defaultPolicy.getRetryPolicy() : retryPolicy;
         R request = invocation.getRequest();
         request.addErrorPolicy(retryPolicy);
-        RetryContext<R, O, E> retryContext = new RetryContext<>(codeParsers, retryPolicy, cluster);
+        RetryBudget budget = getBudget(request, retryPolicy);
+        RetryContext<R, O, E> retryContext = new RetryContext<>(codeParsers, retryPolicy, cluster, timer, budget);
         Supplier<CompletionStage<O>> supplier = () -> invoke(cluster, invocation, retryContext.getAndIncrement());
         cluster.onStart(request);
         return retryContext.execute(invocation, supplier).exceptionally(e ->
@@ -78,6 +120,29 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
                         null));
     }
 
+    /**
+     * Returns the retry budget of the service.
+     *
+     * @param request     the request
+     * @param retryPolicy the retry policy
+     * @return the retry budget, or null if it is disabled
+     */
+    private RetryBudget getBudget(OutboundRequest request, RetryPolicy retryPolicy) {
+        if (retryPolicy == null || !retryPolicy.isBudgetEnabled() || request.getService() == null) {
+            return null;
+        }
+        double ratio = retryPolicy.getBudgetRatio();
+        int minRetries = retryPolicy.getMinRetriesPerSecond() == null ? 0 : retryPolicy.getMinRetriesPerSecond();
+        RetryBudget budget = budgets.computeIfAbsent(request.getService(), s -> new RetryBudget(ratio, minRetries));
+        if (!budget.isSame(ratio, minRetries)) {
+            // the policy is changed.
+            RetryBudget update = new RetryBudget(ratio, minRetries);
+            budgets.put(request.getService(), update);
+            budget = update;
+        }
+        return budget;
+    }
+
     /**
      * A context class designed to manage retry operations for outbound responses.
      * <p>
@@ -108,6 +173,16 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
          */
         private final LiveCluster<R, O, E> cluster;
 
+        /**
+         * The timer used to schedule the retries.
+         */
+        private final Timer timer;
+
+        /**
+         * The retry budget of the service, or null if it is disabled.
+         */
+        private final RetryBudget budget;
+
         /**
          * A counter tracking the number of retry attempts made.
          */
@@ -118,20 +193,46 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
          */
         private final long deadline;
 
-        private final Object mutex = new Object();
+        /**
+         * The retries handed over to the caller thread of a synchronous request, or null if the request is
+         * retried on the timer.
+         */
+        private BlockingQueue<Runnable> syncTasks;
 
         /**
          * Constructs a new {@code RetryContext} with the specified retry policy and response function.
          *
          * @param retryPolicy The {@link RetryPolicy} to govern retry behavior.
          * @param cluster     The {@link LiveCluster} managing the distribution and processing of the request
+         * @param timer       The {@link Timer} used to schedule the retries.
+         * @param budget      The {@link RetryBudget} of the service, or null if it is disabled.
          */
-        RetryContext(Map<String, ErrorParser> errorParsers, RetryPolicy retryPolicy, LiveCluster<R, O, E> cluster) {
+        RetryContext(Map<String, ErrorParser> errorParsers,
+                     RetryPolicy retryPolicy,
+                     LiveCluster<R, O, E> cluster,
+                     Timer timer,
+                     RetryBudget budget) {
             this.errorParsers = errorParsers;
             this.retryPolicy = retryPolicy;
             this.cluster = cluster;
+            this.timer = timer;
+            this.budget = budget;
             this.counter = new AtomicInteger(0);
-            this.deadline = retryPolicy == null ? 0 : retryPolicy.getDeadline(System.currentTimeMillis());
+            this.deadline = getDeadline(retryPolicy == null ? 0 : retryPolicy.getDeadline(System.currentTimeMillis()));
+        }
+
+        /**
+         * Caps the retry deadline with the propagated deadline of the current request.
+         *
+         * @param deadline the deadline of the retry policy, or 0 if there is none
+         * @return the earliest of the two deadlines, or 0 if there is none
+         */
+        private static long getDeadline(long deadline) {
+            long requestDeadline = RequestContext.getDeadline();
+            if (requestDeadline <= 0) {
+                return deadline;
+            }
+            return deadline <= 0 ? requestDeadline : Math.min(deadline, requestDeadline);
         }
 
         /**
@@ -149,9 +250,25 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
          */
         public CompletionStage<O> execute(OutboundInvocation<R> invocation, Supplier<CompletionStage<O>> supplier) {
             CompletableFuture<O> result = new CompletableFuture<>();
+            R request = invocation.getRequest();
+            if (!request.isAsync() && cluster.getRetryExecutor(request) == null) {
+                syncTasks = new LinkedBlockingQueue<>();
+                result.whenComplete((v, e) -> syncTasks.offer(DONE));
+            }
             doExecute(invocation, supplier, result);
+            if (syncTasks != null) {
+                // the caller of a synchronous request waits for the response, so it runs the retries.
+                try {
+                    Runnable task;
+                    while ((task = syncTasks.take()) != DONE) {
+                        task.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                }
+            }
             return result;
-
         }
 
         /**
@@ -176,14 +293,17 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
                 // not retry when empty instance
                 int size = invocation.getInstances() == null ? 0 : invocation.getInstances().size();
                 RetryType retryType = size == 0 ? RetryType.NONE : isRetryable(request, v, e, count);
+                if (budget != null) {
+                    if (retryType == RetryType.RETRY && !budget.tryRetry()) {
+                        invocation.onRetryBudgetExhausted();
+                        retryType = RetryType.NONE;
+                    } else if (retryType == RetryType.NONE && e == null && se == null) {
+                        budget.onSuccess();
+                    }
+                }
                 switch (retryType) {
                     case RETRY:
-                        Throwable ex = checkAndAwait(request, throwable);
-                        if (ex != null) {
-                            future.completeExceptionally(ex);
-                        } else {
-                            doExecute(invocation, supplier, future);
-                        }
+                        retry(invocation, supplier, future, throwable, count + 1);
                         break;
                     case EXHAUSTED:
                         future.completeExceptionally(new RetryExhaustedException("max retries is reached out.", throwable, retryPolicy.getRetry()));
@@ -198,21 +318,67 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
         }
 
         /**
-         * Checks if the request is ready and waits if necessary.
+         * Retries the operation after the backoff interval. For a synchronous request, the caller thread waits
+         * for the interval and retries. Otherwise, the interval is scheduled on the timer, and the retry
+         * continues on the executor of the cluster, so no thread is parked while waiting.
          *
-         * @param request the request to check
-         * @param cause   the cause of the previous failure, or null if this is the first attempt
-         * @return the exception that occurred during the check or wait, or null if the request is ready
+         * @param invocation The {@link OutboundInvocation} representing the specific request and its routing information.
+         * @param supplier   A supplier providing the operation to be executed.
+         * @param future     The {@link CompletableFuture} to be completed with the operation's result.
+         * @param cause      The cause of the previous failure.
+         * @param retries    The number of the retry, starting from 1.
          */
-        private Throwable checkAndAwait(R request, Throwable cause) {
-            Throwable result = checkReady(request);
-            if (result == null) {
-                result = await(cause);
-                if (result == null) {
-                    result = checkReady(request);
-                }
+        private void retry(OutboundInvocation<R> invocation,
+                           Supplier<CompletionStage<O>> supplier,
+                           CompletableFuture<O> future,
+                           Throwable cause,
+                           int retries) {
+            R request = invocation.getRequest();
+            Throwable ex = checkReady(request);
+            if (ex != null) {
+                future.completeExceptionally(ex);
+                return;
+            }
+            long interval = retryPolicy.getBackoff(retries);
+            if (interval <= 0 || timer == null) {
+                doExecute(invocation, supplier, future);
+            } else if (deadline > 0 && interval + System.currentTimeMillis() > deadline) {
+                future.completeExceptionally(new RetryTimeoutException("retry is timeout.", cause, retryPolicy.getTimeout()));
+            } else if (syncTasks != null) {
+                syncTasks.offer(() -> {
+                    try {
+                        Thread.sleep(interval);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        future.completeExceptionally(e);
+                        return;
+                    }
+                    Throwable e = checkReady(request);
+                    if (e != null) {
+                        future.completeExceptionally(e);
+                    } else {
+                        doExecute(invocation, supplier, future);
+                    }
+                });
+            } else {
+                timer.delay(TASK_NAME, interval, () -> {
+                    Throwable e = checkReady(request);
+                    if (e != null) {
+                        future.completeExceptionally(e);
+                        return;
+                    }
+                    Executor executor = cluster.getRetryExecutor(request);
+                    if (executor == null) {
+                        doExecute(invocation, supplier, future);
+                    } else {
+                        try {
+                            executor.execute(() -> doExecute(invocation, supplier, future));
+                        } catch (Throwable t) {
+                            future.completeExceptionally(t);
+                        }
+                    }
+                });
             }
-            return result;
         }
 
         /**
@@ -225,29 +391,6 @@ public class FailoverClusterInvoker extends AbstractClusterInvoker {
             return cluster.isDestroyed() ? cluster.createException(new RejectUnreadyException(), request) : null;
         }
 
-        /**
-         * Waits for a specified interval before retrying the request.
-         *
-         * @param cause the cause of the previous failure, or null if this is the first attempt
-         * @return an exception if the retry timed out, or null if the wait was successful
-         */
-        private Throwable await(Throwable cause) {
-            Long interval = retryPolicy == null ? null : retryPolicy.getInterval();
-            if (interval != null && interval > 0) {
-                if (interval + System.currentTimeMillis() > deadline) {
-                    return new RetryTimeoutException("retry is timeout.", cause, retryPolicy.getTimeout());
-                }
-                synchronized (mutex) {
-                    try {
-                        mutex.wait(interval);
-                    } catch (InterruptedException e) {
-                        return new RetryTimeoutException("retry is timeout.", cause, retryPolicy.getTimeout());
-                    }
-                }
-            }
-            return null;
-        }
-
         private int getAndIncrement() {
             return counter.getAndIncrement();
         }
@@ -0,0 +1,92 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that caps the extra load caused by hedged requests.
+ * <p>
+ * Each eligible request deposits a fraction of a token, and each hedged attempt withdraws one token,
+ * so in the long run the hedged attempts do not exceed the given ratio of the requests. The balance is
+ * kept in thousandths of a token in a single {@link AtomicLong}.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class HedgeBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long maxBalance;
+
+    private final AtomicLong balance;
+
+    /**
+     * Creates a budget.
+     *
+     * @param maxTokens     the maximum number of tokens that can be saved
+     * @param initialTokens the initial number of tokens
+     */
+    public HedgeBudget(int maxTokens, int initialTokens) {
+        this.maxBalance = maxTokens * SCALE;
+        this.balance = new AtomicLong(Math.min(initialTokens, maxTokens) * SCALE);
+    }
+
+    /**
+     * Deposits a fraction of a token for an eligible request.
+     *
+     * @param ratio the ratio of hedged requests to requests
+     */
+    public void deposit(double ratio) {
+        long amount = (long) (ratio * SCALE);
+        if (amount <= 0) {
+            return;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(current + amount, maxBalance)));
+    }
+
+    /**
+     * Withdraws a token for a hedged attempt.
+     *
+     * @return true if a token was withdrawn, false if the budget is exhausted
+     */
+    public boolean withdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Returns the number of available tokens.
+     *
+     * @return the number of available tokens
+     */
+    public double getTokens() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import com.jd.live.agent.bootstrap.exception.RejectException.RejectNoProviderException;
+import com.jd.live.agent.core.util.Futures;
+import com.jd.live.agent.core.util.time.Timeout;
+import com.jd.live.agent.core.util.time.Timer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * A context that races hedged attempts of a request.
+ * <p>
+ * The first attempt is sent immediately. If it has not completed within the hedging delay, the timer
+ * sends another attempt to an endpoint that has not been tried yet, as long as the maximum number of
+ * attempts is not reached and the {@link HedgeBudget} allows it. The first successful attempt completes
+ * the result and the others are cancelled. If all the attempts fail, the result completes with the last
+ * failure. No thread is blocked while waiting.
+ * </p>
+ * <p>
+ * The latency of the successful request is measured from the start of the request, not of the winning
+ * attempt, so that the recorded latencies are the ones seen by the caller.
+ * </p>
+ *
+ * @param <O> the type of the response
+ * @param <E> the type of the endpoint
+ * @since 1.7.0
+ */
+public class HedgeContext<O, E> {
+
+    private static final String TASK_NAME = "Hedge";
+
+    private final Timer timer;
+
+    private final HedgeBudget budget;
+
+    private final int maxAttempts;
+
+    private final long delay;
+
+    private final HedgeAttempt<O, E> attempt;
+
+    private final LongConsumer recorder;
+
+    private final CompletableFuture<O> result = new CompletableFuture<>();
+
+    /**
+     * The endpoints that have been tried.
+     */
+    private final List<E> endpoints = new CopyOnWriteArrayList<>();
+
+    private final List<CompletionStage<O>> attempts = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of attempts in flight, plus one if a hedged attempt is scheduled.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile Timeout timeout;
+
+    private volatile Throwable error;
+
+    private long startTime;
+
+    /**
+     * Creates a hedge context.
+     *
+     * @param timer       the timer used to schedule the hedged attempts
+     * @param budget      the global budget of hedged attempts
+     * @param maxAttempts the maximum number of attempts, including the first one
+     * @param delay       the delay in milliseconds before sending a hedged attempt
+     * @param attempt     the function that sends an attempt
+     * @param recorder    the consumer of the latencies of the successful attempts
+     */
+    public HedgeContext(Timer timer,
+                        HedgeBudget budget,
+                        int maxAttempts,
+                        long delay,
+                        HedgeAttempt<O, E> attempt,
+                        LongConsumer recorder) {
+        this.timer = timer;
+        this.budget = budget;
+        this.maxAttempts = maxAttempts;
+        this.delay = Math.max(delay, 0);
+        this.attempt = attempt;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Sends the first attempt and schedules the hedged ones.
+     *
+     * @return a stage completed with the first successful response, or the last failure
+     */
+    public CompletionStage<O> execute() {
+        startTime = System.currentTimeMillis();
+        pending.incrementAndGet();
+        launch(0);
+        return result;
+    }
+
+    /**
+     * Returns the endpoints that have been tried.
+     *
+     * @return the endpoints that have been tried
+     */
+    public List<E> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Sends the attempt, its slot in {@link #pending} is already reserved.
+     *
+     * @param index the index of the attempt
+     */
+    private void launch(int index) {
+        CompletionStage<O> stage;
+        try {
+            stage = attempt.attempt(index, endpoints);
+        } catch (Throwable e) {
+            stage = Futures.future(e);
+        }
+        if (stage == null) {
+            // there is no endpoint left.
+            release();
+            return;
+        }
+        attempts.add(stage);
+        CompletionStage<O> current = stage;
+        stage.whenComplete((v, e) -> {
+            if (e == null) {
+                if (recorder != null) {
+                    recorder.accept(System.currentTimeMillis() - startTime);
+                }
+                if (result.complete(v)) {
+                    cancel(current);
+                }
+            } else {
+                error = e;
+                Timeout t = timeout;
+                if (t != null && t.cancel()) {
+                    pending.decrementAndGet();
+                }
+                release();
+            }
+        });
+        if (!result.isDone() && index + 1 < maxAttempts) {
+            pending.incrementAndGet();
+            timeout = timer.delay(TASK_NAME, delay, () -> onTimeout(index + 1));
+        }
+    }
+
+    /**
+     * Sends a hedged attempt when the delay expires.
+     *
+     * @param index the index of the attempt
+     */
+    private void onTimeout(int index) {
+        if (result.isDone() || !budget.withdraw()) {
+            release();
+        } else {
+            launch(index);
+        }
+    }
+
+    /**
+     * Releases a slot, and completes the result with the last failure if nothing is pending.
+     */
+    private void release() {
+        if (pending.decrementAndGet() == 0) {
+            Throwable e = error;
+            // no attempt has failed if none was sent.
+            result.completeExceptionally(e != null ? e : new RejectNoProviderException("There is no provider to hedge the request."));
+        }
+    }
+
+    /**
+     * Cancels the pending hedged attempt and the attempts other than the winner.
+     *
+     * @param winner the successful attempt
+     */
+    private void cancel(CompletionStage<O> winner) {
+        Timeout t = timeout;
+        if (t != null) {
+            t.cancel();
+        }
+        for (CompletionStage<O> stage : attempts) {
+            if (stage != winner && stage instanceof Future) {
+                ((Future<?>) stage).cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Sends an attempt of the request.
+     *
+     * @param <O> the type of the response
+     * @param <E> the type of the endpoint
+     */
+    @FunctionalInterface
+    public interface HedgeAttempt<O, E> {
+
+        /**
+         * Sends an attempt to an endpoint that has not been tried.
+         *
+         * @param index     the index of the attempt, 0 for the original request
+         * @param endpoints the endpoints that have been tried, the selected endpoint should be added to it
+         * @return the stage of the attempt, or null if there is no endpoint left
+         */
+        CompletionStage<O> attempt(int index, List<E> endpoints);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import com.jd.live.agent.core.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The observed latencies of a method, used to compute its hedging delay.
+ * <p>
+ * It is kept per service and method by the invoker rather than by the policy, so the samples survive
+ * policy updates. Scanning the histogram is not cheap, so the percentile is recomputed by one caller at
+ * most once per refresh interval, and the other callers read the cached value.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class HedgeLatency {
+
+    /**
+     * The minimum number of samples before the percentile latency is used as the hedging delay.
+     */
+    private static final int MIN_SAMPLES = 100;
+
+    private static final long REFRESH_INTERVAL = 1000L;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final LongSupplier clock;
+
+    private final AtomicLong refreshTime = new AtomicLong(Long.MIN_VALUE);
+
+    private volatile double percentile = Double.NaN;
+
+    private volatile long latency = -1;
+
+    public HedgeLatency() {
+        this(System::currentTimeMillis);
+    }
+
+    public HedgeLatency(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Records the latency of a completed request.
+     *
+     * @param latency the latency in milliseconds
+     */
+    public void record(long latency) {
+        histogram.record(latency);
+    }
+
+    /**
+     * Returns the hedging delay, which is the percentile of the observed latencies bounded below by the
+     * configured delay.
+     *
+     * @param percentile the percentile of the observed latencies
+     * @param delay      the configured delay in milliseconds, or -1 if it is not configured
+     * @return the hedging delay in milliseconds, or -1 if there is neither a configured delay nor enough
+     * recorded latencies, in which case the request should not be hedged
+     */
+    public long getDelay(double percentile, long delay) {
+        long now = clock.getAsLong();
+        long last = refreshTime.get();
+        if ((now - last >= REFRESH_INTERVAL || this.percentile != percentile) && refreshTime.compareAndSet(last, now)) {
+            this.latency = histogram.getCount() < MIN_SAMPLES ? -1 : histogram.getPercentile(percentile);
+            this.percentile = percentile;
+        }
+        return Math.max(latency, delay);
+    }
+}
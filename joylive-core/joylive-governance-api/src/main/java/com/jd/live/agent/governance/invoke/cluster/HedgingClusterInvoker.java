@@ -0,0 +1,158 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import com.jd.live.agent.core.extension.annotation.Extension;
+import com.jd.live.agent.core.inject.annotation.Inject;
+import com.jd.live.agent.core.inject.annotation.Injectable;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.instance.Endpoint;
+import com.jd.live.agent.governance.invoke.OutboundInvocation;
+import com.jd.live.agent.governance.policy.service.ServicePolicy;
+import com.jd.live.agent.governance.policy.service.cluster.ClusterPolicy;
+import com.jd.live.agent.governance.policy.service.cluster.HedgePolicy;
+import com.jd.live.agent.governance.request.RoutedRequest;
+import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
+import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An implementation of {@link ClusterInvoker} that hedges requests to idempotent methods.
+ * <p>
+ * The failover strategy only retries after a failure, so a single slow instance still dictates the tail
+ * latency. This invoker sends another attempt to a different instance when the request has not completed
+ * within a percentile of the observed latencies, as defined by the {@link HedgePolicy}. The first success
+ * wins and the other attempts are cancelled. A global {@link HedgeBudget} caps the extra load.
+ * </p>
+ * <p>
+ * Requests to methods not marked as idempotent by the policy are invoked only once, so are the requests
+ * which are not {@link OutboundRequest#isConcurrentSafe() safe to be sent concurrently}, and the synchronous
+ * requests, whose attempts would block the caller and the timer. Each hedged attempt
+ * is routed with its own {@link OutboundInvocation#fork() copy} of the invocation, and the losing attempts
+ * are cancelled by {@link LiveCluster#cancel}.
+ * </p>
+ * <p>
+ * Until enough latencies are recorded, requests are not hedged unless the policy configures a delay.
+ * </p>
+ *
+ * @see HedgeContext
+ */
+@Injectable
+@Extension(value = ClusterInvoker.TYPE_HEDGING, order = ClusterInvoker.ORDER_HEDGING)
+public class HedgingClusterInvoker extends AbstractClusterInvoker {
+
+    /**
+     * The global budget shared by all the hedged requests.
+     */
+    private final HedgeBudget budget = new HedgeBudget(100, 10);
+
+    /**
+     * The observed latencies by service and method, they are kept across the policy updates.
+     */
+    private final Map<String, Map<String, HedgeLatency>> latencies = new ConcurrentHashMap<>();
+
+    @Inject(Timer.COMPONENT_TIMER)
+    private Timer timer;
+
+    public HedgingClusterInvoker() {
+    }
+
+    public HedgingClusterInvoker(Timer timer) {
+        this.timer = timer;
+    }
+
+    @Override
+    public <R extends OutboundRequest,
+            O extends OutboundResponse,
+            E extends Endpoint> CompletionStage<O> execute(LiveCluster<R, O, E> cluster,
+                                                            OutboundInvocation<R> invocation,
+                                                            ClusterPolicy defaultPolicy) {
+        ServicePolicy servicePolicy = invocation.getServiceMetadata().getServicePolicy();
+        ClusterPolicy clusterPolicy = servicePolicy == null ? null : servicePolicy.getClusterPolicy();
+        HedgePolicy hedgePolicy = clusterPolicy == null ? null : clusterPolicy.getHedgePolicy();
+        hedgePolicy = hedgePolicy == null && defaultPolicy != null ? defaultPolicy.getHedgePolicy() : hedgePolicy;
+        R request = invocation.getRequest();
+        if (hedgePolicy == null
+                || timer == null
+                || request instanceof RoutedRequest
+                || !request.isAsync()
+                || !request.isConcurrentSafe()
+                || !hedgePolicy.isEnabled(request.getMethod())) {
+            return super.execute(cluster, invocation, defaultPolicy);
+        }
+        budget.deposit(hedgePolicy.getBudgetRatio());
+        cluster.onStart(request);
+        HedgeLatency latency = getLatency(request);
+        long delay = latency.getDelay(hedgePolicy.getPercentile(), hedgePolicy.getDelay());
+        // the latencies are still recorded when the request is not hedged yet.
+        int maxAttempts = delay < 0 ? 1 : hedgePolicy.getMaxAttempts();
+        HedgeContext<O, E> context = new HedgeContext<>(timer, budget, maxAttempts, delay,
+                (index, endpoints) -> attempt(cluster, invocation, index, endpoints), latency::record);
+        return context.execute();
+    }
+
+    /**
+     * Returns the observed latencies of the method of the request.
+     *
+     * @param request the request
+     * @return the observed latencies
+     */
+    private HedgeLatency getLatency(OutboundRequest request) {
+        String service = request.getService() == null ? "" : request.getService();
+        String method = request.getMethod() == null ? "" : request.getMethod();
+        return latencies.computeIfAbsent(service, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> new HedgeLatency());
+    }
+
+    /**
+     * Sends an attempt to an endpoint that has not been tried.
+     *
+     * @param cluster    the live cluster
+     * @param invocation the outbound invocation
+     * @param index      the index of the attempt
+     * @param endpoints  the endpoints that have been tried
+     * @return the stage of the attempt, or null if all the instances have been tried
+     */
+    private <R extends OutboundRequest,
+            O extends OutboundResponse,
+            E extends Endpoint> CompletionStage<O> attempt(LiveCluster<R, O, E> cluster,
+                                                            OutboundInvocation<R> invocation,
+                                                            int index,
+                                                            List<E> endpoints) {
+        if (index > 0) {
+            List<? extends Endpoint> instances = invocation.getInstances();
+            if (instances == null || !hasCandidate(instances, endpoints)) {
+                return null;
+            }
+            // the previous attempts are still in flight with the original invocation.
+            return invoke(cluster, invocation.fork(), 0, endpoints);
+        }
+        return invoke(cluster, invocation, 0, endpoints);
+    }
+
+    private boolean hasCandidate(List<? extends Endpoint> instances, List<? extends Endpoint> endpoints) {
+        for (Endpoint instance : instances) {
+            if (!endpoints.contains(instance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -27,6 +27,8 @@ import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * Defines the behavior of a live cluster capable of routing and invoking outbound requests.
@@ -161,6 +163,39 @@ public interface LiveCluster<R extends OutboundRequest,
         return null;
     }
 
+    /**
+     * Returns the executor on which a retry continues after its backoff.
+     * <p>
+     * Clusters driven by an event loop can return the loop of the request, so the retry runs on the same
+     * thread as the original call. By default, the retry of a synchronous request waits and runs in the caller
+     * thread, and the retry of an {@link OutboundRequest#isAsync() asynchronous} request continues on the
+     * timer thread.
+     * </p>
+     *
+     * @param request the request to retry
+     * @return the executor, or null to use the default
+     */
+    default Executor getRetryExecutor(R request) {
+        return null;
+    }
+
+    /**
+     * Cancels a request sent to an endpoint, e.g. when it has lost the race of hedging.
+     * <p>
+     * The default implementation cancels the stage if it is a {@link Future}, which only aborts the
+     * underlying call when the future is bound to it. Clusters should override it to abort the call.
+     * </p>
+     *
+     * @param stage    the stage returned by {@link #invoke} for the request
+     * @param request  the request
+     * @param endpoint the endpoint to which the request was sent
+     */
+    default void cancel(CompletionStage<O> stage, R request, E endpoint) {
+        if (stage instanceof Future) {
+            ((Future<?>) stage).cancel(true);
+        }
+    }
+
     /**
      * Checks if the current instance has been destroyed or marked for destruction.
      *
@@ -0,0 +1,142 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A retry budget of a service.
+ * <p>
+ * Retries are allowed only while the retries in the recent window stay under a ratio of the successful
+ * requests in the same window, plus a minimum number of retries per second. This caps the load amplified
+ * by retries during a downstream brownout at a predictable percentage.
+ * </p>
+ * <p>
+ * The window is made of one second buckets. A bucket is replaced by a new one when its slot is reused for a
+ * later second instead of being reset, so no concurrent count is lost. A retry is withdrawn by a CAS on the
+ * retries of the current bucket after checking the budget, so concurrent retries cannot overdraw it.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class RetryBudget {
+
+    private static final int WINDOW_SECONDS = 10;
+
+    private final double ratio;
+
+    private final int minRetriesPerSecond;
+
+    private final long minRetries;
+
+    private final LongSupplier clock;
+
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(WINDOW_SECONDS);
+
+    public RetryBudget(double ratio, int minRetriesPerSecond) {
+        this(ratio, minRetriesPerSecond, System::currentTimeMillis);
+    }
+
+    public RetryBudget(double ratio, int minRetriesPerSecond, LongSupplier clock) {
+        this.ratio = ratio;
+        this.minRetriesPerSecond = Math.max(minRetriesPerSecond, 0);
+        this.minRetries = (long) this.minRetriesPerSecond * WINDOW_SECONDS;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks if this budget is created with the given parameters.
+     *
+     * @param ratio               the ratio of retries to successful requests
+     * @param minRetriesPerSecond the minimum number of retries per second
+     * @return true if the parameters are the same
+     */
+    public boolean isSame(double ratio, int minRetriesPerSecond) {
+        return this.ratio == ratio && this.minRetriesPerSecond == Math.max(minRetriesPerSecond, 0);
+    }
+
+    /**
+     * Records a successful request.
+     */
+    public void onSuccess() {
+        getBucket(clock.getAsLong() / 1000).successes.increment();
+    }
+
+    /**
+     * Tries to withdraw a retry from the budget.
+     *
+     * @return true if the retry is allowed, false if the budget is exhausted
+     */
+    public boolean tryRetry() {
+        long second = clock.getAsLong() / 1000;
+        Bucket current = getBucket(second);
+        while (true) {
+            long successes = 0;
+            long retries = 0;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket != null && bucket != current && bucket.second <= second && second - bucket.second < WINDOW_SECONDS) {
+                    successes += bucket.successes.sum();
+                    retries += bucket.retries.get();
+                }
+            }
+            long count = current.retries.get();
+            successes += current.successes.sum();
+            if (retries + count >= successes * ratio + minRetries) {
+                return false;
+            } else if (current.retries.compareAndSet(count, count + 1)) {
+                return true;
+            }
+            // another retry is withdrawn concurrently, check the budget again.
+        }
+    }
+
+    /**
+     * Returns the bucket of the given second, replacing the bucket of an older second in its slot.
+     */
+    private Bucket getBucket(long second) {
+        int index = (int) (second % WINDOW_SECONDS);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.second >= second) {
+                return bucket;
+            }
+            Bucket update = new Bucket(second);
+            if (buckets.compareAndSet(index, bucket, update)) {
+                return update;
+            }
+        }
+    }
+
+    /**
+     * The counters of one second.
+     */
+    private static class Bucket {
+
+        private final long second;
+
+        private final LongAdder successes = new LongAdder();
+
+        private final AtomicLong retries = new AtomicLong();
+
+        Bucket(long second) {
+            this.second = second;
+        }
+    }
+}
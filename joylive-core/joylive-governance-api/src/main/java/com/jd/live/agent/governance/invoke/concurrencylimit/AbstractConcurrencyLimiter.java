@@ -1,8 +1,12 @@
 package com.jd.live.agent.governance.invoke.concurrencylimit;
 
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.invoke.permission.AbstractLicensee;
 import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
  * AbstractConcurrencyLimiter
  *
@@ -10,6 +14,10 @@ import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
  */
 public abstract class AbstractConcurrencyLimiter extends AbstractLicensee<ConcurrencyLimitPolicy> implements ConcurrencyLimiter {
 
+    protected static final CompletionStage<Boolean> ACQUIRED = CompletableFuture.completedFuture(true);
+
+    protected static final CompletionStage<Boolean> REJECTED = CompletableFuture.completedFuture(false);
+
     public AbstractConcurrencyLimiter(ConcurrencyLimitPolicy policy) {
         this.policy = policy;
     }
@@ -31,8 +39,61 @@ public abstract class AbstractConcurrencyLimiter extends AbstractLicensee<Concur
      */
     protected abstract boolean doAcquire();
 
+    @Override
+    public boolean acquire(String tenant) {
+        if (!started.get()) {
+            return true;
+        }
+        lastAccessTime = System.currentTimeMillis();
+        return doAcquire(tenant);
+    }
+
+    /**
+     * Performs the actual acquisition logic, blocking the calling thread while the request is queued.
+     * The default implementation does not queue the request.
+     *
+     * @param tenant the tenant of the request.
+     * @return true if the acquisition is successful, false otherwise.
+     */
+    protected boolean doAcquire(String tenant) {
+        return doAcquire();
+    }
+
+    @Override
+    public CompletionStage<Boolean> acquireAsync(String tenant, Timer timer) {
+        if (!started.get()) {
+            return ACQUIRED;
+        }
+        lastAccessTime = System.currentTimeMillis();
+        return doAcquireAsync(tenant, timer);
+    }
+
+    /**
+     * Performs the actual acquisition logic without blocking the calling thread.
+     * The default implementation does not queue the request.
+     *
+     * @param tenant the tenant of the request.
+     * @param timer  the timer used to expire the queued requests.
+     * @return a stage completed with true if the acquisition is successful, false otherwise.
+     */
+    protected CompletionStage<Boolean> doAcquireAsync(String tenant, Timer timer) {
+        return doAcquire() ? ACQUIRED : REJECTED;
+    }
+
     @Override
     public void complete() {
     }
 
+    @Override
+    public boolean isInUse() {
+        return getInflight() > 0;
+    }
+
+    /**
+     * Returns the number of requests holding or waiting for a permit.
+     *
+     * @return the number of requests in flight
+     */
+    protected abstract int getInflight();
+
 }
@@ -15,9 +15,13 @@
  */
 package com.jd.live.agent.governance.invoke.concurrencylimit;
 
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.invoke.permission.Licensee;
 import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
  * ConcurrencyLimiter
  *
@@ -25,5 +29,63 @@ import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
  */
 public interface ConcurrencyLimiter extends Licensee<ConcurrencyLimitPolicy> {
 
+    /**
+     * Acquires a permit, blocking the calling thread while the request is queued.
+     * <p>
+     * Limiters with a wait queue park the calling thread until a permit is released to it or the maximum wait
+     * time expires. The default implementation does not queue.
+     * </p>
+     *
+     * @param tenant the tenant of the request, which is used to schedule the queued requests fairly
+     * @return true if the permit is acquired, false if it is rejected
+     */
+    default boolean acquire(String tenant) {
+        return acquire();
+    }
+
+    /**
+     * Acquires a permit without blocking the calling thread.
+     * <p>
+     * Limiters with a wait queue complete the result when a permit is released or when the maximum wait time
+     * expires. The default implementation does not queue and completes the result immediately.
+     * </p>
+     *
+     * @param tenant the tenant of the request, which is used to schedule the queued requests fairly
+     * @param timer  the timer used to expire the queued requests
+     * @return a stage completed with true if the permit is acquired, false if it is rejected
+     */
+    default CompletionStage<Boolean> acquireAsync(String tenant, Timer timer) {
+        return CompletableFuture.completedFuture(acquire());
+    }
+
+    /**
+     * Releases the permit acquired by the request.
+     */
     void complete();
+
+    /**
+     * Releases the permit acquired by the request and reports its round trip time.
+     * <p>
+     * Limiters that adapt their limit to the observed latency use the round trip time as a sample,
+     * the others simply release the permit.
+     * </p>
+     *
+     * @param rttNanos the round trip time of the request in nanoseconds
+     */
+    default void complete(long rttNanos) {
+        complete();
+    }
+
+    /**
+     * Returns how much of the concurrency limit is currently in use.
+     * <p>
+     * It is used to shed the less critical requests before the limit is reached.
+     * The default implementation returns 0 for limiters which cannot estimate it.
+     * </p>
+     *
+     * @return the utilization between 0 (idle) and 1 (exhausted)
+     */
+    default double getUtilization() {
+        return 0D;
+    }
 }
@@ -0,0 +1,350 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.concurrencylimit.bulkhead;
+
+import com.jd.live.agent.core.util.option.MapOption;
+import com.jd.live.agent.core.util.option.Option;
+import com.jd.live.agent.core.util.time.Timeout;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.invoke.concurrencylimit.AbstractConcurrencyLimiter;
+import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A concurrency limiter with a bounded wait queue.
+ * <p>
+ * When all the permits are in use, the request waits in the queue of its tenant up to the {@code maxWaitMs} of the
+ * policy instead of being rejected immediately, so short bursts are absorbed once the permits are released. The
+ * queued requests are dequeued by deficit round robin across the tenants: every tenant with waiting requests is
+ * granted {@code quantum} permits per round, so a noisy tenant cannot monopolize the released permits.
+ * </p>
+ * <p>
+ * A released permit is handed over to the next waiter directly, so a new request never overtakes the queue.
+ * The stage of the waiter is completed on the thread releasing the permit or on the timer, so the caller should
+ * continue on its own executor. A synchronous waiter parks its thread for at most {@code maxWaitMs} instead.
+ * The waiters are rejected when the limiter is closed.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class BulkheadConcurrencyLimiter extends AbstractConcurrencyLimiter {
+
+    private static final String KEY_MAX_QUEUE_SIZE = "maxQueueSize";
+
+    private static final String KEY_QUANTUM = "quantum";
+
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 100;
+
+    private static final int DEFAULT_QUANTUM = 1;
+
+    private static final String TASK_NAME = "Bulkhead-expire";
+
+    private final int maxConcurrency;
+
+    private final int maxQueueSize;
+
+    private final long maxWaitMs;
+
+    private final int quantum;
+
+    private final Object mutex = new Object();
+
+    /**
+     * The tenants with waiting requests, in the order of the round robin.
+     */
+    private final ArrayDeque<TenantQueue> rounds = new ArrayDeque<>();
+
+    private final Map<String, TenantQueue> tenants = new HashMap<>();
+
+    private int inflight;
+
+    private int queued;
+
+    public BulkheadConcurrencyLimiter(ConcurrencyLimitPolicy policy) {
+        super(policy);
+        Option option = MapOption.of(policy.getParameters());
+        Integer concurrency = policy.getMaxConcurrency();
+        Long waitMs = policy.getMaxWaitMs();
+        this.maxConcurrency = concurrency == null || concurrency <= 0 ? Integer.MAX_VALUE : concurrency;
+        this.maxQueueSize = option.getPositive(KEY_MAX_QUEUE_SIZE, DEFAULT_MAX_QUEUE_SIZE);
+        this.maxWaitMs = waitMs == null || waitMs < 0 ? 0 : waitMs;
+        this.quantum = option.getPositive(KEY_QUANTUM, DEFAULT_QUANTUM);
+    }
+
+    @Override
+    protected boolean doAcquire() {
+        synchronized (mutex) {
+            if (queued == 0 && inflight < maxConcurrency) {
+                inflight++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    protected boolean doAcquire(String tenant) {
+        Waiter waiter;
+        synchronized (mutex) {
+            if (queued == 0 && inflight < maxConcurrency) {
+                inflight++;
+                return true;
+            } else if (maxWaitMs <= 0 || queued >= maxQueueSize) {
+                return false;
+            }
+            waiter = enqueue(tenant);
+        }
+        return await(waiter);
+    }
+
+    @Override
+    protected CompletionStage<Boolean> doAcquireAsync(String tenant, Timer timer) {
+        Waiter waiter;
+        synchronized (mutex) {
+            if (queued == 0 && inflight < maxConcurrency) {
+                inflight++;
+                return ACQUIRED;
+            } else if (maxWaitMs <= 0 || timer == null || queued >= maxQueueSize) {
+                return REJECTED;
+            }
+            waiter = enqueue(tenant);
+        }
+        waiter.timeout = timer.delay(TASK_NAME, maxWaitMs, () -> expire(waiter));
+        return waiter.future;
+    }
+
+    @Override
+    public void complete() {
+        Waiter waiter;
+        synchronized (mutex) {
+            waiter = poll();
+            if (waiter == null && inflight > 0) {
+                inflight--;
+            }
+        }
+        if (waiter != null) {
+            // the permit is handed over to the waiter.
+            waiter.grant();
+        }
+    }
+
+    @Override
+    protected int getInflight() {
+        synchronized (mutex) {
+            return inflight + queued;
+        }
+    }
+
+    @Override
+    public double getUtilization() {
+        synchronized (mutex) {
+            return queued > 0 ? 1D : (double) inflight / maxConcurrency;
+        }
+    }
+
+    @Override
+    protected void doClose() {
+        List<Waiter> waiters = new ArrayList<>();
+        synchronized (mutex) {
+            Waiter waiter;
+            while ((waiter = poll()) != null) {
+                waiters.add(waiter);
+            }
+        }
+        // the permits of the closed limiter are not released to the waiters anymore.
+        waiters.forEach(Waiter::reject);
+    }
+
+    /**
+     * Returns the number of the queued requests.
+     *
+     * @return the number of the queued requests
+     */
+    public int getQueued() {
+        synchronized (mutex) {
+            return queued;
+        }
+    }
+
+    /**
+     * Queues a waiter under its tenant. Must be called with the mutex held.
+     *
+     * @param tenant the tenant of the request
+     * @return the waiter
+     */
+    private Waiter enqueue(String tenant) {
+        String key = tenant == null ? "" : tenant;
+        TenantQueue queue = tenants.get(key);
+        if (queue == null) {
+            queue = new TenantQueue(key);
+            tenants.put(key, queue);
+            rounds.addLast(queue);
+        }
+        Waiter waiter = new Waiter(queue);
+        queue.waiters.addLast(waiter);
+        queued++;
+        return waiter;
+    }
+
+    /**
+     * Parks the calling thread until the waiter is granted, rejected or its maximum wait time expires.
+     *
+     * @param waiter the waiter
+     * @return true if the permit is handed over to the waiter
+     */
+    private boolean await(Waiter waiter) {
+        boolean interrupted = false;
+        try {
+            return waiter.future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } catch (TimeoutException | ExecutionException ignored) {
+        }
+        // a permit granted in the meantime is kept, the future is completed right after the waiter is dequeued.
+        expire(waiter);
+        try {
+            return waiter.future.join();
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Dequeues the next waiter by deficit round robin. Must be called with the mutex held.
+     *
+     * @return the next waiter, or null if the queue is empty
+     */
+    private Waiter poll() {
+        TenantQueue queue = rounds.peekFirst();
+        if (queue == null) {
+            return null;
+        }
+        if (queue.deficit <= 0) {
+            // a new turn of the tenant
+            queue.deficit += quantum;
+        }
+        Waiter waiter = queue.waiters.pollFirst();
+        queue.deficit--;
+        queued--;
+        waiter.done = true;
+        if (queue.waiters.isEmpty()) {
+            remove(queue);
+        } else if (queue.deficit <= 0) {
+            rounds.pollFirst();
+            rounds.addLast(queue);
+        }
+        return waiter;
+    }
+
+    /**
+     * Rejects the waiter when its maximum wait time expires.
+     *
+     * @param waiter the waiter
+     */
+    private void expire(Waiter waiter) {
+        synchronized (mutex) {
+            if (waiter.done) {
+                return;
+            }
+            waiter.done = true;
+            TenantQueue queue = waiter.queue;
+            queue.waiters.remove(waiter);
+            queued--;
+            if (queue.waiters.isEmpty()) {
+                rounds.remove(queue);
+                remove(queue);
+            }
+        }
+        waiter.future.complete(false);
+    }
+
+    /**
+     * Removes the empty tenant queue. Must be called with the mutex held.
+     *
+     * @param queue the tenant queue
+     */
+    private void remove(TenantQueue queue) {
+        if (rounds.peekFirst() == queue) {
+            rounds.pollFirst();
+        }
+        tenants.remove(queue.key);
+    }
+
+    /**
+     * The waiting requests of a tenant.
+     */
+    private static class TenantQueue {
+
+        private final String key;
+
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+        private int deficit;
+
+        TenantQueue(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A queued request.
+     */
+    private static class Waiter {
+
+        private final TenantQueue queue;
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private volatile Timeout timeout;
+
+        /**
+         * Whether the waiter has been dequeued or expired, guarded by the mutex.
+         */
+        private boolean done;
+
+        Waiter(TenantQueue queue) {
+            this.queue = queue;
+        }
+
+        void grant() {
+            complete(true);
+        }
+
+        void reject() {
+            complete(false);
+        }
+
+        private void complete(boolean acquired) {
+            Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
+            }
+            future.complete(acquired);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.concurrencylimit.gradient;
+
+import com.jd.live.agent.core.util.option.MapOption;
+import com.jd.live.agent.core.util.option.Option;
+import com.jd.live.agent.governance.invoke.concurrencylimit.AbstractConcurrencyLimiter;
+import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Math.*;
+
+/**
+ * A concurrency limiter that adapts the limit to the observed latency.
+ * <p>
+ * The limiter keeps an estimate of the no-load round trip time, which is the minimum round trip time observed
+ * since the last probe. The samples are aggregated into windows, and after each window the limit is multiplied
+ * by the gradient {@code tolerance * noLoadRtt / rtt}, bounded to [0.5, 1], and a queue allowance of
+ * {@code sqrt(limit)} is added. When the latency stays within the tolerance the limit grows, and when requests
+ * start queueing in the downstream the limit shrinks until the queue drains.
+ * </p>
+ * <p>
+ * The no-load round trip time goes stale when the capacity of the downstream changes, so the limiter probes
+ * it periodically: the limit is lowered by the {@code probeRatio} to drain part of the queue, and the minimum
+ * of the next window becomes the new estimate. Only the round trip times of successful requests are sampled.
+ * The configured {@code maxConcurrency} of the policy is the upper bound of the limit.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class GradientConcurrencyLimiter extends AbstractConcurrencyLimiter {
+
+    private static final String KEY_INITIAL_LIMIT = "initialLimit";
+
+    private static final String KEY_MIN_LIMIT = "minLimit";
+
+    private static final String KEY_TOLERANCE = "tolerance";
+
+    private static final String KEY_SMOOTHING = "smoothing";
+
+    private static final String KEY_WINDOW_SIZE = "windowSize";
+
+    private static final String KEY_PROBE_INTERVAL = "probeInterval";
+
+    private static final String KEY_PROBE_RATIO = "probeRatio";
+
+    private static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    private static final int DEFAULT_MIN_LIMIT = 1;
+
+    private static final double DEFAULT_TOLERANCE = 1.5D;
+
+    private static final double DEFAULT_SMOOTHING = 0.2D;
+
+    private static final int DEFAULT_WINDOW_SIZE = 10;
+
+    private static final int DEFAULT_PROBE_INTERVAL = 1000;
+
+    private static final double DEFAULT_PROBE_RATIO = 0.8D;
+
+    private static final double MIN_GRADIENT = 0.5D;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final double smoothing;
+
+    private final int windowSize;
+
+    private final int probeInterval;
+
+    private final double probeRatio;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private long noLoadRtt;
+
+    private int windowToProbe;
+
+    private int samples;
+
+    private long sumRtt;
+
+    private long minRtt = Long.MAX_VALUE;
+
+    private int maxInflight;
+
+    public GradientConcurrencyLimiter(ConcurrencyLimitPolicy policy) {
+        super(policy);
+        Option option = MapOption.of(policy.getParameters());
+        Integer maxConcurrency = policy.getMaxConcurrency();
+        this.maxLimit = maxConcurrency == null || maxConcurrency <= 0 ? Integer.MAX_VALUE : maxConcurrency;
+        this.minLimit = min(option.getPositive(KEY_MIN_LIMIT, DEFAULT_MIN_LIMIT), maxLimit);
+        this.tolerance = max(option.getPositive(KEY_TOLERANCE, DEFAULT_TOLERANCE), 1D);
+        this.smoothing = min(option.getPositive(KEY_SMOOTHING, DEFAULT_SMOOTHING), 1D);
+        this.windowSize = option.getPositive(KEY_WINDOW_SIZE, DEFAULT_WINDOW_SIZE);
+        this.probeInterval = option.getPositive(KEY_PROBE_INTERVAL, DEFAULT_PROBE_INTERVAL);
+        this.probeRatio = min(option.getPositive(KEY_PROBE_RATIO, DEFAULT_PROBE_RATIO), 1D);
+        this.estimatedLimit = max(min(option.getPositive(KEY_INITIAL_LIMIT, DEFAULT_INITIAL_LIMIT), maxLimit), minLimit);
+        this.limit = (int) estimatedLimit;
+        this.windowToProbe = probeInterval;
+    }
+
+    @Override
+    protected boolean doAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    @Override
+    public void complete() {
+        inflight.decrementAndGet();
+    }
+
+    @Override
+    public void complete(long rttNanos) {
+        int current = inflight.getAndDecrement();
+        if (rttNanos > 0) {
+            sample(rttNanos, current);
+        }
+    }
+
+    @Override
+    protected int getInflight() {
+        return inflight.get();
+    }
+
+    @Override
+    public double getUtilization() {
+        int current = limit;
+        return current <= 0 ? 1D : Math.min((double) inflight.get() / current, 1D);
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the estimated no-load round trip time.
+     *
+     * @return the no-load round trip time in nanoseconds, or 0 if it is being probed
+     */
+    public synchronized long getNoLoadRtt() {
+        return noLoadRtt;
+    }
+
+    /**
+     * Adds a sample to the current window, and updates the limit when the window is full.
+     *
+     * @param rtt      the round trip time in nanoseconds
+     * @param inflight the number of requests in flight when the request completed
+     */
+    private synchronized void sample(long rtt, int inflight) {
+        samples++;
+        sumRtt += rtt;
+        minRtt = min(minRtt, rtt);
+        maxInflight = max(maxInflight, inflight);
+        if (samples >= windowSize) {
+            update(sumRtt / samples, minRtt, maxInflight);
+            samples = 0;
+            sumRtt = 0;
+            minRtt = Long.MAX_VALUE;
+            maxInflight = 0;
+        }
+    }
+
+    private void update(long rtt, long windowMinRtt, int windowMaxInflight) {
+        if (noLoadRtt == 0 || windowMinRtt < noLoadRtt) {
+            noLoadRtt = windowMinRtt;
+        }
+        double queueSize = sqrt(estimatedLimit);
+        double gradient = max(MIN_GRADIENT, min(1D, tolerance * noLoadRtt / rtt));
+        if (gradient < 1D || windowMaxInflight * 2 >= estimatedLimit) {
+            // do not grow the limit when the application does not use it.
+            double newLimit = estimatedLimit * gradient + queueSize;
+            estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        }
+        if (--windowToProbe <= 0) {
+            // shrink the queue a little and measure the no-load round trip time again.
+            windowToProbe = probeInterval;
+            noLoadRtt = 0;
+            estimatedLimit = max(estimatedLimit * probeRatio, queueSize);
+        }
+        estimatedLimit = max(minLimit, min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.concurrencylimit.gradient;
+
+import com.jd.live.agent.core.extension.annotation.Extension;
+import com.jd.live.agent.core.inject.annotation.Injectable;
+import com.jd.live.agent.governance.invoke.concurrencylimit.AbstractConcurrencyLimiterFactory;
+import com.jd.live.agent.governance.invoke.concurrencylimit.ConcurrencyLimiter;
+import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+
+/**
+ * GradientConcurrencyLimiterFactory
+ *
+ * @since 1.7.0
+ */
+@Injectable
+@Extension(value = "Gradient")
+public class GradientConcurrencyLimiterFactory extends AbstractConcurrencyLimiterFactory {
+
+    @Override
+    protected ConcurrencyLimiter create(ConcurrencyLimitPolicy policy) {
+        return new GradientConcurrencyLimiter(policy);
+    }
+}
@@ -16,9 +16,12 @@
 package com.jd.live.agent.governance.invoke.fault;
 
 import com.jd.live.agent.core.extension.annotation.Extensible;
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.policy.service.fault.FaultInjectionPolicy;
 
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Represents an interface for fault injection mechanisms.
@@ -37,4 +40,21 @@ public interface FaultInjection {
      * @param random A random number generator used to introduce variability in the permit acquisition process.
      */
     void acquire(FaultInjectionPolicy policy, Random random);
+
+    /**
+     * Attempts to obtain a permit without blocking the calling thread.
+     * <p>
+     * The default implementation delegates to {@link #acquire(FaultInjectionPolicy, Random)}, implementations
+     * which wait should override it and complete the result through the timer.
+     * </p>
+     *
+     * @param policy The fault injection policy to be used when attempting to acquire a permit.
+     * @param random A random number generator used to introduce variability in the permit acquisition process.
+     * @param timer  The timer used to complete the result when the permit is granted.
+     * @return a stage completed when the permit is granted.
+     */
+    default CompletionStage<Void> acquireAsync(FaultInjectionPolicy policy, Random random, Timer timer) {
+        acquire(policy, random);
+        return CompletableFuture.completedFuture(null);
+    }
 }
@@ -18,13 +18,20 @@ package com.jd.live.agent.governance.invoke.fault.delay;
 import com.jd.live.agent.bootstrap.logger.Logger;
 import com.jd.live.agent.bootstrap.logger.LoggerFactory;
 import com.jd.live.agent.core.extension.annotation.Extension;
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.invoke.fault.FaultInjection;
 import com.jd.live.agent.governance.policy.service.fault.FaultInjectionPolicy;
 
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * A fault injection implementation that introduces delays in the request processing.
+ * <p>
+ * Synchronous requests are delayed by sleeping on the request thread. Asynchronous requests are delayed by the timer,
+ * so that the event loop threads keep serving the other traffic during the delay.
+ * </p>
  *
  * @since 1.4.0
  */
@@ -33,17 +40,45 @@ public class DelayFaultInjection implements FaultInjection {
 
     private static final Logger logger = LoggerFactory.getLogger(DelayFaultInjection.class);
 
+    private static final String TASK_NAME = "FaultInjection-delay";
+
+    private static final CompletionStage<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
     @Override
     public void acquire(FaultInjectionPolicy policy, Random random) {
-        if (policy.getDelayTimeMs() > 0 && (policy.getPercent() <= 0 || random.nextInt(100) < policy.getPercent())) {
+        if (isDelayed(policy, random)) {
             try {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Start delaying request by fault injection, delay time is " + policy.getDelayTimeMs() + "ms.");
-                }
                 Thread.sleep(policy.getDelayTimeMs());
             } catch (InterruptedException ignored) {
                 // ignored
             }
         }
     }
+
+    @Override
+    public CompletionStage<Void> acquireAsync(FaultInjectionPolicy policy, Random random, Timer timer) {
+        if (!isDelayed(policy, random)) {
+            return ACQUIRED;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        timer.delay(TASK_NAME, policy.getDelayTimeMs(), () -> future.complete(null));
+        return future;
+    }
+
+    /**
+     * Determines whether the request should be delayed.
+     *
+     * @param policy the fault injection policy
+     * @param random the random number generator
+     * @return true if the request should be delayed
+     */
+    private boolean isDelayed(FaultInjectionPolicy policy, Random random) {
+        if (policy.getDelayTimeMs() > 0 && (policy.getPercent() <= 0 || random.nextInt(100) < policy.getPercent())) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Start delaying request by fault injection, delay time is " + policy.getDelayTimeMs() + "ms.");
+            }
+            return true;
+        }
+        return false;
+    }
 }
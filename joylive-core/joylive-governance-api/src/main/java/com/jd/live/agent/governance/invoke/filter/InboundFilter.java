@@ -44,6 +44,11 @@ public interface InboundFilter {
      */
     int ORDER_READY = 0;
 
+    /**
+     * Execution order for the deadline filter
+     */
+    int ORDER_DEADLINE = ORDER_READY + 50;
+
     /**
      * Execution order for the request auth filter
      */
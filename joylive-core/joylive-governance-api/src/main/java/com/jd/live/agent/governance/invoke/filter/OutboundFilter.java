@@ -40,7 +40,9 @@ import java.util.concurrent.CompletionStage;
 @Extensible(value = "OutboundFilter")
 public interface OutboundFilter {
 
-    int ORDER_COUNTER = 100;
+    int ORDER_DEADLINE = 0;
+
+    int ORDER_COUNTER = ORDER_DEADLINE + 100;
 
     int ORDER_FAULT_INJECTION = ORDER_COUNTER + 100;
 
@@ -19,6 +19,9 @@ import com.jd.live.agent.core.extension.ExtensionInitializer;
 import com.jd.live.agent.core.extension.annotation.Extension;
 import com.jd.live.agent.core.inject.annotation.Inject;
 import com.jd.live.agent.core.inject.annotation.Injectable;
+import com.jd.live.agent.core.util.Futures;
+import com.jd.live.agent.core.util.option.MapOption;
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.annotation.ConditionalOnFlowControlEnabled;
 import com.jd.live.agent.governance.config.GovernanceConfig;
 import com.jd.live.agent.governance.invoke.InboundInvocation;
@@ -29,15 +32,29 @@ import com.jd.live.agent.governance.invoke.filter.InboundFilterChain;
 import com.jd.live.agent.governance.policy.live.FaultType;
 import com.jd.live.agent.governance.policy.service.ServicePolicy;
 import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
 import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.jd.live.agent.core.Constants.LABEL_SERVICE_CONSUMER;
 
 /**
  * ConcurrencyLimitFilter
+ * <p>
+ * When the policy has a {@code maxWaitMs}, a limiter with a wait queue keeps the request waiting for a released
+ * permit instead of rejecting it. The request is queued under its tenant, which is the value of the request tag
+ * named by the {@code tenantTag} parameter of the policy. The queued request is resumed on the executor of the
+ * request, e.g. its event loop, instead of the thread releasing the permit or the timer. A synchronous request is
+ * queued as well and parks its worker thread for at most {@code maxWaitMs}, so the policy of a synchronous stack
+ * should keep the wait time short compared to the size of its worker pool.
+ * </p>
  *
  * @since 1.0.0
  */
@@ -52,9 +69,18 @@ public class ConcurrencyLimitFilter implements InboundFilter, ExtensionInitializ
     @Inject(nullable = true)
     private ConcurrencyLimiterFactory defaultFactory;
 
+    private static final String KEY_TENANT_TAG = "tenantTag";
+
+    private static final CompletableFuture<Boolean> ACQUIRED = CompletableFuture.completedFuture(true);
+
+    private static final CompletableFuture<Boolean> REJECTED = CompletableFuture.completedFuture(false);
+
     @Inject(GovernanceConfig.COMPONENT_GOVERNANCE_CONFIG)
     private GovernanceConfig governanceConfig;
 
+    @Inject(Timer.COMPONENT_TIMER)
+    private Timer timer;
+
     private String defaultType;
 
     @Override
@@ -68,26 +94,159 @@ public class ConcurrencyLimitFilter implements InboundFilter, ExtensionInitializ
         List<ConcurrencyLimitPolicy> concurrencyLimitPolicies = servicePolicy == null ? null : servicePolicy.getConcurrencyLimitPolicies();
         List<ConcurrencyLimiter> limiters = new ArrayList<>();
         if (null != concurrencyLimitPolicies && !concurrencyLimitPolicies.isEmpty()) {
-            for (ConcurrencyLimitPolicy policy : concurrencyLimitPolicies) {
-                // match logic
-                if (policy.getMaxConcurrency() != null && policy.getMaxConcurrency() > 0 && policy.match(invocation)) {
-                    ConcurrencyLimiter limiter = getConcurrencyLimiter(policy);
-                    if (null != limiter && !limiter.acquire()) {
-                        invocation.reject(FaultType.LIMIT,
-                                "The request is rejected by concurrency limiter. maxConcurrency=" +
-                                        policy.getMaxConcurrency());
+            return filter(invocation, chain, concurrencyLimitPolicies, 0, limiters);
+        }
+        return complete(invocation, chain, limiters);
+    }
+
+    /**
+     * Acquires the permits of the matched policies starting at the given index.
+     * <p>
+     * When a permit is queued, the asynchronous request is continued on its executor by the stage of the limiter
+     * so that the calling thread is not blocked. The synchronous request parks its thread until it is granted.
+     * </p>
+     *
+     * @param invocation the inbound invocation.
+     * @param chain      the filter chain.
+     * @param policies   the concurrency limit policies.
+     * @param index      the index of the policy to start from.
+     * @param limiters   the limiters whose permits have been acquired.
+     * @return a completion stage of the filter chain.
+     */
+    private <T extends InboundRequest> CompletionStage<Object> filter(InboundInvocation<T> invocation,
+                                                                    InboundFilterChain chain,
+                                                                    List<ConcurrencyLimitPolicy> policies,
+                                                                    int index,
+                                                                    List<ConcurrencyLimiter> limiters) {
+        for (int i = index; i < policies.size(); i++) {
+            ConcurrencyLimitPolicy policy = policies.get(i);
+            // match logic
+            if (policy.getMaxConcurrency() != null && policy.getMaxConcurrency() > 0 && policy.match(invocation)) {
+                ConcurrencyLimiter limiter = getConcurrencyLimiter(policy);
+                if (null != limiter) {
+                    Criticality criticality = invocation.getCriticality();
+                    if (criticality.getRatio() < 1D && criticality.isShed(limiter.getUtilization())) {
+                        reject(invocation, limiters, "The " + criticality
+                                + " request is shed by concurrency limiter. maxConcurrency=" + policy.getMaxConcurrency());
                     }
-                    if (limiter != null) {
+                    CompletableFuture<Boolean> future = invocation.getRequest().isAsync()
+                            ? limiter.acquireAsync(getTenant(invocation, policy), timer).toCompletableFuture()
+                            : (limiter.acquire(getTenant(invocation, policy)) ? ACQUIRED : REJECTED);
+                    if (future.isDone()) {
+                        if (!future.join()) {
+                            reject(invocation, limiters, "The request is rejected by concurrency limiter. maxConcurrency="
+                                    + policy.getMaxConcurrency());
+                        }
                         limiters.add(limiter);
+                    } else {
+                        int next = i + 1;
+                        CompletableFuture<Object> result = new CompletableFuture<>();
+                        future.whenCompleteAsync((acquired, error) -> {
+                            try {
+                                if (error != null) {
+                                    result.completeExceptionally(error);
+                                } else if (!acquired) {
+                                    reject(invocation, limiters, "The request is rejected by concurrency limiter. maxConcurrency="
+                                            + policy.getMaxConcurrency());
+                                } else {
+                                    limiters.add(limiter);
+                                    filter(invocation, chain, policies, next, limiters).whenComplete((v, t) -> Futures.complete(result, v, t));
+                                }
+                            } catch (Throwable e) {
+                                result.completeExceptionally(e);
+                            }
+                        }, getExecutor(invocation));
+                        return result;
                     }
                 }
             }
         }
-        return chain.filter(invocation).whenComplete((o, throwable) -> {
+        return complete(invocation, chain, limiters);
+    }
+
+    /**
+     * Invokes the filter chain and releases the permits when it completes.
+     *
+     * @param invocation the inbound invocation.
+     * @param chain      the filter chain.
+     * @param limiters   the limiters whose permits have been acquired.
+     * @return a completion stage of the filter chain.
+     */
+    private <T extends InboundRequest> CompletionStage<Object> complete(InboundInvocation<T> invocation,
+                                                                      InboundFilterChain chain,
+                                                                      List<ConcurrencyLimiter> limiters) {
+        long startTime = System.nanoTime();
+        try {
+            return chain.filter(invocation).whenComplete((o, throwable) -> {
+                // the round trip time of a failed request does not reflect the latency of the downstream.
+                long rtt = throwable == null ? System.nanoTime() - startTime : 0;
+                for (ConcurrencyLimiter limiter : limiters) {
+                    if (rtt > 0) {
+                        limiter.complete(rtt);
+                    } else {
+                        limiter.complete();
+                    }
+                }
+            });
+        } catch (Throwable e) {
+            // rejected by a later filter before it was processed.
             for (ConcurrencyLimiter limiter : limiters) {
                 limiter.complete();
             }
-        });
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the executor to resume the queued request on.
+     * <p>
+     * The continuation runs in place if the request has no executor or its executor is shut down.
+     * </p>
+     *
+     * @param invocation the inbound invocation.
+     * @return the executor.
+     */
+    private <T extends InboundRequest> Executor getExecutor(InboundInvocation<T> invocation) {
+        Executor executor = invocation.getRequest().getExecutor();
+        if (executor == null) {
+            return Runnable::run;
+        }
+        return command -> {
+            try {
+                executor.execute(command);
+            } catch (RejectedExecutionException e) {
+                command.run();
+            }
+        };
+    }
+
+    /**
+     * Releases the permits acquired from the previous limiters and rejects the request.
+     *
+     * @param invocation the inbound invocation.
+     * @param limiters   the limiters whose permits have been acquired.
+     * @param message    the reject message.
+     */
+    private <T extends InboundRequest> void reject(InboundInvocation<T> invocation, List<ConcurrencyLimiter> limiters, String message) {
+        for (ConcurrencyLimiter limiter : limiters) {
+            limiter.complete();
+        }
+        invocation.reject(FaultType.LIMIT, message);
+    }
+
+    /**
+     * Returns the tenant of the request, which is only needed when the request can be queued.
+     *
+     * @param invocation the inbound invocation.
+     * @param policy     the concurrency limit policy.
+     * @return the tenant, or null if the request is not queued.
+     */
+    private <T extends InboundRequest> String getTenant(InboundInvocation<T> invocation, ConcurrencyLimitPolicy policy) {
+        if (policy.getMaxWaitMs() == null || policy.getMaxWaitMs() <= 0) {
+            return null;
+        }
+        String tag = MapOption.of(policy.getParameters()).getString(KEY_TENANT_TAG, LABEL_SERVICE_CONSUMER);
+        return invocation.getRequest().getHeader(tag);
     }
 
     /**
@@ -0,0 +1,89 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.filter.inbound;
+
+import com.jd.live.agent.core.extension.annotation.Extension;
+import com.jd.live.agent.governance.annotation.ConditionalOnFlowControlEnabled;
+import com.jd.live.agent.governance.config.GovernanceConfig;
+import com.jd.live.agent.governance.config.ServiceConfig;
+import com.jd.live.agent.governance.context.RequestContext;
+import com.jd.live.agent.governance.context.bag.Carrier;
+import com.jd.live.agent.governance.invoke.InvocationContext;
+import com.jd.live.agent.governance.invoke.InboundInvocation;
+import com.jd.live.agent.governance.invoke.filter.InboundFilter;
+import com.jd.live.agent.governance.invoke.filter.InboundFilterChain;
+import com.jd.live.agent.governance.policy.live.FaultType;
+import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * DeadlineFilter
+ * <p>
+ * Rejects the request if its deadline has already expired, so that no work is spent on a result nobody waits for.
+ * The absolute deadline is computed from the remaining time budget propagated by the caller when the
+ * transmission context is read at the inbound edge.
+ * </p>
+ * <p>
+ * When the caller has not propagated a time budget, the deadline is set from the timeout of the framework,
+ * or else from the configured {@link ServiceConfig#getInboundTimeout() inbound timeout}, so that the downstream
+ * calls of this request are bounded as well.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+@Extension(value = "DeadlineFilter", order = InboundFilter.ORDER_DEADLINE)
+@ConditionalOnFlowControlEnabled
+public class DeadlineFilter implements InboundFilter {
+
+    @Override
+    public <T extends InboundRequest> CompletionStage<Object> filter(InboundInvocation<T> invocation, InboundFilterChain chain) {
+        long deadline = RequestContext.getDeadline();
+        if (deadline <= 0) {
+            setDeadline(invocation);
+        } else {
+            long now = System.currentTimeMillis();
+            if (now >= deadline) {
+                invocation.reject(FaultType.DEADLINE, "The deadline of the request has been exceeded by "
+                        + (now - deadline) + "ms.");
+            }
+        }
+        return chain.filter(invocation);
+    }
+
+    /**
+     * Sets the deadline of the request from the timeout of the framework or the configured inbound timeout.
+     *
+     * @param invocation the inbound invocation
+     */
+    private void setDeadline(InboundInvocation<?> invocation) {
+        // only the carrier created by the transmission plugins is used, it is removed when the request completes.
+        Carrier carrier = RequestContext.get();
+        if (carrier == null) {
+            return;
+        }
+        long timeout = invocation.getRequest().getTimeout();
+        if (timeout <= 0) {
+            InvocationContext context = invocation.getContext();
+            GovernanceConfig governanceConfig = context == null ? null : context.getGovernanceConfig();
+            ServiceConfig serviceConfig = governanceConfig == null ? null : governanceConfig.getServiceConfig();
+            timeout = serviceConfig == null ? 0 : serviceConfig.getInboundTimeout();
+        }
+        if (timeout > 0) {
+            carrier.setAttribute(Carrier.ATTRIBUTE_DEADLINE, System.currentTimeMillis() + timeout);
+        }
+    }
+}
@@ -27,26 +27,30 @@ import com.jd.live.agent.governance.config.ServiceConfig;
 import com.jd.live.agent.governance.invoke.InboundInvocation;
 import com.jd.live.agent.governance.invoke.filter.InboundFilter;
 import com.jd.live.agent.governance.invoke.filter.InboundFilterChain;
+import com.jd.live.agent.governance.invoke.loadlimit.BbrAdmission;
+import com.jd.live.agent.governance.invoke.loadlimit.LoadSampler;
+import com.jd.live.agent.governance.invoke.loadlimit.LoadSnapshot;
 import com.jd.live.agent.governance.policy.live.FaultType;
 import com.jd.live.agent.governance.policy.service.ServicePolicy;
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
 import com.jd.live.agent.governance.policy.service.limit.LoadLimitPolicy;
 import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
-import com.sun.management.OperatingSystemMXBean;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.RuntimeMXBean;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A load limiting filter for inbound requests.
  * <p>
- * This filter checks the system load and rejects requests if the load exceeds a configured threshold.
- * It uses the JMX API to retrieve system metrics and supports application running in container environments.
+ * This filter checks the load of the application against the configured thresholds. The cpu usage is sampled
+ * from the cgroup filesystem in container environments and from JMX otherwise. When a threshold is reached,
+ * requests are admitted only while the requests in flight are within the bandwidth-delay product of the
+ * application, see {@link BbrAdmission}.
+ * </p>
+ * <p>
+ * The thresholds and the requests in flight are scaled by the ratio of the {@link Criticality} of the request,
+ * so the sheddable requests are rejected first and the critical ones keep the remaining capacity.
  * </p>
  */
 @Injectable
@@ -56,19 +60,13 @@ public class LoadLimitFilter implements InboundFilter {
     private static final Logger logger = LoggerFactory.getLogger(LoadLimitFilter.class);
     public static final String LOAD_LIMITER_TIMER = "load-limiter";
 
-    private static final int DEFAULT_INTERVAL = 2000;
-
-    private static volatile SystemLoad load;
-
-    private static volatile long processCpuTime = 0;
+    private static final long RETRY_INTERVAL = 10000;
 
-    private static volatile long processUpTime = 0;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
 
-    private static OperatingSystemMXBean osBean;
+    private final BbrAdmission admission = new BbrAdmission();
 
-    private static RuntimeMXBean runtimeBean;
-
-    private static final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile LoadSampler sampler;
 
     @Inject
     private Timer timer;
@@ -80,99 +78,88 @@ public class LoadLimitFilter implements InboundFilter {
         ServicePolicy servicePolicy = invocation.getServiceMetadata().getServicePolicy();
         List<LoadLimitPolicy> loadLimitPolicies = servicePolicy == null ? null : servicePolicy.getLoadLimitPolicies();
 
+        boolean limited = false;
+        boolean overloaded = false;
+        LoadSnapshot load = sampler == null ? null : sampler.getSnapshot();
+        Criticality criticality = null;
+        double ratio = 1D;
         if (limiterConfig != null && !limiterConfig.isEmpty()) {
-            pass(invocation, new SystemLoad(limiterConfig.getCpuUsage(), limiterConfig.getLoadUsage()), load);
+            limited = true;
+            criticality = invocation.getCriticality();
+            ratio = criticality.getRatio();
+            overloaded = load != null && load.exceed(limiterConfig.getCpuUsage(), limiterConfig.getLoadUsage(), ratio);
         }
         if (null != loadLimitPolicies && !loadLimitPolicies.isEmpty()) {
             for (LoadLimitPolicy policy : loadLimitPolicies) {
                 if (!policy.isEmpty() && policy.match(invocation)) {
-                    pass(invocation, new SystemLoad(policy.getCpuUsage(), policy.getLoadUsage()), load);
+                    if (criticality == null) {
+                        criticality = invocation.getCriticality();
+                        ratio = criticality.getRatio();
+                    }
+                    limited = true;
+                    overloaded = overloaded || load != null && load.exceed(policy.getCpuUsage(), policy.getLoadUsage(), ratio);
                 }
             }
         }
-
-        return chain.filter(invocation);
-    }
-
-    /**
-     * Schedules the computation of system load metrics.
-     */
-    private void schedule() {
-        if (scheduled.compareAndSet(false, true)) {
-            addTask(DEFAULT_INTERVAL);
+        if (!limited) {
+            return chain.filter(invocation);
+        } else if (!scheduled.get()) {
+            schedule(limiterConfig == null ? new LoadLimiterConfig().getSampleInterval() : limiterConfig.getSampleInterval());
+        }
+        long startTime = System.nanoTime();
+        if (!admission.acquire(overloaded, ratio, startTime)) {
+            invocation.reject(FaultType.LIMIT, "The request is rejected by load limiter. " + load + ", criticality:" + criticality
+                    + ", inflight:" + admission.getInflight() + ", maxInflight:" + admission.getMaxInflight(startTime));
+        }
+        try {
+            return chain.filter(invocation).whenComplete((o, throwable) -> {
+                long now = System.nanoTime();
+                admission.complete(now - startTime, now);
+            });
+        } catch (Throwable e) {
+            // rejected by a later filter before it was processed.
+            admission.release();
+            throw e;
         }
     }
 
     /**
-     * Checks if the system load exceeds the configured threshold and rejects the request if necessary.
+     * Schedules the sampling of system load metrics.
      *
-     * @param invocation the inbound request to process
-     * @param threshold  the configured threshold for CPU usage and load average
-     * @param load       the current system load metrics
+     * @param interval the interval in milliseconds
      */
-    private void pass(InboundInvocation<?> invocation, SystemLoad threshold, SystemLoad load) {
-        if (!scheduled.get()) {
-            schedule();
-        }
-        if (threshold == null || load == null) {
-            return;
-        }
-        Integer cpuUsage = threshold.getCpuUsage();
-        Integer loadUsage = threshold.getLoadUsage();
-        if (cpuUsage != null && cpuUsage > 0 && cpuUsage <= load.getCpuUsage()
-                || loadUsage != null && loadUsage > 0 && loadUsage <= load.getLoadUsage()) {
-            invocation.reject(FaultType.LIMIT, "The request is rejected by load limiter. "
-                    + "load(cpu:" + load.getCpuUsage() + ", load:" + load.getLoadUsage() + "), "
-                    + "threshold(cpu:" + (cpuUsage == null ? "" : cpuUsage) + ", load:" + (loadUsage == null ? "" : loadUsage) + ")");
+    private void schedule(long interval) {
+        if (scheduled.compareAndSet(false, true)) {
+            addTask(0, interval);
         }
     }
 
     /**
-     * Schedules a task to compute the system load metrics after a specified delay.
+     * Schedules a task to sample the system load metrics after a specified delay.
      *
-     * @param time the delay in milliseconds before the task is executed
+     * @param time     the delay in milliseconds before the task is executed
+     * @param interval the interval in milliseconds
      */
-    private void addTask(long time) {
-        timer.delay(LOAD_LIMITER_TIMER, time, this::compute);
+    private void addTask(long time, long interval) {
+        timer.delay(LOAD_LIMITER_TIMER, time, () -> sample(interval));
     }
 
     /**
-     * Computes the system load metrics.
+     * Samples the system load metrics.
+     *
+     * @param interval the interval in milliseconds
      */
-    private void compute() {
+    private void sample(long interval) {
         try {
-            osBean = osBean == null ? ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class) : osBean;
-            runtimeBean = runtimeBean == null ? ManagementFactory.getPlatformMXBean(RuntimeMXBean.class) : runtimeBean;
-
-            // calculate process cpu usage to support application running in container environment
-            double systemCpuUsage = osBean.getSystemCpuLoad();
-            long newProcessCpuTime = osBean.getProcessCpuTime();
-            long newProcessUpTime = runtimeBean.getUptime();
-            int cpuCores = osBean.getAvailableProcessors();
-            long processCpuTimeDiffInMs = TimeUnit.NANOSECONDS.toMillis(newProcessCpuTime - processCpuTime);
-            long processUpTimeDiffInMs = newProcessUpTime - processUpTime;
-            double processCpuUsage = (double) processCpuTimeDiffInMs / processUpTimeDiffInMs / cpuCores;
-            processCpuTime = newProcessCpuTime;
-            processUpTime = newProcessUpTime;
-
-            double cpuUsage = Math.max(processCpuUsage, systemCpuUsage) * 100;
-            double loadAverage = osBean.getSystemLoadAverage();
-
-            load = new SystemLoad((int) cpuUsage, (int) loadAverage);
-            addTask(DEFAULT_INTERVAL);
+            if (sampler == null) {
+                sampler = new LoadSampler();
+                logger.info("Load limiter samples cpu usage from " + sampler.getType());
+            }
+            sampler.sample(System.nanoTime());
+            addTask(interval, interval);
         } catch (Throwable e) {
-            logger.warn("Failed to get system metrics from JMX. caused by " + e.getMessage());
-            addTask(10000);
+            logger.warn("Failed to sample system metrics. caused by " + e.getMessage());
+            addTask(RETRY_INTERVAL, interval);
         }
     }
-
-    @Getter
-    @AllArgsConstructor
-    private static class SystemLoad {
-
-        private Integer cpuUsage;
-
-        private Integer loadUsage;
-
-    }
 }
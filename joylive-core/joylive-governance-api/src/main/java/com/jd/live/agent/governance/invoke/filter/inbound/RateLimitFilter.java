@@ -19,6 +19,8 @@ import com.jd.live.agent.core.extension.ExtensionInitializer;
 import com.jd.live.agent.core.extension.annotation.Extension;
 import com.jd.live.agent.core.inject.annotation.Inject;
 import com.jd.live.agent.core.inject.annotation.Injectable;
+import com.jd.live.agent.core.util.Futures;
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.annotation.ConditionalOnFlowControlEnabled;
 import com.jd.live.agent.governance.config.GovernanceConfig;
 import com.jd.live.agent.governance.invoke.InboundInvocation;
@@ -28,12 +30,16 @@ import com.jd.live.agent.governance.invoke.ratelimit.RateLimiter;
 import com.jd.live.agent.governance.invoke.ratelimit.RateLimiterFactory;
 import com.jd.live.agent.governance.policy.live.FaultType;
 import com.jd.live.agent.governance.policy.service.ServicePolicy;
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * RateLimitFilter
@@ -52,6 +58,9 @@ public class RateLimitFilter implements InboundFilter, ExtensionInitializer {
     @Inject(GovernanceConfig.COMPONENT_GOVERNANCE_CONFIG)
     private GovernanceConfig governanceConfig;
 
+    @Inject(Timer.COMPONENT_TIMER)
+    private Timer timer;
+
     private String defaultType;
 
     @Override
@@ -64,12 +73,18 @@ public class RateLimitFilter implements InboundFilter, ExtensionInitializer {
         ServicePolicy servicePolicy = invocation.getServiceMetadata().getServicePolicy();
         List<RateLimitPolicy> policies = servicePolicy == null ? null : servicePolicy.getRateLimitPolicies();
         if (null != policies && !policies.isEmpty()) {
+            if (invocation.getRequest().isAsync()) {
+                return filterAsync(invocation, chain, policies, 0);
+            }
             for (RateLimitPolicy policy : policies) {
                 // match logic
                 if (policy.match(invocation)) {
                     RateLimiter rateLimiter = getRateLimiter(policy);
-                    if (null != rateLimiter && !rateLimiter.acquire()) {
-                        invocation.reject(FaultType.LIMIT, "The request is rejected by " + policy.getRealizeType() + " rate limiter. ");
+                    if (null != rateLimiter) {
+                        shed(invocation, policy, rateLimiter);
+                        if (!rateLimiter.acquire()) {
+                            invocation.reject(FaultType.LIMIT, "The request is rejected by " + policy.getRealizeType() + " rate limiter. ");
+                        }
                     }
                 }
             }
@@ -77,6 +92,97 @@ public class RateLimitFilter implements InboundFilter, ExtensionInitializer {
         return chain.filter(invocation);
     }
 
+    /**
+     * Acquires the permits of the matched policies without blocking the calling thread, starting at the given index.
+     * <p>
+     * The throttled request is continued when its permits become available, so event loop threads
+     * of the reactive frameworks are never blocked. It is resumed on the executor of the request, e.g. its
+     * event loop, and on the timer thread only if the request is not bound to any executor.
+     * </p>
+     *
+     * @param invocation the inbound invocation.
+     * @param chain      the filter chain.
+     * @param policies   the rate limit policies.
+     * @param index      the index of the policy to start from.
+     * @return a completion stage of the filter chain.
+     */
+    private <T extends InboundRequest> CompletionStage<Object> filterAsync(InboundInvocation<T> invocation,
+                                                                         InboundFilterChain chain,
+                                                                         List<RateLimitPolicy> policies,
+                                                                         int index) {
+        for (int i = index; i < policies.size(); i++) {
+            RateLimitPolicy policy = policies.get(i);
+            if (policy.match(invocation)) {
+                RateLimiter rateLimiter = getRateLimiter(policy);
+                if (null != rateLimiter) {
+                    shed(invocation, policy, rateLimiter);
+                    CompletableFuture<Boolean> future = rateLimiter.acquireAsync(timer).toCompletableFuture();
+                    if (future.isDone() && !future.isCompletedExceptionally()) {
+                        if (!future.join()) {
+                            invocation.reject(FaultType.LIMIT, "The request is rejected by " + policy.getRealizeType() + " rate limiter. ");
+                        }
+                    } else {
+                        int next = i + 1;
+                        CompletableFuture<Object> result = new CompletableFuture<>();
+                        future.whenCompleteAsync((acquired, error) -> {
+                            try {
+                                if (error != null) {
+                                    result.completeExceptionally(error);
+                                } else if (!acquired) {
+                                    invocation.reject(FaultType.LIMIT, "The request is rejected by " + policy.getRealizeType() + " rate limiter. ");
+                                } else {
+                                    filterAsync(invocation, chain, policies, next).whenComplete((v, t) -> Futures.complete(result, v, t));
+                                }
+                            } catch (Throwable e) {
+                                result.completeExceptionally(e);
+                            }
+                        }, getExecutor(invocation));
+                        return result;
+                    }
+                }
+            }
+        }
+        return chain.filter(invocation);
+    }
+
+    /**
+     * Returns the executor to resume the throttled request on.
+     * <p>
+     * The continuation runs in place if the request has no executor or its executor is shut down.
+     * </p>
+     *
+     * @param invocation the inbound invocation.
+     * @return the executor.
+     */
+    private <T extends InboundRequest> Executor getExecutor(InboundInvocation<T> invocation) {
+        Executor executor = invocation.getRequest().getExecutor();
+        if (executor == null) {
+            return Runnable::run;
+        }
+        return command -> {
+            try {
+                executor.execute(command);
+            } catch (RejectedExecutionException e) {
+                command.run();
+            }
+        };
+    }
+
+    /**
+     * Rejects the request before acquiring the permits if its criticality is shed at the current
+     * utilization of the rate limiter.
+     *
+     * @param invocation  the inbound invocation.
+     * @param policy      the rate limit policy.
+     * @param rateLimiter the rate limiter.
+     */
+    private <T extends InboundRequest> void shed(InboundInvocation<T> invocation, RateLimitPolicy policy, RateLimiter rateLimiter) {
+        Criticality criticality = invocation.getCriticality();
+        if (criticality.getRatio() < 1D && criticality.isShed(rateLimiter.getUtilization())) {
+            invocation.reject(FaultType.LIMIT, "The " + criticality + " request is shed by " + policy.getRealizeType() + " rate limiter. ");
+        }
+    }
+
     /**
      * Retrieves a rate limiter based on the given policy.
      * If the policy's realize type is not specified, it falls back to the default type
@@ -0,0 +1,76 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.filter.outbound;
+
+import com.jd.live.agent.core.extension.annotation.Extension;
+import com.jd.live.agent.core.util.Futures;
+import com.jd.live.agent.governance.annotation.ConditionalOnFlowControlEnabled;
+import com.jd.live.agent.governance.context.RequestContext;
+import com.jd.live.agent.governance.context.bag.Carrier;
+import com.jd.live.agent.governance.instance.Endpoint;
+import com.jd.live.agent.governance.invoke.OutboundInvocation;
+import com.jd.live.agent.governance.invoke.filter.OutboundFilter;
+import com.jd.live.agent.governance.invoke.filter.OutboundFilterChain;
+import com.jd.live.agent.governance.policy.live.FaultType;
+import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
+import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A filter that caps the timeout of the outbound request with the remaining time budget of the current request.
+ * <p>
+ * The deadline is captured into the request at the first attempt, so that the retries scheduled on other
+ * threads are capped by the same deadline. The request is rejected without being sent once the deadline expires.
+ * </p>
+ * <p>
+ * The timeout is capped through {@link OutboundRequest#setTimeout(long)}, which is only implemented by the
+ * Dubbo 2.7 and 3 requests for now. For the other frameworks the timeout of the client is not changed, and
+ * the filter only rejects the attempts made after the deadline.
+ * </p>
+ *
+ * @see OutboundFilter
+ * @since 1.7.0
+ */
+@Extension(value = "DeadlineFilter", order = OutboundFilter.ORDER_DEADLINE)
+@ConditionalOnFlowControlEnabled
+public class DeadlineFilter implements OutboundFilter {
+
+    @Override
+    public <R extends OutboundRequest,
+            O extends OutboundResponse,
+            E extends Endpoint> CompletionStage<O> filter(OutboundInvocation<R> invocation, E endpoint, OutboundFilterChain chain) {
+        R request = invocation.getRequest();
+        Long deadline = request.getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        if (deadline == null) {
+            deadline = RequestContext.getDeadline();
+            request.setAttribute(Carrier.ATTRIBUTE_DEADLINE, deadline);
+        }
+        if (deadline > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return Futures.future(FaultType.DEADLINE.reject("The deadline of the request has been exceeded by "
+                        + (-remaining) + "ms."));
+            }
+            long timeout = request.getTimeout();
+            if (timeout <= 0 || timeout > remaining) {
+                request.setTimeout(remaining);
+            }
+        }
+        return chain.filter(invocation, endpoint);
+    }
+
+}
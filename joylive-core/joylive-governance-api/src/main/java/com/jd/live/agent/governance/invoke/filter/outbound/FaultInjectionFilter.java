@@ -18,6 +18,8 @@ package com.jd.live.agent.governance.invoke.filter.outbound;
 import com.jd.live.agent.core.extension.annotation.Extension;
 import com.jd.live.agent.core.inject.annotation.Inject;
 import com.jd.live.agent.core.inject.annotation.Injectable;
+import com.jd.live.agent.core.util.Futures;
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.annotation.ConditionalOnFlowControlEnabled;
 import com.jd.live.agent.governance.instance.Endpoint;
 import com.jd.live.agent.governance.invoke.OutboundInvocation;
@@ -31,6 +33,7 @@ import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -47,6 +50,9 @@ public class FaultInjectionFilter implements OutboundFilter {
     @Inject
     private Map<String, FaultInjection> faultInjections;
 
+    @Inject(Timer.COMPONENT_TIMER)
+    private Timer timer;
+
     @Override
     public <R extends OutboundRequest,
             O extends OutboundResponse,
@@ -54,6 +60,9 @@ public class FaultInjectionFilter implements OutboundFilter {
         ServicePolicy servicePolicy = invocation.getServiceMetadata().getServicePolicy();
         List<FaultInjectionPolicy> faultPolicies = servicePolicy == null ? null : servicePolicy.getFaultInjectionPolicies();
         if (faultPolicies != null && !faultPolicies.isEmpty()) {
+            if (invocation.getRequest().isAsync()) {
+                return filterAsync(invocation, endpoint, chain, faultPolicies, 0);
+            }
             for (FaultInjectionPolicy faultPolicy : faultPolicies) {
                 if (faultPolicy.match(invocation)) {
                     FaultInjection injection = faultInjections.get(faultPolicy.getType());
@@ -67,4 +76,54 @@ public class FaultInjectionFilter implements OutboundFilter {
 
     }
 
+    /**
+     * Injects the faults of the matched policies without blocking the calling thread, starting at the given index.
+     * <p>
+     * The delayed request is continued by the timer, so event loop threads of the reactive frameworks keep serving
+     * the other traffic during the injected delay.
+     * </p>
+     *
+     * @param invocation the outbound invocation.
+     * @param endpoint   the endpoint.
+     * @param chain      the filter chain.
+     * @param policies   the fault injection policies.
+     * @param index      the index of the policy to start from.
+     * @return a completion stage of the filter chain.
+     */
+    private <R extends OutboundRequest,
+            O extends OutboundResponse,
+            E extends Endpoint> CompletionStage<O> filterAsync(OutboundInvocation<R> invocation,
+                                                               E endpoint,
+                                                               OutboundFilterChain chain,
+                                                               List<FaultInjectionPolicy> policies,
+                                                               int index) {
+        for (int i = index; i < policies.size(); i++) {
+            FaultInjectionPolicy faultPolicy = policies.get(i);
+            if (faultPolicy.match(invocation)) {
+                FaultInjection injection = faultInjections.get(faultPolicy.getType());
+                if (injection != null) {
+                    CompletableFuture<Void> future = injection.acquireAsync(faultPolicy, invocation.getRandom(), timer).toCompletableFuture();
+                    if (!future.isDone() || future.isCompletedExceptionally()) {
+                        int next = i + 1;
+                        CompletableFuture<O> result = new CompletableFuture<>();
+                        future.whenComplete((v, error) -> {
+                            try {
+                                if (error != null) {
+                                    result.completeExceptionally(error);
+                                } else {
+                                    this.<R, O, E>filterAsync(invocation, endpoint, chain, policies, next)
+                                            .whenComplete((o, t) -> Futures.complete(result, o, t));
+                                }
+                            } catch (Throwable e) {
+                                result.completeExceptionally(e);
+                            }
+                        });
+                        return result;
+                    }
+                }
+            }
+        }
+        return chain.filter(invocation, endpoint);
+    }
+
 }
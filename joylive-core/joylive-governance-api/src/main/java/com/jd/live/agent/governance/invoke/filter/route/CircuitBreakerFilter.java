@@ -39,6 +39,7 @@ import com.jd.live.agent.governance.policy.PolicyId;
 import com.jd.live.agent.governance.policy.live.FaultType;
 import com.jd.live.agent.governance.policy.service.ServicePolicy;
 import com.jd.live.agent.governance.policy.service.circuitbreak.*;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakInstances.Snapshot;
 import com.jd.live.agent.governance.policy.service.exception.ErrorParser;
 import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
 import com.jd.live.agent.governance.response.ServiceResponse;
@@ -46,6 +47,7 @@ import com.jd.live.agent.governance.response.ServiceResponse;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -62,6 +64,8 @@ import static com.jd.live.agent.governance.util.Predicates.isError;
 @ConditionalOnFlowControlEnabled
 public class CircuitBreakerFilter implements RouteFilter, ExtensionInitializer {
 
+    private static final Predicate<CircuitBreaker> ACTIVE = breaker -> !breaker.isClosed();
+
     @Inject
     private Map<String, CircuitBreakerFactory> factories;
 
@@ -87,60 +91,49 @@ public class CircuitBreakerFilter implements RouteFilter, ExtensionInitializer {
         ServicePolicy servicePolicy = metadata.getServicePolicy();
         List<CircuitBreakPolicy> policies = servicePolicy == null ? null : servicePolicy.getCircuitBreakPolicies();
         if (null != policies && !policies.isEmpty()) {
-            List<CircuitBreakPolicy> instancePolicies = null;
+            CircuitBreakInstances instances = servicePolicy.getCircuitBreakInstances();
+            List<CircuitBreakPolicy> instancePolicies = instances.isEmpty() ? null : instances.getPolicies();
             List<CircuitBreaker> breakers = new ArrayList<>(policies.size());
             T request = invocation.getRequest();
             for (CircuitBreakPolicy policy : policies) {
                 request.addErrorPolicy(policy);
                 switch (policy.getLevel()) {
                     case SERVICE:
-                        addCircuitBreaker(breakers, policy, policy.getUri());
+                        addCircuitBreaker(breakers, getCircuitBreaker(policy, null, null));
                         break;
                     case API:
-                        URI api = policy.getUri().path(metadata.getPath()).parameter(PolicyId.KEY_SERVICE_METHOD, metadata.getMethod());
-                        addCircuitBreaker(breakers, policy, api);
+                        addCircuitBreaker(breakers, getCircuitBreaker(policy, metadata.getPath(), metadata.getMethod()));
                         break;
                     default:
-                        instancePolicies = addPolicy(policy, instancePolicies);
+                        // instance level policies are bound on election.
                 }
             }
             // add listener before acquire permit
-            invocation.addListener(new CircuitBreakerListener(this::getCircuitBreaker, errorParsers, breakers, instancePolicies));
+            invocation.addListener(new CircuitBreakerListener(this::getInstanceCircuitBreaker, errorParsers, breakers, instancePolicies));
             // acquire service permit
             acquire(breakers, Licensee::acquire, invocation);
             // filter broken instance
-            filterHealthy(invocation, instancePolicies);
+            filterHealthy(invocation, instances);
         }
         chain.filter(invocation);
     }
 
     /**
-     * Adds a circuit breaker policy to the list of policies.
-     *
-     * @param policy   the circuit breaker policy to add
-     * @param policies the list of circuit breaker policies
-     * @return the updated list of circuit breaker policies
-     */
-    private List<CircuitBreakPolicy> addPolicy(CircuitBreakPolicy policy, List<CircuitBreakPolicy> policies) {
-        if (policies == null) {
-            policies = new ArrayList<>(2);
-        }
-        policies.add(policy);
-        return policies;
-    }
-
-    /**
-     * Filters healthy endpoints from the route target based on the provided circuit breaker policies.
+     * Filters healthy endpoints from the route target based on the instances inspected by the instance level
+     * circuit breaker policies. The endpoints are not filtered when no instance is inspected.
      *
      * @param invocation the outbound invocation containing the route target
-     * @param policies   the list of circuit breaker policies to apply
+     * @param instances  the instance level circuit breaker policies
      */
     private <T extends OutboundRequest> void filterHealthy(OutboundInvocation<T> invocation,
-                                                           List<CircuitBreakPolicy> policies) {
-        if (policies != null && !policies.isEmpty()) {
-            RouteTarget target = invocation.getRouteTarget();
-            long now = System.currentTimeMillis();
-            target.filter(endpoint -> isHealthy(endpoint, policies, now));
+                                                           CircuitBreakInstances instances) {
+        if (!instances.isEmpty()) {
+            Snapshot snapshot = instances.getSnapshot();
+            if (!snapshot.isEmpty()) {
+                RouteTarget target = invocation.getRouteTarget();
+                long now = System.currentTimeMillis();
+                target.filter(endpoint -> isHealthy(endpoint, snapshot.getPolicies(endpoint.getId()), now));
+            }
         }
     }
 
@@ -148,11 +141,14 @@ public class CircuitBreakerFilter implements RouteFilter, ExtensionInitializer {
      * Checks if the given endpoint is healthy based on the provided circuit break policies and the current time.
      *
      * @param endpoint The endpoint to check.
-     * @param policies The list of circuit break policies to apply.
+     * @param policies The circuit break policies inspecting the endpoint, or null if it is not inspected.
      * @param now      The current time in milliseconds.
      * @return True if the endpoint is healthy, false otherwise.
      */
     private boolean isHealthy(Endpoint endpoint, List<CircuitBreakPolicy> policies, long now) {
+        if (policies == null) {
+            return true;
+        }
         CircuitBreakInspector inspector;
         Double ratio;
         Double minRatio = null;
@@ -185,19 +181,49 @@ public class CircuitBreakerFilter implements RouteFilter, ExtensionInitializer {
     }
 
     /**
-     * Adds a circuit breaker to the list of breakers based on the given policy and URI.
+     * Adds a circuit breaker to the list of breakers.
      *
      * @param breakers the list of circuit breakers
-     * @param policy   the circuit breaker policy
-     * @param uri      the URI for which the circuit breaker is created
+     * @param breaker  the circuit breaker, ignored if it is null
      */
-    private void addCircuitBreaker(List<CircuitBreaker> breakers, CircuitBreakPolicy policy, URI uri) {
-        CircuitBreaker breaker = getCircuitBreaker(policy, uri);
+    private void addCircuitBreaker(List<CircuitBreaker> breakers, CircuitBreaker breaker) {
         if (null != breaker) {
             breakers.add(breaker);
         }
     }
 
+    /**
+     * Retrieves the circuit breaker bound to the path and method of the policy.
+     * <p>
+     * The circuit breaker is resolved once and cached on the policy, it is resolved again only after it has been
+     * recycled by its factory, and the recycled ones are evicted from the bounded cache of the policy when it is
+     * full. A new version of the policy comes with an empty cache.
+     * </p>
+     *
+     * @param policy the circuit breaker policy.
+     * @param path   the path, or null for the service level.
+     * @param method the method, or null for the service level.
+     * @return the circuit breaker, or null if no factory is found for the policy type.
+     */
+    private CircuitBreaker getCircuitBreaker(CircuitBreakPolicy policy, String path, String method) {
+        return policy.getBreaker(path, method, ACTIVE, () -> getCircuitBreaker(policy, path == null && method == null
+                ? policy.getUri()
+                : policy.getUri().path(path).parameter(PolicyId.KEY_SERVICE_METHOD, method)));
+    }
+
+    /**
+     * Retrieves the circuit breaker bound to the instance of the policy.
+     *
+     * @param policy   the circuit breaker policy.
+     * @param endpoint the instance.
+     * @return the circuit breaker, or null if no factory is found for the policy type.
+     * @see #getCircuitBreaker(CircuitBreakPolicy, String, String)
+     */
+    private CircuitBreaker getInstanceCircuitBreaker(CircuitBreakPolicy policy, Endpoint endpoint) {
+        String id = endpoint.getId();
+        return policy.getInstanceBreaker(id, ACTIVE, () -> getCircuitBreaker(policy, policy.getUri().parameter(PolicyId.KEY_SERVICE_ENDPOINT, id)));
+    }
+
     /**
      * Retrieves a circuit breaker for the given policy and URI.
      *
@@ -336,7 +362,7 @@ public class CircuitBreakerFilter implements RouteFilter, ExtensionInitializer {
      */
     private static class CircuitBreakerListener implements OutboundListener {
 
-        private final CircuitBreakerFactory factory;
+        private final BiFunction<CircuitBreakPolicy, Endpoint, CircuitBreaker> factory;
 
         private final Map<String, ErrorParser> errorParsers;
 
@@ -346,7 +372,7 @@ public class CircuitBreakerFilter implements RouteFilter, ExtensionInitializer {
 
         private final int index;
 
-        CircuitBreakerListener(CircuitBreakerFactory factory,
+        CircuitBreakerListener(BiFunction<CircuitBreakPolicy, Endpoint, CircuitBreaker> factory,
                                Map<String, ErrorParser> errorParsers,
                                List<CircuitBreaker> circuitBreakers,
                                List<CircuitBreakPolicy> policies) {
@@ -361,9 +387,8 @@ public class CircuitBreakerFilter implements RouteFilter, ExtensionInitializer {
         public boolean onElect(Endpoint endpoint, OutboundInvocation<?> invocation) {
             if (endpoint != null && policies != null && !policies.isEmpty()) {
                 for (CircuitBreakPolicy policy : policies) {
-                    URI uri = policy.getUri().parameter(PolicyId.KEY_SERVICE_ENDPOINT, endpoint.getId());
                     // The circuit breaker, if in a healthy state and not accessed for 1 minute, will be recycled.
-                    CircuitBreaker breaker = factory.get(policy, uri);
+                    CircuitBreaker breaker = factory.apply(policy, endpoint);
                     if (breaker != null) {
                         // append instance circuit breaker
                         circuitBreakers.add(breaker);
@@ -0,0 +1,188 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.loadlimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A BBR style admission controller.
+ * <p>
+ * It keeps the number of requests in flight, and a rolling window of the completed requests and their minimum
+ * round trip time. When the application is overloaded, a request is admitted only if the requests in flight are
+ * less than the bandwidth-delay product, which is the maximum throughput multiplied by the minimum round trip
+ * time of the window. After a request is dropped the check keeps applying for a cool down period, so that the
+ * admission does not flap with the cpu samples.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class BbrAdmission {
+
+    private static final int DEFAULT_BUCKETS = 10;
+
+    private static final long DEFAULT_WINDOW_MS = 1000L;
+
+    private static final long DEFAULT_COOL_DOWN_MS = 1000L;
+
+    private final int buckets;
+
+    private final long bucketNanos;
+
+    private final long coolDownNanos;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final AtomicReferenceArray<Bucket> windows;
+
+    private volatile long dropTime;
+
+    public BbrAdmission() {
+        this(DEFAULT_BUCKETS, DEFAULT_WINDOW_MS, DEFAULT_COOL_DOWN_MS);
+    }
+
+    public BbrAdmission(int buckets, long windowMs, long coolDownMs) {
+        this.buckets = buckets;
+        this.bucketNanos = TimeUnit.MILLISECONDS.toNanos(windowMs) / buckets;
+        this.coolDownNanos = TimeUnit.MILLISECONDS.toNanos(coolDownMs);
+        this.windows = new AtomicReferenceArray<>(buckets);
+    }
+
+    /**
+     * Tries to admit a request.
+     *
+     * @param overloaded whether the application is overloaded
+     * @param nanoTime   the current time from {@link System#nanoTime()}
+     * @return true if the request is admitted, and {@link #complete(long, long)} must be called later
+     */
+    public boolean acquire(boolean overloaded, long nanoTime) {
+        return acquire(overloaded, 1D, nanoTime);
+    }
+
+    /**
+     * Tries to admit a request whose share of the maximum requests in flight is scaled by the ratio.
+     * <p>
+     * The less critical requests have a ratio below 1, so they are rejected before the application reaches
+     * its bandwidth-delay product, and the remaining capacity is left to the critical requests.
+     * </p>
+     *
+     * @param overloaded whether the application is overloaded
+     * @param ratio      the ratio applied to the maximum requests in flight
+     * @param nanoTime   the current time from {@link System#nanoTime()}
+     * @return true if the request is admitted, and {@link #complete(long, long)} must be called later
+     */
+    public boolean acquire(boolean overloaded, double ratio, long nanoTime) {
+        if (overloaded || dropTime != 0 && nanoTime - dropTime < coolDownNanos) {
+            long maxInflight = getMaxInflight(nanoTime);
+            maxInflight = maxInflight <= 0 ? maxInflight : Math.max(Math.round(maxInflight * ratio), 1L);
+            if (maxInflight > 0 && inflight.get() >= maxInflight) {
+                if (overloaded && ratio >= 1D) {
+                    // shedding the less critical requests does not hold back the others.
+                    dropTime = nanoTime;
+                }
+                return false;
+            }
+        }
+        inflight.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Completes an admitted request.
+     *
+     * @param rttNanos the round trip time of the request in nanoseconds
+     * @param nanoTime the current time from {@link System#nanoTime()}
+     */
+    public void complete(long rttNanos, long nanoTime) {
+        inflight.decrementAndGet();
+        long epoch = nanoTime / bucketNanos;
+        int index = (int) (epoch % buckets);
+        Bucket bucket = windows.get(index);
+        while (bucket == null || bucket.epoch != epoch) {
+            // the stale bucket is replaced as a whole, so the samples of the new epoch are never reset.
+            Bucket update = new Bucket(epoch);
+            bucket = windows.compareAndSet(index, bucket, update) ? update : windows.get(index);
+        }
+        bucket.add(rttNanos);
+    }
+
+    /**
+     * Releases an admitted request which is not processed, without sampling its round trip time.
+     */
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return the number of requests in flight
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * Returns the bandwidth-delay product of the completed buckets of the window.
+     *
+     * @param nanoTime the current time from {@link System#nanoTime()}
+     * @return the maximum requests in flight, or 0 if there are no samples
+     */
+    public long getMaxInflight(long nanoTime) {
+        long epoch = nanoTime / bucketNanos;
+        long maxPass = 0;
+        long minRtt = Long.MAX_VALUE;
+        for (int i = 0; i < buckets; i++) {
+            Bucket bucket = windows.get(i);
+            // the current bucket is not complete.
+            if (bucket != null && bucket.epoch < epoch && epoch - bucket.epoch <= buckets) {
+                maxPass = Math.max(maxPass, bucket.passes.get());
+                minRtt = Math.min(minRtt, bucket.minRtt.get());
+            }
+        }
+        if (maxPass == 0 || minRtt == Long.MAX_VALUE) {
+            return 0;
+        }
+        // requests per nanosecond multiplied by nanoseconds.
+        return (long) Math.ceil((double) maxPass * minRtt / bucketNanos);
+    }
+
+    /**
+     * The completed requests of an epoch of the window.
+     */
+    private static class Bucket {
+
+        private final long epoch;
+
+        private final AtomicLong passes = new AtomicLong();
+
+        private final AtomicLong minRtt = new AtomicLong(Long.MAX_VALUE);
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+        void add(long rttNanos) {
+            passes.incrementAndGet();
+            long min;
+            do {
+                min = minRtt.get();
+            } while (rttNanos < min && !minRtt.compareAndSet(min, rttNanos));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.loadlimit;
+
+import com.jd.live.agent.bootstrap.logger.Logger;
+import com.jd.live.agent.bootstrap.logger.LoggerFactory;
+import com.sun.management.OperatingSystemMXBean;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Samples the cpu usage of the application.
+ * <p>
+ * In a container the cpu usage and the throttling counters are read from the cgroup v2 or v1 filesystem,
+ * and the usage is relative to the cpu quota of the cgroup. Otherwise, or if the cgroup files can not be
+ * read, the usage is computed from JMX. The latest result is kept in a volatile snapshot, so reading it
+ * does not allocate.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class LoadSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadSampler.class);
+
+    private static final Path DEFAULT_CGROUP_ROOT = Paths.get("/sys/fs/cgroup");
+
+    private static final LoadSnapshot EMPTY = new LoadSnapshot(0, 0, 0);
+
+    private final CpuReader reader;
+
+    private volatile LoadSnapshot snapshot = EMPTY;
+
+    private long lastTime;
+
+    private long lastUsage = -1;
+
+    private long lastPeriods;
+
+    private long lastThrottled;
+
+    public LoadSampler() {
+        this(DEFAULT_CGROUP_ROOT);
+    }
+
+    public LoadSampler(Path cgroupRoot) {
+        this.reader = createReader(cgroupRoot);
+    }
+
+    /**
+     * Returns the latest snapshot.
+     *
+     * @return the latest snapshot
+     */
+    public LoadSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the type of the cpu source.
+     *
+     * @return the type of the cpu source
+     */
+    public String getType() {
+        return reader.getType();
+    }
+
+    /**
+     * Samples the load at the given time and updates the snapshot.
+     *
+     * @param nanoTime the current time from {@link System#nanoTime()}
+     * @return the new snapshot
+     * @throws IOException if the counters can not be read
+     */
+    public synchronized LoadSnapshot sample(long nanoTime) throws IOException {
+        CpuCounter counter = reader.read();
+        int cpuUsage = 0;
+        double throttledRatio = 0;
+        if (lastUsage >= 0 && nanoTime > lastTime) {
+            double usage = (double) (counter.usageNanos - lastUsage) / (nanoTime - lastTime) / counter.cpus;
+            long periods = counter.periods - lastPeriods;
+            if (periods > 0) {
+                throttledRatio = Math.min(1D, (double) (counter.throttled - lastThrottled) / periods);
+            }
+            // being throttled in most periods means the quota is exhausted whatever the average usage is.
+            usage = Math.max(Math.max(usage, throttledRatio), reader.getSystemUsage());
+            cpuUsage = (int) (Math.max(0D, Math.min(1D, usage)) * 100);
+        }
+        lastTime = nanoTime;
+        lastUsage = counter.usageNanos;
+        lastPeriods = counter.periods;
+        lastThrottled = counter.throttled;
+        snapshot = new LoadSnapshot(cpuUsage, (int) ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage(), throttledRatio);
+        return snapshot;
+    }
+
+    /**
+     * Creates the reader according to the cgroup filesystem.
+     */
+    private static CpuReader createReader(Path root) {
+        try {
+            if (Files.exists(root.resolve("cgroup.controllers")) && Files.exists(root.resolve("cpu.stat"))) {
+                CpuReader reader = new CgroupV2Reader(root);
+                reader.read();
+                return reader;
+            }
+            Path cpuacct = first(root.resolve("cpuacct"), root.resolve("cpu,cpuacct"), root.resolve("cpuacct,cpu"));
+            Path cpu = first(root.resolve("cpu"), root.resolve("cpu,cpuacct"), root.resolve("cpuacct,cpu"));
+            if (cpuacct != null && cpu != null && Files.exists(cpuacct.resolve("cpuacct.usage"))) {
+                CpuReader reader = new CgroupV1Reader(cpuacct, cpu);
+                reader.read();
+                return reader;
+            }
+        } catch (Throwable e) {
+            logger.warn("Failed to read cpu usage from cgroup, caused by " + e.getMessage());
+        }
+        return new JmxReader();
+    }
+
+    private static Path first(Path... paths) {
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private static long readLong(Path path) throws IOException {
+        return Long.parseLong(new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * Returns the value of the key in a flat keyed file such as cpu.stat.
+     */
+    private static long readKey(List<String> lines, String key) {
+        for (String line : lines) {
+            if (line.startsWith(key) && line.length() > key.length() && line.charAt(key.length()) == ' ') {
+                return Long.parseLong(line.substring(key.length() + 1).trim());
+            }
+        }
+        return 0;
+    }
+
+    private static double getCpus(long quota, long period) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return quota > 0 && period > 0 ? Math.min((double) quota / period, processors) : processors;
+    }
+
+    /**
+     * The cumulative cpu counters.
+     */
+    private static class CpuCounter {
+
+        private final long usageNanos;
+
+        private final long periods;
+
+        private final long throttled;
+
+        private final double cpus;
+
+        CpuCounter(long usageNanos, long periods, long throttled, double cpus) {
+            this.usageNanos = usageNanos;
+            this.periods = periods;
+            this.throttled = throttled;
+            this.cpus = cpus;
+        }
+    }
+
+    private interface CpuReader {
+
+        String getType();
+
+        CpuCounter read() throws IOException;
+
+        /**
+         * Returns the recent cpu usage of the whole system between 0 and 1, if it counts.
+         */
+        default double getSystemUsage() {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads cpu.stat and cpu.max of the unified hierarchy.
+     */
+    private static class CgroupV2Reader implements CpuReader {
+
+        private final Path stat;
+
+        private final Path max;
+
+        CgroupV2Reader(Path root) {
+            this.stat = root.resolve("cpu.stat");
+            this.max = root.resolve("cpu.max");
+        }
+
+        @Override
+        public String getType() {
+            return "cgroup2";
+        }
+
+        @Override
+        public CpuCounter read() throws IOException {
+            List<String> lines = Files.readAllLines(stat, StandardCharsets.UTF_8);
+            long quota = -1;
+            long period = 0;
+            if (Files.exists(max)) {
+                String[] parts = new String(Files.readAllBytes(max), StandardCharsets.UTF_8).trim().split(" ");
+                if (parts.length == 2 && !"max".equals(parts[0])) {
+                    quota = Long.parseLong(parts[0]);
+                    period = Long.parseLong(parts[1]);
+                }
+            }
+            return new CpuCounter(readKey(lines, "usage_usec") * 1000,
+                    readKey(lines, "nr_periods"),
+                    readKey(lines, "nr_throttled"),
+                    getCpus(quota, period));
+        }
+    }
+
+    /**
+     * Reads the cpuacct and cpu controllers of the legacy hierarchy.
+     */
+    private static class CgroupV1Reader implements CpuReader {
+
+        private final Path usage;
+
+        private final Path stat;
+
+        private final Path quota;
+
+        private final Path period;
+
+        CgroupV1Reader(Path cpuacct, Path cpu) {
+            this.usage = cpuacct.resolve("cpuacct.usage");
+            this.stat = cpu.resolve("cpu.stat");
+            this.quota = cpu.resolve("cpu.cfs_quota_us");
+            this.period = cpu.resolve("cpu.cfs_period_us");
+        }
+
+        @Override
+        public String getType() {
+            return "cgroup1";
+        }
+
+        @Override
+        public CpuCounter read() throws IOException {
+            List<String> lines = Files.exists(stat) ? Files.readAllLines(stat, StandardCharsets.UTF_8) : null;
+            long quotaUs = Files.exists(quota) ? readLong(quota) : -1;
+            long periodUs = Files.exists(period) ? readLong(period) : 0;
+            return new CpuCounter(readLong(usage),
+                    lines == null ? 0 : readKey(lines, "nr_periods"),
+                    lines == null ? 0 : readKey(lines, "nr_throttled"),
+                    getCpus(quotaUs, periodUs));
+        }
+    }
+
+    /**
+     * Reads the process cpu time from JMX.
+     */
+    private static class JmxReader implements CpuReader {
+
+        private final OperatingSystemMXBean osBean = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+
+        @Override
+        public String getType() {
+            return "jmx";
+        }
+
+        @Override
+        public CpuCounter read() {
+            return new CpuCounter(osBean.getProcessCpuTime(), 0, 0, osBean.getAvailableProcessors());
+        }
+
+        @Override
+        public double getSystemUsage() {
+            // the process may share the host with others.
+            return osBean.getSystemCpuLoad();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.loadlimit;
+
+import lombok.Getter;
+
+/**
+ * An immutable snapshot of the load of the application.
+ *
+ * @since 1.7.0
+ */
+@Getter
+public class LoadSnapshot {
+
+    /**
+     * The cpu usage in percent of the cpus available to the application.
+     */
+    private final int cpuUsage;
+
+    /**
+     * The system load average.
+     */
+    private final int loadUsage;
+
+    /**
+     * The ratio of the scheduling periods in which the cgroup was throttled.
+     */
+    private final double throttledRatio;
+
+    public LoadSnapshot(int cpuUsage, int loadUsage, double throttledRatio) {
+        this.cpuUsage = cpuUsage;
+        this.loadUsage = loadUsage;
+        this.throttledRatio = throttledRatio;
+    }
+
+    /**
+     * Checks if the load reaches any of the given thresholds.
+     *
+     * @param cpuUsage  the cpu usage threshold, null or non-positive to ignore
+     * @param loadUsage the load average threshold, null or non-positive to ignore
+     * @return true if a threshold is reached
+     */
+    public boolean exceed(Integer cpuUsage, Integer loadUsage) {
+        return exceed(cpuUsage, loadUsage, 1D);
+    }
+
+    /**
+     * Checks if the load reaches any of the given thresholds scaled by the ratio.
+     *
+     * @param cpuUsage  the cpu usage threshold, null or non-positive to ignore
+     * @param loadUsage the load average threshold, null or non-positive to ignore
+     * @param ratio     the ratio applied to the thresholds, such as the ratio of a criticality
+     * @return true if a scaled threshold is reached
+     */
+    public boolean exceed(Integer cpuUsage, Integer loadUsage, double ratio) {
+        return cpuUsage != null && cpuUsage > 0 && cpuUsage * ratio <= this.cpuUsage
+                || loadUsage != null && loadUsage > 0 && loadUsage * ratio <= this.loadUsage;
+    }
+
+    @Override
+    public String toString() {
+        return "load(cpu:" + cpuUsage + ", load:" + loadUsage + ", throttled:" + (int) (throttledRatio * 100) + ")";
+    }
+}
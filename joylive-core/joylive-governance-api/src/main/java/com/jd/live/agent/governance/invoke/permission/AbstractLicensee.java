@@ -47,6 +47,11 @@ public abstract class AbstractLicensee<P extends PolicyVersion> implements Licen
         }
     }
 
+    @Override
+    public boolean isClosed() {
+        return !started.get();
+    }
+
     @Override
     public void close() {
         if (started.compareAndSet(true, false)) {
@@ -23,8 +23,13 @@ import com.jd.live.agent.governance.config.GovernanceConfig;
 import com.jd.live.agent.governance.config.RecyclerConfig;
 import com.jd.live.agent.governance.policy.PolicyVersion;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
@@ -34,6 +39,14 @@ import java.util.function.Supplier;
  * An abstract class that serves as a factory for creating and managing instances of
  * {@link Licensee}. It maintains a map of licensees and provides methods to retrieve,
  * create, and recycle them based on policy versions and expiration times.
+ * <p>
+ * Licensees are tracked in an expiry wheel whose slots are {@code cleanInterval} wide and keyed by the
+ * time at which the licensee may expire. The recycler only visits the slots that are due, so its cost is
+ * proportional to the number of expiring licensees instead of the size of the map. Licensees accessed in
+ * the meantime are simply moved to a later slot. When the number of licensees exceeds the configured
+ * capacity, the recycler is triggered in the background to evict the least recently accessed licensees
+ * which are not in use.
+ * </p>
  *
  * @param <P> the type of policy version
  * @param <K> the type of key used to identify licensees
@@ -64,6 +77,21 @@ public abstract class AbstractLicenseeFactory<P extends PolicyVersion, K, V exte
      */
     protected final AtomicBoolean recycled = new AtomicBoolean(false);
 
+    /**
+     * The expiry wheel, the slots are ordered by the time at which their licensees may expire.
+     */
+    protected final ConcurrentSkipListMap<Long, Slot<K, V>> wheel = new ConcurrentSkipListMap<>();
+
+    /**
+     * A flag to ensure that the slots of the wheel are drained by only one thread at a time.
+     */
+    protected final AtomicBoolean draining = new AtomicBoolean(false);
+
+    /**
+     * A flag to indicate whether an eviction has been scheduled.
+     */
+    protected final AtomicBoolean evicting = new AtomicBoolean(false);
+
     /**
      * Returns the configuration for the recycler.
      *
@@ -87,7 +115,7 @@ public abstract class AbstractLicenseeFactory<P extends PolicyVersion, K, V exte
         if (policy == null || key == null || predicate != null && !predicate.test(policy)) {
             return null;
         }
-        V result = AtomicUtils.getOrUpdate(licensees, key, creator, policy::isOlderThan, this::onSuccess);
+        V result = AtomicUtils.getOrUpdate(licensees, key, creator, policy::isOlderThan, (o, n) -> onSuccess(key, o, n));
         if (result != null) {
             P old = result.getPolicy();
             if (old != policy && old.getVersion() == policy.getVersion()) {
@@ -101,14 +129,24 @@ public abstract class AbstractLicenseeFactory<P extends PolicyVersion, K, V exte
     /**
      * Handles the success case when a new value is successfully set.
      *
+     * @param key      the key of the licensee
      * @param oldValue the old value that is being replaced
      * @param newValue the new value that has been set
      */
-    protected void onSuccess(V oldValue, V newValue) {
+    protected void onSuccess(K key, V oldValue, V newValue) {
         Close.instance().close(oldValue);
+        schedule(new Expiry<>(key, newValue), System.currentTimeMillis());
         if (recycled.compareAndSet(false, true)) {
             addRecycler(getTaskName());
         }
+        int capacity = getConfig().getCapacity();
+        if (capacity > 0 && licensees.size() > capacity && evicting.compareAndSet(false, true)) {
+            // evict in the background instead of the request thread.
+            timer.delay(getTaskName(), 0, () -> {
+                evicting.set(false);
+                recycle();
+            });
+        }
     }
 
     /**
@@ -136,22 +174,211 @@ public abstract class AbstractLicenseeFactory<P extends PolicyVersion, K, V exte
     }
 
     /**
-     * Recycles expired licensee. This method checks each licensee to see if it has
-     * expired based on the current time and the configured expiration time. If a rate limiter
-     * has exceeded its expiration time, it is removed from the collection.
+     * Recycles expired licensee. This method drains the slots of the wheel which are due. Each licensee
+     * is checked to see if it has expired based on the configured expiration time. Expired licensees are
+     * removed from the collection, the others are moved to the slot of their new expiration time.
+     * Finally, the licensees exceeding the capacity are evicted.
      */
     protected void recycle() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            RecyclerConfig config = getConfig();
+            long expireTime = config.getExpireTime();
+            long now = System.currentTimeMillis();
+            long current = now / getSlotInterval();
+            Map.Entry<Long, Slot<K, V>> entry;
+            while ((entry = wheel.firstEntry()) != null && entry.getKey() <= current) {
+                Slot<K, V> slot = entry.getValue();
+                slot.close();
+                wheel.remove(entry.getKey(), slot);
+                Expiry<K, V> expiry;
+                while ((expiry = slot.poll()) != null) {
+                    V licensee = expiry.getLicensee();
+                    if (isCurrent(expiry)) {
+                        if (licensee.isExpired(expireTime) && !licensee.isInUse()) {
+                            remove(expiry);
+                        } else {
+                            schedule(expiry, Math.max(licensee.getLastAccessTime(), now - expireTime));
+                        }
+                    }
+                }
+            }
+            int capacity = config.getCapacity();
+            if (capacity > 0 && licensees.size() > capacity) {
+                evict(capacity);
+            }
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Evicts the least recently accessed licensees until the number of licensees does not exceed the
+     * capacity. The slots of the wheel are visited from the earliest one, a licensee accessed since it
+     * was scheduled is moved to the slot of its last access time instead of being evicted, and a
+     * licensee in use is kept. The caller must own the {@link #draining} flag.
+     *
+     * @param capacity the maximum number of licensees
+     */
+    protected void evict(int capacity) {
+        long interval = getSlotInterval();
         long expireTime = getConfig().getExpireTime();
-        Close closer = Close.instance();
-        licensees.entrySet().removeIf(entry -> {
-            V licensee = entry.getValue().get();
-            if (licensee != null && licensee.isExpired(expireTime)) {
-                // close first to avoid concurrent modification exception
-                closer.close(licensee);
-                return true;
+        List<Expiry<K, V>> inUses = new ArrayList<>();
+        Map.Entry<Long, Slot<K, V>> entry;
+        while (licensees.size() > capacity && (entry = wheel.pollFirstEntry()) != null) {
+            long index = entry.getKey();
+            Slot<K, V> slot = entry.getValue();
+            slot.close();
+            Expiry<K, V> expiry;
+            while ((expiry = slot.poll()) != null) {
+                if (!isCurrent(expiry)) {
+                    continue;
+                }
+                V licensee = expiry.getLicensee();
+                long due = (licensee.getLastAccessTime() + expireTime) / interval + 1;
+                if (licensees.size() <= capacity) {
+                    // put back the remaining licensees.
+                    add(index, expiry);
+                } else if (due > index) {
+                    // accessed since it was scheduled.
+                    add(due, expiry);
+                } else if (licensee.isInUse()) {
+                    inUses.add(expiry);
+                } else {
+                    remove(expiry);
+                }
             }
-            return false;
-        });
+        }
+        inUses.forEach(expiry -> schedule(expiry, expiry.getLicensee().getLastAccessTime()));
+    }
+
+    /**
+     * Schedules the licensee to be checked when it may expire.
+     *
+     * @param expiry     the licensee to schedule
+     * @param accessTime the time the licensee was last accessed
+     */
+    protected void schedule(Expiry<K, V> expiry, long accessTime) {
+        long interval = getSlotInterval();
+        long now = System.currentTimeMillis();
+        // the slot is always in the future, so it is not being drained.
+        add(Math.max((accessTime + getConfig().getExpireTime()) / interval, now / interval) + 1, expiry);
+    }
+
+    /**
+     * Adds the licensee to the slot of the wheel. If the slot is drained concurrently, the licensee
+     * is added to the next slot.
+     *
+     * @param index  the index of the slot
+     * @param expiry the licensee to add
+     */
+    private void add(long index, Expiry<K, V> expiry) {
+        while (true) {
+            Slot<K, V> slot = wheel.computeIfAbsent(index, i -> new Slot<>());
+            if (slot.add(expiry)) {
+                return;
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Checks whether the licensee is still the current value of its key.
+     *
+     * @param expiry the licensee to check
+     * @return true if the licensee is still in use
+     */
+    private boolean isCurrent(Expiry<K, V> expiry) {
+        AtomicReference<V> reference = licensees.get(expiry.getKey());
+        return reference != null && reference.get() == expiry.getLicensee();
+    }
+
+    /**
+     * Removes the licensee from the collection and closes it.
+     *
+     * @param expiry the licensee to remove
+     */
+    private void remove(Expiry<K, V> expiry) {
+        V licensee = expiry.getLicensee();
+        AtomicReference<V> reference = licensees.get(expiry.getKey());
+        if (reference != null && reference.get() == licensee && licensees.remove(expiry.getKey(), reference)) {
+            Close.instance().close(licensee);
+        }
+    }
+
+    /**
+     * Returns the width of the slots of the wheel in milliseconds.
+     *
+     * @return the width of the slots
+     */
+    private long getSlotInterval() {
+        return Math.max(getConfig().getCleanInterval(), 1L);
+    }
+
+    /**
+     * A licensee waiting in the wheel.
+     *
+     * @param <K> the type of key
+     * @param <V> the type of licensee
+     */
+    protected static class Expiry<K, V> {
+
+        private final K key;
+
+        private final V licensee;
+
+        Expiry(K key, V licensee) {
+            this.key = key;
+            this.licensee = licensee;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getLicensee() {
+            return licensee;
+        }
+    }
+
+    /**
+     * A slot of the wheel. Once it is closed for draining, no more licensees are accepted.
+     *
+     * @param <K> the type of key
+     * @param <V> the type of licensee
+     */
+    protected static class Slot<K, V> {
+
+        private final Queue<Expiry<K, V>> expiries = new ConcurrentLinkedQueue<>();
+
+        private boolean closed;
+
+        /**
+         * Adds the licensee to this slot.
+         *
+         * @param expiry the licensee to add
+         * @return false if this slot is closed, the licensee is not added in this case
+         */
+        synchronized boolean add(Expiry<K, V> expiry) {
+            if (closed) {
+                return false;
+            }
+            expiries.add(expiry);
+            return true;
+        }
+
+        Expiry<K, V> poll() {
+            return expiries.poll();
+        }
+
+        /**
+         * Closes this slot, the licensees added before are all visible to {@link #poll()} afterwards.
+         */
+        synchronized void close() {
+            closed = true;
+        }
     }
 
 }
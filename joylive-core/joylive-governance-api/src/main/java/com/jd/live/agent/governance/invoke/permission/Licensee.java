@@ -50,6 +50,26 @@ public interface Licensee<P extends PolicyVersion> extends PolicyVersion, AutoCl
         return System.currentTimeMillis() - getLastAccessTime() > timeout;
     }
 
+    /**
+     * Checks if the licensee has been closed, for example recycled by its factory after it expired.
+     * A caller holding a closed licensee should obtain a new one from the factory.
+     *
+     * @return true if the licensee is closed
+     */
+    default boolean isClosed() {
+        return false;
+    }
+
+    /**
+     * Checks if the licensee is in use, for example it holds the permits of requests which are not
+     * completed yet. A licensee in use is not recycled by its factory.
+     *
+     * @return true if the licensee is in use
+     */
+    default boolean isInUse() {
+        return false;
+    }
+
     /**
      * Retrieves the policy that governs the behavior of the circuit breaker.
      *
@@ -17,9 +17,12 @@ package com.jd.live.agent.governance.invoke.ratelimit;
 
 import com.jd.live.agent.core.util.option.MapOption;
 import com.jd.live.agent.core.util.option.Option;
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.invoke.permission.AbstractLicensee;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -34,6 +37,12 @@ public abstract class AbstractRateLimiter extends AbstractLicensee<RateLimitPoli
 
     protected static final Long MICROSECOND_OF_ONE_SECOND = 1000 * 1000L;
 
+    private static final String TASK_NAME = "RateLimiter-acquire";
+
+    private static final CompletionStage<Boolean> ACQUIRED = CompletableFuture.completedFuture(true);
+
+    private static final CompletionStage<Boolean> REJECTED = CompletableFuture.completedFuture(false);
+
     /**
      * The default time unit.
      */
@@ -88,6 +97,27 @@ public abstract class AbstractRateLimiter extends AbstractLicensee<RateLimitPoli
         return permits <= 0 || doAcquire(permits, timeout, timeUnit);
     }
 
+    @Override
+    public CompletionStage<Boolean> acquireAsync(Timer timer) {
+        if (!started.get()) {
+            return ACQUIRED;
+        }
+        this.lastAccessTime = System.currentTimeMillis();
+        return timer == null ? acquired(doAcquire(1, timeout, timeUnit)) : doAcquireAsync(1, timeout, timeUnit, timer);
+    }
+
+    @Override
+    public CompletionStage<Boolean> acquireAsync(int permits, long timeout, TimeUnit timeUnit, Timer timer) {
+        if (!started.get()) {
+            return ACQUIRED;
+        }
+        this.lastAccessTime = System.currentTimeMillis();
+        if (permits <= 0) {
+            return ACQUIRED;
+        }
+        return timer == null ? acquired(doAcquire(permits, timeout, timeUnit)) : doAcquireAsync(permits, timeout, timeUnit, timer);
+    }
+
     /**
      * Try to get some permits within a duration and return the result
      *
@@ -98,5 +128,51 @@ public abstract class AbstractRateLimiter extends AbstractLicensee<RateLimitPoli
      */
     protected abstract boolean doAcquire(int permits, long timeout, TimeUnit timeUnit);
 
+    /**
+     * Try to get some permits within a duration without blocking the calling thread.
+     * <p>
+     * The default implementation acquires the permits synchronously, limiters that can reserve permits
+     * should override it and complete the result through {@link #delay(long, Timer)}.
+     * </p>
+     *
+     * @param permits  Permits
+     * @param timeout  Wait time
+     * @param timeUnit Time unit
+     * @param timer    The timer used to complete the result
+     * @return a stage completed with the result
+     */
+    protected CompletionStage<Boolean> doAcquireAsync(int permits, long timeout, TimeUnit timeUnit, Timer timer) {
+        return acquired(doAcquire(permits, timeout, timeUnit));
+    }
+
+    /**
+     * Returns a stage that is completed with {@code true} by the timer after the specified wait time.
+     * <p>
+     * The timer works in ticks, so the stage is completed at the first tick after the wait time.
+     * </p>
+     *
+     * @param waitMicros the wait time in microseconds
+     * @param timer      the timer
+     * @return a stage completed with {@code true}
+     */
+    protected CompletionStage<Boolean> delay(long waitMicros, Timer timer) {
+        if (waitMicros <= 0) {
+            return ACQUIRED;
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        timer.delay(TASK_NAME, (waitMicros + 999) / 1000, () -> future.complete(true));
+        return future;
+    }
+
+    /**
+     * Returns a completed stage with the given result.
+     *
+     * @param acquired the result
+     * @return a completed stage
+     */
+    protected static CompletionStage<Boolean> acquired(boolean acquired) {
+        return acquired ? ACQUIRED : REJECTED;
+    }
+
 }
 
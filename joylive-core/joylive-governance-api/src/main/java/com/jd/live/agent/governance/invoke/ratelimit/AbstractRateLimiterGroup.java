@@ -15,11 +15,14 @@
  */
 package com.jd.live.agent.governance.invoke.ratelimit;
 
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -67,6 +70,15 @@ public abstract class AbstractRateLimiterGroup extends AbstractRateLimiter {
      */
     protected abstract RateLimiter create(SlidingWindow window, String name);
 
+    @Override
+    public double getUtilization() {
+        double result = 0D;
+        for (RateLimiter limiter : limiters) {
+            result = Math.max(result, limiter.getUtilization());
+        }
+        return result;
+    }
+
     @Override
     protected boolean doAcquire(int permits, long timeout, TimeUnit timeUnit) {
         // Convert to nanoseconds to avoid losing precision.
@@ -82,5 +94,39 @@ public abstract class AbstractRateLimiterGroup extends AbstractRateLimiter {
         }
         return true;
     }
-}
 
+    @Override
+    protected CompletionStage<Boolean> doAcquireAsync(int permits, long timeout, TimeUnit timeUnit, Timer timer) {
+        long startTime = System.nanoTime();
+        return acquireAsync(0, permits, startTime, timeout <= 0 ? 0 : timeUnit.toNanos(timeout), timer);
+    }
+
+    /**
+     * Acquires the permits from the limiters one by one, starting at the given index.
+     *
+     * @param index     The index of the limiter to acquire.
+     * @param permits   The number of permits to acquire.
+     * @param startTime The start time in nanoseconds.
+     * @param timeout   The timeout in nanoseconds.
+     * @param timer     The timer used to complete the result.
+     * @return a stage completed with the result
+     */
+    private CompletionStage<Boolean> acquireAsync(int index, int permits, long startTime, long timeout, Timer timer) {
+        CompletionStage<Boolean> stage;
+        CompletableFuture<Boolean> future;
+        for (int i = index; i < limiters.size(); i++) {
+            long expire = Long.max(0, timeout - (System.nanoTime() - startTime));
+            stage = limiters.get(i).acquireAsync(permits, expire, TimeUnit.NANOSECONDS, timer);
+            future = stage.toCompletableFuture();
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                int next = i + 1;
+                return stage.thenCompose(acquired -> acquired
+                        ? acquireAsync(next, permits, startTime, timeout, timer)
+                        : acquired(false));
+            } else if (!future.join()) {
+                return acquired(false);
+            }
+        }
+        return acquired(true);
+    }
+}
@@ -15,9 +15,12 @@
  */
 package com.jd.live.agent.governance.invoke.ratelimit;
 
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.invoke.permission.Licensee;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -63,4 +66,45 @@ public interface RateLimiter extends Licensee<RateLimitPolicy> {
      */
     boolean acquire(int permits, long timeout, TimeUnit timeUnit);
 
+    /**
+     * Try to get a permit asynchronously with the default wait time of the limiter.
+     *
+     * @param timer The timer used to complete the result when the permit becomes available.
+     * @return a stage completed with the result
+     * @see #acquireAsync(int, long, TimeUnit, Timer)
+     */
+    default CompletionStage<Boolean> acquireAsync(Timer timer) {
+        return acquireAsync(1, 0, TimeUnit.MILLISECONDS, timer);
+    }
+
+    /**
+     * Try to get some permits within a duration without blocking the calling thread.
+     * <p>
+     * When the permits are not immediately available, the returned stage is completed by the timer once
+     * they are. The default implementation acquires the permits synchronously.
+     * </p>
+     *
+     * @param permits  Permits
+     * @param timeout  Wait time
+     * @param timeUnit Time unit
+     * @param timer    The timer used to complete the result when the permits become available.
+     * @return a stage completed with the result
+     */
+    default CompletionStage<Boolean> acquireAsync(int permits, long timeout, TimeUnit timeUnit, Timer timer) {
+        return CompletableFuture.completedFuture(acquire(permits, timeout, timeUnit));
+    }
+
+    /**
+     * Returns how much of the capacity of the limiter is currently in use.
+     * <p>
+     * It is used to shed the less critical requests before the limiter is exhausted.
+     * The default implementation returns 0 for limiters which cannot estimate it.
+     * </p>
+     *
+     * @return the utilization between 0 (idle) and 1 (exhausted)
+     */
+    default double getUtilization() {
+        return 0D;
+    }
+
 }
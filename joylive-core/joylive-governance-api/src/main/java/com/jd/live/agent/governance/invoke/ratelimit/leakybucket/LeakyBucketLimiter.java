@@ -13,10 +13,12 @@
  */
 package com.jd.live.agent.governance.invoke.ratelimit.leakybucket;
 
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.TokenBucketLimiter;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
 
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -55,6 +57,15 @@ public class LeakyBucketLimiter extends TokenBucketLimiter {
         return capacity > 0 && requests.get() >= capacity;
     }
 
+    @Override
+    protected CompletionStage<Boolean> doAcquireAsync(int permits, long nowMicros, long timeoutMicros, Timer timer) {
+        // the request stays in the bucket until its permits become available.
+        requests.incrementAndGet();
+        CompletionStage<Boolean> result = super.doAcquireAsync(permits, nowMicros, timeoutMicros, timer);
+        result.whenComplete((acquired, error) -> requests.decrementAndGet());
+        return result;
+    }
+
     @Override
     protected boolean doAcquire(int permits, long nowMicros, long timeoutMicros) {
         requests.incrementAndGet();
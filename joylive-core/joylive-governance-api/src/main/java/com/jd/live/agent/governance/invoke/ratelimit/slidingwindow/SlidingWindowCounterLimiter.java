@@ -0,0 +1,288 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit.slidingwindow;
+
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.invoke.ratelimit.AbstractRateLimiter;
+import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.SleepingStopwatch;
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A sliding window counter rate limiter.
+ * <p>
+ * Each window is divided into a ring of time buckets. The count of a window is the sum of the buckets it
+ * fully covers, plus the oldest bucket weighted by the part of it that is still inside the window, so a burst
+ * at the boundary of two windows is still counted. All the windows of the policy are evaluated by one limiter
+ * in a single pass without locks: the permits are only added to the current bucket of a window if it stays
+ * within its threshold, and removed again from the windows already passed if a later window rejects them.
+ * </p>
+ * <p>
+ * Each bucket is a single CAS slot rather than a set of striped cells, because the admission check needs the
+ * exact count of the current bucket at the moment the permits are added.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class SlidingWindowCounterLimiter extends AbstractRateLimiter {
+
+    private static final String KEY_BUCKETS = "buckets";
+
+    private static final int DEFAULT_BUCKETS = 10;
+
+    private static final long ACQUIRED = 0L;
+
+    private static final long REJECTED = -1L;
+
+    private final SleepingStopwatch stopwatch;
+
+    private final Counter[] counters;
+
+    public SlidingWindowCounterLimiter(RateLimitPolicy policy) {
+        this(policy, policy.getSlidingWindows(), SleepingStopwatch.createFromSystemTimer());
+    }
+
+    public SlidingWindowCounterLimiter(RateLimitPolicy policy, List<SlidingWindow> windows, SleepingStopwatch stopwatch) {
+        super(policy, TimeUnit.MILLISECONDS);
+        this.stopwatch = stopwatch;
+        int buckets = option.getPositive(KEY_BUCKETS, DEFAULT_BUCKETS);
+        this.counters = new Counter[windows.size()];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counter(windows.get(i), buckets);
+        }
+    }
+
+    @Override
+    protected boolean doAcquire(int permits, long timeout, TimeUnit timeUnit) {
+        long deadline = stopwatch.readMicros() + (timeout <= 0 ? 0 : timeUnit.toMicros(timeout));
+        long waitMicros;
+        while ((waitMicros = tryAcquire(permits, stopwatch.readMicros())) != ACQUIRED) {
+            if (stopwatch.readMicros() + waitMicros > deadline) {
+                return false;
+            }
+            stopwatch.sleepMicrosUninterruptibly(waitMicros);
+        }
+        return true;
+    }
+
+    @Override
+    protected CompletionStage<Boolean> doAcquireAsync(int permits, long timeout, TimeUnit timeUnit, Timer timer) {
+        long deadline = stopwatch.readMicros() + (timeout <= 0 ? 0 : timeUnit.toMicros(timeout));
+        return acquireAsync(permits, deadline, timer);
+    }
+
+    /**
+     * Tries to acquire the permits, and retries by the timer when the windows slide until the deadline.
+     *
+     * @param permits  the number of permits to acquire
+     * @param deadline the deadline in microseconds
+     * @param timer    the timer used to complete the result
+     * @return a stage completed with the result
+     */
+    private CompletionStage<Boolean> acquireAsync(int permits, long deadline, Timer timer) {
+        long now = stopwatch.readMicros();
+        long waitMicros = tryAcquire(permits, now);
+        if (waitMicros == ACQUIRED) {
+            return acquired(true);
+        } else if (now + waitMicros > deadline) {
+            return acquired(false);
+        }
+        return delay(waitMicros, timer).thenCompose(v -> acquireAsync(permits, deadline, timer));
+    }
+
+    @Override
+    public double getUtilization() {
+        long nowMicros = stopwatch.readMicros();
+        double result = 0D;
+        for (Counter counter : counters) {
+            result = max(result, counter.getUtilization(nowMicros));
+        }
+        return min(result, 1D);
+    }
+
+    /**
+     * Adds the permits to all the windows, or to none of them if any window would exceed its threshold.
+     *
+     * @param permits   the number of permits to acquire
+     * @param nowMicros the current time in microseconds
+     * @return {@link #ACQUIRED}, or the time in microseconds until the rejecting window slides
+     */
+    private long tryAcquire(int permits, long nowMicros) {
+        if (counters.length == 1) {
+            Counter counter = counters[0];
+            return counter.tryAdd(permits, nowMicros) == REJECTED ? counter.getSlideMicros(nowMicros) : ACQUIRED;
+        }
+        long[] epochs = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            Counter counter = counters[i];
+            epochs[i] = counter.tryAdd(permits, nowMicros);
+            if (epochs[i] == REJECTED) {
+                for (int j = 0; j < i; j++) {
+                    counters[j].remove(permits, epochs[j]);
+                }
+                return counter.getSlideMicros(nowMicros);
+            }
+        }
+        return ACQUIRED;
+    }
+
+    /**
+     * The counter of a window.
+     * <p>
+     * A bucket is stored in one long, the high 32 bits hold its epoch, which is the index of the bucket since
+     * the limiter was created, and the low 32 bits hold its count. A bucket is reused by resetting it when its
+     * epoch is stale.
+     * </p>
+     */
+    private static class Counter {
+
+        private final int threshold;
+
+        private final int buckets;
+
+        private final long bucketMicros;
+
+        /**
+         * The buckets of the window and the bucket which is sliding out of it.
+         */
+        private final AtomicLongArray ring;
+
+        Counter(SlidingWindow window, int buckets) {
+            long windowMicros = TimeUnit.MILLISECONDS.toMicros(window.getTimeWindowInMs());
+            this.threshold = window.getThreshold();
+            this.buckets = buckets;
+            this.bucketMicros = max(windowMicros / buckets, 1L);
+            this.ring = new AtomicLongArray(buckets + 1);
+        }
+
+        /**
+         * Adds the permits to the current bucket if the weighted count of the window stays within the threshold.
+         *
+         * @param permits   the number of permits
+         * @param nowMicros the current time in microseconds
+         * @return the epoch of the bucket the permits were added to, or {@link #REJECTED}
+         */
+        long tryAdd(int permits, long nowMicros) {
+            long epoch = nowMicros / bucketMicros;
+            int index = (int) (epoch % ring.length());
+            long others = countOthers(epoch, nowMicros);
+            long value;
+            int current;
+            long count;
+            while (true) {
+                value = ring.get(index);
+                current = epochOf(value);
+                if (current - (int) epoch > 0) {
+                    // a late caller counts in the newer bucket.
+                    epoch += current - (int) epoch;
+                    others = countOthers(epoch, nowMicros);
+                    continue;
+                }
+                count = current == (int) epoch ? countOf(value) : 0;
+                if (others + count + permits > threshold) {
+                    return REJECTED;
+                } else if (ring.compareAndSet(index, value, (epoch << 32) | ((count + permits) & 0xFFFFFFFFL))) {
+                    return epoch;
+                }
+            }
+        }
+
+        /**
+         * Removes the permits from the bucket they were added to, unless the bucket has been reset.
+         *
+         * @param permits the number of permits
+         * @param epoch   the epoch returned by {@link #tryAdd(int, long)}
+         */
+        void remove(int permits, long epoch) {
+            int index = (int) (epoch % ring.length());
+            long value;
+            do {
+                value = ring.get(index);
+                if (epochOf(value) != (int) epoch || countOf(value) < permits) {
+                    return;
+                }
+            } while (!ring.compareAndSet(index, value, value - permits));
+        }
+
+        /**
+         * Returns the time until the oldest bucket slides out of the window.
+         *
+         * @param nowMicros the current time in microseconds
+         * @return the time in microseconds
+         */
+        long getSlideMicros(long nowMicros) {
+            return bucketMicros - nowMicros % bucketMicros;
+        }
+
+        /**
+         * Returns the ratio of the weighted count of the window to its threshold.
+         *
+         * @param nowMicros the current time in microseconds
+         * @return the ratio
+         */
+        double getUtilization(long nowMicros) {
+            return threshold <= 0 ? 1D : (double) count(nowMicros / bucketMicros, nowMicros) / threshold;
+        }
+
+        /**
+         * Returns the weighted count of the window ending at the given time.
+         */
+        private long count(long epoch, long nowMicros) {
+            long value = ring.get((int) (epoch % ring.length()));
+            return countOthers(epoch, nowMicros) + (epochOf(value) == (int) epoch ? countOf(value) : 0);
+        }
+
+        /**
+         * Returns the weighted count of the window ending at the given time, excluding its current bucket.
+         */
+        private long countOthers(long epoch, long nowMicros) {
+            int length = ring.length();
+            long sum = 0;
+            long value;
+            for (int i = 1; i < buckets && epoch - i >= 0; i++) {
+                value = ring.get((int) ((epoch - i) % length));
+                if (epochOf(value) == (int) (epoch - i)) {
+                    sum += countOf(value);
+                }
+            }
+            long oldest = epoch - buckets;
+            if (oldest >= 0) {
+                value = ring.get((int) (oldest % length));
+                if (epochOf(value) == (int) oldest) {
+                    double weight = 1D - (double) (nowMicros % bucketMicros) / bucketMicros;
+                    sum += (long) (countOf(value) * weight);
+                }
+            }
+            return sum;
+        }
+
+        private static int epochOf(long value) {
+            return (int) (value >>> 32);
+        }
+
+        private static int countOf(long value) {
+            return (int) value;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit.slidingwindow;
+
+import com.jd.live.agent.core.extension.annotation.Extension;
+import com.jd.live.agent.core.inject.annotation.Injectable;
+import com.jd.live.agent.governance.invoke.ratelimit.AbstractRateLimiterFactory;
+import com.jd.live.agent.governance.invoke.ratelimit.RateLimiter;
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+
+/**
+ * SlidingWindowCounterLimiterFactory
+ * <p>
+ * The limiter evaluates all the sliding windows of the policy by itself, so no group is created.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+@Injectable
+@Extension(value = "SlidingWindowCounter")
+public class SlidingWindowCounterLimiterFactory extends AbstractRateLimiterFactory {
+
+    @Override
+    protected RateLimiter create(RateLimitPolicy policy) {
+        return new SlidingWindowCounterLimiter(policy);
+    }
+}
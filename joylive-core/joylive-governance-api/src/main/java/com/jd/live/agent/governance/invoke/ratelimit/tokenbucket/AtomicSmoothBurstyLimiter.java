@@ -0,0 +1,98 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit.tokenbucket;
+
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.TokenBucketLimiter.TIMEOUT;
+import static com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.TokenBucketLimiter.getPermits;
+import static com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.TokenBucketLimiter.saturatedAdd;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A lock-free implementation of {@link SmoothBurstyLimiter}.
+ * <p>
+ * With a linear cool down the stored permits and the next free time can be folded into a single timestamp:
+ * the moment at which the bucket becomes empty. Stored permits are {@code (now - empty) / interval} capped by
+ * the maximum burst, and a reservation simply moves the timestamp forward by its cost. The timestamp is kept
+ * in nanoseconds in one {@link AtomicLong}, so acquiring permits is a single CAS without allocation.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class AtomicSmoothBurstyLimiter extends AtomicTokenBucketLimiter {
+
+    private static final String KEY_MAX_BURST_SECONDS = "maxBurstSeconds";
+
+    private static final long DEFAULT_MAX_BURST_SECONDS = 1L;
+
+    /**
+     * The time interval (in nanoseconds) between each permit
+     */
+    private final double permitIntervalNanos;
+
+    /**
+     * The time (in nanoseconds) to refill the bucket to the maximum stored permits.
+     */
+    private final long maxBurstNanos;
+
+    /**
+     * The time (in nanoseconds) at which all the stored permits are consumed.
+     */
+    private final AtomicLong emptyNanos;
+
+    public AtomicSmoothBurstyLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow) {
+        this(limitPolicy, slidingWindow, SleepingStopwatch.createFromSystemTimer());
+    }
+
+    public AtomicSmoothBurstyLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow, SleepingStopwatch stopwatch) {
+        super(limitPolicy, slidingWindow, stopwatch);
+        double maxStoredPermits = max(getPermits(option.getPositive(KEY_MAX_BURST_SECONDS, DEFAULT_MAX_BURST_SECONDS), permitIntervalMicros), 1D);
+        this.permitIntervalNanos = permitIntervalMicros * 1000;
+        this.maxBurstNanos = (long) (maxStoredPermits * permitIntervalNanos);
+        this.emptyNanos = new AtomicLong(TimeUnit.MICROSECONDS.toNanos(stopwatch.readMicros()));
+    }
+
+    @Override
+    protected long reserve(int permits, long nowMicros, long timeoutMicros) {
+        long nowNanos = TimeUnit.MICROSECONDS.toNanos(nowMicros);
+        long deadline = saturatedAdd(nowNanos, TimeUnit.MICROSECONDS.toNanos(timeoutMicros));
+        long costNanos = (long) (permits * permitIntervalNanos);
+        long empty;
+        long next;
+        do {
+            empty = emptyNanos.get();
+            // the permits stored before now - maxBurstNanos are discarded.
+            next = max(empty, nowNanos - maxBurstNanos);
+            if (next > deadline) {
+                return TIMEOUT;
+            }
+        } while (!emptyNanos.compareAndSet(empty, saturatedAdd(next, costNanos)));
+        return next <= nowNanos ? 0 : TimeUnit.NANOSECONDS.toMicros(next - nowNanos);
+    }
+
+    @Override
+    public double getUtilization() {
+        long nowNanos = TimeUnit.MICROSECONDS.toNanos(stopwatch.readMicros());
+        long stored = nowNanos - emptyNanos.get();
+        return stored <= 0 ? 1D : 1D - (double) min(stored, maxBurstNanos) / maxBurstNanos;
+    }
+}
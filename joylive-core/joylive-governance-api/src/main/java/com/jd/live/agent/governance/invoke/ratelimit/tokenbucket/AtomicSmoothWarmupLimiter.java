@@ -0,0 +1,152 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit.tokenbucket;
+
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.TokenBucketLimiter.TIMEOUT;
+import static com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.TokenBucketLimiter.saturatedAdd;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A lock-free implementation of {@link SmoothWarmupLimiter}.
+ * <p>
+ * Taking stored permits above the warmup threshold costs time, so the stored permits and the next free time
+ * are independent and cannot be folded into one timestamp. They are kept in an immutable state which is
+ * replaced by CAS.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class AtomicSmoothWarmupLimiter extends AtomicTokenBucketLimiter {
+
+    private static final String KEY_WARMUP_SECONDS = "warmupSeconds";
+
+    private static final String KEY_COLD_FACTOR = "coldFactor";
+
+    private static final double DEFAULT_COLD_FACTOR = 3.0D;
+
+    private static final long DEFAULT_WARMUP_SECONDS = 5L;
+
+    private final double maxStoredPermits;
+
+    private final double thresholdPermits;
+
+    /**
+     * The slope of the line from the stable interval (when permits == 0), to the cold interval
+     * (when permits == maxPermits)
+     */
+    private final double slope;
+
+    private final double coolDownIntervalMicros;
+
+    private final AtomicReference<State> state;
+
+    public AtomicSmoothWarmupLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow) {
+        this(limitPolicy, slidingWindow, SleepingStopwatch.createFromSystemTimer());
+    }
+
+    public AtomicSmoothWarmupLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow, SleepingStopwatch stopwatch) {
+        super(limitPolicy, slidingWindow, stopwatch);
+        long warmupMicros = option.getPositive(KEY_WARMUP_SECONDS, DEFAULT_WARMUP_SECONDS) * MICROSECOND_OF_ONE_SECOND;
+        double coldIntervalMicros = permitIntervalMicros * option.getPositive(KEY_COLD_FACTOR, DEFAULT_COLD_FACTOR);
+        this.thresholdPermits = 0.5 * warmupMicros / permitIntervalMicros;
+        this.maxStoredPermits = max(thresholdPermits + 2.0 * warmupMicros / (permitIntervalMicros + coldIntervalMicros), 1D);
+        this.slope = (coldIntervalMicros - permitIntervalMicros) / (maxStoredPermits - thresholdPermits);
+        this.coolDownIntervalMicros = warmupMicros / maxStoredPermits;
+        this.state = new AtomicReference<>(new State(0, 0).refresh(stopwatch.readMicros(), maxStoredPermits, coolDownIntervalMicros));
+    }
+
+    @Override
+    protected long reserve(int permits, long nowMicros, long timeoutMicros) {
+        State current;
+        State refreshed;
+        double available;
+        long waitTime;
+        do {
+            current = state.get();
+            if (current.nextPermitMicros > nowMicros + timeoutMicros) {
+                return TIMEOUT;
+            }
+            refreshed = current.refresh(nowMicros, maxStoredPermits, coolDownIntervalMicros);
+            available = min(permits, refreshed.storedPermits);
+            waitTime = estimateStorePermitsWaitTime(refreshed.storedPermits, available)
+                    + (long) ((permits - available) * permitIntervalMicros);
+        } while (!state.compareAndSet(current,
+                new State(refreshed.storedPermits - available, saturatedAdd(refreshed.nextPermitMicros, waitTime))));
+        return max(refreshed.nextPermitMicros - nowMicros, 0);
+    }
+
+    @Override
+    public double getUtilization() {
+        long nowMicros = stopwatch.readMicros();
+        State current = state.get();
+        if (current.nextPermitMicros > nowMicros) {
+            return 1D;
+        }
+        return 1D - current.refresh(nowMicros, maxStoredPermits, coolDownIntervalMicros).storedPermits / maxStoredPermits;
+    }
+
+    private long estimateStorePermitsWaitTime(double storedPermits, double targetPermits) {
+        double availablePermitsAboveThreshold = storedPermits - thresholdPermits;
+        long micros = 0;
+        // measuring the integral on the right part of the function (the climbing line)
+        if (availablePermitsAboveThreshold > 0.0) {
+            double permitsAboveThresholdToTake = min(availablePermitsAboveThreshold, targetPermits);
+            double length = permitsToTime(availablePermitsAboveThreshold)
+                    + permitsToTime(availablePermitsAboveThreshold - permitsAboveThresholdToTake);
+            micros = (long) (permitsAboveThresholdToTake * length / 2.0);
+            targetPermits -= permitsAboveThresholdToTake;
+        }
+        // measuring the integral on the left part of the function (the horizontal line)
+        micros += (long) (permitIntervalMicros * targetPermits);
+        return micros;
+    }
+
+    private double permitsToTime(double permits) {
+        return permitIntervalMicros + permits * slope;
+    }
+
+    /**
+     * An immutable snapshot of the stored permits and the next free time.
+     */
+    private static class State {
+
+        private final double storedPermits;
+
+        private final long nextPermitMicros;
+
+        State(double storedPermits, long nextPermitMicros) {
+            this.storedPermits = storedPermits;
+            this.nextPermitMicros = nextPermitMicros;
+        }
+
+        /**
+         * Returns the state with the permits accumulated until the given time.
+         */
+        State refresh(long nowMicros, double maxStoredPermits, double coolDownIntervalMicros) {
+            if (nowMicros <= nextPermitMicros) {
+                return this;
+            }
+            double permits = storedPermits + (nowMicros - nextPermitMicros) / coolDownIntervalMicros;
+            return new State(min(maxStoredPermits, permits), nowMicros);
+        }
+    }
+}
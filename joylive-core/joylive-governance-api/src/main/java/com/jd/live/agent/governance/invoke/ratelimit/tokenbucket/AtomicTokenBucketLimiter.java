@@ -0,0 +1,80 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit.tokenbucket;
+
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.invoke.ratelimit.AbstractRateLimiter;
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.TokenBucketLimiter.TIMEOUT;
+
+/**
+ * A token bucket limiter whose state is updated by compare-and-set instead of a lock.
+ * <p>
+ * Subclasses reserve permits in a CAS loop and return the time the caller has to wait, the waiting itself
+ * happens outside of any critical section.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public abstract class AtomicTokenBucketLimiter extends AbstractRateLimiter {
+
+    protected final SleepingStopwatch stopwatch;
+
+    /**
+     * The time interval (in microseconds) between each permit
+     */
+    protected final double permitIntervalMicros;
+
+    public AtomicTokenBucketLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow, SleepingStopwatch stopwatch) {
+        super(limitPolicy, TimeUnit.MILLISECONDS);
+        this.stopwatch = stopwatch;
+        this.permitIntervalMicros = slidingWindow.getPermitIntervalMicros();
+    }
+
+    @Override
+    protected boolean doAcquire(int permits, long timeout, TimeUnit timeUnit) {
+        long timeoutMicros = timeout <= 0 ? 0 : timeUnit.toMicros(timeout);
+        long microsToWait = reserve(permits, stopwatch.readMicros(), timeoutMicros);
+        if (microsToWait == TIMEOUT) {
+            return false;
+        }
+        stopwatch.sleepMicrosUninterruptibly(microsToWait);
+        return true;
+    }
+
+    @Override
+    protected CompletionStage<Boolean> doAcquireAsync(int permits, long timeout, TimeUnit timeUnit, Timer timer) {
+        long timeoutMicros = timeout <= 0 ? 0 : timeUnit.toMicros(timeout);
+        long microsToWait = reserve(permits, stopwatch.readMicros(), timeoutMicros);
+        return microsToWait == TIMEOUT ? acquired(false) : delay(microsToWait, timer);
+    }
+
+    /**
+     * Reserves the specified number of permits without blocking.
+     *
+     * @param permits       the number of permits to acquire
+     * @param nowMicros     the current time in microseconds
+     * @param timeoutMicros the maximum time to wait in microseconds
+     * @return the time to wait in microseconds before the permits can be used, or {@link TokenBucketLimiter#TIMEOUT} if
+     * the permits are not available within the timeout
+     */
+    protected abstract long reserve(int permits, long nowMicros, long timeoutMicros);
+}
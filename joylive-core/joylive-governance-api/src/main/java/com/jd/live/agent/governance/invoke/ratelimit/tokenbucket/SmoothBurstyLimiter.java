@@ -34,6 +34,10 @@ public class SmoothBurstyLimiter extends TokenBucketLimiter {
         super(limitPolicy, slidingWindow);
     }
 
+    public SmoothBurstyLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow, SleepingStopwatch stopwatch) {
+        super(limitPolicy, slidingWindow, stopwatch);
+    }
+
     @Override
     protected double getMaxStoredPermits() {
         return getPermits(option.getPositive(KEY_MAX_BURST_SECONDS, DEFAULT_MAX_BURST_SECONDS));
@@ -49,6 +49,10 @@ public class SmoothWarmupLimiter extends TokenBucketLimiter {
         super(limitPolicy, slidingWindow);
     }
 
+    public SmoothWarmupLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow, SleepingStopwatch stopwatch) {
+        super(limitPolicy, slidingWindow, stopwatch);
+    }
+
     @Override
     protected void initialize() {
         this.warmupMicros = option.getPositive(KEY_WARMUP_SECONDS, DEFAULT_WARMUP_SECONDS) * MICROSECOND_OF_ONE_SECOND;
@@ -13,10 +13,12 @@
  */
 package com.jd.live.agent.governance.invoke.ratelimit.tokenbucket;
 
+import com.jd.live.agent.core.util.time.Timer;
 import com.jd.live.agent.governance.invoke.ratelimit.AbstractRateLimiter;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
 
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.Math.max;
@@ -56,8 +58,12 @@ public abstract class TokenBucketLimiter extends AbstractRateLimiter {
     protected final Object mutex = new Object();
 
     public TokenBucketLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow) {
+        this(limitPolicy, slidingWindow, SleepingStopwatch.createFromSystemTimer());
+    }
+
+    public TokenBucketLimiter(RateLimitPolicy limitPolicy, SlidingWindow slidingWindow, SleepingStopwatch stopwatch) {
         super(limitPolicy, TimeUnit.MILLISECONDS);
-        this.stopwatch = SleepingStopwatch.createFromSystemTimer();
+        this.stopwatch = stopwatch;
         this.permitIntervalMicros = slidingWindow.getPermitIntervalMicros();
         initialize();
         refresh(stopwatch.readMicros());
@@ -83,19 +89,66 @@ public abstract class TokenBucketLimiter extends AbstractRateLimiter {
      * @return true if the permits were acquired, false if the timeout expired
      */
     protected boolean doAcquire(int permits, long nowMicros, long timeoutMicros) {
-        long microsToWait;
+        long microsToWait = reserve(permits, nowMicros, timeoutMicros);
+        if (microsToWait == TIMEOUT) {
+            return false;
+        }
+        stopwatch.sleepMicrosUninterruptibly(microsToWait);
+        return true;
+    }
+
+    @Override
+    protected CompletionStage<Boolean> doAcquireAsync(int permits, long timeout, TimeUnit timeUnit, Timer timer) {
+        long timeoutMicros = timeout <= 0 ? 0 : timeUnit.toMicros(timeout);
+        long nowMicros = stopwatch.readMicros();
+        if (isTimeout(nowMicros, timeoutMicros) && isFull()) {
+            return acquired(false);
+        }
+        return doAcquireAsync(permits, nowMicros, timeoutMicros, timer);
+    }
+
+    /**
+     * Attempts to acquire the specified number of permits without blocking the calling thread.
+     *
+     * @param permits       the number of permits to acquire
+     * @param nowMicros     the current time in microseconds
+     * @param timeoutMicros the maximum time to wait in microseconds
+     * @param timer         the timer used to complete the result when the permits become available
+     * @return a stage completed with true if the permits were acquired, false if the timeout expired
+     */
+    protected CompletionStage<Boolean> doAcquireAsync(int permits, long nowMicros, long timeoutMicros, Timer timer) {
+        long microsToWait = reserve(permits, nowMicros, timeoutMicros);
+        return microsToWait == TIMEOUT ? acquired(false) : delay(microsToWait, timer);
+    }
+
+    /**
+     * Reserves the specified number of permits and returns the time to wait before they can be used.
+     *
+     * @param permits       the number of permits to acquire
+     * @param nowMicros     the current time in microseconds
+     * @param timeoutMicros the maximum time to wait in microseconds
+     * @return the time to wait in microseconds, or {@link #TIMEOUT} if the timeout expired
+     */
+    protected long reserve(int permits, long nowMicros, long timeoutMicros) {
         synchronized (mutex) {
             // double check in lock
             if (isTimeout(nowMicros, timeoutMicros)) {
-                return false;
+                return TIMEOUT;
             }
-            microsToWait = estimateRequiredPermitsWaitTime(permits, nowMicros, timeoutMicros);
+            return estimateRequiredPermitsWaitTime(permits, nowMicros, timeoutMicros);
         }
-        if (microsToWait == TIMEOUT) {
-            return false;
+    }
+
+    @Override
+    public double getUtilization() {
+        long nowMicros = stopwatch.readMicros();
+        synchronized (mutex) {
+            if (nextPermitMicros >= nowMicros) {
+                return storedPermits > 0 ? 1D - storedPermits / maxStoredPermits : 1D;
+            }
+            double permits = storedPermits + (nowMicros - nextPermitMicros) / coolDownIntervalMicros();
+            return 1D - min(maxStoredPermits, permits) / maxStoredPermits;
         }
-        stopwatch.sleepMicrosUninterruptibly(microsToWait);
-        return true;
     }
 
     /**
@@ -213,6 +266,17 @@ public abstract class TokenBucketLimiter extends AbstractRateLimiter {
      * @return The number of permits that can be acquired within the specified time duration.
      */
     protected double getPermits(long seconds) {
+        return getPermits(seconds, permitIntervalMicros);
+    }
+
+    /**
+     * Converts the given time duration (in seconds) into the equivalent number of permits.
+     *
+     * @param seconds              The time duration (in seconds) for which the permits are to be calculated.
+     * @param permitIntervalMicros The time interval (in microseconds) between each permit.
+     * @return The number of permits that can be acquired within the specified time duration.
+     */
+    protected static double getPermits(long seconds, double permitIntervalMicros) {
         return seconds * MICROSECOND_OF_ONE_SECOND / permitIntervalMicros;
     }
 
@@ -223,7 +287,7 @@ public abstract class TokenBucketLimiter extends AbstractRateLimiter {
      * @param b the second value to add
      * @return the sum of the two values, or Long.MAX_VALUE if the result overflows, or Long.MIN_VALUE if the result underflows
      */
-    protected long saturatedAdd(long a, long b) {
+    protected static long saturatedAdd(long a, long b) {
         long naiveSum = a + b;
         if ((a ^ b) < 0 | (a ^ naiveSum) >= 0) {
             // If a and b have different signs or a has the same sign as the result then there was no
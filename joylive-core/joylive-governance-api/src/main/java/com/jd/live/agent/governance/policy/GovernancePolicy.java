@@ -20,9 +20,11 @@ import com.jd.live.agent.core.instance.Application;
 import com.jd.live.agent.core.instance.Location;
 import com.jd.live.agent.core.util.URI;
 import com.jd.live.agent.core.util.cache.Cache;
+import com.jd.live.agent.core.util.cache.LazyObject;
 import com.jd.live.agent.core.util.cache.MapCache;
 import com.jd.live.agent.core.util.cache.UnsafeLazyObject;
 import com.jd.live.agent.core.util.map.ListBuilder;
+import com.jd.live.agent.core.util.trie.DomainTrie;
 import com.jd.live.agent.governance.policy.db.DatabaseCluster;
 import com.jd.live.agent.governance.policy.domain.Domain;
 import com.jd.live.agent.governance.policy.domain.DomainPolicy;
@@ -91,48 +93,14 @@ public class GovernancePolicy {
 
     private final transient Cache<String, LaneSpace> laneSpaceCache = new MapCache<>(new ListBuilder<>(() -> laneSpaces, LaneSpace::getId));
 
-    private final transient Cache<String, Domain> domainCache = new MapCache<>(() -> {
-        Map<String, Domain> laneDomains = new HashMap<>();
-        if (laneSpaces != null) {
-            for (LaneSpace laneSpace : laneSpaces) {
-                if (laneSpace.getDomains() != null) {
-                    for (LaneDomain laneDomain : laneSpace.getDomains()) {
-                        laneDomains.put(laneDomain.getHost(), new Domain(laneDomain.getHost(), new DomainPolicy(laneSpace, laneDomain)));
-                    }
-                }
-            }
-        }
+    private final transient LazyObject<Map<String, Domain>> domainMapCache = new LazyObject<>(this::buildDomains);
 
-        Map<String, Domain> liveDomains = new HashMap<>();
-        if (liveSpaces != null) {
-            for (LiveSpace liveSpace : liveSpaces) {
-                LiveSpec liveSpec = liveSpace.getSpec();
-                if (liveSpec.getDomains() != null) {
-                    for (LiveDomain liveDomain : liveSpec.getDomains()) {
-                        liveDomains.put(liveDomain.getHost(), new Domain(liveDomain.getHost(), new DomainPolicy(liveSpace, liveDomain)));
-                        if (liveDomain.getUnitDomains() != null) {
-                            for (UnitDomain unitDomain : liveDomain.getUnitDomains()) {
-                                liveDomains.put(unitDomain.getHost(), new Domain(unitDomain.getHost(), new DomainPolicy(liveSpace, liveDomain, unitDomain)));
-                            }
-                        }
-                    }
-                }
-            }
-        }
+    private final transient Cache<String, Domain> domainCache = new MapCache<>(domainMapCache::get);
 
-        Map<String, Domain> result = new HashMap<>(Integer.max(liveDomains.size(), laneDomains.size()));
-        for (Domain liveDomain : liveDomains.values()) {
-            Domain laneDomain = laneDomains.get(liveDomain.getHost());
-            DomainPolicy lanePolicy = laneDomain == null ? null : laneDomain.getPolicy();
-            DomainPolicy livePolicy = liveDomain.getPolicy();
-            result.put(liveDomain.getHost(), laneDomain == null ? liveDomain : new Domain(liveDomain.getHost(),
-                    new DomainPolicy(livePolicy.getLiveSpace(), livePolicy.getLiveDomain(), livePolicy.getUnitDomain(),
-                            lanePolicy.getLaneSpace(), lanePolicy.getLaneDomain())));
-        }
-        for (Domain laneDomain : laneDomains.values()) {
-            result.putIfAbsent(laneDomain.getHost(), laneDomain);
-        }
-        return result;
+    private final transient LazyObject<DomainTrie<Domain>> domainTrieCache = new LazyObject<>(() -> {
+        DomainTrie<Domain> trie = new DomainTrie<>();
+        domainMapCache.get().forEach(trie::add);
+        return trie;
     });
 
     private final transient Cache<String, Service> serviceCache = new MapCache<>(new ListBuilder<>(() -> services, Service::getName));
@@ -180,12 +148,33 @@ public class GovernancePolicy {
 
     /**
      * Retrieves a {@link Domain} by its host name.
+     * <p>
+     * The exact domain is preferred, otherwise the host is matched case-insensitively against the exact and the
+     * closest wildcard domain such as {@code *.example.com}.
+     * </p>
      *
      * @param host The host name of the domain to retrieve.
      * @return The domain with the specified host name, or {@code null} if not found.
      */
     public Domain getDomain(String host) {
-        return domainCache.get(host);
+        Domain result = domainCache.get(host);
+        if (result == null && host != null && !host.isEmpty()) {
+            result = domainTrieCache.get().match(host);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the {@link Domain} whose host is the longest label suffix of the given host name.
+     * <p>
+     * For example, {@code a.b.example.com} matches {@code example.com} if no more specific exact or wildcard domain exists.
+     * </p>
+     *
+     * @param host The host name.
+     * @return The domain with the longest matching suffix, or {@code null} if not found.
+     */
+    public Domain getSuffixDomain(String host) {
+        return host == null || host.isEmpty() ? null : domainTrieCache.get().matchSuffix(host);
     }
 
     /**
@@ -245,6 +234,55 @@ public class GovernancePolicy {
         return dbAddressCache.get(port <= 0 ? host : host + ":" + port);
     }
 
+    /**
+     * Builds the domains of the live spaces and lane spaces, merging the policies of the same host.
+     *
+     * @return A map of host to domain.
+     */
+    private Map<String, Domain> buildDomains() {
+        Map<String, Domain> laneDomains = new HashMap<>();
+        if (laneSpaces != null) {
+            for (LaneSpace laneSpace : laneSpaces) {
+                if (laneSpace.getDomains() != null) {
+                    for (LaneDomain laneDomain : laneSpace.getDomains()) {
+                        laneDomains.put(laneDomain.getHost(), new Domain(laneDomain.getHost(), new DomainPolicy(laneSpace, laneDomain)));
+                    }
+                }
+            }
+        }
+
+        Map<String, Domain> liveDomains = new HashMap<>();
+        if (liveSpaces != null) {
+            for (LiveSpace liveSpace : liveSpaces) {
+                LiveSpec liveSpec = liveSpace.getSpec();
+                if (liveSpec.getDomains() != null) {
+                    for (LiveDomain liveDomain : liveSpec.getDomains()) {
+                        liveDomains.put(liveDomain.getHost(), new Domain(liveDomain.getHost(), new DomainPolicy(liveSpace, liveDomain)));
+                        if (liveDomain.getUnitDomains() != null) {
+                            for (UnitDomain unitDomain : liveDomain.getUnitDomains()) {
+                                liveDomains.put(unitDomain.getHost(), new Domain(unitDomain.getHost(), new DomainPolicy(liveSpace, liveDomain, unitDomain)));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, Domain> result = new HashMap<>(Integer.max(liveDomains.size(), laneDomains.size()));
+        for (Domain liveDomain : liveDomains.values()) {
+            Domain laneDomain = laneDomains.get(liveDomain.getHost());
+            DomainPolicy lanePolicy = laneDomain == null ? null : laneDomain.getPolicy();
+            DomainPolicy livePolicy = liveDomain.getPolicy();
+            result.put(liveDomain.getHost(), laneDomain == null ? liveDomain : new Domain(liveDomain.getHost(),
+                    new DomainPolicy(livePolicy.getLiveSpace(), livePolicy.getLiveDomain(), livePolicy.getUnitDomain(),
+                            lanePolicy.getLaneSpace(), lanePolicy.getLaneDomain())));
+        }
+        for (Domain laneDomain : laneDomains.values()) {
+            result.putIfAbsent(laneDomain.getHost(), laneDomain);
+        }
+        return result;
+    }
+
     /**
      * Locates the given application in the live space and lane space.
      *
@@ -277,6 +315,7 @@ public class GovernancePolicy {
         getLiveSpace("");
         getLaneSpace("");
         getDomain("");
+        domainTrieCache.get();
         getService("");
         getDbCluster("");
         getDbCluster("", 0);
@@ -56,6 +56,8 @@ public class PolicyId implements PolicyIdGen {
 
     public static final String KEY_SERVICE_LOAD_LIMIT = "loadLimit";
 
+    public static final String KEY_SERVICE_CRITICALITY = "criticality";
+
     public static final String KEY_SERVICE_ROUTE = "route";
 
     public static final String KEY_SERVICE_CIRCUIT_BREAK = "circuitBreak";
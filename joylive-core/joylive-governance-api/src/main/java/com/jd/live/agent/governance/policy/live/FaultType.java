@@ -68,6 +68,17 @@ public enum FaultType {
 
     },
 
+    /**
+     * Represents a state where the deadline of the request has been exceeded.
+     */
+    DEADLINE {
+        @Override
+        public RejectException reject(String reason) {
+            return new RejectDeadlineException(reason);
+        }
+
+    },
+
     /**
      * Represents a state where a circuit break has occurred.
      */
@@ -24,11 +24,13 @@ import com.jd.live.agent.governance.policy.PolicyInherit;
 import com.jd.live.agent.governance.policy.PolicyInherit.PolicyInheritWithIdGen;
 import com.jd.live.agent.governance.policy.service.auth.AuthPolicy;
 import com.jd.live.agent.governance.policy.service.auth.PermissionPolicy;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakInstances;
 import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakPolicy;
 import com.jd.live.agent.governance.policy.service.cluster.ClusterPolicy;
 import com.jd.live.agent.governance.policy.service.fault.FaultInjectionPolicy;
 import com.jd.live.agent.governance.policy.service.lane.LanePolicy;
 import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.CriticalityPolicy;
 import com.jd.live.agent.governance.policy.service.limit.LoadLimitPolicy;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 import com.jd.live.agent.governance.policy.service.live.ServiceLivePolicy;
@@ -66,6 +68,10 @@ public class ServicePolicy extends PolicyId implements Cloneable, PolicyInheritW
     @Getter
     private List<LoadLimitPolicy> loadLimitPolicies;
 
+    @Setter
+    @Getter
+    private List<CriticalityPolicy> criticalityPolicies;
+
     @Setter
     @Getter
     private List<RoutePolicy> routePolicies;
@@ -94,6 +100,8 @@ public class ServicePolicy extends PolicyId implements Cloneable, PolicyInheritW
     @Setter
     private List<FaultInjectionPolicy> faultInjectionPolicies;
 
+    private transient volatile CircuitBreakInstances circuitBreakInstances;
+
     private final transient Cache<String, LanePolicy> lanePolicyCache = new MapCache<>(new ListBuilder<>(() -> lanePolicies, LanePolicy::getLaneSpaceId));
 
     public ServicePolicy() {
@@ -120,6 +128,9 @@ public class ServicePolicy extends PolicyId implements Cloneable, PolicyInheritW
         if (loadLimitPolicies != null && !loadLimitPolicies.isEmpty()) {
             loadLimitPolicies.forEach(r -> r.supplement(() -> uri.parameter(KEY_SERVICE_LOAD_LIMIT, r.getName())));
         }
+        if (criticalityPolicies != null && !criticalityPolicies.isEmpty()) {
+            criticalityPolicies.forEach(r -> r.supplement(() -> uri.parameter(KEY_SERVICE_CRITICALITY, r.getName())));
+        }
         if (routePolicies != null && !routePolicies.isEmpty()) {
             routePolicies.forEach(r -> r.supplement(() -> uri.parameter(KEY_SERVICE_ROUTE, r.getName())));
         }
@@ -163,6 +174,12 @@ public class ServicePolicy extends PolicyId implements Cloneable, PolicyInheritW
                         s -> new LoadLimitPolicy(),
                         s -> uri.parameter(KEY_SERVICE_LOAD_LIMIT, s.getName()));
             }
+            if ((criticalityPolicies == null || criticalityPolicies.isEmpty()) &&
+                    (source.criticalityPolicies != null && !source.criticalityPolicies.isEmpty())) {
+                criticalityPolicies = copy(source.criticalityPolicies,
+                        s -> new CriticalityPolicy(),
+                        s -> uri.parameter(KEY_SERVICE_CRITICALITY, s.getName()));
+            }
             if ((routePolicies == null || routePolicies.isEmpty()) &&
                     (source.routePolicies != null && !source.routePolicies.isEmpty())) {
                 routePolicies = copy(source.routePolicies,
@@ -226,6 +243,20 @@ public class ServicePolicy extends PolicyId implements Cloneable, PolicyInheritW
         return lanePolicyCache.get(laneSpaceId);
     }
 
+    /**
+     * Returns the instance level circuit break policies of this service.
+     *
+     * @return the instance level circuit break policies
+     */
+    public CircuitBreakInstances getCircuitBreakInstances() {
+        CircuitBreakInstances result = circuitBreakInstances;
+        if (result == null) {
+            result = CircuitBreakInstances.of(circuitBreakPolicies);
+            circuitBreakInstances = result;
+        }
+        return result;
+    }
+
     protected void cache() {
         getLanePolicy("");
         if (livePolicy != null) {
@@ -240,6 +271,7 @@ public class ServicePolicy extends PolicyId implements Cloneable, PolicyInheritW
         if (circuitBreakPolicies != null) {
             circuitBreakPolicies.forEach(CircuitBreakPolicy::cache);
         }
+        circuitBreakInstances = CircuitBreakInstances.of(circuitBreakPolicies);
     }
 
     @Override
@@ -0,0 +1,137 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.policy.service.circuitbreak;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The instance level circuit break policies of a service, and the instances inspected by them.
+ * <p>
+ * The inspected instances, which are open or recovering, are merged into an immutable {@link Snapshot}. The
+ * snapshot is rebuilt only when the inspector version of any policy changes, so the route filter checks the
+ * endpoints in one pass, and skips them entirely when no instance is inspected.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class CircuitBreakInstances {
+
+    private final List<CircuitBreakPolicy> policies;
+
+    private volatile Snapshot snapshot;
+
+    public CircuitBreakInstances(List<CircuitBreakPolicy> policies) {
+        this.policies = policies;
+    }
+
+    public List<CircuitBreakPolicy> getPolicies() {
+        return policies;
+    }
+
+    public boolean isEmpty() {
+        return policies.isEmpty();
+    }
+
+    /**
+     * Returns the snapshot of the inspected instances, rebuilding it if any inspector has changed.
+     *
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot() {
+        Snapshot result = snapshot;
+        if (result == null || !result.isValid(policies)) {
+            result = new Snapshot(policies);
+            snapshot = result;
+        }
+        return result;
+    }
+
+    /**
+     * Creates the instance level circuit break policies of the given policies.
+     *
+     * @param policies the circuit break policies of a service
+     * @return the instance level policies
+     */
+    public static CircuitBreakInstances of(List<CircuitBreakPolicy> policies) {
+        List<CircuitBreakPolicy> result = null;
+        if (policies != null) {
+            for (CircuitBreakPolicy policy : policies) {
+                if (policy.getLevel() == CircuitBreakLevel.INSTANCE) {
+                    if (result == null) {
+                        result = new ArrayList<>(2);
+                    }
+                    result.add(policy);
+                }
+            }
+        }
+        return new CircuitBreakInstances(result == null ? Collections.emptyList() : result);
+    }
+
+    /**
+     * An immutable view of the inspected instances.
+     */
+    public static class Snapshot {
+
+        private final long[] versions;
+
+        private final Map<String, List<CircuitBreakPolicy>> instances;
+
+        Snapshot(List<CircuitBreakPolicy> policies) {
+            int size = policies.size();
+            this.versions = new long[size];
+            Map<String, List<CircuitBreakPolicy>> map = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                CircuitBreakPolicy policy = policies.get(i);
+                // read the version first, a change during the iteration makes the snapshot invalid.
+                versions[i] = policy.getInspectorVersion();
+                policy.inspect((id, inspector) -> map.computeIfAbsent(id, k -> new ArrayList<>(2)).add(policy));
+            }
+            this.instances = map.isEmpty() ? Collections.emptyMap() : map;
+        }
+
+        /**
+         * Checks if no instance is inspected.
+         *
+         * @return true if no instance is inspected
+         */
+        public boolean isEmpty() {
+            return instances.isEmpty();
+        }
+
+        /**
+         * Returns the policies inspecting the instance.
+         *
+         * @param id the instance id
+         * @return the policies, or null if the instance is not inspected
+         */
+        public List<CircuitBreakPolicy> getPolicies(String id) {
+            return id == null ? null : instances.get(id);
+        }
+
+        private boolean isValid(List<CircuitBreakPolicy> policies) {
+            for (int i = 0; i < versions.length; i++) {
+                if (versions[i] != policies.get(i).getInspectorVersion()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -28,6 +28,10 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * CircuitBreakPolicy
@@ -50,6 +54,7 @@ public class CircuitBreakPolicy extends PolicyId
     public static final int DEFAULT_RECOVER_DURATION = 1000 * 15;
     public static final int DEFAULT_MAX_WAIT_DURATION_IN_HALF_OPEN_STATE = 0;
     public static final int DEFAULT_RECOVER_PHASE = 10;
+    public static final int MAX_CACHED_BREAKERS = 1024;
 
     /**
      * Name of this policy
@@ -205,7 +210,22 @@ public class CircuitBreakPolicy extends PolicyId
     /**
      * Map of temporarily blocked endpoints
      */
-    private transient Map<String, CircuitBreakInspector> inspectors = new ConcurrentHashMap<>();
+    private transient Inspectors inspectors = new Inspectors();
+
+    /**
+     * Circuit breaker bound to this policy at the service level.
+     */
+    private transient volatile CircuitBreakInspector serviceBreaker;
+
+    /**
+     * Circuit breakers bound to this policy, keyed by path and method.
+     */
+    private final transient Map<BreakerKey, CircuitBreakInspector> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * Circuit breakers bound to this policy, keyed by instance.
+     */
+    private final transient Map<String, CircuitBreakInspector> instanceBreakers = new ConcurrentHashMap<>();
 
     public CircuitBreakLevel getLevel() {
         return level == null ? CircuitBreakLevel.INSTANCE : level;
@@ -371,7 +391,7 @@ public class CircuitBreakPolicy extends PolicyId
      */
     public boolean isProtectMode(int instances) {
         double ratio = getOutlierMaxPercent();
-        return ratio > 0 && inspectors.size() >= Math.ceil(instances * ratio / 100);
+        return ratio > 0 && inspectors.map.size() >= Math.ceil(instances * ratio / 100);
     }
 
     /**
@@ -381,7 +401,7 @@ public class CircuitBreakPolicy extends PolicyId
      * @return the circuit break inspector, or null if not found or ID is null
      */
     public CircuitBreakInspector getInspector(String id) {
-        return id == null ? null : inspectors.get(id);
+        return id == null ? null : inspectors.map.get(id);
     }
 
     /**
@@ -392,7 +412,7 @@ public class CircuitBreakPolicy extends PolicyId
      */
     public void addInspector(String id, CircuitBreakInspector inspector) {
         if (id != null && inspector != null) {
-            inspectors.put(id, inspector);
+            inspectors.add(id, inspector);
         }
     }
 
@@ -404,8 +424,102 @@ public class CircuitBreakPolicy extends PolicyId
      */
     public void removeInspector(String id, CircuitBreakInspector inspector) {
         if (id != null) {
-            inspectors.computeIfPresent(id, (k, v) -> v == inspector ? null : v);
+            inspectors.remove(id, inspector);
+        }
+    }
+
+    /**
+     * Returns the version of the inspectors, which is changed whenever an inspector is added or removed.
+     *
+     * @return the version of the inspectors
+     */
+    public long getInspectorVersion() {
+        return inspectors.version;
+    }
+
+    /**
+     * Performs the given action for each inspector.
+     *
+     * @param consumer the action to be performed with the instance id and its inspector
+     */
+    public void inspect(BiConsumer<String, CircuitBreakInspector> consumer) {
+        inspectors.map.forEach(consumer);
+    }
+
+    /**
+     * Returns the circuit breaker bound to the path and method of this policy.
+     * <p>
+     * The cached circuit breaker is returned while the validator accepts it, otherwise the creator is called and
+     * its result replaces the cached one, so a circuit breaker is created once and re-created only after it has
+     * been recycled. At most {@link #MAX_CACHED_BREAKERS} circuit breakers are cached by path and method, and
+     * as many by instance. When the cache is full, the circuit breakers rejected by the validator are evicted,
+     * and the new one is not cached if there is still no room.
+     * </p>
+     *
+     * @param path      the path, null for the service level
+     * @param method    the method, null for the service level
+     * @param validator the predicate to check whether the cached circuit breaker can be used
+     * @param creator   the creator of the circuit breaker
+     * @param <T>       the type of the circuit breaker
+     * @return the circuit breaker
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends CircuitBreakInspector> T getBreaker(String path, String method, Predicate<T> validator, Supplier<T> creator) {
+        if (path == null && method == null) {
+            T cached = (T) serviceBreaker;
+            if (cached != null && validator.test(cached)) {
+                return cached;
+            }
+            T result = creator.get();
+            serviceBreaker = result;
+            return result;
+        }
+        return resolve(breakers, new BreakerKey(path, method), validator, creator);
+    }
+
+    /**
+     * Returns the circuit breaker bound to the instance of this policy.
+     *
+     * @param id        the instance id
+     * @param validator the predicate to check whether the cached circuit breaker can be used
+     * @param creator   the creator of the circuit breaker
+     * @param <T>       the type of the circuit breaker
+     * @return the circuit breaker
+     * @see #getBreaker(String, String, Predicate, Supplier)
+     */
+    public <T extends CircuitBreakInspector> T getInstanceBreaker(String id, Predicate<T> validator, Supplier<T> creator) {
+        return resolve(instanceBreakers, id, validator, creator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, T extends CircuitBreakInspector> T resolve(Map<K, CircuitBreakInspector> cache,
+                                                                 K key,
+                                                                 Predicate<T> validator,
+                                                                 Supplier<T> creator) {
+        T cached = (T) cache.get(key);
+        if (cached != null && validator.test(cached)) {
+            return cached;
         }
+        T result = creator.get();
+        if (result == null) {
+            if (cached != null) {
+                cache.remove(key, cached);
+            }
+        } else if (cached != null || cache.size() < MAX_CACHED_BREAKERS || evict(cache, validator) < MAX_CACHED_BREAKERS) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Evicts the circuit breakers rejected by the validator.
+     *
+     * @return the size of the cache after eviction
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, T extends CircuitBreakInspector> int evict(Map<K, CircuitBreakInspector> cache, Predicate<T> validator) {
+        cache.values().removeIf(breaker -> !validator.test((T) breaker));
+        return cache.size();
     }
 
     /**
@@ -439,4 +553,63 @@ public class CircuitBreakPolicy extends PolicyId
         recoverRatio = isRecoveryEnabled() ? new RecoverRatio(getRecoveryDuration(), getRecoveryPhase()) : null;
     }
 
+    /**
+     * The inspectors of the instances and their version.
+     */
+    private static class Inspectors {
+
+        private static final AtomicLong VERSION = new AtomicLong();
+
+        private final Map<String, CircuitBreakInspector> map = new ConcurrentHashMap<>();
+
+        /**
+         * The version is unique across all the inspectors, so a policy exchanging its inspectors also changes
+         * its version.
+         */
+        private volatile long version;
+
+        void add(String id, CircuitBreakInspector inspector) {
+            if (map.put(id, inspector) != inspector) {
+                version = VERSION.incrementAndGet();
+            }
+        }
+
+        void remove(String id, CircuitBreakInspector inspector) {
+            if (map.remove(id, inspector)) {
+                version = VERSION.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The path and method of a circuit breaker.
+     */
+    private static final class BreakerKey {
+
+        private final String path;
+
+        private final String method;
+
+        BreakerKey(String path, String method) {
+            this.path = path == null ? "" : path;
+            this.method = method == null ? "" : method;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof BreakerKey)) {
+                return false;
+            }
+            BreakerKey that = (BreakerKey) o;
+            return path.equals(that.path) && method.equals(that.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * path.hashCode() + method.hashCode();
+        }
+    }
+
 }
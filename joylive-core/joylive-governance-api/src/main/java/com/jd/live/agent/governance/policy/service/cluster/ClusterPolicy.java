@@ -30,6 +30,8 @@ public class ClusterPolicy extends PolicyId implements PolicyInheritWithId<Clust
 
     private RetryPolicy retryPolicy;
 
+    private HedgePolicy hedgePolicy;
+
     public ClusterPolicy() {
     }
 
@@ -54,6 +56,16 @@ public class ClusterPolicy extends PolicyId implements PolicyInheritWithId<Clust
             }
             retryPolicy.supplement(source.retryPolicy);
         }
+        if (hedgePolicy != null) {
+            hedgePolicy.setId(id);
+        }
+        if (source != null && source.hedgePolicy != null) {
+            if (hedgePolicy == null) {
+                hedgePolicy = new HedgePolicy();
+                hedgePolicy.setId(id);
+            }
+            hedgePolicy.supplement(source.hedgePolicy);
+        }
     }
 
     public void cache() {
@@ -0,0 +1,145 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.policy.service.cluster;
+
+import com.jd.live.agent.governance.policy.PolicyId;
+import com.jd.live.agent.governance.policy.PolicyInherit.PolicyInheritWithId;
+import com.jd.live.agent.governance.policy.service.annotation.Consumer;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Defines a hedging policy. When a request to an idempotent method has not completed within the hedging
+ * delay, another attempt is sent to a different instance and the first successful response wins.
+ * <p>
+ * Hedging is only applied to the methods explicitly listed by {@link #methods} or {@link #methodPrefixes},
+ * because the same request may be processed more than once.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+@Setter
+@Getter
+@Consumer
+public class HedgePolicy extends PolicyId implements PolicyInheritWithId<HedgePolicy> {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 2;
+
+    public static final double DEFAULT_PERCENTILE = 95D;
+
+    public static final double DEFAULT_BUDGET_RATIO = 0.1D;
+
+    /**
+     * The maximum number of attempts, including the original request.
+     */
+    private Integer maxAttempts;
+
+    /**
+     * The hedging delay in milliseconds, used until enough latencies are recorded, and as a lower bound after.
+     */
+    private Long delay;
+
+    /**
+     * The percentile of the observed latencies used as the hedging delay.
+     */
+    private Double percentile;
+
+    /**
+     * The ratio of hedged requests to requests, it is added to the global hedging budget by each request.
+     */
+    private Double budgetRatio;
+
+    /**
+     * A set of idempotent method names that can be hedged.
+     */
+    private Set<String> methods;
+
+    /**
+     * A set of idempotent method name prefixes that can be hedged.
+     */
+    private Set<String> methodPrefixes;
+
+    @Override
+    public void supplement(HedgePolicy source) {
+        if (source == null) {
+            return;
+        }
+        if (maxAttempts == null) {
+            maxAttempts = source.maxAttempts;
+        }
+        if (delay == null) {
+            delay = source.delay;
+        }
+        if (percentile == null) {
+            percentile = source.percentile;
+        }
+        if (budgetRatio == null) {
+            budgetRatio = source.budgetRatio;
+        }
+        if ((methods == null || methods.isEmpty()) && source.methods != null) {
+            methods = new HashSet<>(source.methods);
+        }
+        if ((methodPrefixes == null || methodPrefixes.isEmpty()) && source.methodPrefixes != null) {
+            methodPrefixes = new HashSet<>(source.methodPrefixes);
+        }
+    }
+
+    /**
+     * Checks if hedging is enabled for the specified method.
+     *
+     * @param methodName the method name to check.
+     * @return true if the method is marked as idempotent and more than one attempt is allowed.
+     */
+    public boolean isEnabled(String methodName) {
+        if (getMaxAttempts() < 2 || methodName == null || methodName.isEmpty()) {
+            return false;
+        } else if (methods != null && methods.contains(methodName)) {
+            return true;
+        } else if (methodPrefixes != null) {
+            for (String methodPrefix : methodPrefixes) {
+                if (methodName.startsWith(methodPrefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts == null ? DEFAULT_MAX_ATTEMPTS : maxAttempts;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio == null || budgetRatio < 0 ? DEFAULT_BUDGET_RATIO : budgetRatio;
+    }
+
+    /**
+     * Returns the configured hedging delay.
+     *
+     * @return the hedging delay in milliseconds, or -1 if it is not configured
+     */
+    public long getDelay() {
+        return delay == null || delay < 0 ? -1 : delay;
+    }
+
+    public double getPercentile() {
+        return percentile == null || percentile <= 0 ? DEFAULT_PERCENTILE : Math.min(percentile, 100D);
+    }
+
+}
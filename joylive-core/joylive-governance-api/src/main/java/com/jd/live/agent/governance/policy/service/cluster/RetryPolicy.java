@@ -25,6 +25,7 @@ import lombok.Setter;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Defines a failover policy that specifies the behavior of a system or component in the event of a failure.
@@ -54,6 +55,32 @@ public class RetryPolicy extends PolicyId implements PolicyInheritWithId<RetryPo
      */
     private Long interval;
 
+    /**
+     * The multiplier applied to the interval after each retry, 1 means a constant interval.
+     */
+    private Double multiplier;
+
+    /**
+     * The maximum retry waiting interval, in milliseconds.
+     */
+    private Long maxInterval;
+
+    /**
+     * The ratio of the interval that is randomized, in the range [0, 1].
+     */
+    private Double jitter;
+
+    /**
+     * The ratio of retries to recent successful requests allowed by the retry budget of the service.
+     * The retry budget is disabled if it is not positive.
+     */
+    private Double budgetRatio;
+
+    /**
+     * The minimum number of retries per second allowed by the retry budget of the service.
+     */
+    private Integer minRetriesPerSecond;
+
     /**
      * Retry execution timeout, in milliseconds.
      */
@@ -105,6 +132,21 @@ public class RetryPolicy extends PolicyId implements PolicyInheritWithId<RetryPo
         if (interval == null) {
             interval = source.interval;
         }
+        if (multiplier == null) {
+            multiplier = source.multiplier;
+        }
+        if (maxInterval == null) {
+            maxInterval = source.maxInterval;
+        }
+        if (jitter == null) {
+            jitter = source.jitter;
+        }
+        if (budgetRatio == null) {
+            budgetRatio = source.budgetRatio;
+        }
+        if (minRetriesPerSecond == null) {
+            minRetriesPerSecond = source.minRetriesPerSecond;
+        }
         if (timeout == null) {
             timeout = source.timeout;
         }
@@ -131,6 +173,38 @@ public class RetryPolicy extends PolicyId implements PolicyInheritWithId<RetryPo
         }
     }
 
+    /**
+     * Returns the waiting interval before the specified retry, with exponential backoff and jitter.
+     *
+     * @param retries the number of the retry, starting from 1
+     * @return the waiting interval in milliseconds
+     */
+    public long getBackoff(int retries) {
+        if (interval == null || interval <= 0) {
+            return 0;
+        }
+        double result = interval;
+        if (multiplier != null && multiplier > 1 && retries > 1) {
+            result = result * Math.pow(multiplier, retries - 1);
+        }
+        if (maxInterval != null && maxInterval > 0) {
+            result = Math.min(result, maxInterval);
+        }
+        if (jitter != null && jitter > 0) {
+            result = result * (1 - Math.min(jitter, 1D) * ThreadLocalRandom.current().nextDouble());
+        }
+        return (long) result;
+    }
+
+    /**
+     * Checks if the retry budget is enabled.
+     *
+     * @return true if the retry budget is enabled
+     */
+    public boolean isBudgetEnabled() {
+        return budgetRatio != null && budgetRatio > 0;
+    }
+
     public long getDeadline(long startTime) {
         return timeout != null && timeout > 0 ? startTime + timeout : 0;
     }
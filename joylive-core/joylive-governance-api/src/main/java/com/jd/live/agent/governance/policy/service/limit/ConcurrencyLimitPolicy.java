@@ -15,6 +15,7 @@
  */
 package com.jd.live.agent.governance.policy.service.limit;
 
+import com.jd.live.agent.core.parser.json.JsonAlias;
 import com.jd.live.agent.governance.policy.PolicyInherit.PolicyInheritWithIdGen;
 import com.jd.live.agent.governance.policy.PolicyVersion;
 import com.jd.live.agent.governance.policy.service.annotation.Provider;
@@ -23,6 +24,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implements a concurrency-based rate limiting policy. This policy limits the number of concurrent
@@ -54,6 +56,12 @@ public class ConcurrencyLimitPolicy extends AbstractLimitPolicy
      */
     private Long maxWaitMs;
 
+    /**
+     * A map of parameters that further customize the action of the limiting strategy.
+     */
+    @JsonAlias("actionParameters")
+    private Map<String, String> parameters;
+
     /**
      * Specifies the algorithm or component used for implementing the limiting logic.
      */
@@ -108,6 +116,9 @@ public class ConcurrencyLimitPolicy extends AbstractLimitPolicy
         if (maxWaitMs == null) {
             maxWaitMs = source.getMaxWaitMs();
         }
+        if (parameters == null) {
+            parameters = source.getParameters();
+        }
         if (realizeType == null) {
             realizeType = source.getRealizeType();
         }
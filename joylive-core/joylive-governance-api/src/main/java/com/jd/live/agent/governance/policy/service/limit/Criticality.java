@@ -0,0 +1,69 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.policy.service.limit;
+
+/**
+ * The criticality tiers of requests, from the most to the least critical.
+ * <p>
+ * When the application is overloaded the lower tiers are shed first. Each tier has a ratio which scales the
+ * thresholds of the limiters: a tier with a ratio below 1 is rejected when the utilization of a limiter reaches
+ * the ratio, and a tier with a ratio above 1 is allowed a little beyond the load thresholds.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public enum Criticality {
+
+    /**
+     * Requests whose failure has a direct and severe impact, such as health checks.
+     */
+    CRITICAL_PLUS(1.1D),
+
+    /**
+     * The default tier of production requests.
+     */
+    CRITICAL(1.0D),
+
+    /**
+     * Requests that tolerate partial unavailability, such as prefetching.
+     */
+    SHEDDABLE_PLUS(0.85D),
+
+    /**
+     * Requests that tolerate frequent unavailability, such as batch jobs and crawlers.
+     */
+    SHEDDABLE(0.7D);
+
+    private final double ratio;
+
+    Criticality(double ratio) {
+        this.ratio = ratio;
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    /**
+     * Checks if the tier should be shed at the given utilization of a limiter.
+     *
+     * @param utilization the utilization of the limiter between 0 and 1
+     * @return true if the tier should be shed before acquiring the limiter
+     */
+    public boolean isShed(double utilization) {
+        return ratio < 1D && utilization >= ratio;
+    }
+}
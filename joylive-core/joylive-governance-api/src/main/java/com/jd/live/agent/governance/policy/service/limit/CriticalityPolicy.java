@@ -0,0 +1,58 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.policy.service.limit;
+
+import com.jd.live.agent.governance.policy.PolicyInherit.PolicyInheritWithIdGen;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Classifies the matched requests into a criticality tier.
+ * <p>
+ * The conditions are the same tag conditions as the limit policies, so requests can be classified by headers,
+ * queries, methods and so on. The first matched policy of a service decides the tier of a request, and the
+ * requests matching no policy are {@link Criticality#CRITICAL}.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+@Getter
+@Setter
+public class CriticalityPolicy extends AbstractLimitPolicy implements PolicyInheritWithIdGen<CriticalityPolicy> {
+
+    /**
+     * The criticality of the matched requests.
+     */
+    private Criticality criticality;
+
+    public CriticalityPolicy() {
+    }
+
+    public CriticalityPolicy(String name) {
+        super(name);
+    }
+
+    @Override
+    public void supplement(CriticalityPolicy source) {
+        if (source == null) {
+            return;
+        }
+        super.supplement(source);
+        if (criticality == null) {
+            criticality = source.criticality;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 /**
@@ -182,6 +183,16 @@ public interface ServiceRequest extends Request {
         return false;
     }
 
+    /**
+     * Returns the executor that an asynchronous request should be continued on after waiting,
+     * such as the event loop that received the request.
+     *
+     * @return the executor, or {@code null} if the request is not bound to any executor.
+     */
+    default Executor getExecutor() {
+        return null;
+    }
+
     /**
      * Determines if the request is a system message.
      *
@@ -252,6 +263,18 @@ public interface ServiceRequest extends Request {
             return "";
         }
 
+        /**
+         * Retrieves the timeout sent by the caller through the framework, such as the timeout attachment of Dubbo.
+         * <p>
+         * It is used to set the deadline of the request when the caller has not propagated a time budget.
+         * </p>
+         *
+         * @return The timeout value in milliseconds. A value of 0 indicates no timeout.
+         */
+        default long getTimeout() {
+            return 0;
+        }
+
     }
 
     /**
@@ -315,12 +338,29 @@ public interface ServiceRequest extends Request {
          * that there should be no timeout, allowing the operation to continue indefinitely until
          * completion.
          * </p>
+         * <p>
+         * The default implementation ignores the timeout, requests of the frameworks which support a timeout
+         * per call should override it.
+         * </p>
          *
          * @param timeout The desired timeout in milliseconds. A value of 0 indicates no timeout.
          */
         default void setTimeout(long timeout) {
         }
 
+        /**
+         * Checks if the request can be sent to several endpoints at the same time, e.g. by hedging.
+         * <p>
+         * Such a request must not be modified by sending it, or must guard its modifications, because the
+         * concurrent attempts share it. By default, a request is not safe to be sent concurrently.
+         * </p>
+         *
+         * @return true if the request can be sent concurrently
+         */
+        default boolean isConcurrentSafe() {
+            return false;
+        }
+
         /**
          * Determines if the current request is sensitive to specific instances.
          *
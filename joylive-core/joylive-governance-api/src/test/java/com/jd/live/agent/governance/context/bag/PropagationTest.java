@@ -115,4 +115,41 @@ public class PropagationTest {
         Assertions.assertEquals("x-live-unit=unit1,x-live-cell=[cell1|cell2]", Label.join(w3cMultiWriter.get("baggage")));
     }
 
+    @Test
+    void testDeadline() {
+        Map<String, String> live = new HashMap<>();
+        live.put("x-live-unit", "unit1");
+        live.put(Carrier.HEADER_TIMEOUT, "500");
+        Carrier carrier = RequestContext.create();
+        long now = System.currentTimeMillis();
+        livePropagation.read(carrier, new StringMapReader(live));
+        Assertions.assertNull(carrier.getCargo(Carrier.HEADER_TIMEOUT));
+        Long deadline = carrier.getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        Assertions.assertNotNull(deadline);
+        Assertions.assertTrue(deadline >= now + 500 && deadline <= System.currentTimeMillis() + 500);
+
+        livePropagation.write(carrier, new StringMapWriter(liveSingleWriter));
+        Assertions.assertEquals("unit1", liveSingleWriter.get("x-live-unit"));
+        long budget = Long.parseLong(liveSingleWriter.get(Carrier.HEADER_TIMEOUT));
+        Assertions.assertTrue(budget > 0 && budget <= 500);
+
+        long written = System.currentTimeMillis();
+        w3cPropagation.write(carrier, new StringMapWriter(w3cSingleWriter));
+        Assertions.assertEquals("x-live-unit=unit1", w3cSingleWriter.get("baggage"));
+        Assertions.assertNotNull(w3cSingleWriter.get(Carrier.HEADER_TIMEOUT));
+        Carrier other = RequestContext.create();
+        w3cPropagation.read(other, new StringMapReader(w3cSingleWriter));
+        Assertions.assertNull(other.getCargo(Carrier.HEADER_TIMEOUT));
+        Assertions.assertEquals("unit1", other.getCargo("x-live-unit").getValue());
+        Long received = other.getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        Assertions.assertNotNull(received);
+        // the budget is reduced by the time the header is in transit.
+        Assertions.assertTrue(received <= deadline + (System.currentTimeMillis() - written));
+
+        // an expired deadline is propagated as an empty budget
+        carrier.setAttribute(Carrier.ATTRIBUTE_DEADLINE, System.currentTimeMillis() - 10);
+        livePropagation.write(carrier, new StringMapWriter(liveSingleWriter));
+        Assertions.assertEquals("0", liveSingleWriter.get(Carrier.HEADER_TIMEOUT));
+    }
+
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.circuitbreak;
+
+import com.jd.live.agent.core.util.URI;
+import com.jd.live.agent.governance.invoke.circuitbreak.atomic.AtomicCircuitBreaker;
+import com.jd.live.agent.governance.invoke.circuitbreak.atomic.TimeCallWindow;
+import com.jd.live.agent.governance.policy.PolicyId;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakLevel;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakPhase;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AtomicCircuitBreakerTest {
+
+    private static final URI URI = com.jd.live.agent.core.util.URI.parse("service://order?group=default");
+
+    @Test
+    void testCountWindow() {
+        AtomicLong clock = new AtomicLong(1000);
+        CircuitBreakPolicy policy = createPolicy(CircuitBreakPolicy.SLIDING_WINDOW_COUNT, 10);
+        AtomicCircuitBreaker breaker = new AtomicCircuitBreaker(policy, URI, clock::get);
+        List<CircuitBreakerState> states = new ArrayList<>();
+        breaker.addListener(e -> states.add(e.getTo()));
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(breaker.acquire());
+            if (i % 5 == 0) {
+                breaker.onError(10, null);
+            } else {
+                breaker.onSuccess(10);
+            }
+        }
+        // the oldest calls are evicted by the failures, 4 failures of 10 calls are below the threshold of 50%.
+        for (int i = 0; i < 3; i++) {
+            breaker.onError(10, null);
+        }
+        Assertions.assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        breaker.onError(10, null);
+        Assertions.assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.acquire());
+        Assertions.assertEquals(CircuitBreakPhase.OPEN, breaker.getInfo(clock.get()).getPhase());
+        // half open after the wait duration, and only the permitted calls are allowed.
+        clock.addAndGet(2000);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(breaker.acquire());
+        }
+        Assertions.assertFalse(breaker.acquire());
+        Assertions.assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+        breaker.release();
+        Assertions.assertTrue(breaker.acquire());
+        for (int i = 0; i < 3; i++) {
+            breaker.onSuccess(10);
+        }
+        Assertions.assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        Assertions.assertTrue(breaker.acquire());
+        Assertions.assertEquals(3, states.size());
+        Assertions.assertEquals(CircuitBreakerState.OPEN, states.get(0));
+        Assertions.assertEquals(CircuitBreakerState.HALF_OPEN, states.get(1));
+        Assertions.assertEquals(CircuitBreakerState.CLOSED, states.get(2));
+    }
+
+    @Test
+    void testHalfOpenFailure() {
+        AtomicLong clock = new AtomicLong(1000);
+        CircuitBreakPolicy policy = createPolicy(CircuitBreakPolicy.SLIDING_WINDOW_COUNT, 10);
+        AtomicCircuitBreaker breaker = new AtomicCircuitBreaker(policy, URI, clock::get);
+        for (int i = 0; i < 10; i++) {
+            breaker.onError(10, null);
+        }
+        Assertions.assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        clock.addAndGet(2000);
+        Assertions.assertTrue(breaker.acquire());
+        breaker.onSuccess(10);
+        breaker.onError(10, null);
+        breaker.onError(10, null);
+        Assertions.assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.acquire());
+    }
+
+    @Test
+    void testTimeWindow() {
+        AtomicLong clock = new AtomicLong(10_000);
+        CircuitBreakPolicy policy = createPolicy(null, 5);
+        policy.setSlowCallDurationThreshold(100);
+        AtomicCircuitBreaker breaker = new AtomicCircuitBreaker(policy, URI, clock::get);
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess(200);
+        }
+        // the slow calls of the first second slide out of the window.
+        clock.addAndGet(5000);
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess(10);
+        }
+        breaker.onSuccess(200);
+        Assertions.assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        clock.addAndGet(1000);
+        for (int i = 0; i < 5; i++) {
+            breaker.onSuccess(200);
+        }
+        Assertions.assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testTimeWindowConcurrentRoll() throws InterruptedException {
+        TimeCallWindow window = new TimeCallWindow(2, 0);
+        AtomicLong clock = new AtomicLong();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    // every thread moves the time forward, so the buckets are rolled while others record.
+                    window.record(clock.addAndGet(1) / 10, j % 3 == 0, false);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // no call is lost by the buckets, so the totals drop to zero once the window has slid out.
+        window.roll(clock.get() / 10 + 3000);
+        Assertions.assertEquals(0, window.getCalls());
+        Assertions.assertEquals(0, window.getFailures());
+    }
+
+    @Test
+    void testForceOpen() {
+        CircuitBreakPolicy policy = createPolicy(null, 5);
+        policy.setForceOpen(true);
+        AtomicCircuitBreaker breaker = new AtomicCircuitBreaker(policy, URI, () -> Long.MAX_VALUE - 1);
+        Assertions.assertFalse(breaker.acquire());
+        Assertions.assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testInstanceInspector() {
+        AtomicLong clock = new AtomicLong(1000);
+        CircuitBreakPolicy policy = createPolicy(CircuitBreakPolicy.SLIDING_WINDOW_COUNT, 10);
+        policy.setLevel(CircuitBreakLevel.INSTANCE);
+        AtomicCircuitBreaker breaker = new AtomicCircuitBreaker(policy, URI.parameter(PolicyId.KEY_SERVICE_ENDPOINT, "a"), clock::get);
+        Assertions.assertNull(policy.getInspector("a"));
+        for (int i = 0; i < 10; i++) {
+            breaker.onError(10, null);
+        }
+        Assertions.assertSame(breaker, policy.getInspector("a"));
+        breaker.close();
+        Assertions.assertNull(policy.getInspector("a"));
+    }
+
+    private static CircuitBreakPolicy createPolicy(String windowType, int windowSize) {
+        CircuitBreakPolicy policy = new CircuitBreakPolicy();
+        policy.setLevel(CircuitBreakLevel.SERVICE);
+        policy.setSlidingWindowType(windowType);
+        policy.setSlidingWindowSize(windowSize);
+        policy.setMinCallsThreshold(5);
+        policy.setFailureRateThreshold(50F);
+        policy.setWaitDurationInOpenState(1);
+        policy.setAllowedCallsInHalfOpenState(3);
+        return policy;
+    }
+}
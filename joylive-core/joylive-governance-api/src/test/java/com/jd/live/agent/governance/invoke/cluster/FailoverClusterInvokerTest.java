@@ -0,0 +1,203 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import com.jd.live.agent.core.util.time.TimeScheduler;
+import com.jd.live.agent.governance.exception.ErrorName;
+import com.jd.live.agent.governance.exception.ServiceError;
+import com.jd.live.agent.governance.instance.Endpoint;
+import com.jd.live.agent.governance.invoke.InvocationContext;
+import com.jd.live.agent.governance.invoke.OutboundInvocation;
+import com.jd.live.agent.governance.invoke.metadata.ServiceMetadata;
+import com.jd.live.agent.governance.policy.service.cluster.ClusterPolicy;
+import com.jd.live.agent.governance.policy.service.cluster.RetryPolicy;
+import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
+import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FailoverClusterInvokerTest {
+
+    private static final long INTERVAL = 300;
+
+    @Test
+    void testRetryNotBlockingEventLoop() throws Exception {
+        ExecutorService loop = Executors.newSingleThreadExecutor(r -> new Thread(r, "event-loop"));
+        TimeScheduler timer = new TimeScheduler("test-timer", 10, 100, 1);
+        timer.start();
+        try {
+            OutboundRequest request = mockRequest();
+            OutboundInvocation<OutboundRequest> invocation = mockInvocation(request);
+            AtomicInteger attempts = new AtomicInteger();
+            ConcurrentMap<Integer, String> threads = new ConcurrentHashMap<>();
+            OutboundResponse success = mock(OutboundResponse.class);
+            // the response is completed on the event loop, like a netty channel.
+            LiveCluster<OutboundRequest, OutboundResponse, Endpoint> cluster = mockCluster(request, loop, attempts, threads, success);
+            when(cluster.getRetryExecutor(request)).thenReturn(loop);
+
+            RetryPolicy retryPolicy = createRetryPolicy();
+            FailoverClusterInvoker invoker = new FailoverClusterInvoker(new HashMap<>(), timer);
+
+            CompletableFuture<OutboundResponse> result = loop.submit(() ->
+                    invoker.execute(cluster, invocation, new ClusterPolicy(ClusterInvoker.TYPE_FAILOVER, retryPolicy))
+                            .toCompletableFuture()).get();
+            // wait until the first attempt fails.
+            while (attempts.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(20);
+            long start = System.nanoTime();
+            loop.submit(() -> null).get(1, TimeUnit.SECONDS);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assertions.assertTrue(elapsed < INTERVAL / 2, "event loop is blocked for " + elapsed + "ms");
+            Assertions.assertFalse(result.isDone());
+
+            Assertions.assertSame(success, result.get(2, TimeUnit.SECONDS));
+            Assertions.assertEquals(2, attempts.get());
+            Assertions.assertEquals("event-loop", threads.get(1));
+        } finally {
+            timer.close();
+            loop.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSyncRetryInCallerThread() throws Exception {
+        ExecutorService io = Executors.newSingleThreadExecutor(r -> new Thread(r, "io"));
+        TimeScheduler timer = new TimeScheduler("test-timer", 10, 100, 1);
+        timer.start();
+        try {
+            OutboundRequest request = mockRequest();
+            OutboundInvocation<OutboundRequest> invocation = mockInvocation(request);
+            AtomicInteger attempts = new AtomicInteger();
+            ConcurrentMap<Integer, String> threads = new ConcurrentHashMap<>();
+            OutboundResponse success = mock(OutboundResponse.class);
+            // the failure is completed on an io thread.
+            LiveCluster<OutboundRequest, OutboundResponse, Endpoint> cluster = mockCluster(request, io, attempts, threads, success);
+
+            FailoverClusterInvoker invoker = new FailoverClusterInvoker(new HashMap<>(), timer);
+            String caller = Thread.currentThread().getName();
+            long start = System.currentTimeMillis();
+            CompletableFuture<OutboundResponse> result = invoker.execute(cluster, invocation,
+                    new ClusterPolicy(ClusterInvoker.TYPE_FAILOVER, createRetryPolicy())).toCompletableFuture();
+            // the synchronous request is retried by the caller before returning.
+            Assertions.assertTrue(result.isDone());
+            Assertions.assertTrue(System.currentTimeMillis() - start >= INTERVAL);
+            Assertions.assertSame(success, result.get());
+            Assertions.assertEquals(2, attempts.get());
+            // the thread locals of the caller are kept.
+            Assertions.assertEquals(caller, threads.get(1));
+        } finally {
+            timer.close();
+            io.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBackoff() {
+        RetryPolicy policy = new RetryPolicy();
+        Assertions.assertEquals(0, policy.getBackoff(1));
+        policy.setInterval(100L);
+        Assertions.assertEquals(100, policy.getBackoff(3));
+        policy.setMultiplier(2D);
+        policy.setMaxInterval(300L);
+        Assertions.assertEquals(100, policy.getBackoff(1));
+        Assertions.assertEquals(200, policy.getBackoff(2));
+        Assertions.assertEquals(300, policy.getBackoff(3));
+        policy.setJitter(0.5);
+        for (int i = 0; i < 100; i++) {
+            long backoff = policy.getBackoff(2);
+            // the jitter reduces the interval by at most half, and the truncation can reach the lower bound.
+            Assertions.assertTrue(backoff >= 100 && backoff <= 200, "backoff=" + backoff);
+        }
+    }
+
+    private static OutboundRequest mockRequest() {
+        OutboundRequest request = mock(OutboundRequest.class);
+        when(request.getMethod()).thenReturn("get");
+        when(request.getErrorFunction()).thenReturn(t -> new ErrorName(t.getClass().getName(), null));
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OutboundInvocation<OutboundRequest> mockInvocation(OutboundRequest request) throws Exception {
+        Endpoint endpoint = mock(Endpoint.class);
+        InvocationContext context = mock(InvocationContext.class);
+        when(context.route(any(OutboundInvocation.class), anyList())).thenAnswer(i -> ((List<?>) i.getArgument(1)).get(0));
+        when(context.outbound(any(OutboundInvocation.class), any(Endpoint.class), any(Callable.class)))
+                .thenAnswer(i -> ((Callable<?>) i.getArgument(2)).call());
+
+        OutboundInvocation<OutboundRequest> invocation = mock(OutboundInvocation.class);
+        when(invocation.getRequest()).thenReturn(request);
+        when(invocation.getContext()).thenReturn(context);
+        when(invocation.getServiceMetadata()).thenReturn(mock(ServiceMetadata.class));
+        when(invocation.getInstances()).thenAnswer(i -> Collections.singletonList(endpoint));
+        return invocation;
+    }
+
+    /**
+     * Creates a cluster whose first attempt fails and the second one succeeds, the responses are completed on
+     * the executor.
+     */
+    @SuppressWarnings("unchecked")
+    private static LiveCluster<OutboundRequest, OutboundResponse, Endpoint> mockCluster(OutboundRequest request,
+                                                                                      Executor executor,
+                                                                                      AtomicInteger attempts,
+                                                                                      ConcurrentMap<Integer, String> threads,
+                                                                                      OutboundResponse success) {
+        LiveCluster<OutboundRequest, OutboundResponse, Endpoint> cluster = mock(LiveCluster.class);
+        when(cluster.route(request)).thenAnswer(i -> CompletableFuture.completedFuture(Collections.singletonList(mock(Endpoint.class))));
+        when(cluster.createException(any(Throwable.class), any(OutboundInvocation.class))).thenAnswer(i -> i.getArgument(0));
+        when(cluster.createResponse(any(Throwable.class), any(), any())).thenAnswer(i -> {
+            OutboundResponse response = mock(OutboundResponse.class);
+            when(response.getError()).thenReturn(new ServiceError((Throwable) i.getArgument(0), false));
+            return response;
+        });
+        when(cluster.invoke(any(OutboundRequest.class), any(Endpoint.class))).thenAnswer(i -> {
+            int attempt = attempts.getAndIncrement();
+            threads.put(attempt, Thread.currentThread().getName());
+            CompletableFuture<OutboundResponse> future = new CompletableFuture<>();
+            executor.execute(() -> {
+                if (attempt == 0) {
+                    future.completeExceptionally(new IllegalStateException("unavailable"));
+                } else {
+                    future.complete(success);
+                }
+            });
+            return future;
+        });
+        return cluster;
+    }
+
+    private static RetryPolicy createRetryPolicy() {
+        RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setRetry(2);
+        retryPolicy.setInterval(INTERVAL);
+        retryPolicy.setExceptions(Collections.singleton(IllegalStateException.class.getName()));
+        return retryPolicy;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import com.jd.live.agent.bootstrap.exception.RejectException.RejectNoProviderException;
+import com.jd.live.agent.core.util.time.TimeTask;
+import com.jd.live.agent.core.util.time.Timeout;
+import com.jd.live.agent.core.util.time.Timer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HedgeContextTest {
+
+    @Test
+    void testHedgeWins() {
+        Endpoints endpoints = new Endpoints("a", "b");
+        ManualTimer timer = new ManualTimer();
+        AtomicLong recorded = new AtomicLong(-1);
+        CompletableFuture<String> result = execute(endpoints, timer, new HedgeBudget(10, 10), 3, recorded);
+        Assertions.assertEquals(1, endpoints.futures.size());
+        Assertions.assertEquals(1, timer.tasks.size());
+        timer.fire();
+        Assertions.assertEquals(2, endpoints.futures.size());
+        endpoints.futures.get("b").complete("b");
+        Assertions.assertEquals("b", result.join());
+        Assertions.assertTrue(endpoints.futures.get("a").isCancelled());
+        Assertions.assertTrue(recorded.get() >= 0);
+        // the third attempt is cancelled with the loser.
+        timer.fire();
+        Assertions.assertEquals(2, endpoints.futures.size());
+    }
+
+    @Test
+    void testLatencyFromRequestStart() throws InterruptedException {
+        Endpoints endpoints = new Endpoints("a", "b");
+        ManualTimer timer = new ManualTimer();
+        AtomicLong recorded = new AtomicLong(-1);
+        CompletableFuture<String> result = execute(endpoints, timer, new HedgeBudget(10, 10), 2, recorded);
+        Thread.sleep(50);
+        timer.fire();
+        endpoints.futures.get("b").complete("b");
+        Assertions.assertEquals("b", result.join());
+        // the hedged attempt completes immediately, but the request has waited for the delay.
+        Assertions.assertTrue(recorded.get() >= 50, "recorded=" + recorded.get());
+    }
+
+    @Test
+    void testPrimaryWins() {
+        Endpoints endpoints = new Endpoints("a", "b");
+        ManualTimer timer = new ManualTimer();
+        CompletableFuture<String> result = execute(endpoints, timer, new HedgeBudget(10, 10), 2, null);
+        endpoints.futures.get("a").complete("a");
+        Assertions.assertEquals("a", result.join());
+        Assertions.assertTrue(timer.tasks.get(0).cancelled);
+        timer.fire();
+        Assertions.assertEquals(1, endpoints.futures.size());
+    }
+
+    @Test
+    void testBudgetExhausted() {
+        Endpoints endpoints = new Endpoints("a", "b");
+        ManualTimer timer = new ManualTimer();
+        HedgeBudget budget = new HedgeBudget(10, 0);
+        CompletableFuture<String> result = execute(endpoints, timer, budget, 2, null);
+        timer.fire();
+        Assertions.assertEquals(1, endpoints.futures.size());
+        Assertions.assertFalse(result.isDone());
+        endpoints.futures.get("a").complete("a");
+        Assertions.assertEquals("a", result.join());
+        for (int i = 0; i < 10; i++) {
+            budget.deposit(0.1);
+        }
+        Assertions.assertTrue(budget.withdraw());
+        Assertions.assertFalse(budget.withdraw());
+    }
+
+    @Test
+    void testAllFailed() {
+        Endpoints endpoints = new Endpoints("a", "b");
+        ManualTimer timer = new ManualTimer();
+        CompletableFuture<String> result = execute(endpoints, timer, new HedgeBudget(10, 10), 2, null);
+        timer.fire();
+        endpoints.futures.get("a").completeExceptionally(new IllegalStateException("a"));
+        Assertions.assertFalse(result.isDone());
+        endpoints.futures.get("b").completeExceptionally(new IllegalStateException("b"));
+        Assertions.assertTrue(result.isCompletedExceptionally());
+        Throwable cause = Assertions.assertThrows(Throwable.class, result::join).getCause();
+        Assertions.assertEquals("b", cause.getMessage());
+    }
+
+    @Test
+    void testPrimaryFailedBeforeHedge() {
+        Endpoints endpoints = new Endpoints("a", "b");
+        ManualTimer timer = new ManualTimer();
+        CompletableFuture<String> result = execute(endpoints, timer, new HedgeBudget(10, 10), 2, null);
+        endpoints.futures.get("a").completeExceptionally(new IllegalStateException("a"));
+        Assertions.assertTrue(result.isCompletedExceptionally());
+        Assertions.assertTrue(timer.tasks.get(0).cancelled);
+    }
+
+    @Test
+    void testNoEndpoint() {
+        ManualTimer timer = new ManualTimer();
+        CompletableFuture<String> result = execute(new Endpoints(), timer, new HedgeBudget(10, 10), 2, null);
+        Assertions.assertTrue(result.isCompletedExceptionally());
+        Throwable cause = Assertions.assertThrows(Throwable.class, result::join).getCause();
+        Assertions.assertInstanceOf(RejectNoProviderException.class, cause);
+    }
+
+    private CompletableFuture<String> execute(Endpoints endpoints, Timer timer, HedgeBudget budget, int maxAttempts, AtomicLong recorded) {
+        HedgeContext<String, String> context = new HedgeContext<>(timer, budget, maxAttempts, 10,
+                endpoints::attempt, recorded == null ? null : recorded::set);
+        return context.execute().toCompletableFuture();
+    }
+
+    /**
+     * In-process endpoints which complete when the test says so.
+     */
+    private static class Endpoints {
+
+        private final List<String> names;
+
+        private final Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+
+        Endpoints(String... names) {
+            this.names = Arrays.asList(names);
+        }
+
+        CompletionStage<String> attempt(int index, List<String> tried) {
+            for (String name : names) {
+                if (!tried.contains(name)) {
+                    tried.add(name);
+                    CompletableFuture<String> future = new CompletableFuture<>();
+                    futures.put(name, future);
+                    return future;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class ManualTimer implements Timer {
+
+        private final List<ManualTimeout> tasks = new ArrayList<>();
+
+        void fire() {
+            List<ManualTimeout> timeouts = new ArrayList<>(tasks);
+            for (ManualTimeout timeout : timeouts) {
+                if (!timeout.cancelled && !timeout.expired) {
+                    timeout.expired = true;
+                    timeout.runnable.run();
+                }
+            }
+        }
+
+        @Override
+        public Timeout add(String name, long time, Runnable runnable) {
+            ManualTimeout timeout = new ManualTimeout(runnable);
+            tasks.add(timeout);
+            return timeout;
+        }
+
+        @Override
+        public Timeout delay(String name, long delay, Runnable runnable) {
+            return add(name, delay, runnable);
+        }
+
+        @Override
+        public Timeout add(TimeTask task) {
+            return add(task.getName(), task.getTime(), task);
+        }
+    }
+
+    private static class ManualTimeout implements Timeout {
+
+        private final Runnable runnable;
+
+        private boolean expired;
+
+        private boolean cancelled;
+
+        ManualTimeout(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return expired;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (expired || cancelled) {
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HedgeLatencyTest {
+
+    @Test
+    void testDelay() {
+        AtomicLong clock = new AtomicLong();
+        HedgeLatency latency = new HedgeLatency(clock::get);
+        // not enough samples, the configured delay is used.
+        Assertions.assertEquals(-1, latency.getDelay(95, -1));
+        Assertions.assertEquals(20, latency.getDelay(95, 20));
+        for (int i = 1; i <= 100; i++) {
+            latency.record(i);
+        }
+        // the cached value is used until the refresh interval expires.
+        Assertions.assertEquals(-1, latency.getDelay(95, -1));
+        clock.addAndGet(1000);
+        long p95 = latency.getDelay(95, -1);
+        Assertions.assertTrue(p95 >= 95 && p95 < 110, "p95=" + p95);
+        Assertions.assertEquals(200, latency.getDelay(95, 200));
+        for (int i = 0; i < 1000; i++) {
+            latency.record(1000);
+        }
+        Assertions.assertEquals(p95, latency.getDelay(95, -1));
+        // a new percentile is computed immediately.
+        long p50 = latency.getDelay(50, -1);
+        Assertions.assertTrue(p50 >= 1000, "p50=" + p50);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import com.jd.live.agent.core.util.time.TimeScheduler;
+import com.jd.live.agent.governance.exception.ErrorName;
+import com.jd.live.agent.governance.instance.Endpoint;
+import com.jd.live.agent.governance.invoke.InvocationContext;
+import com.jd.live.agent.governance.invoke.OutboundInvocation;
+import com.jd.live.agent.governance.invoke.metadata.ServiceMetadata;
+import com.jd.live.agent.governance.policy.service.cluster.ClusterPolicy;
+import com.jd.live.agent.governance.policy.service.cluster.HedgePolicy;
+import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
+import com.jd.live.agent.governance.response.ServiceResponse.OutboundResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class HedgingClusterInvokerTest {
+
+    private static final long DELAY = 50;
+
+    @Test
+    void testHedgeWins() throws Exception {
+        TimeScheduler timer = new TimeScheduler("test-timer", 10, 100, 1);
+        timer.start();
+        try {
+            Endpoint slow = mock(Endpoint.class);
+            Endpoint fast = mock(Endpoint.class);
+            OutboundRequest request = mockRequest(true);
+            OutboundInvocation<OutboundRequest> invocation = mockInvocation(request, slow, fast);
+            CompletableFuture<OutboundResponse> stalled = new CompletableFuture<>();
+            OutboundResponse success = mock(OutboundResponse.class);
+            LiveCluster<OutboundRequest, OutboundResponse, Endpoint> cluster = mockCluster();
+            when(cluster.invoke(request, slow)).thenReturn(stalled);
+            when(cluster.invoke(request, fast)).thenReturn(CompletableFuture.completedFuture(success));
+
+            long start = System.currentTimeMillis();
+            CompletableFuture<OutboundResponse> result = new HedgingClusterInvoker(timer)
+                    .execute(cluster, invocation, createPolicy()).toCompletableFuture();
+            Assertions.assertSame(success, result.get(2, TimeUnit.SECONDS));
+            Assertions.assertTrue(System.currentTimeMillis() - start >= DELAY);
+            verify(cluster).invoke(request, slow);
+            verify(cluster).invoke(request, fast);
+            // the slow attempt is cancelled with the stage returned by the cluster.
+            verify(cluster, timeout(1000)).cancel(stalled, request, slow);
+            verify(cluster).onSuccess(success, request, fast);
+            verify(cluster, never()).onError(any(), any(), any());
+        } finally {
+            timer.close();
+        }
+    }
+
+    @Test
+    void testNotConcurrentSafe() throws Exception {
+        TimeScheduler timer = new TimeScheduler("test-timer", 10, 100, 1);
+        timer.start();
+        try {
+            Endpoint slow = mock(Endpoint.class);
+            Endpoint fast = mock(Endpoint.class);
+            OutboundRequest request = mockRequest(false);
+            OutboundInvocation<OutboundRequest> invocation = mockInvocation(request, slow, fast);
+            CompletableFuture<OutboundResponse> stalled = new CompletableFuture<>();
+            LiveCluster<OutboundRequest, OutboundResponse, Endpoint> cluster = mockCluster();
+            when(cluster.invoke(request, slow)).thenReturn(stalled);
+
+            CompletableFuture<OutboundResponse> result = new HedgingClusterInvoker(timer)
+                    .execute(cluster, invocation, createPolicy()).toCompletableFuture();
+            Thread.sleep(DELAY * 3);
+            Assertions.assertFalse(result.isDone());
+            verify(cluster, never()).invoke(request, fast);
+            OutboundResponse success = mock(OutboundResponse.class);
+            stalled.complete(success);
+            Assertions.assertSame(success, result.get(2, TimeUnit.SECONDS));
+        } finally {
+            timer.close();
+        }
+    }
+
+    private static ClusterPolicy createPolicy() {
+        HedgePolicy hedgePolicy = new HedgePolicy();
+        hedgePolicy.setMethods(Collections.singleton("get"));
+        hedgePolicy.setDelay(DELAY);
+        ClusterPolicy policy = new ClusterPolicy(ClusterInvoker.TYPE_HEDGING);
+        policy.setHedgePolicy(hedgePolicy);
+        return policy;
+    }
+
+    private static OutboundRequest mockRequest(boolean concurrentSafe) {
+        OutboundRequest request = mock(OutboundRequest.class);
+        when(request.getService()).thenReturn("order");
+        when(request.getMethod()).thenReturn("get");
+        when(request.isAsync()).thenReturn(true);
+        when(request.isConcurrentSafe()).thenReturn(concurrentSafe);
+        when(request.getErrorFunction()).thenReturn(t -> new ErrorName(t.getClass().getName(), null));
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OutboundInvocation<OutboundRequest> mockInvocation(OutboundRequest request, Endpoint... endpoints) throws Exception {
+        InvocationContext context = mock(InvocationContext.class);
+        when(context.route(any(OutboundInvocation.class), anyList())).thenAnswer(i -> ((List<?>) i.getArgument(1)).get(0));
+        when(context.outbound(any(OutboundInvocation.class), any(Endpoint.class), any(Callable.class)))
+                .thenAnswer(i -> ((Callable<?>) i.getArgument(2)).call());
+
+        OutboundInvocation<OutboundRequest> invocation = mock(OutboundInvocation.class);
+        when(invocation.getRequest()).thenReturn(request);
+        when(invocation.getContext()).thenReturn(context);
+        when(invocation.getServiceMetadata()).thenReturn(mock(ServiceMetadata.class));
+        when(invocation.getInstances()).thenAnswer(i -> Arrays.asList(endpoints));
+        when(invocation.fork()).thenReturn(invocation);
+        return invocation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LiveCluster<OutboundRequest, OutboundResponse, Endpoint> mockCluster() {
+        return mock(LiveCluster.class);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.cluster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RetryBudgetTest {
+
+    @Test
+    void testBudget() {
+        AtomicLong clock = new AtomicLong(100_000);
+        RetryBudget budget = new RetryBudget(0.1, 1, clock::get);
+        // the minimum retries of the window
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(budget.tryRetry());
+        }
+        Assertions.assertFalse(budget.tryRetry());
+        for (int i = 0; i < 100; i++) {
+            budget.onSuccess();
+        }
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(budget.tryRetry());
+        }
+        Assertions.assertFalse(budget.tryRetry());
+        // the old counters slide out of the window.
+        clock.addAndGet(10_000);
+        Assertions.assertTrue(budget.tryRetry());
+    }
+
+    @Test
+    void testSlidingWindow() {
+        AtomicLong clock = new AtomicLong(100_000);
+        RetryBudget budget = new RetryBudget(0.5, 0, clock::get);
+        Assertions.assertFalse(budget.tryRetry());
+        for (int i = 0; i < 10; i++) {
+            budget.onSuccess();
+            clock.addAndGet(1000);
+        }
+        // the first success is out of the window, 9 successes allow 4.5 retries.
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(budget.tryRetry());
+        }
+        Assertions.assertFalse(budget.tryRetry());
+    }
+
+    @Test
+    void testConcurrentRetry() throws InterruptedException {
+        AtomicLong clock = new AtomicLong(100_000);
+        // the window allows 100 retries.
+        RetryBudget budget = new RetryBudget(0, 10, clock::get);
+        AtomicLong allowed = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    if (budget.tryRetry()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(100, allowed.get());
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.concurrencylimit;
+
+import com.jd.live.agent.core.util.time.TimeTask;
+import com.jd.live.agent.core.util.time.Timeout;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.invoke.concurrencylimit.bulkhead.BulkheadConcurrencyLimiter;
+import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadConcurrencyLimiterTest {
+
+    @Test
+    void testFairness() {
+        ManualTimer timer = new ManualTimer();
+        BulkheadConcurrencyLimiter limiter = new BulkheadConcurrencyLimiter(createPolicy(1, 1000, 10));
+        Assertions.assertTrue(limiter.acquireAsync("noisy", timer).toCompletableFuture().join());
+        List<CompletableFuture<Boolean>> noisy = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            noisy.add(limiter.acquireAsync("noisy", timer).toCompletableFuture());
+        }
+        CompletableFuture<Boolean> quiet = limiter.acquireAsync("quiet", timer).toCompletableFuture();
+        Assertions.assertEquals(5, limiter.getQueued());
+        Assertions.assertFalse(quiet.isDone());
+        // the queue is not overtaken by the new requests
+        Assertions.assertFalse(limiter.acquire());
+
+        limiter.complete();
+        Assertions.assertTrue(noisy.get(0).join());
+        Assertions.assertFalse(quiet.isDone());
+        limiter.complete();
+        // the quiet tenant is served before the other requests of the noisy tenant
+        Assertions.assertTrue(quiet.join());
+        Assertions.assertFalse(noisy.get(1).isDone());
+        for (int i = 1; i < 4; i++) {
+            limiter.complete();
+            Assertions.assertTrue(noisy.get(i).join());
+        }
+        Assertions.assertEquals(0, limiter.getQueued());
+        Assertions.assertEquals(1D, limiter.getUtilization());
+        limiter.complete();
+        Assertions.assertEquals(0D, limiter.getUtilization());
+    }
+
+    @Test
+    void testBounded() {
+        ManualTimer timer = new ManualTimer();
+        BulkheadConcurrencyLimiter limiter = new BulkheadConcurrencyLimiter(createPolicy(1, 1000, 2));
+        Assertions.assertTrue(limiter.acquireAsync("a", timer).toCompletableFuture().join());
+        CompletableFuture<Boolean> first = limiter.acquireAsync("a", timer).toCompletableFuture();
+        CompletableFuture<Boolean> second = limiter.acquireAsync("b", timer).toCompletableFuture();
+        // the queue is full
+        Assertions.assertFalse(limiter.acquireAsync("c", timer).toCompletableFuture().join());
+        // the maximum wait time expires
+        timer.run(0);
+        Assertions.assertFalse(first.join());
+        Assertions.assertEquals(1, limiter.getQueued());
+        limiter.complete();
+        Assertions.assertTrue(second.join());
+        // the expired timeout of the granted waiter is ignored
+        timer.run(1);
+        Assertions.assertTrue(second.join());
+        Assertions.assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void testNoWait() {
+        BulkheadConcurrencyLimiter limiter = new BulkheadConcurrencyLimiter(createPolicy(1, 0, 10));
+        Assertions.assertTrue(limiter.acquireAsync("a", new ManualTimer()).toCompletableFuture().join());
+        Assertions.assertFalse(limiter.acquireAsync("a", new ManualTimer()).toCompletableFuture().join());
+        Assertions.assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void testInUse() {
+        ManualTimer timer = new ManualTimer();
+        BulkheadConcurrencyLimiter limiter = new BulkheadConcurrencyLimiter(createPolicy(1, 1000, 10));
+        Assertions.assertFalse(limiter.isInUse());
+        Assertions.assertTrue(limiter.acquireAsync("a", timer).toCompletableFuture().join());
+        CompletableFuture<Boolean> waiter = limiter.acquireAsync("a", timer).toCompletableFuture();
+        Assertions.assertTrue(limiter.isInUse());
+        limiter.complete();
+        Assertions.assertTrue(waiter.join());
+        // the permit is handed over to the waiter
+        Assertions.assertTrue(limiter.isInUse());
+        limiter.complete();
+        Assertions.assertFalse(limiter.isInUse());
+    }
+
+    @Test
+    void testCloseRejectsWaiters() {
+        ManualTimer timer = new ManualTimer();
+        BulkheadConcurrencyLimiter limiter = new BulkheadConcurrencyLimiter(createPolicy(1, 1000, 10));
+        Assertions.assertTrue(limiter.acquireAsync("a", timer).toCompletableFuture().join());
+        CompletableFuture<Boolean> waiter = limiter.acquireAsync("a", timer).toCompletableFuture();
+        limiter.close();
+        Assertions.assertFalse(waiter.join());
+        Assertions.assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void testSyncWait() throws Exception {
+        BulkheadConcurrencyLimiter limiter = new BulkheadConcurrencyLimiter(createPolicy(1, 10000, 10));
+        Assertions.assertTrue(limiter.acquire("a"));
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> limiter.acquire("b"));
+        while (limiter.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        Assertions.assertFalse(waiter.isDone());
+        limiter.complete();
+        Assertions.assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, limiter.getQueued());
+        // the permit is handed over to the waiter
+        Assertions.assertTrue(limiter.isInUse());
+    }
+
+    @Test
+    void testSyncWaitExpires() {
+        BulkheadConcurrencyLimiter limiter = new BulkheadConcurrencyLimiter(createPolicy(1, 50, 10));
+        Assertions.assertTrue(limiter.acquire("a"));
+        long start = System.nanoTime();
+        Assertions.assertFalse(limiter.acquire("b"));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assertions.assertEquals(0, limiter.getQueued());
+        // the expired waiter does not take the released permit
+        limiter.complete();
+        Assertions.assertFalse(limiter.isInUse());
+    }
+
+    private static ConcurrencyLimitPolicy createPolicy(int maxConcurrency, long maxWaitMs, int maxQueueSize) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("maxQueueSize", String.valueOf(maxQueueSize));
+        ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy();
+        policy.setMaxConcurrency(maxConcurrency);
+        policy.setMaxWaitMs(maxWaitMs);
+        policy.setParameters(parameters);
+        return policy;
+    }
+
+    private static class ManualTimer implements Timer {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        void run(int index) {
+            tasks.get(index).run();
+        }
+
+        @Override
+        public Timeout add(String name, long time, Runnable runnable) {
+            tasks.add(runnable);
+            return new ManualTimeout();
+        }
+
+        @Override
+        public Timeout delay(String name, long delay, Runnable runnable) {
+            return add(name, delay, runnable);
+        }
+
+        @Override
+        public Timeout add(TimeTask task) {
+            return add(task.getName(), task.getTime(), task);
+        }
+    }
+
+    private static class ManualTimeout implements Timeout {
+
+        private boolean cancelled;
+
+        @Override
+        public boolean isExpired() {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean cancel() {
+            cancelled = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.concurrencylimit;
+
+import com.jd.live.agent.governance.invoke.concurrencylimit.gradient.GradientConcurrencyLimiter;
+import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the gradient limiter with a deterministic queueing simulation of a downstream service.
+ */
+public class GradientConcurrencyLimiterTest {
+
+    private static final int SERVICE_TIME = 10;
+
+    @Test
+    void testStepLoad() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(createPolicy());
+        Simulation simulation = new Simulation(limiter, 10);
+        // 0.5 request per millisecond, half of the capacity.
+        Stats light = simulation.run(5000, 1, 2);
+        Assertions.assertEquals(0, light.rejected);
+        Assertions.assertEquals(SERVICE_TIME, light.maxRtt);
+        // 3 requests per millisecond, three times the capacity.
+        Stats overload = simulation.run(10000, 3, 1);
+        Assertions.assertTrue(overload.completed >= 9500, "completed " + overload.completed);
+        Assertions.assertTrue(overload.getAverageRtt() <= 2.5 * SERVICE_TIME, "rtt " + overload.getAverageRtt());
+        Assertions.assertTrue(overload.maxRtt <= 5 * SERVICE_TIME, "max rtt " + overload.maxRtt);
+        Assertions.assertTrue(limiter.getLimit() < 30, "limit " + limiter.getLimit());
+        // back to half of the capacity.
+        Stats recover = simulation.run(5000, 1, 2);
+        Assertions.assertTrue(recover.rejected <= recover.accepted / 100, "rejected " + recover.rejected);
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(SERVICE_TIME), limiter.getNoLoadRtt());
+    }
+
+    @Test
+    void testCapacityDrop() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(createPolicy());
+        Simulation simulation = new Simulation(limiter, 20);
+        // 1.5 requests per millisecond, the capacity is 2.
+        Stats before = simulation.run(10000, 3, 2);
+        Assertions.assertTrue(before.rejected <= before.accepted / 100, "rejected " + before.rejected);
+        // the capacity drops to 0.5 request per millisecond.
+        simulation.workers = 5;
+        Stats after = simulation.run(20000, 3, 2);
+        Assertions.assertTrue(after.completed >= 9500, "completed " + after.completed);
+        Assertions.assertTrue(after.getAverageRtt() <= 2.5 * SERVICE_TIME, "rtt " + after.getAverageRtt());
+        Assertions.assertTrue(limiter.getLimit() < 20, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void testSteadyLoad() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(createPolicy());
+        Simulation simulation = new Simulation(limiter, 20);
+        // 1.5 requests per millisecond for several probe intervals, the capacity is 2.
+        Stats stats = simulation.run(60000, 3, 2);
+        Assertions.assertTrue(stats.rejected <= stats.accepted / 100, "rejected " + stats.rejected);
+        Assertions.assertTrue(stats.maxRtt <= 3 * SERVICE_TIME, "max rtt " + stats.maxRtt);
+    }
+
+    @Test
+    void testInUse() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(createPolicy());
+        Assertions.assertFalse(limiter.isInUse());
+        Assertions.assertTrue(limiter.acquire());
+        Assertions.assertTrue(limiter.isInUse());
+        limiter.complete(TimeUnit.MILLISECONDS.toNanos(1));
+        Assertions.assertFalse(limiter.isInUse());
+    }
+
+    private static ConcurrencyLimitPolicy createPolicy() {
+        ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy("test");
+        policy.setId(1L);
+        policy.setMaxConcurrency(1000);
+        return policy;
+    }
+
+    private static class Stats {
+
+        private long accepted;
+
+        private long rejected;
+
+        private long completed;
+
+        private long sumRtt;
+
+        private long maxRtt;
+
+        double getAverageRtt() {
+            return completed == 0 ? 0 : (double) sumRtt / completed;
+        }
+    }
+
+    /**
+     * A downstream with a number of workers, a fifo queue and a constant service time, in millisecond ticks.
+     */
+    private static class Simulation {
+
+        private final ConcurrencyLimiter limiter;
+
+        private final Deque<Long> queue = new ArrayDeque<>();
+
+        private final PriorityQueue<long[]> running = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+
+        private int workers;
+
+        private long now;
+
+        Simulation(ConcurrencyLimiter limiter, int workers) {
+            this.limiter = limiter;
+            this.workers = workers;
+        }
+
+        /**
+         * Runs the simulation with the given number of arrivals every period milliseconds.
+         */
+        Stats run(long duration, int arrivals, int period) {
+            Stats stats = new Stats();
+            long end = now + duration;
+            for (; now < end; now++) {
+                while (!running.isEmpty() && running.peek()[0] <= now) {
+                    long rtt = now - running.poll()[1];
+                    limiter.complete(TimeUnit.MILLISECONDS.toNanos(rtt));
+                    stats.completed++;
+                    stats.sumRtt += rtt;
+                    stats.maxRtt = Math.max(stats.maxRtt, rtt);
+                }
+                if (now % period == 0) {
+                    for (int i = 0; i < arrivals; i++) {
+                        if (limiter.acquire()) {
+                            stats.accepted++;
+                            queue.add(now);
+                        } else {
+                            stats.rejected++;
+                        }
+                    }
+                }
+                while (running.size() < workers && !queue.isEmpty()) {
+                    running.add(new long[]{now + SERVICE_TIME, queue.poll()});
+                }
+            }
+            return stats;
+        }
+    }
+}
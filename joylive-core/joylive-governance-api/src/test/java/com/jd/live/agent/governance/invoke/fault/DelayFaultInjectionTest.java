@@ -0,0 +1,75 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.fault;
+
+import com.jd.live.agent.core.util.time.TimeScheduler;
+import com.jd.live.agent.governance.invoke.fault.delay.DelayFaultInjection;
+import com.jd.live.agent.governance.policy.service.fault.FaultInjectionPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+public class DelayFaultInjectionTest {
+
+    private static final long DELAY = 300;
+
+    private static final long TICK = 10;
+
+    @Test
+    void testAcquireAsync() throws Exception {
+        FaultInjectionPolicy policy = new FaultInjectionPolicy();
+        policy.setDelayTimeMs(DELAY);
+        policy.setPercent(100);
+        DelayFaultInjection injection = new DelayFaultInjection();
+        TimeScheduler timer = new TimeScheduler("test-timer", TICK, 100, 1);
+        timer.start();
+        // a single thread stands for the event loop of a reactive framework
+        ExecutorService loop = Executors.newSingleThreadExecutor();
+        try {
+            Random random = new Random();
+            List<CompletableFuture<Long>> futures = new ArrayList<>();
+            long startTime = System.currentTimeMillis();
+            for (int i = 0; i < 100; i++) {
+                CompletableFuture<Long> future = new CompletableFuture<>();
+                loop.execute(() -> injection.acquireAsync(policy, random, timer)
+                        .whenComplete((v, e) -> future.complete(System.currentTimeMillis())));
+                futures.add(future);
+            }
+            // the loop keeps serving the other traffic during the injected delay
+            long served = loop.submit(System::currentTimeMillis).get(DELAY, TimeUnit.MILLISECONDS);
+            Assertions.assertTrue(served - startTime < DELAY);
+            // the timer fires at the tick granularity, so the delay may be one tick short.
+            for (CompletableFuture<Long> future : futures) {
+                Assertions.assertTrue(future.get(2, TimeUnit.SECONDS) - startTime >= DELAY - TICK);
+            }
+        } finally {
+            loop.shutdownNow();
+            timer.close();
+        }
+    }
+
+    @Test
+    void testNotDelayed() {
+        FaultInjectionPolicy policy = new FaultInjectionPolicy();
+        policy.setDelayTimeMs(0);
+        DelayFaultInjection injection = new DelayFaultInjection();
+        Assertions.assertTrue(injection.acquireAsync(policy, new Random(), null).toCompletableFuture().isDone());
+    }
+}
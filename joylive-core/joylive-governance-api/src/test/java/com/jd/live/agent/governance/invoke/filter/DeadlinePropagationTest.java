@@ -0,0 +1,175 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.filter;
+
+import com.jd.live.agent.bootstrap.exception.RejectException.RejectDeadlineException;
+import com.jd.live.agent.governance.config.GovernanceConfig;
+import com.jd.live.agent.governance.context.RequestContext;
+import com.jd.live.agent.governance.context.bag.Cargo;
+import com.jd.live.agent.governance.context.bag.Carrier;
+import com.jd.live.agent.governance.context.bag.Propagation;
+import com.jd.live.agent.governance.context.bag.live.LiveCargoRequire;
+import com.jd.live.agent.governance.context.bag.live.LivePropagation;
+import com.jd.live.agent.governance.context.bag.w3c.W3cPropagation;
+import com.jd.live.agent.governance.instance.Endpoint;
+import com.jd.live.agent.governance.invoke.InboundInvocation;
+import com.jd.live.agent.governance.invoke.InvocationContext;
+import com.jd.live.agent.governance.invoke.OutboundInvocation;
+import com.jd.live.agent.governance.invoke.filter.inbound.DeadlineFilter;
+import com.jd.live.agent.governance.policy.live.FaultType;
+import com.jd.live.agent.governance.request.HeaderReader.StringMapReader;
+import com.jd.live.agent.governance.request.HeaderWriter.StringMapWriter;
+import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
+import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Follows a deadline from the inbound edge of a service to the inbound edge of the next hop.
+ */
+public class DeadlinePropagationTest {
+
+    private GovernanceConfig config;
+
+    private InvocationContext context;
+
+    private DeadlineFilter inboundFilter;
+
+    private com.jd.live.agent.governance.invoke.filter.outbound.DeadlineFilter outboundFilter;
+
+    private InboundFilterChain inboundChain;
+
+    private OutboundFilterChain outboundChain;
+
+    @BeforeEach
+    void setUp() {
+        config = new GovernanceConfig();
+        config.getTransmitConfig().setPrefixes(new HashSet<>(Collections.singletonList("x-live-")));
+        context = mock(InvocationContext.class);
+        when(context.getGovernanceConfig()).thenReturn(config);
+        inboundFilter = new DeadlineFilter();
+        outboundFilter = new com.jd.live.agent.governance.invoke.filter.outbound.DeadlineFilter();
+        inboundChain = mock(InboundFilterChain.class);
+        when(inboundChain.filter(any(InboundInvocation.class))).thenReturn(CompletableFuture.completedFuture("ok"));
+        outboundChain = mock(OutboundFilterChain.class);
+        when(outboundChain.filter(any(OutboundInvocation.class), any(Endpoint.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.remove();
+    }
+
+    @Test
+    void testLive() {
+        Map<String, String> headers = call(new LivePropagation(Collections.singletonList(new LiveCargoRequire(config))));
+        Assertions.assertNull(headers.get("baggage"));
+    }
+
+    @Test
+    void testW3c() {
+        Map<String, String> headers = call(new W3cPropagation(Collections.singletonList(new LiveCargoRequire(config))));
+        // the time budget is a header of its own, the baggage only carries the cargos.
+        Assertions.assertEquals("x-live-unit=unit1", headers.get("baggage"));
+    }
+
+    @Test
+    void testExpiredAtNextHop() {
+        RequestContext.setAttribute(Carrier.ATTRIBUTE_DEADLINE, System.currentTimeMillis() - 10);
+        InboundInvocation<InboundRequest> invocation = inbound(0);
+        Assertions.assertThrows(RejectDeadlineException.class, () -> inboundFilter.filter(invocation, inboundChain));
+    }
+
+    /**
+     * Receives a request without a propagated deadline, calls the next hop with the given propagation
+     * and reads the headers back as the next hop does.
+     *
+     * @param propagation the propagation of the call
+     * @return the headers of the call
+     */
+    private Map<String, String> call(Propagation propagation) {
+        config.getServiceConfig().setInboundTimeout(800);
+        // the transmission plugin creates the carrier at the inbound edge.
+        Carrier carrier = RequestContext.create();
+        carrier.addCargo(new Cargo("x-live-unit", "unit1"));
+        long start = System.currentTimeMillis();
+        Assertions.assertEquals("ok", inboundFilter.filter(inbound(0), inboundChain).toCompletableFuture().join());
+        long deadline = RequestContext.getDeadline();
+        Assertions.assertTrue(deadline >= start + 800 && deadline <= System.currentTimeMillis() + 800);
+
+        // the outbound call is capped by the remaining time budget.
+        OutboundRequest request = mock(OutboundRequest.class);
+        when(request.getTimeout()).thenReturn(5000L);
+        OutboundInvocation<OutboundRequest> invocation = outbound(request);
+        outboundFilter.filter(invocation, mock(Endpoint.class), outboundChain);
+        ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
+        verify(request).setTimeout(captor.capture());
+        Assertions.assertTrue(captor.getValue() > 0 && captor.getValue() <= 800);
+
+        Map<String, String> headers = new HashMap<>();
+        propagation.write(RequestContext.get(), new StringMapWriter(headers));
+        long budget = Long.parseLong(headers.get(Carrier.HEADER_TIMEOUT));
+        Assertions.assertTrue(budget > 0 && budget <= 800);
+
+        // the next hop converts the budget into its own deadline, which wins over its inbound timeout.
+        RequestContext.remove();
+        Carrier next = RequestContext.create();
+        long received = System.currentTimeMillis();
+        propagation.read(next, new StringMapReader(headers));
+        Assertions.assertEquals("unit1", next.getCargo("x-live-unit").getValue());
+        Assertions.assertNull(next.getCargo(Carrier.HEADER_TIMEOUT));
+        config.getServiceConfig().setInboundTimeout(10000);
+        inboundFilter.filter(inbound(0), inboundChain);
+        long nextDeadline = RequestContext.getDeadline();
+        Assertions.assertTrue(nextDeadline >= received + budget && nextDeadline <= System.currentTimeMillis() + budget);
+        return headers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private InboundInvocation<InboundRequest> inbound(long timeout) {
+        InboundRequest request = mock(InboundRequest.class);
+        when(request.getTimeout()).thenReturn(timeout);
+        InboundInvocation<InboundRequest> invocation = mock(InboundInvocation.class);
+        when(invocation.getRequest()).thenReturn(request);
+        when(invocation.getContext()).thenReturn(context);
+        doThrow(new RejectDeadlineException("expired")).when(invocation).reject(eq(FaultType.DEADLINE), anyString());
+        return invocation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private OutboundInvocation<OutboundRequest> outbound(OutboundRequest request) {
+        OutboundInvocation<OutboundRequest> invocation = mock(OutboundInvocation.class);
+        when(invocation.getRequest()).thenReturn(request);
+        return invocation;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.filter.inbound;
+
+import com.jd.live.agent.bootstrap.exception.RejectException.RejectLimitException;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.invoke.InboundInvocation;
+import com.jd.live.agent.governance.invoke.concurrencylimit.ConcurrencyLimiterFactory;
+import com.jd.live.agent.governance.invoke.concurrencylimit.bulkhead.BulkheadConcurrencyLimiter;
+import com.jd.live.agent.governance.invoke.filter.InboundFilterChain;
+import com.jd.live.agent.governance.invoke.metadata.ServiceMetadata;
+import com.jd.live.agent.governance.policy.live.FaultType;
+import com.jd.live.agent.governance.policy.service.ServicePolicy;
+import com.jd.live.agent.governance.policy.service.limit.ConcurrencyLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
+import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+
+    private BulkheadConcurrencyLimiter limiter;
+
+    private ServicePolicy servicePolicy;
+
+    private ConcurrencyLimiterFactory factory;
+
+    private InboundFilterChain chain;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy("test");
+        policy.setId(1L);
+        policy.setMaxConcurrency(10);
+        servicePolicy = new ServicePolicy();
+        servicePolicy.setConcurrencyLimitPolicies(Collections.singletonList(policy));
+        limiter = new BulkheadConcurrencyLimiter(policy);
+        factory = mock(ConcurrencyLimiterFactory.class);
+        when(factory.get(any(ConcurrencyLimitPolicy.class))).thenReturn(limiter);
+        filter = new ConcurrencyLimitFilter();
+        set(filter, "defaultFactory", factory);
+        set(filter, "timer", mock(Timer.class));
+        chain = mock(InboundFilterChain.class);
+        // the admitted requests are in flight until the end of the test.
+        when(chain.filter(any(InboundInvocation.class))).thenAnswer(i -> new CompletableFuture<>());
+    }
+
+    @Test
+    void testShedLowCriticalityFirst() {
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertTrue(admit(Criticality.CRITICAL));
+        }
+        // 80% of the limit is in use.
+        Assertions.assertFalse(admit(Criticality.SHEDDABLE));
+        Assertions.assertTrue(admit(Criticality.SHEDDABLE_PLUS));
+        // 90% of the limit is in use.
+        Assertions.assertFalse(admit(Criticality.SHEDDABLE_PLUS));
+        Assertions.assertTrue(admit(Criticality.CRITICAL));
+        // the limit is reached.
+        Assertions.assertFalse(admit(Criticality.CRITICAL_PLUS));
+        Assertions.assertEquals(1D, limiter.getUtilization());
+    }
+
+    @Test
+    void testReleaseOnLaterReject() {
+        when(chain.filter(any(InboundInvocation.class))).thenThrow(new RejectLimitException("rejected"));
+        Assertions.assertFalse(admit(Criticality.CRITICAL));
+        Assertions.assertEquals(0D, limiter.getUtilization());
+    }
+
+    @Test
+    void testResumeOnExecutor() {
+        BulkheadConcurrencyLimiter queued = createQueuedLimiter();
+        List<Runnable> tasks = new ArrayList<>();
+        InboundRequest request = mock(InboundRequest.class);
+        when(request.isAsync()).thenReturn(true);
+        when(request.getExecutor()).thenReturn(tasks::add);
+        Assertions.assertTrue(queued.acquire());
+        CompletableFuture<Object> future = filter.filter(createInvocation(Criticality.CRITICAL, request), chain).toCompletableFuture();
+        Assertions.assertEquals(1, queued.getQueued());
+        // the releasing thread hands over the permit without running the rest of the chain.
+        queued.complete();
+        Assertions.assertEquals(0, queued.getQueued());
+        Assertions.assertEquals(1, tasks.size());
+        verify(chain, never()).filter(any(InboundInvocation.class));
+        tasks.get(0).run();
+        verify(chain).filter(any(InboundInvocation.class));
+        Assertions.assertFalse(future.isDone());
+    }
+
+    @Test
+    void testSyncQueued() throws Exception {
+        BulkheadConcurrencyLimiter queued = createQueuedLimiter();
+        Assertions.assertTrue(queued.acquire());
+        CompletableFuture<Boolean> admitted = CompletableFuture.supplyAsync(() -> admit(Criticality.CRITICAL));
+        while (queued.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        verify(chain, never()).filter(any(InboundInvocation.class));
+        // the parked worker thread is granted the released permit.
+        queued.complete();
+        Assertions.assertTrue(admitted.get(5, TimeUnit.SECONDS));
+        verify(chain).filter(any(InboundInvocation.class));
+    }
+
+    private BulkheadConcurrencyLimiter createQueuedLimiter() {
+        ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy("queued");
+        policy.setId(2L);
+        policy.setMaxConcurrency(1);
+        policy.setMaxWaitMs(1000L);
+        servicePolicy.setConcurrencyLimitPolicies(Collections.singletonList(policy));
+        BulkheadConcurrencyLimiter result = new BulkheadConcurrencyLimiter(policy);
+        when(factory.get(any(ConcurrencyLimitPolicy.class))).thenReturn(result);
+        return result;
+    }
+
+    private boolean admit(Criticality criticality) {
+        try {
+            filter.filter(createInvocation(criticality), chain);
+            return true;
+        } catch (RejectLimitException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private InboundInvocation<InboundRequest> createInvocation(Criticality criticality) {
+        return createInvocation(criticality, mock(InboundRequest.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private InboundInvocation<InboundRequest> createInvocation(Criticality criticality, InboundRequest request) {
+        ServiceMetadata metadata = mock(ServiceMetadata.class);
+        when(metadata.getServicePolicy()).thenReturn(servicePolicy);
+        InboundInvocation<InboundRequest> invocation = mock(InboundInvocation.class);
+        when(invocation.getServiceMetadata()).thenReturn(metadata);
+        when(invocation.getRequest()).thenReturn(request);
+        when(invocation.getCriticality()).thenReturn(criticality);
+        doThrow(new RejectLimitException("rejected")).when(invocation).reject(any(FaultType.class), anyString());
+        return invocation;
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.filter.inbound;
+
+import com.jd.live.agent.bootstrap.exception.RejectException.RejectDeadlineException;
+import com.jd.live.agent.governance.config.GovernanceConfig;
+import com.jd.live.agent.governance.context.RequestContext;
+import com.jd.live.agent.governance.context.bag.Carrier;
+import com.jd.live.agent.governance.invoke.InboundInvocation;
+import com.jd.live.agent.governance.invoke.InvocationContext;
+import com.jd.live.agent.governance.invoke.filter.InboundFilterChain;
+import com.jd.live.agent.governance.policy.live.FaultType;
+import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeadlineFilterTest {
+
+    private DeadlineFilter filter;
+
+    private InboundRequest request;
+
+    private InboundInvocation<InboundRequest> invocation;
+
+    private GovernanceConfig config;
+
+    private InboundFilterChain chain;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        filter = new DeadlineFilter();
+        request = mock(InboundRequest.class);
+        config = new GovernanceConfig();
+        InvocationContext context = mock(InvocationContext.class);
+        when(context.getGovernanceConfig()).thenReturn(config);
+        invocation = mock(InboundInvocation.class);
+        when(invocation.getRequest()).thenReturn(request);
+        when(invocation.getContext()).thenReturn(context);
+        doThrow(new RejectDeadlineException("expired")).when(invocation).reject(eq(FaultType.DEADLINE), anyString());
+        chain = mock(InboundFilterChain.class);
+        when(chain.filter(any(InboundInvocation.class))).thenReturn(CompletableFuture.completedFuture("ok"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.remove();
+    }
+
+    @Test
+    void testWithoutDeadline() {
+        Assertions.assertEquals("ok", filter.filter(invocation, chain).toCompletableFuture().join());
+        verify(invocation, never()).reject(any(FaultType.class), anyString());
+    }
+
+    @Test
+    void testDeadlineNotExpired() {
+        RequestContext.setAttribute(Carrier.ATTRIBUTE_DEADLINE, System.currentTimeMillis() + 10000);
+        Assertions.assertEquals("ok", filter.filter(invocation, chain).toCompletableFuture().join());
+        verify(invocation, never()).reject(any(FaultType.class), anyString());
+    }
+
+    @Test
+    void testDeadlineExpired() {
+        RequestContext.setAttribute(Carrier.ATTRIBUTE_DEADLINE, System.currentTimeMillis() - 100);
+        Assertions.assertThrows(RejectDeadlineException.class, () -> filter.filter(invocation, chain));
+        verify(chain, never()).filter(any(InboundInvocation.class));
+    }
+
+    @Test
+    void testDeadlineFromFrameworkTimeout() {
+        RequestContext.create();
+        when(request.getTimeout()).thenReturn(500L);
+        config.getServiceConfig().setInboundTimeout(10000);
+        long now = System.currentTimeMillis();
+        Assertions.assertEquals("ok", filter.filter(invocation, chain).toCompletableFuture().join());
+        long deadline = RequestContext.getDeadline();
+        Assertions.assertTrue(deadline >= now + 500 && deadline <= System.currentTimeMillis() + 500);
+    }
+
+    @Test
+    void testDeadlineFromInboundTimeout() {
+        RequestContext.create();
+        config.getServiceConfig().setInboundTimeout(300);
+        long now = System.currentTimeMillis();
+        Assertions.assertEquals("ok", filter.filter(invocation, chain).toCompletableFuture().join());
+        long deadline = RequestContext.getDeadline();
+        Assertions.assertTrue(deadline >= now + 300 && deadline <= System.currentTimeMillis() + 300);
+    }
+
+    @Test
+    void testPropagatedDeadlineKept() {
+        long deadline = System.currentTimeMillis() + 10000;
+        RequestContext.setAttribute(Carrier.ATTRIBUTE_DEADLINE, deadline);
+        when(request.getTimeout()).thenReturn(500L);
+        filter.filter(invocation, chain);
+        Assertions.assertEquals(deadline, RequestContext.getDeadline());
+    }
+
+    @Test
+    void testNoDeadlineWithoutCarrier() {
+        config.getServiceConfig().setInboundTimeout(300);
+        filter.filter(invocation, chain);
+        // the carrier is not created by the filter, it would leak to the next request of a pooled thread.
+        Assertions.assertNull(RequestContext.get());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.filter.inbound;
+
+import com.jd.live.agent.bootstrap.exception.RejectException.RejectLimitException;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.config.GovernanceConfig;
+import com.jd.live.agent.governance.config.LoadLimiterConfig;
+import com.jd.live.agent.governance.config.ServiceConfig;
+import com.jd.live.agent.governance.invoke.InboundInvocation;
+import com.jd.live.agent.governance.invoke.InvocationContext;
+import com.jd.live.agent.governance.invoke.filter.InboundFilterChain;
+import com.jd.live.agent.governance.invoke.loadlimit.BbrAdmission;
+import com.jd.live.agent.governance.invoke.metadata.ServiceMetadata;
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
+import com.jd.live.agent.governance.request.ServiceRequest.InboundRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LoadLimitFilterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRejectedByLaterFilter() throws Exception {
+        LoadLimiterConfig limiterConfig = new LoadLimiterConfig();
+        limiterConfig.setCpuUsage(80);
+        ServiceConfig serviceConfig = mock(ServiceConfig.class);
+        when(serviceConfig.getLoadLimiter()).thenReturn(limiterConfig);
+        GovernanceConfig governanceConfig = mock(GovernanceConfig.class);
+        when(governanceConfig.getServiceConfig()).thenReturn(serviceConfig);
+        InvocationContext context = mock(InvocationContext.class);
+        when(context.getGovernanceConfig()).thenReturn(governanceConfig);
+        InboundInvocation<InboundRequest> invocation = mock(InboundInvocation.class);
+        when(invocation.getContext()).thenReturn(context);
+        when(invocation.getServiceMetadata()).thenReturn(mock(ServiceMetadata.class));
+        when(invocation.getCriticality()).thenReturn(Criticality.CRITICAL);
+        InboundFilterChain chain = mock(InboundFilterChain.class);
+        when(chain.filter(any(InboundInvocation.class))).thenThrow(new RejectLimitException("rejected by rate limiter"));
+
+        LoadLimitFilter filter = new LoadLimitFilter();
+        set(filter, "timer", mock(Timer.class));
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertThrows(RejectLimitException.class, () -> filter.filter(invocation, chain));
+        }
+        BbrAdmission admission = get(filter, "admission");
+        Assertions.assertEquals(0, admission.getInflight());
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Object target, String name) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(target);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.filter.outbound;
+
+import com.jd.live.agent.bootstrap.exception.RejectException.RejectDeadlineException;
+import com.jd.live.agent.governance.context.RequestContext;
+import com.jd.live.agent.governance.context.bag.Carrier;
+import com.jd.live.agent.governance.instance.Endpoint;
+import com.jd.live.agent.governance.invoke.OutboundInvocation;
+import com.jd.live.agent.governance.invoke.filter.OutboundFilterChain;
+import com.jd.live.agent.governance.request.ServiceRequest.OutboundRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeadlineFilterTest {
+
+    private DeadlineFilter filter;
+
+    private OutboundRequest request;
+
+    private OutboundInvocation<OutboundRequest> invocation;
+
+    private Endpoint endpoint;
+
+    private OutboundFilterChain chain;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        filter = new DeadlineFilter();
+        request = mock(OutboundRequest.class);
+        invocation = mock(OutboundInvocation.class);
+        when(invocation.getRequest()).thenReturn(request);
+        endpoint = mock(Endpoint.class);
+        chain = mock(OutboundFilterChain.class);
+        when(chain.filter(any(OutboundInvocation.class), any(Endpoint.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.remove();
+    }
+
+    @Test
+    void testCaptureDeadline() {
+        long deadline = System.currentTimeMillis() + 10000;
+        RequestContext.setAttribute(Carrier.ATTRIBUTE_DEADLINE, deadline);
+        filter.filter(invocation, endpoint, chain);
+        // the retries on other threads read the deadline from the request.
+        verify(request).setAttribute(Carrier.ATTRIBUTE_DEADLINE, deadline);
+        verify(chain).filter(invocation, endpoint);
+    }
+
+    @Test
+    void testCapTimeout() {
+        doReturn(System.currentTimeMillis() + 1000).when(request).getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        when(request.getTimeout()).thenReturn(5000L);
+        filter.filter(invocation, endpoint, chain);
+        ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
+        verify(request).setTimeout(captor.capture());
+        Assertions.assertTrue(captor.getValue() > 0 && captor.getValue() <= 1000);
+        verify(chain).filter(invocation, endpoint);
+    }
+
+    @Test
+    void testCapUnlimitedTimeout() {
+        doReturn(System.currentTimeMillis() + 1000).when(request).getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        when(request.getTimeout()).thenReturn(0L);
+        filter.filter(invocation, endpoint, chain);
+        verify(request).setTimeout(anyLong());
+    }
+
+    @Test
+    void testKeepSmallerTimeout() {
+        doReturn(System.currentTimeMillis() + 10000).when(request).getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        when(request.getTimeout()).thenReturn(1000L);
+        filter.filter(invocation, endpoint, chain);
+        verify(request, never()).setTimeout(anyLong());
+        verify(chain).filter(invocation, endpoint);
+    }
+
+    @Test
+    void testWithoutDeadline() {
+        filter.filter(invocation, endpoint, chain);
+        verify(request).setAttribute(eq(Carrier.ATTRIBUTE_DEADLINE), eq(0L));
+        verify(request, never()).setTimeout(anyLong());
+        verify(chain).filter(invocation, endpoint);
+    }
+
+    @Test
+    void testDeadlineExpired() {
+        doReturn(System.currentTimeMillis() - 100).when(request).getAttribute(Carrier.ATTRIBUTE_DEADLINE);
+        CompletableFuture<?> future = filter.filter(invocation, endpoint, chain).toCompletableFuture();
+        CompletionException e = Assertions.assertThrows(CompletionException.class, future::join);
+        Assertions.assertInstanceOf(RejectDeadlineException.class, e.getCause());
+        verify(request, never()).setTimeout(anyLong());
+        verify(chain, never()).filter(any(OutboundInvocation.class), any(Endpoint.class));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.loadlimit;
+
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BbrAdmissionTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testAdmission() {
+        BbrAdmission admission = new BbrAdmission(10, 1000, 1000);
+        long now = 0;
+        // 100 requests per bucket of 100ms with a round trip time of 10ms, so 10 requests in flight.
+        for (int bucket = 0; bucket < 10; bucket++) {
+            for (int i = 0; i < 100; i++) {
+                Assertions.assertTrue(admission.acquire(false, now));
+                admission.complete(10 * MS, now + 10 * MS);
+                now += MS;
+            }
+        }
+        Assertions.assertEquals(10, admission.getMaxInflight(now));
+        // not overloaded, no limit.
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(admission.acquire(false, now));
+        }
+        for (int i = 0; i < 20; i++) {
+            admission.complete(10 * MS, now);
+        }
+        // overloaded, the requests in flight are limited to the bandwidth-delay product.
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(admission.acquire(true, now));
+        }
+        Assertions.assertFalse(admission.acquire(true, now));
+        // the limit still applies during the cool down.
+        Assertions.assertFalse(admission.acquire(false, now + 500 * MS));
+        admission.complete(10 * MS, now + 500 * MS);
+        Assertions.assertTrue(admission.acquire(false, now + 500 * MS));
+        Assertions.assertTrue(admission.acquire(false, now + 1001 * MS));
+    }
+
+    @Test
+    void testCriticality() {
+        BbrAdmission admission = new BbrAdmission(10, 1000, 1000);
+        long now = 0;
+        for (int i = 0; i < 1000; i++) {
+            admission.acquire(false, now);
+            admission.complete(10 * MS, now + 10 * MS);
+            now += MS;
+        }
+        Assertions.assertEquals(10, admission.getMaxInflight(now));
+        double sheddable = Criticality.SHEDDABLE.getRatio();
+        for (int i = 0; i < 7; i++) {
+            Assertions.assertTrue(admission.acquire(true, sheddable, now));
+        }
+        // the sheddable requests are limited to 70% of the requests in flight without starting the cool down.
+        Assertions.assertFalse(admission.acquire(true, sheddable, now));
+        Assertions.assertTrue(admission.acquire(false, sheddable, now));
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertTrue(admission.acquire(true, Criticality.CRITICAL.getRatio(), now));
+        }
+        Assertions.assertFalse(admission.acquire(true, Criticality.CRITICAL.getRatio(), now));
+        Assertions.assertTrue(admission.acquire(true, Criticality.CRITICAL_PLUS.getRatio(), now));
+        Assertions.assertFalse(admission.acquire(true, Criticality.CRITICAL_PLUS.getRatio(), now));
+    }
+
+    @Test
+    void testNoSamples() {
+        BbrAdmission admission = new BbrAdmission();
+        Assertions.assertTrue(admission.acquire(true, 0));
+        Assertions.assertEquals(0, admission.getMaxInflight(0));
+    }
+
+    @Test
+    void testConcurrentRollover() throws InterruptedException {
+        int threads = 8;
+        int requests = 10000;
+        BbrAdmission admission = new BbrAdmission(10, 1000, 1000);
+        // a stale bucket at the same index as the epoch 10.
+        admission.acquire(false, 0);
+        admission.complete(100 * MS, 0);
+        long now = 1000 * MS;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < requests; j++) {
+                        admission.acquire(false, now);
+                        admission.complete(100 * MS, now);
+                    }
+                } catch (InterruptedException ignored) {
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        // the round trip time equals the bucket, so the maximum requests in flight are the passes of the bucket.
+        Assertions.assertEquals((long) threads * requests, admission.getMaxInflight(now + 100 * MS));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.loadlimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+public class LoadSamplerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testCgroupV2(@TempDir Path root) throws IOException {
+        write(root.resolve("cgroup.controllers"), "cpu io memory");
+        write(root.resolve("cpu.max"), "50000 100000");
+        writeStatV2(root, 0, 0, 0);
+        LoadSampler sampler = new LoadSampler(root);
+        Assertions.assertEquals("cgroup2", sampler.getType());
+        sampler.sample(SECOND);
+        // 0.25 second of cpu time per second with a quota of half a cpu.
+        writeStatV2(root, 250_000, 10, 0);
+        Assertions.assertEquals(50, sampler.sample(2 * SECOND).getCpuUsage());
+        // throttled in 8 of 10 periods.
+        writeStatV2(root, 500_000, 20, 8);
+        LoadSnapshot snapshot = sampler.sample(3 * SECOND);
+        Assertions.assertEquals(80, snapshot.getCpuUsage());
+        Assertions.assertEquals(0.8, snapshot.getThrottledRatio(), 0.001);
+        Assertions.assertSame(snapshot, sampler.getSnapshot());
+        Assertions.assertTrue(snapshot.exceed(80, null));
+        Assertions.assertFalse(snapshot.exceed(90, null));
+    }
+
+    @Test
+    void testCgroupV1(@TempDir Path root) throws IOException {
+        Path dir = Files.createDirectories(root.resolve("cpu,cpuacct"));
+        write(dir.resolve("cpu.cfs_quota_us"), "100000");
+        write(dir.resolve("cpu.cfs_period_us"), "100000");
+        write(dir.resolve("cpuacct.usage"), "0");
+        write(dir.resolve("cpu.stat"), "nr_periods 0\nnr_throttled 0\nthrottled_time 0\n");
+        LoadSampler sampler = new LoadSampler(root);
+        Assertions.assertEquals("cgroup1", sampler.getType());
+        sampler.sample(SECOND);
+        write(dir.resolve("cpuacct.usage"), String.valueOf(SECOND / 4));
+        Assertions.assertEquals(25, sampler.sample(2 * SECOND).getCpuUsage());
+    }
+
+    @Test
+    void testJmx(@TempDir Path root) throws IOException {
+        LoadSampler sampler = new LoadSampler(root);
+        Assertions.assertEquals("jmx", sampler.getType());
+        long now = System.nanoTime();
+        sampler.sample(now);
+        LoadSnapshot snapshot = sampler.sample(now + SECOND);
+        Assertions.assertTrue(snapshot.getCpuUsage() >= 0 && snapshot.getCpuUsage() <= 100);
+    }
+
+    private static void writeStatV2(Path root, long usageUsec, long periods, long throttled) throws IOException {
+        write(root.resolve("cpu.stat"), "usage_usec " + usageUsec + "\nuser_usec 0\nsystem_usec 0\n"
+                + "nr_periods " + periods + "\nnr_throttled " + throttled + "\nthrottled_usec 0\n");
+    }
+
+    private static void write(Path path, String value) throws IOException {
+        Files.write(path, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.permission;
+
+import com.jd.live.agent.core.util.time.TimeTask;
+import com.jd.live.agent.core.util.time.Timeout;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.governance.config.RecyclerConfig;
+import com.jd.live.agent.governance.policy.PolicyVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AbstractLicenseeFactoryTest {
+
+    @Test
+    void testRecycle() throws InterruptedException {
+        TestFactory factory = new TestFactory(0);
+        Policy policy = new Policy();
+        List<TestLicensee> values = new ArrayList<>();
+        for (long i = 0; i < 3; i++) {
+            values.add(factory.get(policy, i));
+        }
+        Thread.sleep(60);
+        values.get(1).lastAccessTime = System.currentTimeMillis();
+        factory.recycle();
+        Assertions.assertEquals(1, factory.licensees.size());
+        Assertions.assertTrue(values.get(0).closed);
+        Assertions.assertFalse(values.get(1).closed);
+        Assertions.assertTrue(values.get(2).closed);
+        // the accessed licensee is moved to a later slot
+        Assertions.assertFalse(factory.wheel.isEmpty());
+        Thread.sleep(60);
+        factory.recycle();
+        Assertions.assertTrue(factory.licensees.isEmpty());
+        Assertions.assertTrue(values.get(1).closed);
+        Assertions.assertTrue(factory.wheel.isEmpty());
+    }
+
+    @Test
+    void testCapacity() {
+        TestFactory factory = new TestFactory(3);
+        Policy policy = new Policy();
+        List<TestLicensee> values = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            values.add(factory.get(policy, i));
+            // the eviction is not run by the request thread.
+            Assertions.assertEquals(i + 1, factory.licensees.size());
+        }
+        Assertions.assertEquals(1, factory.tasks.size());
+        factory.runTasks();
+        Assertions.assertEquals(3, factory.licensees.size());
+        for (int i = 0; i < 7; i++) {
+            Assertions.assertTrue(values.get(i).closed);
+        }
+        for (long i = 7; i < 10; i++) {
+            Assertions.assertSame(values.get((int) i), factory.get(policy, i));
+        }
+    }
+
+    @Test
+    void testEvictLeastRecentlyAccessed() {
+        TestFactory factory = new TestFactory(3);
+        Policy policy = new Policy();
+        List<TestLicensee> values = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            values.add(factory.get(policy, i));
+        }
+        // the first licensee is accessed after the others, the second one is in use.
+        values.get(0).lastAccessTime = System.currentTimeMillis() + 100;
+        values.get(1).inUse = true;
+        factory.runTasks();
+        Assertions.assertEquals(3, factory.licensees.size());
+        Assertions.assertFalse(values.get(0).closed);
+        Assertions.assertFalse(values.get(1).closed);
+        for (int i = 2; i < 9; i++) {
+            Assertions.assertTrue(values.get(i).closed);
+        }
+        Assertions.assertFalse(values.get(9).closed);
+        Assertions.assertSame(values.get(0), factory.get(policy, 0L));
+        Assertions.assertSame(values.get(1), factory.get(policy, 1L));
+        Assertions.assertSame(values.get(9), factory.get(policy, 9L));
+    }
+
+    @Test
+    void testClosedSlot() {
+        AbstractLicenseeFactory.Slot<Long, TestLicensee> slot = new AbstractLicenseeFactory.Slot<>();
+        AbstractLicenseeFactory.Expiry<Long, TestLicensee> expiry = new AbstractLicenseeFactory.Expiry<>(1L, new TestLicensee(new Policy()));
+        Assertions.assertTrue(slot.add(expiry));
+        slot.close();
+        Assertions.assertFalse(slot.add(expiry));
+        Assertions.assertSame(expiry, slot.poll());
+        Assertions.assertNull(slot.poll());
+    }
+
+    private static class TestFactory extends AbstractLicenseeFactory<Policy, Long, TestLicensee> {
+
+        private final TestConfig config = new TestConfig();
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        TestFactory(int capacity) {
+            config.setCleanInterval(10);
+            config.setExpireTime(20);
+            config.setCapacity(capacity);
+            // the recycler is triggered by the test.
+            recycled.set(true);
+            timer = new Timer() {
+                @Override
+                public Timeout add(String name, long time, Runnable runnable) {
+                    tasks.add(runnable);
+                    return null;
+                }
+
+                @Override
+                public Timeout delay(String name, long delay, Runnable runnable) {
+                    tasks.add(runnable);
+                    return null;
+                }
+
+                @Override
+                public Timeout add(TimeTask task) {
+                    return null;
+                }
+            };
+        }
+
+        void runTasks() {
+            List<Runnable> runnables = new ArrayList<>(tasks);
+            tasks.clear();
+            runnables.forEach(Runnable::run);
+        }
+
+        TestLicensee get(Policy policy, Long key) {
+            return get(policy, key, null, () -> new TestLicensee(policy));
+        }
+
+        @Override
+        protected RecyclerConfig getConfig() {
+            return config;
+        }
+    }
+
+    private static class TestConfig extends RecyclerConfig {
+    }
+
+    private static class Policy implements PolicyVersion {
+
+        @Override
+        public long getVersion() {
+            return 1;
+        }
+    }
+
+    private static class TestLicensee implements Licensee<Policy> {
+
+        private final Policy policy;
+
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        private volatile boolean closed;
+
+        private volatile boolean inUse;
+
+        TestLicensee(Policy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return lastAccessTime;
+        }
+
+        @Override
+        public boolean isInUse() {
+            return inUse;
+        }
+
+        @Override
+        public Policy getPolicy() {
+            return policy;
+        }
+
+        @Override
+        public void exchange(Policy policy) {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit;
+
+import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.*;
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies that the lock-free token buckets reserve permits exactly like the synchronized ones.
+ * <p>
+ * The contention benchmark is skipped by default, run it with
+ * {@code mvn test -Dtest=AtomicTokenBucketLimiterTest -Dbenchmark=true}.
+ * </p>
+ */
+public class AtomicTokenBucketLimiterTest {
+
+    @Test
+    void testSmoothBursty() {
+        verify(createPolicy("maxBurstSeconds", "2"), 1000,
+                SmoothBurstyLimiter::new, AtomicSmoothBurstyLimiter::new);
+    }
+
+    @Test
+    void testSmoothWarmup() {
+        verify(createPolicy("warmupSeconds", "3"), 100,
+                SmoothWarmupLimiter::new, AtomicSmoothWarmupLimiter::new);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws InterruptedException {
+        RateLimitPolicy policy = createPolicy("maxBurstSeconds", "1");
+        SlidingWindow window = new SlidingWindow(Integer.MAX_VALUE, 1000);
+        // the reservations are measured without sleeping for the sub-microsecond waits.
+        SleepingStopwatch stopwatch = new SleepingStopwatch() {
+            @Override
+            public long readMicros() {
+                return System.nanoTime() / 1000;
+            }
+
+            @Override
+            public void sleepMicrosUninterruptibly(long micros) {
+            }
+        };
+        for (int threads = 1; threads <= 64; threads <<= 1) {
+            long locked = run(new SmoothBurstyLimiter(policy, window, stopwatch), threads);
+            long atomic = run(new AtomicSmoothBurstyLimiter(policy, window, stopwatch), threads);
+            System.out.printf("threads=%d, SmoothBursty=%d ops/s, AtomicSmoothBursty=%d ops/s%n", threads, locked, atomic);
+        }
+    }
+
+    private void verify(RateLimitPolicy policy,
+                        int threshold,
+                        LimiterCreator expected,
+                        LimiterCreator actual) {
+        SlidingWindow window = new SlidingWindow(threshold, 1000);
+        ManualStopwatch expectedWatch = new ManualStopwatch();
+        ManualStopwatch actualWatch = new ManualStopwatch();
+        RateLimiter expectedLimiter = expected.create(policy, window, expectedWatch);
+        RateLimiter actualLimiter = actual.create(policy, window, actualWatch);
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            long elapsed = random.nextInt(4) == 0 ? random.nextInt(200_000) : random.nextInt(2_000);
+            expectedWatch.advance(elapsed);
+            actualWatch.advance(elapsed);
+            int permits = 1 + random.nextInt(5);
+            long timeout = random.nextInt(3) == 0 ? 0 : random.nextInt(50);
+            long expectedSlept = expectedWatch.getSlept();
+            long actualSlept = actualWatch.getSlept();
+            boolean result = expectedLimiter.acquire(permits, timeout, TimeUnit.MILLISECONDS);
+            Assertions.assertEquals(result, actualLimiter.acquire(permits, timeout, TimeUnit.MILLISECONDS), "step " + i);
+            Assertions.assertEquals(expectedWatch.getSlept() - expectedSlept, actualWatch.getSlept() - actualSlept, 2, "step " + i);
+            // keeps both clocks in step, the atomic limiter may round the wait differently.
+            actualWatch.advance(expectedWatch.readMicros() - actualWatch.readMicros());
+        }
+    }
+
+    private long run(RateLimiter limiter, int threads) throws InterruptedException {
+        LongAdder counter = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                while (running.get()) {
+                    limiter.acquire(1, 0, TimeUnit.MILLISECONDS);
+                    counter.increment();
+                }
+                latch.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(1000);
+        running.set(false);
+        latch.await();
+        return counter.sum();
+    }
+
+    private static RateLimitPolicy createPolicy(String key, String value) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(key, value);
+        RateLimitPolicy policy = new RateLimitPolicy();
+        policy.setMaxWaitMs(0L);
+        policy.setParameters(parameters);
+        return policy;
+    }
+
+    @FunctionalInterface
+    private interface LimiterCreator {
+        RateLimiter create(RateLimitPolicy policy, SlidingWindow window, SleepingStopwatch stopwatch);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit;
+
+import com.jd.live.agent.governance.invoke.ratelimit.slidingwindow.SlidingWindowCounterLimiter;
+import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.ManualStopwatch;
+import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.SleepingStopwatch;
+import com.jd.live.agent.governance.policy.service.limit.Criticality;
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SlidingWindowCounterLimiterTest {
+
+    @Test
+    void testBoundaryBurst() {
+        ManualStopwatch stopwatch = new ManualStopwatch();
+        RateLimiter limiter = create(stopwatch, new SlidingWindow(100, 1000));
+        stopwatch.advance(900_000);
+        Assertions.assertTrue(limiter.acquire(100));
+        Assertions.assertFalse(limiter.acquire());
+        // a fixed window would be reset here, the sliding window still counts the previous burst.
+        stopwatch.advance(150_000);
+        Assertions.assertFalse(limiter.acquire());
+        // the bucket of the burst is half out of the window.
+        stopwatch.advance(900_000);
+        Assertions.assertTrue(limiter.acquire(50));
+        Assertions.assertFalse(limiter.acquire(2));
+        stopwatch.advance(100_000);
+        Assertions.assertTrue(limiter.acquire(50));
+    }
+
+    @Test
+    void testUtilization() {
+        ManualStopwatch stopwatch = new ManualStopwatch();
+        RateLimiter limiter = create(stopwatch, new SlidingWindow(100, 1000));
+        Assertions.assertEquals(0D, limiter.getUtilization(), 0.001);
+        Assertions.assertTrue(limiter.acquire(80));
+        Assertions.assertEquals(0.8D, limiter.getUtilization(), 0.001);
+        Assertions.assertTrue(Criticality.SHEDDABLE.isShed(limiter.getUtilization()));
+        Assertions.assertFalse(Criticality.SHEDDABLE_PLUS.isShed(limiter.getUtilization()));
+        Assertions.assertFalse(Criticality.CRITICAL.isShed(limiter.getUtilization()));
+    }
+
+    @Test
+    void testMultipleWindows() {
+        ManualStopwatch stopwatch = new ManualStopwatch();
+        RateLimiter limiter = create(stopwatch, new SlidingWindow(10, 1000), new SlidingWindow(25, 60000));
+        int acquired = 0;
+        for (int i = 0; i < 100; i++) {
+            stopwatch.advance(50_000);
+            if (limiter.acquire()) {
+                acquired++;
+            }
+        }
+        // 5 seconds, 10 per second but 25 per minute.
+        Assertions.assertEquals(25, acquired);
+    }
+
+    @Test
+    void testRollback() {
+        ManualStopwatch stopwatch = new ManualStopwatch();
+        RateLimiter limiter = create(stopwatch, new SlidingWindow(10, 1000), new SlidingWindow(5, 1000));
+        Assertions.assertFalse(limiter.acquire(6));
+        // the permits rejected by the second window are removed from the first one.
+        Assertions.assertTrue(limiter.acquire(5));
+        Assertions.assertFalse(limiter.acquire());
+    }
+
+    @Test
+    void testConcurrentAcquire() throws InterruptedException {
+        ManualStopwatch stopwatch = new ManualStopwatch();
+        RateLimiter limiter = create(stopwatch, new SlidingWindow(1000, 1000));
+        AtomicInteger acquired = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 200; j++) {
+                    if (limiter.acquire()) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // rejected callers never hold permits, so the threshold is reached exactly.
+        Assertions.assertEquals(1000, acquired.get());
+    }
+
+    @Test
+    void testWait() {
+        ManualStopwatch stopwatch = new ManualStopwatch();
+        RateLimiter limiter = create(stopwatch, new SlidingWindow(10, 1000));
+        Assertions.assertTrue(limiter.acquire(10));
+        Assertions.assertFalse(limiter.acquire(1, 50, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(limiter.acquire(1, 2000, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(stopwatch.readMicros() > 1000_000);
+    }
+
+    private static RateLimiter create(SleepingStopwatch stopwatch, SlidingWindow... windows) {
+        RateLimitPolicy policy = new RateLimitPolicy();
+        policy.setMaxWaitMs(0L);
+        policy.setParameters(new HashMap<>(Collections.singletonMap("buckets", "10")));
+        return new SlidingWindowCounterLimiter(policy, Arrays.asList(windows), stopwatch);
+    }
+}
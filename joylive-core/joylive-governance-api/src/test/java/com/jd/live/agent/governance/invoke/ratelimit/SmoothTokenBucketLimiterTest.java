@@ -15,6 +15,7 @@
  */
 package com.jd.live.agent.governance.invoke.ratelimit;
 
+import com.jd.live.agent.core.util.time.TimeScheduler;
 import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.SmoothBurstyLimiter;
 import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
 import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
@@ -24,6 +25,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.mock;
@@ -64,4 +66,19 @@ public class SmoothTokenBucketLimiterTest {
         result = limiter.acquire(1000, 1, TimeUnit.MILLISECONDS);
         Assertions.assertFalse(result);
     }
+
+    @Test
+    void testAcquireAsync() throws Exception {
+        TimeScheduler timer = new TimeScheduler("test-timer", 10, 100, 1);
+        timer.start();
+        try {
+            Assertions.assertTrue(limiter.acquireAsync(10, 0, TimeUnit.MILLISECONDS, timer).toCompletableFuture().get(1, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> future = limiter.acquireAsync(1, 1, TimeUnit.SECONDS, timer).toCompletableFuture();
+            Assertions.assertFalse(future.isDone());
+            Assertions.assertTrue(future.get(2, TimeUnit.SECONDS));
+            Assertions.assertFalse(limiter.acquireAsync(10, 0, TimeUnit.MILLISECONDS, timer).toCompletableFuture().join());
+        } finally {
+            timer.close();
+        }
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.invoke.ratelimit.tokenbucket;
+
+/**
+ * A stopwatch whose time only moves when it is advanced or slept, so that limiters can be driven
+ * deterministically in tests.
+ */
+public class ManualStopwatch implements SleepingStopwatch {
+
+    private long micros;
+
+    private long slept;
+
+    /**
+     * Moves the time forward by the specified number of microseconds.
+     *
+     * @param micros the number of microseconds to advance
+     */
+    public void advance(long micros) {
+        this.micros += micros;
+    }
+
+    /**
+     * Returns the total number of microseconds slept.
+     *
+     * @return the total number of microseconds slept
+     */
+    public long getSlept() {
+        return slept;
+    }
+
+    @Override
+    public long readMicros() {
+        return micros;
+    }
+
+    @Override
+    public void sleepMicrosUninterruptibly(long micros) {
+        if (micros > 0) {
+            slept += micros;
+            this.micros += micros;
+        }
+    }
+}
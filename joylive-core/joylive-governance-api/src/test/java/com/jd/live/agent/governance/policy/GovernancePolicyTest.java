@@ -0,0 +1,63 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.policy;
+
+import com.jd.live.agent.governance.policy.lane.LaneDomain;
+import com.jd.live.agent.governance.policy.lane.LaneSpace;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class GovernancePolicyTest {
+
+    private GovernancePolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        List<LaneDomain> domains = new ArrayList<>();
+        for (String host : new String[]{"example.com", "api.example.com", "*.b.example.com"}) {
+            LaneDomain domain = new LaneDomain();
+            domain.setHost(host);
+            domains.add(domain);
+        }
+        LaneSpace laneSpace = new LaneSpace();
+        laneSpace.setDomains(domains);
+        policy = new GovernancePolicy();
+        policy.setLaneSpaces(Collections.singletonList(laneSpace));
+    }
+
+    @Test
+    void testGetDomain() {
+        Assertions.assertEquals("api.example.com", policy.getDomain("api.example.com").getHost());
+        Assertions.assertEquals("api.example.com", policy.getDomain("API.example.com").getHost());
+        Assertions.assertEquals("*.b.example.com", policy.getDomain("x.b.example.com").getHost());
+        Assertions.assertNull(policy.getDomain("www.example.com"));
+    }
+
+    @Test
+    void testGetSuffixDomain() {
+        Assertions.assertEquals("example.com", policy.getSuffixDomain("a.www.example.com").getHost());
+        Assertions.assertEquals("api.example.com", policy.getSuffixDomain("v1.api.example.com").getHost());
+        Assertions.assertEquals("*.b.example.com", policy.getSuffixDomain("x.b.example.com").getHost());
+        Assertions.assertNull(policy.getSuffixDomain("example.org"));
+        Assertions.assertNull(policy.getSuffixDomain(""));
+        Assertions.assertNull(policy.getSuffixDomain(null));
+    }
+}
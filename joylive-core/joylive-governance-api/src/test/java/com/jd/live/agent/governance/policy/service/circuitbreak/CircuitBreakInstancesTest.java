@@ -0,0 +1,118 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.governance.policy.service.circuitbreak;
+
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakInstances.Snapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+public class CircuitBreakInstancesTest {
+
+    private static final CircuitBreakInspector OPEN = now -> new CircuitBreakInfo(CircuitBreakPhase.OPEN);
+
+    @Test
+    void testSnapshot() {
+        CircuitBreakPolicy service = createPolicy(CircuitBreakLevel.SERVICE);
+        CircuitBreakPolicy instance1 = createPolicy(CircuitBreakLevel.INSTANCE);
+        CircuitBreakPolicy instance2 = createPolicy(CircuitBreakLevel.INSTANCE);
+        CircuitBreakInstances instances = CircuitBreakInstances.of(Arrays.asList(service, instance1, instance2));
+        Assertions.assertEquals(2, instances.getPolicies().size());
+        Snapshot snapshot = instances.getSnapshot();
+        Assertions.assertTrue(snapshot.isEmpty());
+        Assertions.assertSame(snapshot, instances.getSnapshot());
+
+        instance1.addInspector("a", OPEN);
+        instance2.addInspector("a", OPEN);
+        instance2.addInspector("b", OPEN);
+        snapshot = instances.getSnapshot();
+        Assertions.assertEquals(2, snapshot.getPolicies("a").size());
+        Assertions.assertEquals(1, snapshot.getPolicies("b").size());
+        Assertions.assertNull(snapshot.getPolicies("c"));
+        Assertions.assertSame(snapshot, instances.getSnapshot());
+
+        instance2.removeInspector("b", OPEN);
+        Assertions.assertNull(instances.getSnapshot().getPolicies("b"));
+
+        // exchanging the inspectors changes the version.
+        CircuitBreakPolicy newer = createPolicy(CircuitBreakLevel.INSTANCE);
+        instances = CircuitBreakInstances.of(Arrays.asList(newer));
+        Assertions.assertTrue(instances.getSnapshot().isEmpty());
+        newer.exchange(instance1);
+        Assertions.assertEquals(1, instances.getSnapshot().getPolicies("a").size());
+    }
+
+    @Test
+    void testBreakers() {
+        CircuitBreakPolicy policy = createPolicy(CircuitBreakLevel.API);
+        AtomicInteger counter = new AtomicInteger();
+        Set<CircuitBreakInspector> recycled = new HashSet<>();
+        Predicate<CircuitBreakInspector> active = b -> !recycled.contains(b);
+        CircuitBreakInspector breaker = policy.getBreaker("/order", "GET", active, () -> create(counter));
+        Assertions.assertSame(breaker, policy.getBreaker("/order", "GET", active, () -> create(counter)));
+        Assertions.assertNotSame(breaker, policy.getBreaker("/order", "POST", active, () -> create(counter)));
+        CircuitBreakInspector service = policy.getBreaker(null, null, active, () -> create(counter));
+        Assertions.assertNotSame(breaker, service);
+        Assertions.assertSame(service, policy.getBreaker(null, null, active, () -> create(counter)));
+        Assertions.assertEquals(3, counter.get());
+        // a recycled breaker is replaced.
+        recycled.add(breaker);
+        CircuitBreakInspector replaced = policy.getBreaker("/order", "GET", active, () -> create(counter));
+        Assertions.assertNotSame(breaker, replaced);
+        Assertions.assertSame(replaced, policy.getBreaker("/order", "GET", active, () -> create(counter)));
+        Assertions.assertSame(breaker, policy.getInstanceBreaker("a", b -> true, () -> breaker));
+        Assertions.assertSame(breaker, policy.getInstanceBreaker("a", b -> true, () -> null));
+    }
+
+    @Test
+    void testBoundedBreakers() {
+        CircuitBreakPolicy policy = createPolicy(CircuitBreakLevel.INSTANCE);
+        AtomicInteger counter = new AtomicInteger();
+        Set<CircuitBreakInspector> recycled = new HashSet<>();
+        Predicate<CircuitBreakInspector> active = b -> !recycled.contains(b);
+        for (int i = 0; i < CircuitBreakPolicy.MAX_CACHED_BREAKERS; i++) {
+            recycled.add(policy.getInstanceBreaker("instance-" + i, active, () -> create(counter)));
+        }
+        // the cache is full of recycled breakers, which are evicted for the new instance.
+        CircuitBreakInspector breaker = policy.getInstanceBreaker("new", active, () -> create(counter));
+        Assertions.assertSame(breaker, policy.getInstanceBreaker("new", active, () -> create(counter)));
+        recycled.clear();
+        for (int i = 0; i < CircuitBreakPolicy.MAX_CACHED_BREAKERS; i++) {
+            policy.getInstanceBreaker("instance-" + i, active, () -> create(counter));
+        }
+        // the cache is full of active breakers, the new ones are created without being cached.
+        int created = counter.get();
+        policy.getInstanceBreaker("other", active, () -> create(counter));
+        policy.getInstanceBreaker("other", active, () -> create(counter));
+        Assertions.assertEquals(created + 2, counter.get());
+    }
+
+    private static CircuitBreakInspector create(AtomicInteger counter) {
+        int id = counter.incrementAndGet();
+        return now -> id > 0 ? null : new CircuitBreakInfo(CircuitBreakPhase.CLOSED);
+    }
+
+    private static CircuitBreakPolicy createPolicy(CircuitBreakLevel level) {
+        CircuitBreakPolicy policy = new CircuitBreakPolicy();
+        policy.setLevel(level);
+        return policy;
+    }
+}
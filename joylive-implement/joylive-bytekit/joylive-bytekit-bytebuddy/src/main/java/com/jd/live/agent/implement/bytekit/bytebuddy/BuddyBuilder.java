@@ -19,12 +19,14 @@ import com.jd.live.agent.core.bytekit.ByteBuilder;
 import com.jd.live.agent.core.bytekit.transformer.Resetter;
 import com.jd.live.agent.core.plugin.definition.PluginDeclare;
 import com.jd.live.agent.implement.bytekit.bytebuddy.plugin.PluginTransformHandler;
+import com.jd.live.agent.implement.bytekit.bytebuddy.util.MatchCache;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
 
 import java.lang.instrument.Instrumentation;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * BuddyBuilder
@@ -35,8 +37,15 @@ public class BuddyBuilder implements ByteBuilder {
 
     private final List<BuilderHandler> handlers;
 
+    private final Function<PluginDeclare, MatchCache> caches;
+
     public BuddyBuilder(List<BuilderHandler> handlers) {
+        this(handlers, null);
+    }
+
+    public BuddyBuilder(List<BuilderHandler> handlers, Function<PluginDeclare, MatchCache> caches) {
         this.handlers = handlers == null ? new ArrayList<>() : new ArrayList<>(handlers);
+        this.caches = caches;
     }
 
     @Override
@@ -52,7 +61,7 @@ public class BuddyBuilder implements ByteBuilder {
     @Override
     public ByteBuilder append(PluginDeclare plugin) {
         if (plugin != null) {
-            handlers.add(new PluginTransformHandler(plugin));
+            handlers.add(new PluginTransformHandler(plugin, caches == null ? null : caches.apply(plugin)));
         }
         return this;
     }
@@ -15,17 +15,26 @@
  */
 package com.jd.live.agent.implement.bytekit.bytebuddy;
 
+import com.jd.live.agent.core.Constants;
 import com.jd.live.agent.core.bytekit.ByteBuilder;
 import com.jd.live.agent.core.bytekit.ByteSupplier;
+import com.jd.live.agent.core.config.AgentPath;
+import com.jd.live.agent.core.config.EnhanceConfig;
 import com.jd.live.agent.core.extension.annotation.Extension;
 import com.jd.live.agent.core.inject.annotation.Inject;
 import com.jd.live.agent.core.inject.annotation.Injectable;
+import com.jd.live.agent.core.instance.Application;
+import com.jd.live.agent.core.plugin.definition.PluginDeclare;
+import com.jd.live.agent.core.util.time.Timer;
+import com.jd.live.agent.implement.bytekit.bytebuddy.util.MatchCache;
 import com.jd.live.agent.implement.bytekit.bytebuddy.util.ModuleUtil;
 
+import java.io.File;
 import java.lang.instrument.Instrumentation;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * BuddySupplier
@@ -40,9 +49,23 @@ public class BuddySupplier implements ByteSupplier {
     @Inject
     private List<BuilderHandler> handlers;
 
+    @Inject(EnhanceConfig.COMPONENT_ENHANCE_CONFIG)
+    private EnhanceConfig enhanceConfig;
+
+    @Inject(AgentPath.COMPONENT_AGENT_PATH)
+    private AgentPath agentPath;
+
+    @Inject(Application.COMPONENT_APPLICATION)
+    private Application application;
+
+    @Inject(Timer.COMPONENT_TIMER)
+    private Timer timer;
+
+    private final Map<String, MatchCache> caches = new ConcurrentHashMap<>();
+
     @Override
     public ByteBuilder create() {
-        return new BuddyBuilder(handlers);
+        return new BuddyBuilder(handlers, enhanceConfig != null && enhanceConfig.isMatchCacheEnabled() ? this::getCache : null);
     }
 
     @Override
@@ -54,5 +77,33 @@ public class BuddySupplier implements ByteSupplier {
     public void export(Instrumentation instrumentation, String sourceType, String sourcePackage, String targetType, ClassLoader... loaders) {
         ModuleUtil.export(instrumentation, sourceType, sourcePackage, targetType, loaders);
     }
-}
 
+    /**
+     * Returns the match cache of the plugin declare, and flushes it periodically.
+     *
+     * @param plugin the plugin declare
+     * @return the match cache, or null if it is not available
+     */
+    private MatchCache getCache(PluginDeclare plugin) {
+        String path = enhanceConfig.getMatchCachePath();
+        File directory = path == null || path.isEmpty() ? new File(agentPath.getOutputPath(), "cache") : new File(path);
+        MatchCache cache = MatchCache.of(directory, application.getMeta(Constants.LABEL_AGENT_VERSION), plugin,
+                enhanceConfig.getMatchCacheMaxSize());
+        if (cache == null) {
+            return null;
+        }
+        MatchCache old = caches.putIfAbsent(cache.getName(), cache);
+        if (old != null) {
+            return old;
+        }
+        addFlushTask(cache);
+        return cache;
+    }
+
+    private void addFlushTask(MatchCache cache) {
+        timer.delay("LiveAgent-ByteBuddy-Match-Cache-Flusher", enhanceConfig.getMatchCacheFlushInterval(), () -> {
+            cache.flush();
+            addFlushTask(cache);
+        });
+    }
+}
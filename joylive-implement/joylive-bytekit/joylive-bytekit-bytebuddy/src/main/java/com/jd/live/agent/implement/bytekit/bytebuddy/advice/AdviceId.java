@@ -0,0 +1,35 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.bytekit.bytebuddy.advice;
+
+import java.lang.annotation.*;
+
+/**
+ * Binds the id of the advice as a constant into the enhanced method.
+ * <p>
+ * The value is assigned when the method is transformed, so the interceptors are resolved
+ * without creating a key and looking it up on every invocation.
+ * </p>
+ *
+ * @see com.jd.live.agent.bootstrap.bytekit.advice.AdviceHandler
+ * @since 1.7.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface AdviceId {
+
+}
@@ -16,7 +16,6 @@
 package com.jd.live.agent.implement.bytekit.bytebuddy.advice;
 
 import com.jd.live.agent.bootstrap.bytekit.advice.AdviceHandler;
-import com.jd.live.agent.bootstrap.bytekit.advice.AdviceKey;
 import com.jd.live.agent.bootstrap.bytekit.context.MethodContext;
 import com.jd.live.agent.bootstrap.bytekit.context.OriginStack;
 import net.bytebuddy.asm.Advice;
@@ -40,19 +39,18 @@ public class MemberMethodAdvice {
                                   @Advice.Origin Method method,
                                   @Advice.Origin("#t\\##m#s") String methodDesc,
                                   @Advice.AllArguments(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object[] arguments,
-                                  @Advice.Local(value = "_ADVICE_KEY_$JOYLIVE_LOCAL") Object adviceKey,
+                                  @AdviceId int adviceId,
                                   @Advice.Local(value = "_EXECUTABLE_CONTEXT_$JOYLIVE_LOCAL") Object context
     ) throws Throwable {
         Class<?> localType = type;
         String localMethodDesc = methodDesc;
         // cache method to avoid reflection many times.
         Method localMethod = method;
-        boolean origin = OriginStack.tryPop(target, localMethod);
-        MethodContext mc = new MethodContext(localType, target, localMethod, arguments, localMethodDesc, origin);
-        adviceKey = origin ? null : new AdviceKey(localMethodDesc, localType.getClassLoader());
+        boolean origin = OriginStack.tryPop(target, adviceId, localMethod);
+        MethodContext mc = new MethodContext(localType, target, localMethod, arguments, localMethodDesc, adviceId, origin);
         context = mc;
         if (!origin) {
-            AdviceHandler.onEnter(mc, adviceKey);
+            AdviceHandler.onEnter(mc, adviceId);
             arguments = mc.getArguments();
             return mc.isSkip();
         }
@@ -62,7 +60,7 @@ public class MemberMethodAdvice {
     @Advice.OnMethodExit(onThrowable = Throwable.class)
     public static void onExit(@Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object result,
                               @Advice.Thrown(readOnly = false) Throwable throwable,
-                              @Advice.Local(value = "_ADVICE_KEY_$JOYLIVE_LOCAL") Object adviceKey,
+                              @AdviceId int adviceId,
                               @Advice.Local(value = "_EXECUTABLE_CONTEXT_$JOYLIVE_LOCAL") Object context
     ) throws Throwable {
         MethodContext mc = (MethodContext) context;
@@ -70,10 +68,14 @@ public class MemberMethodAdvice {
             return;
         }
         if (!mc.isSkip()) {
+            if (!AdviceHandler.hasExit(adviceId)) {
+                // none of the interceptors acts on exit
+                return;
+            }
             mc.setResult(result);
             mc.setThrowable(throwable);
         }
-        AdviceHandler.onExit(mc, adviceKey);
+        AdviceHandler.onExit(mc, adviceId);
         if (result != mc.getResult()) {
             result = mc.getResult();
         }
@@ -16,7 +16,6 @@
 package com.jd.live.agent.implement.bytekit.bytebuddy.advice;
 
 import com.jd.live.agent.bootstrap.bytekit.advice.AdviceHandler;
-import com.jd.live.agent.bootstrap.bytekit.advice.AdviceKey;
 import com.jd.live.agent.bootstrap.bytekit.context.MethodContext;
 import com.jd.live.agent.bootstrap.bytekit.context.OriginStack;
 import net.bytebuddy.asm.Advice;
@@ -39,20 +38,19 @@ public class StaticMethodAdvice {
                                   @Advice.Origin Method method,
                                   @Advice.Origin("#t\\##m#s") String methodDesc,
                                   @Advice.AllArguments(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object[] arguments,
-                                  @Advice.Local(value = "_ADVICE_KEY_$JOYLIVE_LOCAL") Object adviceKey,
+                                  @AdviceId int adviceId,
                                   @Advice.Local(value = "_EXECUTABLE_CONTEXT_$JOYLIVE_LOCAL") Object context
     ) throws Throwable {
         Class<?> localType = type;
         String localMehotdDesc = methodDesc;
         // cache method to avoid reflection many times.
         Method localMethod = method;
-        boolean origin = OriginStack.tryPop(null, localMethod);
-        MethodContext mc = new MethodContext(localType, null, localMethod, arguments, localMehotdDesc, origin);
-        adviceKey = origin ? null : new AdviceKey(localMehotdDesc, localType.getClassLoader());
+        boolean origin = OriginStack.tryPop(null, adviceId, localMethod);
+        MethodContext mc = new MethodContext(localType, null, localMethod, arguments, localMehotdDesc, adviceId, origin);
         context = mc;
         if (!origin) {
             // invoke enhanced method
-            AdviceHandler.onEnter(mc, adviceKey);
+            AdviceHandler.onEnter(mc, adviceId);
             arguments = mc.getArguments();
             return mc.isSkip();
         }
@@ -63,7 +61,7 @@ public class StaticMethodAdvice {
     @Advice.OnMethodExit(onThrowable = Throwable.class)
     public static void onExit(@Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object result,
                               @Advice.Thrown(readOnly = false) Throwable throwable,
-                              @Advice.Local(value = "_ADVICE_KEY_$JOYLIVE_LOCAL") Object adviceKey,
+                              @AdviceId int adviceId,
                               @Advice.Local(value = "_EXECUTABLE_CONTEXT_$JOYLIVE_LOCAL") Object context
     ) throws Throwable {
         MethodContext mc = (MethodContext) context;
@@ -73,10 +71,14 @@ public class StaticMethodAdvice {
         }
         // invoke enhanced method
         if (!mc.isSkip()) {
+            if (!AdviceHandler.hasExit(adviceId)) {
+                // none of the interceptors acts on exit
+                return;
+            }
             mc.setResult(result);
             mc.setThrowable(throwable);
         }
-        AdviceHandler.onExit(mc, adviceKey);
+        AdviceHandler.onExit(mc, adviceId);
         if (result != mc.getResult()) {
             result = mc.getResult();
         }
@@ -17,6 +17,7 @@ package com.jd.live.agent.implement.bytekit.bytebuddy.plugin;
 
 import com.jd.live.agent.core.plugin.definition.PluginDeclare;
 import com.jd.live.agent.implement.bytekit.bytebuddy.BuilderHandler;
+import com.jd.live.agent.implement.bytekit.bytebuddy.util.MatchCache;
 import net.bytebuddy.agent.builder.AgentBuilder;
 
 import java.lang.instrument.Instrumentation;
@@ -30,13 +31,20 @@ public class PluginTransformHandler implements BuilderHandler {
 
     private final PluginDeclare declare;
 
+    private final MatchCache cache;
+
     public PluginTransformHandler(PluginDeclare declare) {
+        this(declare, null);
+    }
+
+    public PluginTransformHandler(PluginDeclare declare, MatchCache cache) {
         this.declare = declare;
+        this.cache = cache;
     }
 
     @Override
     public AgentBuilder configure(AgentBuilder builder, Instrumentation instrumentation) {
-        PluginTransformer transformer = new PluginTransformer(instrumentation, declare);
+        PluginTransformer transformer = new PluginTransformer(instrumentation, declare, cache);
         return builder.type(transformer).transform(transformer);
     }
 }
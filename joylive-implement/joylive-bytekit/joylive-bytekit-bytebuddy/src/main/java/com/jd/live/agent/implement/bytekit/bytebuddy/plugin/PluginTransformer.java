@@ -25,11 +25,13 @@ import com.jd.live.agent.core.plugin.definition.InterceptorDefinition;
 import com.jd.live.agent.core.plugin.definition.PluginDeclare;
 import com.jd.live.agent.core.plugin.definition.PluginDefinition;
 import com.jd.live.agent.core.plugin.definition.PluginImporter;
+import com.jd.live.agent.implement.bytekit.bytebuddy.advice.AdviceId;
 import com.jd.live.agent.implement.bytekit.bytebuddy.advice.ConstructorAdvice;
 import com.jd.live.agent.implement.bytekit.bytebuddy.advice.MemberMethodAdvice;
 import com.jd.live.agent.implement.bytekit.bytebuddy.advice.StaticMethodAdvice;
 import com.jd.live.agent.implement.bytekit.bytebuddy.type.BuddyMethodDesc;
 import com.jd.live.agent.implement.bytekit.bytebuddy.type.BuddyTypeDesc;
+import com.jd.live.agent.implement.bytekit.bytebuddy.util.MatchCache;
 import com.jd.live.agent.implement.bytekit.bytebuddy.util.ModuleUtil;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.asm.Advice;
@@ -63,6 +65,8 @@ public class PluginTransformer implements AgentBuilder.RawMatcher, AgentBuilder.
 
     private final PluginDeclare plugin;
 
+    private final MatchCache cache;
+
     private final Map<AdviceKey, List<InterceptorDefinition>> types = new ConcurrentHashMap<>();
 
     /**
@@ -74,8 +78,22 @@ public class PluginTransformer implements AgentBuilder.RawMatcher, AgentBuilder.
      *                         transformations.
      */
     public PluginTransformer(Instrumentation instrumentation, PluginDeclare plugin) {
+        this(instrumentation, plugin, null);
+    }
+
+    /**
+     * Constructs a new {@code PluginTransformer} with the specified instrumentation,
+     * plugin declaration and match cache.
+     *
+     * @param instrumentation the {@link Instrumentation} object provided by the Java agent mechanism.
+     * @param plugin          the plugin declaration that contains the definitions for class and method
+     *                        transformations.
+     * @param cache           the cache of the types which are not matched by the plugin, can be null.
+     */
+    public PluginTransformer(Instrumentation instrumentation, PluginDeclare plugin, MatchCache cache) {
         this.instrumentation = instrumentation;
         this.plugin = plugin;
+        this.cache = cache;
     }
 
     @Override
@@ -93,6 +111,11 @@ public class PluginTransformer implements AgentBuilder.RawMatcher, AgentBuilder.
             return true;
         }
 
+        String cacheKey = cache == null ? null : cache.getKey(description.getActualName(), loader, domain);
+        if (cache != null && cache.isMismatch(cacheKey)) {
+            return false;
+        }
+
         BuddyTypeDesc typeDesc = new BuddyTypeDesc(description);
         List<InterceptorDefinition> interceptors = new ArrayList<>();
         List<PluginDefinition> definitions = plugin.match(typeDesc, loader);
@@ -101,7 +124,13 @@ public class PluginTransformer implements AgentBuilder.RawMatcher, AgentBuilder.
             // export internal java module packages to plugin
             export(loader, module, definition);
         }
-        return !interceptors.isEmpty() && types.putIfAbsent(adviceKey, interceptors) == null;
+        if (interceptors.isEmpty()) {
+            if (cache != null) {
+                cache.addMismatch(cacheKey);
+            }
+            return false;
+        }
+        return types.putIfAbsent(adviceKey, interceptors) == null;
     }
 
     /**
@@ -223,7 +252,11 @@ public class PluginTransformer implements AgentBuilder.RawMatcher, AgentBuilder.
             adviceDesc.add(interceptor);
         }
         if (adviceDesc.lock(plugin)) {
-            return builder.visit(Advice.to(templateCls).on(ElementMatchers.is(methodDesc)));
+            // bind the advice id as a constant, so the interceptors are resolved without a key lookup per call.
+            return builder.visit(Advice.withCustomMapping()
+                    .bind(AdviceId.class, adviceDesc.getId())
+                    .to(templateCls)
+                    .on(ElementMatchers.is(methodDesc)));
         }
         return builder;
     }
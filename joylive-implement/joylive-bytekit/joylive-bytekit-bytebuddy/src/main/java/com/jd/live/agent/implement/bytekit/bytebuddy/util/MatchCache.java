@@ -0,0 +1,442 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.bytekit.bytebuddy.util;
+
+import com.jd.live.agent.bootstrap.logger.Logger;
+import com.jd.live.agent.bootstrap.logger.LoggerFactory;
+import com.jd.live.agent.core.extension.annotation.Conditional;
+import com.jd.live.agent.core.extension.condition.ConditionMatcher;
+import com.jd.live.agent.core.plugin.definition.PluginDeclare;
+import com.jd.live.agent.core.plugin.definition.PluginDefinition;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A persistent cache of the types which are not matched by any definition of a plugin declare.
+ * <p>
+ * The cache file is identified by the agent version, the plugin definitions and the application class path,
+ * so it is invalidated as a whole when one of them changes. Each entry is identified by the type name and
+ * the fingerprint of the jar the type is loaded from, which consists of the path, size and modification
+ * time of the jar. Types without a jar, such as the types in directories or generated types, are never cached.
+ * </p>
+ * <p>
+ * Definitions with conditions depending on the class loader, such as {@code @ConditionalOnClass}, are enabled by
+ * the classes visible to the loader of the type, which may change while the jar of the type does not. If the plugin
+ * has such definitions, the entry is also identified by the jars of the loader and its parents up to the
+ * application class loader, whose class path is a part of the cache identity. Types of the loaders which do not
+ * expose their jars are never cached in that case.
+ * </p>
+ * <p>
+ * The cache holds at most {@code maxSize} types. When a new type does not fit in, the file is compacted at the next
+ * flush to the types looked up or added since the start, which drops the entries of the outdated jars. The files of the
+ * previous identities of the plugin are deleted when the cache is created.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class MatchCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchCache.class);
+
+    private static final String FILE_PREFIX = "match-";
+
+    private static final String FILE_SUFFIX = ".cache";
+
+    private static final String NONE = "";
+
+    private static final int DEFAULT_MAX_SIZE = 100000;
+
+    private static final String JDK = "jdk:" + System.getProperty("java.home") + ":" + System.getProperty("java.version");
+
+    private final File file;
+
+    private final int maxSize;
+
+    private final Set<String> mismatches = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The entries looked up or added since the start, which are kept when the file is compacted.
+     */
+    private final Set<String> usages = ConcurrentHashMap.newKeySet();
+
+    private final Queue<String> appends = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean overflow = new AtomicBoolean();
+
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    private final boolean loaderDependent;
+
+    private final Map<ClassLoader, String> loaderFingerprints = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public MatchCache(File file) {
+        this(file, true);
+    }
+
+    public MatchCache(File file, boolean loaderDependent) {
+        this(file, loaderDependent, DEFAULT_MAX_SIZE);
+    }
+
+    public MatchCache(File file, boolean loaderDependent, int maxSize) {
+        this.file = file;
+        this.loaderDependent = loaderDependent;
+        this.maxSize = maxSize <= 0 ? DEFAULT_MAX_SIZE : maxSize;
+        load();
+    }
+
+    public String getName() {
+        return file.getName();
+    }
+
+    public int size() {
+        return mismatches.size();
+    }
+
+    /**
+     * Returns the cache key of the type.
+     *
+     * @param name   the type name
+     * @param loader the class loader of the type
+     * @param domain the protection domain of the type
+     * @return the cache key, or null if the type is not cacheable
+     */
+    public String getKey(String name, ClassLoader loader, ProtectionDomain domain) {
+        if (name.contains("$$")) {
+            // generated types
+            return null;
+        }
+        String fingerprint;
+        if (loader == null) {
+            fingerprint = JDK;
+        } else {
+            CodeSource source = domain == null ? null : domain.getCodeSource();
+            URL location = source == null ? null : source.getLocation();
+            fingerprint = location == null ? NONE : fingerprints.computeIfAbsent(location.toString(), MatchCache::getFingerprint);
+            if (!fingerprint.isEmpty() && loaderDependent) {
+                String loaderFingerprint = getLoaderFingerprint(loader);
+                fingerprint = loaderFingerprint == null ? NONE : fingerprint + loaderFingerprint;
+            }
+        }
+        return fingerprint.isEmpty() ? null : name + '@' + fingerprint;
+    }
+
+    /**
+     * Returns the fingerprint of the jars of the class loader and its parents up to the application class loader.
+     *
+     * @param loader the class loader
+     * @return the fingerprint, which is empty for the application class loader and its parents,
+     * or null if the jars of a loader are unknown
+     */
+    private String getLoaderFingerprint(ClassLoader loader) {
+        String result = loaderFingerprints.get(loader);
+        if (result == null) {
+            StringBuilder builder = new StringBuilder();
+            ClassLoader system = ClassLoader.getSystemClassLoader();
+            ClassLoader platform = system.getParent();
+            for (ClassLoader l = loader; l != null && l != system && l != platform; l = l.getParent()) {
+                if (!(l instanceof URLClassLoader)) {
+                    return null;
+                }
+                for (URL url : ((URLClassLoader) l).getURLs()) {
+                    String fingerprint = fingerprints.computeIfAbsent(url.toString(), MatchCache::getFingerprint);
+                    if (fingerprint.isEmpty()) {
+                        // the classes in a directory may change without being noticed.
+                        return null;
+                    }
+                    builder.append(':').append(fingerprint);
+                }
+            }
+            result = builder.length() == 0 ? NONE : ':' + hash(builder.toString());
+            loaderFingerprints.put(loader, result);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the type is known to match no definition.
+     *
+     * @param key the cache key
+     * @return true if the type matches no definition
+     */
+    public boolean isMismatch(String key) {
+        if (key != null && mismatches.contains(key)) {
+            usages.add(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records that the type matches no definition.
+     *
+     * @param key the cache key
+     */
+    public void addMismatch(String key) {
+        if (key == null) {
+            return;
+        } else if (mismatches.size() >= maxSize) {
+            overflow.set(true);
+        } else if (mismatches.add(key)) {
+            usages.add(key);
+            appends.add(key);
+        }
+    }
+
+    /**
+     * Appends the new entries to the cache file, or compacts the file if the cache is full.
+     */
+    public synchronized void flush() {
+        if (overflow.compareAndSet(true, false) && usages.size() < mismatches.size()) {
+            compact();
+        } else if (!appends.isEmpty()) {
+            write(appends, true);
+        }
+    }
+
+    /**
+     * Rewrites the cache with the entries looked up or added since the start.
+     */
+    private void compact() {
+        // the entries added after the snapshot are appended by the next flush.
+        appends.clear();
+        Set<String> keys = new HashSet<>(usages);
+        mismatches.retainAll(keys);
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            if (write(temp, keys, false)) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("failed to compact match cache " + file.getPath() + ", caused by " + e.getMessage());
+        }
+    }
+
+    private void write(Queue<String> keys, boolean append) {
+        List<String> values = new ArrayList<>(keys.size());
+        String key;
+        while ((key = keys.poll()) != null) {
+            values.add(key);
+        }
+        write(file, values, append);
+    }
+
+    private boolean write(File target, Collection<String> keys, boolean append) {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(target, append), StandardCharsets.UTF_8))) {
+            for (String key : keys) {
+                writer.write(key);
+                writer.write('\n');
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("failed to write match cache " + target.getPath() + ", caused by " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while (mismatches.size() < maxSize && (line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    mismatches.add(line);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("failed to read match cache " + file.getPath() + ", caused by " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the cache of the plugin declare in the directory, and deletes the outdated caches of the plugin.
+     *
+     * @param directory the cache directory
+     * @param version   the agent version
+     * @param plugin    the plugin declare
+     * @param maxSize   the maximum number of the cached types
+     * @return the cache, or null if the directory is not available
+     */
+    public static MatchCache of(File directory, String version, PluginDeclare plugin, int maxSize) {
+        if (!directory.mkdirs() && !directory.isDirectory()) {
+            logger.warn("failed to create match cache directory " + directory.getPath());
+            return null;
+        }
+        String prefix = FILE_PREFIX + getFileName(plugin.getName()) + '-';
+        String name = prefix + getIdentity(version, plugin) + FILE_SUFFIX;
+        File[] files = directory.listFiles((dir, n) -> !n.equals(name) && isCacheFile(n, prefix));
+        if (files != null) {
+            for (File outdated : files) {
+                if (!outdated.delete()) {
+                    logger.warn("failed to delete outdated match cache " + outdated.getPath());
+                }
+            }
+        }
+        return new MatchCache(new File(directory, name), isLoaderDependent(plugin), maxSize);
+    }
+
+    /**
+     * Checks whether the file is a cache file of the plugin, whose identity follows the prefix.
+     */
+    private static boolean isCacheFile(String name, String prefix) {
+        if (!name.startsWith(prefix) || !name.endsWith(FILE_SUFFIX) || name.length() == prefix.length() + FILE_SUFFIX.length()) {
+            return false;
+        }
+        // the identity is a hex hash, so the caches of the plugins whose name starts with this name are excluded.
+        for (int i = prefix.length(); i < name.length() - FILE_SUFFIX.length(); i++) {
+            if (Character.digit(name.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the plugin name which is safe to be used in a file name.
+     */
+    private static String getFileName(String name) {
+        StringBuilder builder = new StringBuilder(name == null ? 0 : name.length());
+        if (name != null) {
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                builder.append(Character.isLetterOrDigit(c) || c == '.' || c == '_' ? c : '_');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Checks whether a definition of the plugin is enabled by the classes visible to the class loader.
+     * <p>
+     * The conditions are resolved through the composed and meta annotations at any depth, so a condition which is
+     * declared on an annotation of the definition is found even if that annotation is not a composite.
+     * </p>
+     */
+    private static boolean isLoaderDependent(PluginDeclare plugin) {
+        Set<Class<?>> visited = new HashSet<>();
+        for (PluginDefinition definition : plugin.getDefinitions()) {
+            for (Annotation annotation : definition.getClass().getAnnotations()) {
+                if (isLoaderDependent(annotation, visited)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLoaderDependent(Annotation annotation, Set<Class<?>> visited) {
+        Class<? extends Annotation> type = annotation.annotationType();
+        if (ConditionMatcher.SYSTEM_ANNOTATION.test(type) || !visited.add(type)) {
+            return false;
+        } else if (ConditionMatcher.DEPEND_ON_LOADER.test(annotation)) {
+            return true;
+        }
+        Conditional conditional = type.getAnnotation(Conditional.class);
+        if (conditional != null) {
+            return false;
+        }
+        for (Annotation meta : type.getAnnotations()) {
+            if (isLoaderDependent(meta, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the identity of the cache, which changes with the agent, the plugins and the class path.
+     */
+    private static String getIdentity(String version, PluginDeclare plugin) {
+        List<String> names = new ArrayList<>();
+        for (PluginDefinition definition : plugin.getDefinitions()) {
+            Class<?> type = definition.getClass();
+            CodeSource source = type.getProtectionDomain().getCodeSource();
+            URL location = source == null ? null : source.getLocation();
+            names.add(type.getName() + '@' + (location == null ? NONE : getFingerprint(location.toString())));
+        }
+        Collections.sort(names);
+        StringBuilder builder = new StringBuilder(version == null ? NONE : version).append('\n').append(JDK);
+        names.forEach(name -> builder.append('\n').append(name));
+        String classPath = System.getProperty("java.class.path");
+        if (classPath != null) {
+            for (String path : classPath.split(File.pathSeparator)) {
+                File file = new File(path);
+                builder.append('\n').append(path).append(':').append(file.length()).append(':').append(file.lastModified());
+            }
+        }
+        return hash(builder.toString());
+    }
+
+    /**
+     * Returns the fingerprint of the jar at the code source location.
+     *
+     * @param location the code source location
+     * @return the fingerprint, or an empty string if the location is not a jar file
+     */
+    private static String getFingerprint(String location) {
+        String path = location;
+        if (path.startsWith("jar:")) {
+            path = path.substring(4);
+        } else if (path.startsWith("nested:")) {
+            path = "file:" + path.substring(7);
+        }
+        // the nested jars are fingerprinted by the outer jar
+        int pos = path.indexOf("!/");
+        if (pos > 0) {
+            path = path.substring(0, pos);
+        }
+        pos = path.indexOf("/!");
+        if (pos > 0) {
+            path = path.substring(0, pos);
+        }
+        if (!path.startsWith("file:")) {
+            return NONE;
+        }
+        try {
+            File file = new File(URI.create(path));
+            return file.isFile() ? hash(file.getPath() + ':' + file.length() + ':' + file.lastModified()) : NONE;
+        } catch (IllegalArgumentException e) {
+            return NONE;
+        }
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash of the value in hex.
+     */
+    private static String hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return Long.toHexString(hash);
+    }
+}
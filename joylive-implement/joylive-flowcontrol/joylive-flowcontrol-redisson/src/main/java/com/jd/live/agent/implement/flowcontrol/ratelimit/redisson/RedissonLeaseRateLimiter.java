@@ -0,0 +1,200 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.flowcontrol.ratelimit.redisson;
+
+import com.jd.live.agent.bootstrap.logger.Logger;
+import com.jd.live.agent.bootstrap.logger.LoggerFactory;
+import com.jd.live.agent.governance.invoke.ratelimit.AbstractRateLimiter;
+import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.SleepingStopwatch;
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+import com.jd.live.agent.implement.flowcontrol.ratelimit.redisson.client.QuotaStore;
+import com.jd.live.agent.implement.flowcontrol.ratelimit.redisson.client.QuotaStore.Quota;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A distributed rate limiter that leases batches of permits from redis and serves the requests locally.
+ * <p>
+ * Only renewing a lease takes a round trip to redis. The size of the next lease follows the rate observed
+ * during the previous one, so that idle instances do not hold permits that busy instances need. A lease
+ * expires after {@code leaseTime} milliseconds or at the end of the window, and its unused permits are
+ * returned to redis when it is renewed or when the limiter is closed.
+ * </p>
+ *
+ * @since 1.7.0
+ */
+public class RedissonLeaseRateLimiter extends AbstractRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedissonLeaseRateLimiter.class);
+
+    private static final String KEY_LEASE_TIME = "leaseTime";
+
+    private static final String KEY_MAX_LEASE_RATIO = "maxLeaseRatio";
+
+    private static final long DEFAULT_LEASE_TIME = 100L;
+
+    private static final double DEFAULT_MAX_LEASE_RATIO = 0.1D;
+
+    private static final long NONE = -1L;
+
+    private final QuotaStore store;
+
+    private final SleepingStopwatch stopwatch;
+
+    private final String key;
+
+    private final long threshold;
+
+    private final long windowMs;
+
+    private final long leaseMicros;
+
+    private final long maxLease;
+
+    /**
+     * The window of the current lease.
+     */
+    private long window = NONE;
+
+    /**
+     * The unused permits of the current lease.
+     */
+    private long remaining;
+
+    /**
+     * The permits consumed since the current lease was taken.
+     */
+    private long consumed;
+
+    private long leaseStartMicros;
+
+    private long leaseExpireMicros;
+
+    /**
+     * The time until which the permits of the window are exhausted.
+     */
+    private long exhaustedMicros;
+
+    /**
+     * The observed rate in permits per microsecond.
+     */
+    private double rate;
+
+    public RedissonLeaseRateLimiter(QuotaStore store, RateLimitPolicy policy, SlidingWindow window) {
+        this(store, policy, window, SleepingStopwatch.createFromSystemTimer());
+    }
+
+    public RedissonLeaseRateLimiter(QuotaStore store, RateLimitPolicy policy, SlidingWindow window, SleepingStopwatch stopwatch) {
+        super(policy, TimeUnit.MILLISECONDS);
+        this.store = store;
+        this.stopwatch = stopwatch;
+        this.key = "LiveAgent-lease-" + policy.getId() + "-" + window.getTimeWindowInMs();
+        this.threshold = window.getThreshold();
+        this.windowMs = window.getTimeWindowInMs();
+        this.leaseMicros = TimeUnit.MILLISECONDS.toMicros(option.getPositive(KEY_LEASE_TIME, DEFAULT_LEASE_TIME));
+        this.maxLease = max((long) (threshold * option.getPositive(KEY_MAX_LEASE_RATIO, DEFAULT_MAX_LEASE_RATIO)), 1L);
+    }
+
+    @Override
+    protected boolean doAcquire(int permits, long timeout, TimeUnit timeUnit) {
+        long deadline = stopwatch.readMicros() + (timeout <= 0 ? 0 : timeUnit.toMicros(timeout));
+        long waitMicros;
+        while ((waitMicros = tryAcquire(permits)) > 0) {
+            if (stopwatch.readMicros() + waitMicros > deadline) {
+                return false;
+            }
+            stopwatch.sleepMicrosUninterruptibly(waitMicros);
+        }
+        return true;
+    }
+
+    @Override
+    protected synchronized void doClose() {
+        try {
+            if (window != NONE && remaining > 0) {
+                store.lease(key, window, remaining, 0, threshold, windowMs);
+            }
+        } catch (Throwable e) {
+            logger.error(e.getMessage(), e);
+        } finally {
+            window = NONE;
+            remaining = 0;
+            store.close();
+        }
+    }
+
+    /**
+     * Takes the permits from the local lease, renewing the lease if necessary.
+     *
+     * @param permits the number of permits to acquire
+     * @return 0 if the permits are acquired, otherwise the time in microseconds until the window is reset
+     */
+    private synchronized long tryAcquire(int permits) {
+        long now = stopwatch.readMicros();
+        if (remaining >= permits && now < leaseExpireMicros) {
+            remaining -= permits;
+            consumed += permits;
+            return 0;
+        } else if (now < exhaustedMicros) {
+            return exhaustedMicros - now;
+        }
+        Quota quota;
+        try {
+            quota = store.lease(key, window, remaining, getLeaseSize(permits, now), threshold, windowMs);
+        } catch (Throwable e) {
+            logger.error(e.getMessage(), e);
+            quota = null;
+        }
+        if (quota == null) {
+            // the store is not available, let the request pass like the other redis limiter.
+            return 0;
+        }
+        long resetMicros = max(TimeUnit.MILLISECONDS.toMicros(quota.getResetMs()), 1L);
+        window = quota.getWindow();
+        remaining = quota.getPermits();
+        consumed = 0;
+        leaseStartMicros = now;
+        leaseExpireMicros = now + min(leaseMicros, resetMicros);
+        if (remaining >= permits) {
+            remaining -= permits;
+            consumed = permits;
+            return 0;
+        }
+        exhaustedMicros = now + resetMicros;
+        return resetMicros;
+    }
+
+    /**
+     * Estimates the size of the next lease from the rate observed during the current lease.
+     *
+     * @param permits the number of permits to acquire
+     * @param now     the current time in microseconds
+     * @return the size of the next lease
+     */
+    private long getLeaseSize(int permits, long now) {
+        if (window != NONE) {
+            double observed = (double) consumed / max(now - leaseStartMicros, 1L);
+            rate = rate == 0 ? observed : (rate + observed) / 2;
+        }
+        long size = (long) Math.ceil(rate * leaseMicros);
+        return max(min(size, maxLease), permits);
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.flowcontrol.ratelimit.redisson.client;
+
+/**
+ * A store that hands out batches of permits of a fixed time window to the instances sharing a rate limit.
+ */
+public interface QuotaStore extends AutoCloseable {
+
+    /**
+     * Returns the unused permits of a previous lease and leases new permits atomically.
+     *
+     * @param key           the key of the rate limit
+     * @param returnWindow  the window of the previous lease, or -1 if there is no lease
+     * @param returnPermits the unused permits of the previous lease
+     * @param permits       the number of permits to lease
+     * @param threshold     the maximum number of permits of a window
+     * @param windowMs      the size of the window in milliseconds
+     * @return the lease, or null if the store is not available
+     */
+    Quota lease(String key, long returnWindow, long returnPermits, long permits, long threshold, long windowMs);
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * The result of a lease.
+     */
+    class Quota {
+
+        private final long window;
+
+        private final long permits;
+
+        private final long resetMs;
+
+        public Quota(long window, long permits, long resetMs) {
+            this.window = window;
+            this.permits = permits;
+            this.resetMs = resetMs;
+        }
+
+        /**
+         * Returns the window in which the permits were leased.
+         *
+         * @return the window
+         */
+        public long getWindow() {
+            return window;
+        }
+
+        /**
+         * Returns the number of leased permits, which may be less than requested.
+         *
+         * @return the number of leased permits
+         */
+        public long getPermits() {
+            return permits;
+        }
+
+        /**
+         * Returns the time in milliseconds until the window is reset.
+         *
+         * @return the time until the window is reset
+         */
+        public long getResetMs() {
+            return resetMs;
+        }
+    }
+}
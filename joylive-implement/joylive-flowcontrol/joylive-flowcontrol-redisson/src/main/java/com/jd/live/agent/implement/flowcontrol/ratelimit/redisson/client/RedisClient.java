@@ -20,7 +20,9 @@ import com.jd.live.agent.bootstrap.logger.LoggerFactory;
 import com.jd.live.agent.implement.flowcontrol.ratelimit.redisson.RedissonRateLimiter;
 import org.redisson.Redisson;
 import org.redisson.api.RRateLimiter;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
 import org.redisson.config.Config;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -62,6 +64,15 @@ public class RedisClient implements AutoCloseable {
         return delegate == null ? null : delegate.getRateLimiter(key);
     }
 
+    /**
+     * Retrieves a script executor whose results are decoded as long values.
+     *
+     * @return the script executor, or null if the delegate is not initialized
+     */
+    public RScript getScript() {
+        return delegate == null ? null : delegate.getScript(LongCodec.INSTANCE);
+    }
+
     public long getLastAccessTime() {
         return lastAccessTime;
     }
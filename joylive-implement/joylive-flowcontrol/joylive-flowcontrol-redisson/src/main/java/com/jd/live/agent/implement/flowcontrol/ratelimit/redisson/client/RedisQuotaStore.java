@@ -0,0 +1,75 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.flowcontrol.ratelimit.redisson.client;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RScript.Mode;
+import org.redisson.api.RScript.ReturnType;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link QuotaStore} that keeps the used permits of the current window in a redis hash.
+ * <p>
+ * The window is computed from the redis server time, so that all the instances agree on it. Returning the
+ * unused permits and leasing new ones is done by one lua script in a single round trip.
+ * </p>
+ */
+public class RedisQuotaStore implements QuotaStore {
+
+    private static final String SCRIPT = "redis.replicate_commands()\n" +
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n" +
+            "local windowMs = tonumber(ARGV[5])\n" +
+            "local window = math.floor(now / windowMs)\n" +
+            "local state = redis.call('HMGET', KEYS[1], 'window', 'used')\n" +
+            "local used = 0\n" +
+            "if tonumber(state[1]) == window then\n" +
+            "  used = tonumber(state[2]) or 0\n" +
+            "  if tonumber(ARGV[1]) == window then\n" +
+            "    used = math.max(used - tonumber(ARGV[2]), 0)\n" +
+            "  end\n" +
+            "end\n" +
+            "local granted = math.max(math.min(tonumber(ARGV[3]), tonumber(ARGV[4]) - used), 0)\n" +
+            "used = used + granted\n" +
+            "redis.call('HSET', KEYS[1], 'window', window, 'used', used)\n" +
+            "redis.call('PEXPIRE', KEYS[1], windowMs * 2)\n" +
+            "return {window, granted, (window + 1) * windowMs - now}";
+
+    private final RedisClient client;
+
+    public RedisQuotaStore(RedisClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Quota lease(String key, long returnWindow, long returnPermits, long permits, long threshold, long windowMs) {
+        client.setLastAccessTime(System.currentTimeMillis());
+        RScript script = client.getScript();
+        if (script == null) {
+            return null;
+        }
+        List<Long> result = script.eval(key, Mode.READ_WRITE, SCRIPT, ReturnType.MULTI, Collections.singletonList(key),
+                returnWindow, returnPermits, permits, threshold, windowMs);
+        return new Quota(result.get(0), result.get(1), result.get(2));
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.flowcontrol.ratelimit.redisson;
+
+import com.jd.live.agent.governance.invoke.ratelimit.tokenbucket.SleepingStopwatch;
+import com.jd.live.agent.governance.policy.service.limit.RateLimitPolicy;
+import com.jd.live.agent.governance.policy.service.limit.SlidingWindow;
+import com.jd.live.agent.implement.flowcontrol.ratelimit.redisson.client.QuotaStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the lease limiter against an in-memory store that mimics the lua script.
+ */
+public class RedissonLeaseRateLimiterTest {
+
+    private ManualStopwatch stopwatch;
+
+    private MemoryQuotaStore store;
+
+    private RateLimitPolicy policy;
+
+    private SlidingWindow window;
+
+    @BeforeEach
+    void setUp() {
+        stopwatch = new ManualStopwatch();
+        store = new MemoryQuotaStore(stopwatch);
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("leaseTime", "100");
+        parameters.put("maxLeaseRatio", "0.2");
+        policy = new RateLimitPolicy();
+        policy.setId(1L);
+        policy.setMaxWaitMs(0L);
+        policy.setParameters(parameters);
+        window = new SlidingWindow(1000, 1000);
+    }
+
+    @Test
+    void testSharedThreshold() {
+        RedissonLeaseRateLimiter limiter1 = new RedissonLeaseRateLimiter(store, policy, window, stopwatch);
+        RedissonLeaseRateLimiter limiter2 = new RedissonLeaseRateLimiter(store, policy, window, stopwatch);
+        int acquired = 0;
+        // 3000 requests in the first 300 milliseconds
+        for (int i = 0; i < 3000; i++) {
+            if (i % 10 == 0) {
+                stopwatch.advance(1000);
+            }
+            if ((i % 2 == 0 ? limiter1 : limiter2).acquire()) {
+                acquired++;
+            }
+        }
+        Assertions.assertTrue(acquired <= 1000);
+        Assertions.assertTrue(acquired >= 900);
+        Assertions.assertTrue(store.calls < 100, "calls " + store.calls);
+        // a new window
+        stopwatch.advance(TimeUnit.SECONDS.toMicros(1));
+        Assertions.assertTrue(limiter1.acquire());
+        Assertions.assertTrue(limiter2.acquire());
+    }
+
+    @Test
+    void testLeaseSize() {
+        RedissonLeaseRateLimiter limiter = new RedissonLeaseRateLimiter(store, policy, window, stopwatch);
+        Assertions.assertTrue(limiter.acquire());
+        Assertions.assertEquals(1, store.used);
+        // 1 permit per millisecond, the lease grows to the permits of one lease time
+        for (int i = 0; i < 300; i++) {
+            stopwatch.advance(1000);
+            Assertions.assertTrue(limiter.acquire());
+        }
+        Assertions.assertTrue(store.used >= 300 && store.used <= 301 + 100, "used " + store.used);
+        Assertions.assertTrue(store.calls < 20, "calls " + store.calls);
+    }
+
+    @Test
+    void testReturnUnused() {
+        RedissonLeaseRateLimiter limiter1 = new RedissonLeaseRateLimiter(store, policy, window, stopwatch);
+        for (int i = 0; i < 100; i++) {
+            stopwatch.advance(100);
+            limiter1.acquire();
+        }
+        Assertions.assertTrue(store.used > 100);
+        limiter1.close();
+        Assertions.assertEquals(100, store.used);
+        RedissonLeaseRateLimiter limiter2 = new RedissonLeaseRateLimiter(store, policy, window, stopwatch);
+        Assertions.assertTrue(limiter2.acquire(900));
+        Assertions.assertFalse(limiter2.acquire());
+    }
+
+    @Test
+    void testWaitForNextWindow() {
+        RedissonLeaseRateLimiter limiter = new RedissonLeaseRateLimiter(store, policy, window, stopwatch);
+        Assertions.assertTrue(limiter.acquire(1000));
+        Assertions.assertFalse(limiter.acquire(1, 500, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(limiter.acquire(1, 1000, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(TimeUnit.SECONDS.toMicros(1), stopwatch.getSlept());
+    }
+
+    @Test
+    void testStoreUnavailable() {
+        store.available = false;
+        RedissonLeaseRateLimiter limiter = new RedissonLeaseRateLimiter(store, policy, window, stopwatch);
+        Assertions.assertTrue(limiter.acquire(2000));
+    }
+
+    private static class MemoryQuotaStore implements QuotaStore {
+
+        private final SleepingStopwatch stopwatch;
+
+        private long window = -1;
+
+        private long used;
+
+        private int calls;
+
+        private boolean available = true;
+
+        MemoryQuotaStore(SleepingStopwatch stopwatch) {
+            this.stopwatch = stopwatch;
+        }
+
+        @Override
+        public Quota lease(String key, long returnWindow, long returnPermits, long permits, long threshold, long windowMs) {
+            calls++;
+            if (!available) {
+                throw new IllegalStateException("redis is not available");
+            }
+            long now = TimeUnit.MICROSECONDS.toMillis(stopwatch.readMicros());
+            long current = now / windowMs;
+            if (current != window) {
+                window = current;
+                used = 0;
+            } else if (returnWindow == current) {
+                used = Math.max(used - returnPermits, 0);
+            }
+            long granted = Math.max(Math.min(permits, threshold - used), 0);
+            used += granted;
+            return new Quota(current, granted, (current + 1) * windowMs - now);
+        }
+    }
+
+    private static class ManualStopwatch implements SleepingStopwatch {
+
+        private long micros;
+
+        private long slept;
+
+        void advance(long micros) {
+            this.micros += micros;
+        }
+
+        long getSlept() {
+            return slept;
+        }
+
+        @Override
+        public long readMicros() {
+            return micros;
+        }
+
+        @Override
+        public void sleepMicrosUninterruptibly(long micros) {
+            slept += micros;
+            this.micros += micros;
+        }
+    }
+}
@@ -55,4 +55,17 @@ public class Resilience4jConcurrencyLimiter extends AbstractConcurrencyLimiter {
     public void complete() {
         bulkhead.onComplete();
     }
+
+    @Override
+    protected int getInflight() {
+        Bulkhead.Metrics metrics = bulkhead.getMetrics();
+        return Math.max(metrics.getMaxAllowedConcurrentCalls() - metrics.getAvailableConcurrentCalls(), 0);
+    }
+
+    @Override
+    public double getUtilization() {
+        Bulkhead.Metrics metrics = bulkhead.getMetrics();
+        int max = metrics.getMaxAllowedConcurrentCalls();
+        return max <= 0 ? 1D : 1D - (double) metrics.getAvailableConcurrentCalls() / max;
+    }
 }
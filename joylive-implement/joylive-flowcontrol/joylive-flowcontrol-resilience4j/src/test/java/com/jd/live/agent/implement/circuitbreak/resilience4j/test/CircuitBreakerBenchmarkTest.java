@@ -0,0 +1,91 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.circuitbreak.resilience4j.test;
+
+import com.jd.live.agent.core.util.URI;
+import com.jd.live.agent.governance.invoke.circuitbreak.CircuitBreaker;
+import com.jd.live.agent.governance.invoke.circuitbreak.atomic.AtomicCircuitBreaker;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakLevel;
+import com.jd.live.agent.governance.policy.service.circuitbreak.CircuitBreakPolicy;
+import com.jd.live.agent.implement.flowcontrol.circuitbreak.resilience4j.Resilience4jCircuitBreakerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the throughput of the circuit breakers under contention.
+ * <p>
+ * Run with {@code mvn test -Dtest=CircuitBreakerBenchmarkTest -Dbenchmark=true}.
+ * </p>
+ */
+public class CircuitBreakerBenchmarkTest {
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws InterruptedException {
+        Resilience4jCircuitBreakerFactory factory = new Resilience4jCircuitBreakerFactory();
+        for (String type : new String[]{CircuitBreakPolicy.SLIDING_WINDOW_COUNT, CircuitBreakPolicy.DEFAULT_SLIDING_WINDOW_TIME}) {
+            CircuitBreakPolicy policy = createPolicy(type);
+            for (int threads = 1; threads <= 32; threads <<= 1) {
+                URI uri = URI.parse("service://order?threads=" + threads + "&type=" + type);
+                long resilience4j = run(factory.create(policy, uri), threads);
+                long atomic = run(new AtomicCircuitBreaker(policy, uri), threads);
+                System.out.printf("window=%s, threads=%d, Resilience4j=%d ops/s, Atomic=%d ops/s%n",
+                        type, threads, resilience4j, atomic);
+            }
+        }
+    }
+
+    private long run(CircuitBreaker breaker, int threads) throws InterruptedException {
+        LongAdder counter = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    if (breaker.acquire()) {
+                        if (random.nextInt(100) == 0) {
+                            breaker.onError(1, null);
+                        } else {
+                            breaker.onSuccess(1);
+                        }
+                    }
+                    counter.increment();
+                }
+                latch.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(1000);
+        running.set(false);
+        latch.await();
+        return counter.sum();
+    }
+
+    private static CircuitBreakPolicy createPolicy(String type) {
+        CircuitBreakPolicy policy = new CircuitBreakPolicy();
+        policy.setLevel(CircuitBreakLevel.SERVICE);
+        policy.setSlidingWindowType(type);
+        policy.setSlidingWindowSize(100);
+        return policy;
+    }
+}
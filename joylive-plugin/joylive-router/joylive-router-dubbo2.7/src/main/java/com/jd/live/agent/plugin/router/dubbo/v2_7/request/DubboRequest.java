@@ -91,6 +91,21 @@ public interface DubboRequest {
             return isDubboSystemService(interfaceName);
         }
 
+        /**
+         * Returns the timeout attached by the consumer, which is the time budget of the consumer for this call.
+         */
+        @Override
+        public long getTimeout() {
+            String timeout = request.getAttachment(CommonConstants.TIMEOUT_KEY);
+            if (timeout != null) {
+                try {
+                    return Long.parseLong(timeout.trim());
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            return 0;
+        }
+
         /**
          * Converts an object to a Dubbo Result.
          * <p>
@@ -156,6 +171,33 @@ public interface DubboRequest {
             }
         }
 
+        /**
+         * Returns the timeout of the request, which is resolved by Dubbo from the attachments of the
+         * {@link RpcContext} and the url in turn.
+         */
+        @Override
+        public long getTimeout() {
+            String timeout = RpcContext.getContext().getAttachment(CommonConstants.TIMEOUT_KEY);
+            if (timeout != null) {
+                try {
+                    return Long.parseLong(timeout);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            return request.getInvoker().getUrl().getMethodPositiveParameter(method, CommonConstants.TIMEOUT_KEY, CommonConstants.DEFAULT_TIMEOUT);
+        }
+
+        /**
+         * Sets the timeout as an attachment of the {@link RpcContext}. It is honored by the Dubbo versions
+         * whose invoker reads the timeout from the context, older versions only use the timeout of the url.
+         */
+        @Override
+        public void setTimeout(long timeout) {
+            if (timeout > 0) {
+                RpcContext.getContext().setAttachment(CommonConstants.TIMEOUT_KEY, String.valueOf(timeout));
+            }
+        }
+
         @Override
         public Function<Throwable, ErrorName> getErrorFunction() {
             return DUBBO_ERROR_FUNCTION;
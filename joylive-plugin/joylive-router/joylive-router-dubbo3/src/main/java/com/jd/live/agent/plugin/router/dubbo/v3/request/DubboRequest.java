@@ -91,6 +91,21 @@ public interface DubboRequest {
             return isDubboSystemService(interfaceName);
         }
 
+        /**
+         * Returns the timeout attached by the consumer, which is the time budget of the consumer for this call.
+         */
+        @Override
+        public long getTimeout() {
+            String timeout = request.getAttachment(CommonConstants.TIMEOUT_KEY);
+            if (timeout != null) {
+                try {
+                    return Long.parseLong(timeout.trim());
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            return 0;
+        }
+
         /**
          * Converts an object to a Dubbo Result.
          * <p>
@@ -157,6 +172,36 @@ public interface DubboRequest {
             }
         }
 
+        /**
+         * Returns the timeout of the request, which is resolved by Dubbo from the client attachments, the
+         * attachments of the invocation and the url in turn.
+         */
+        @Override
+        public long getTimeout() {
+            String timeout = RpcContext.getClientAttachment().getAttachment(CommonConstants.TIMEOUT_KEY);
+            timeout = timeout == null ? request.getAttachment(CommonConstants.TIMEOUT_KEY) : timeout;
+            if (timeout != null) {
+                try {
+                    return Long.parseLong(timeout);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            return request.getInvoker().getUrl().getMethodPositiveParameter(method, CommonConstants.TIMEOUT_KEY, CommonConstants.DEFAULT_TIMEOUT);
+        }
+
+        @Override
+        public void setTimeout(long timeout) {
+            if (timeout > 0) {
+                String value = String.valueOf(timeout);
+                request.setAttachment(CommonConstants.TIMEOUT_KEY, value);
+                RpcContextAttachment attachment = RpcContext.getClientAttachment();
+                if (attachment.getAttachment(CommonConstants.TIMEOUT_KEY) != null) {
+                    // the client attachment takes precedence over the invocation.
+                    attachment.setAttachment(CommonConstants.TIMEOUT_KEY, value);
+                }
+            }
+        }
+
         @Override
         public boolean isSystem() {
             return isDubboSystemService(interfaceName);
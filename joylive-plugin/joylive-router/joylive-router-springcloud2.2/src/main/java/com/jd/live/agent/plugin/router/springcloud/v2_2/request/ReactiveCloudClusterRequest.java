@@ -49,6 +49,11 @@ public class ReactiveCloudClusterRequest extends AbstractCloudClusterRequest<Cli
         this.writeableHeaders = HttpHeaders.writableHttpHeaders(request.headers());
     }
 
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
     @Override
     public HttpMethod getHttpMethod() {
         try {
@@ -64,12 +64,18 @@ public class ReactiveWebCluster extends AbstractLiveCluster<ReactiveWebClusterRe
     @Override
     public CompletionStage<ReactiveClusterResponse> invoke(ReactiveWebClusterRequest request, ServiceEndpoint endpoint) {
         try {
-            return request.exchange(endpoint).toFuture().thenApply(ReactiveClusterResponse::new);
+            return request.exchange(endpoint).map(ReactiveClusterResponse::new).toFuture();
         } catch (Throwable e) {
             return Futures.future(e);
         }
     }
 
+    @Override
+    public void cancel(CompletionStage<ReactiveClusterResponse> stage, ReactiveWebClusterRequest request, ServiceEndpoint endpoint) {
+        // the future of Mono.toFuture() cancels its subscription, which aborts the exchange.
+        stage.toCompletableFuture().cancel(true);
+    }
+
     @Override
     protected ReactiveClusterResponse createResponse(ReactiveWebClusterRequest request) {
         return createResponse(request, DegradeConfig.builder().responseCode(HttpStatus.OK.value()).responseBody("").build());
@@ -73,6 +73,12 @@ public class ReactiveCloudCluster extends AbstractCloudCluster<
         }
     }
 
+    @Override
+    public void cancel(CompletionStage<ReactiveClusterResponse> stage, ReactiveCloudClusterRequest request, SpringEndpoint endpoint) {
+        // the future of Mono.toFuture() cancels its subscription, which aborts the exchange.
+        stage.toCompletableFuture().cancel(true);
+    }
+
     @Override
     public ErrorPredicate getRetryPredicate() {
         return RETRY_PREDICATE;
@@ -54,6 +54,18 @@ public class ReactiveCloudClusterRequest extends AbstractCloudClusterRequest<Cli
         this.writeableHeaders = HttpHeaders.writableHttpHeaders(request.headers());
     }
 
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    public boolean isConcurrentSafe() {
+        // the safe methods are idempotent, and each attempt is sent with its own copy of the client request.
+        HttpMethod method = getHttpMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+    }
+
     @Override
     public HttpMethod getHttpMethod() {
         try {
@@ -76,7 +88,10 @@ public class ReactiveCloudClusterRequest extends AbstractCloudClusterRequest<Cli
     @Override
     public void setHeader(String key, String value) {
         if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
-            writeableHeaders.set(key, value);
+            // the concurrent attempts of a hedged request share the headers.
+            synchronized (writeableHeaders) {
+                writeableHeaders.set(key, value);
+            }
         }
     }
 
@@ -106,7 +121,10 @@ public class ReactiveCloudClusterRequest extends AbstractCloudClusterRequest<Cli
      * @return a {@link Mono} emitting the {@link ClientResponse} containing the response data
      */
     public Mono<ClientResponse> exchange(ServiceInstance instance) {
-        ClientRequest newRequest = createRequest(instance);
+        ClientRequest newRequest;
+        synchronized (writeableHeaders) {
+            newRequest = createRequest(instance);
+        }
         return next.exchange(newRequest);
     }
 
@@ -54,6 +54,18 @@ public class ReactiveWebClusterRequest extends AbstractHttpOutboundRequest<Clien
         this.writeableHeaders = HttpHeaders.writableHttpHeaders(request.headers());
     }
 
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    public boolean isConcurrentSafe() {
+        // the safe methods are idempotent, and each attempt is sent with its own copy of the client request.
+        HttpMethod method = getHttpMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+    }
+
     @Override
     public String getService() {
         return service;
@@ -81,7 +93,10 @@ public class ReactiveWebClusterRequest extends AbstractHttpOutboundRequest<Clien
     @Override
     public void setHeader(String key, String value) {
         if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
-            writeableHeaders.set(key, value);
+            // the concurrent attempts of a hedged request share the headers.
+            synchronized (writeableHeaders) {
+                writeableHeaders.set(key, value);
+            }
         }
     }
 
@@ -111,7 +126,11 @@ public class ReactiveWebClusterRequest extends AbstractHttpOutboundRequest<Clien
      * @return a {@link Mono} emitting the {@link ClientResponse} containing the response data
      */
     public Mono<ClientResponse> exchange(Endpoint endpoint) {
-        return next.exchange(create(request, endpoint));
+        ClientRequest newRequest;
+        synchronized (writeableHeaders) {
+            newRequest = create(request, endpoint);
+        }
+        return next.exchange(newRequest);
     }
 
     /**
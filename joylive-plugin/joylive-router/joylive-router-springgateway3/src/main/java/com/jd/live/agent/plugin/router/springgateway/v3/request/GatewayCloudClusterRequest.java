@@ -78,6 +78,11 @@ public class GatewayCloudClusterRequest extends AbstractCloudClusterRequest<Serv
         this.writeableHeaders = HttpHeaders.writableHttpHeaders(request.getHeaders());
     }
 
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
     @Override
     public HttpMethod getHttpMethod() {
         org.springframework.http.HttpMethod method = request.getMethod();
@@ -20,7 +20,9 @@ import com.jd.live.agent.core.util.http.HttpUtils;
 import com.jd.live.agent.governance.request.AbstractHttpRequest.AbstractHttpInboundRequest;
 import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.AbstractServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.web.reactive.HandlerResult;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
@@ -30,6 +32,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 import static com.jd.live.agent.core.util.type.ClassUtils.loadClass;
@@ -51,6 +54,10 @@ public class ReactiveInboundRequest extends AbstractHttpInboundRequest<ServerHtt
 
     private final static Class<?> RESOURCE_HANDLER_CLASS = loadClass(RESOURCE_HANDLER_TYPE, ServerWebExchange.class.getClassLoader());
 
+    private static final String METHOD_CHANNEL = "channel";
+
+    private static final String METHOD_EVENT_LOOP = "eventLoop";
+
     private final Predicate<String> systemPredicate;
 
     private final Object handler;
@@ -84,6 +91,31 @@ public class ReactiveInboundRequest extends AbstractHttpInboundRequest<ServerHtt
         return super.isSystem();
     }
 
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        ServerHttpRequest target = request;
+        while (target instanceof ServerHttpRequestDecorator) {
+            target = ((ServerHttpRequestDecorator) target).getDelegate();
+        }
+        if (target instanceof AbstractServerHttpRequest) {
+            // The native request of reactor netty is its connection, whose channel is bound to an event loop.
+            Object nativeRequest = ((AbstractServerHttpRequest) target).getNativeRequest();
+            try {
+                Object channel = nativeRequest.getClass().getMethod(METHOD_CHANNEL).invoke(nativeRequest);
+                Object eventLoop = channel == null ? null : channel.getClass().getMethod(METHOD_EVENT_LOOP).invoke(channel);
+                return eventLoop instanceof Executor ? (Executor) eventLoop : null;
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     @Override
     public HttpMethod getHttpMethod() {
         org.springframework.http.HttpMethod method = request.getMethod();
@@ -0,0 +1,300 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.bytekit.bytebuddy;
+
+import com.jd.live.agent.bootstrap.plugin.PluginListener;
+import com.jd.live.agent.core.bytekit.matcher.ElementMatcher;
+import com.jd.live.agent.core.bytekit.type.TypeDesc;
+import com.jd.live.agent.core.extension.annotation.ConditionalOnClass;
+import com.jd.live.agent.core.extension.annotation.ConditionalOnProperty;
+import com.jd.live.agent.core.plugin.definition.InterceptorDefinition;
+import com.jd.live.agent.core.plugin.definition.PluginDeclare;
+import com.jd.live.agent.core.plugin.definition.PluginDefinition;
+import com.jd.live.agent.implement.bytekit.bytebuddy.util.MatchCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the persistent match cache and measures the cost of loading and looking it up.
+ * <p>
+ * Run the benchmark with {@code mvn test -Dtest=MatchCacheTest -Dbenchmark=true}.
+ * </p>
+ */
+public class MatchCacheTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testPersist() throws IOException {
+        ProtectionDomain domain = createDomain(createJar("app.jar"));
+        ClassLoader loader = getClass().getClassLoader();
+        File file = new File(directory, "match.cache");
+        MatchCache cache = new MatchCache(file);
+        String key = cache.getKey("app.Foo", loader, domain);
+        Assertions.assertNotNull(key);
+        Assertions.assertFalse(cache.isMismatch(key));
+        cache.addMismatch(key);
+        Assertions.assertTrue(cache.isMismatch(key));
+        cache.flush();
+
+        cache = new MatchCache(file);
+        Assertions.assertTrue(cache.isMismatch(cache.getKey("app.Foo", loader, domain)));
+        Assertions.assertFalse(cache.isMismatch(cache.getKey("app.Bar", loader, domain)));
+    }
+
+    @Test
+    void testInvalidate() throws IOException {
+        File jar = createJar("app.jar");
+        ProtectionDomain domain = createDomain(jar);
+        ClassLoader loader = getClass().getClassLoader();
+        File file = new File(directory, "match.cache");
+        MatchCache cache = new MatchCache(file);
+        cache.addMismatch(cache.getKey("app.Foo", loader, domain));
+        cache.flush();
+
+        Files.write(jar.toPath(), "changed".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Assertions.assertTrue(jar.setLastModified(jar.lastModified() + 1000));
+        cache = new MatchCache(file);
+        Assertions.assertFalse(cache.isMismatch(cache.getKey("app.Foo", loader, domain)));
+    }
+
+    @Test
+    void testUncacheable() throws IOException {
+        ClassLoader loader = getClass().getClassLoader();
+        MatchCache cache = new MatchCache(new File(directory, "match.cache"));
+        Assertions.assertNull(cache.getKey("app.Foo", loader, createDomain(directory)));
+        Assertions.assertNull(cache.getKey("app.Foo", loader, null));
+        Assertions.assertNull(cache.getKey("app.Foo$$EnhancerBySpringCGLIB$$1", loader, createDomain(createJar("app.jar"))));
+        Assertions.assertNotNull(cache.getKey("java.lang.String", null, null));
+    }
+
+    @Test
+    void testLoaderDependent() throws IOException {
+        ProtectionDomain domain = createDomain(createJar("app.jar"));
+        File lib = createJar("lib.jar");
+        File file = new File(directory, "match.cache");
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{lib.toURI().toURL()}, getClass().getClassLoader());
+             URLClassLoader classes = new URLClassLoader(new URL[]{directory.toURI().toURL()}, getClass().getClassLoader())) {
+            MatchCache cache = new MatchCache(file);
+            cache.addMismatch(cache.getKey("app.Foo", loader, domain));
+            cache.flush();
+            // the directories of the loader are not fingerprinted
+            Assertions.assertNull(cache.getKey("app.Foo", classes, domain));
+            Assertions.assertNotNull(new MatchCache(file, false).getKey("app.Foo", classes, domain));
+
+            // a jar of the loader changes the classes visible to the conditions
+            Files.write(lib.toPath(), "changed".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            Assertions.assertTrue(lib.setLastModified(lib.lastModified() + 1000));
+            cache = new MatchCache(file);
+            Assertions.assertFalse(cache.isMismatch(cache.getKey("app.Foo", loader, domain)));
+        }
+    }
+
+    @Test
+    void testMaxSize() throws IOException {
+        ProtectionDomain domain = createDomain(createJar("app.jar"));
+        ClassLoader loader = getClass().getClassLoader();
+        File file = new File(directory, "match.cache");
+        MatchCache cache = new MatchCache(file, false, 3);
+        for (int i = 0; i < 3; i++) {
+            cache.addMismatch(cache.getKey("app.Type" + i, loader, domain));
+        }
+        cache.flush();
+
+        // the next start uses two of the types, the jar of the third one is outdated
+        cache = new MatchCache(file, false, 3);
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertTrue(cache.isMismatch(cache.getKey("app.Type0", loader, domain)));
+        Assertions.assertTrue(cache.isMismatch(cache.getKey("app.Type1", loader, domain)));
+        String key = cache.getKey("app.Type3", loader, domain);
+        cache.addMismatch(key);
+        Assertions.assertFalse(cache.isMismatch(key));
+        Assertions.assertEquals(3, cache.size());
+        // the full cache is compacted to the used types
+        cache.flush();
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(2, Files.readAllLines(file.toPath()).size());
+        cache.addMismatch(key);
+        cache.flush();
+
+        cache = new MatchCache(file, false, 3);
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertTrue(cache.isMismatch(cache.getKey("app.Type3", loader, domain)));
+        Assertions.assertFalse(cache.isMismatch(cache.getKey("app.Type2", loader, domain)));
+    }
+
+    @Test
+    void testDeleteOutdated() throws IOException {
+        File outdated = createFile("match-test-0123abcd.cache");
+        File other = createFile("match-test-other-0123abcd.cache");
+        File unknown = createFile("test.cache");
+        MatchCache cache = MatchCache.of(directory, "1.0.0", new TestDeclare("test", new Plain()), 100);
+        Assertions.assertNotNull(cache);
+        Assertions.assertFalse(outdated.exists());
+        Assertions.assertTrue(other.exists());
+        Assertions.assertTrue(unknown.exists());
+        // the cache of the current identity is kept
+        cache.addMismatch(cache.getKey("java.lang.String", null, null));
+        cache.flush();
+        cache = MatchCache.of(directory, "1.0.0", new TestDeclare("test", new Plain()), 100);
+        Assertions.assertNotNull(cache);
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testMetaConditions() throws IOException {
+        ProtectionDomain domain = createDomain(createJar("app.jar"));
+        try (URLClassLoader classes = new URLClassLoader(new URL[]{directory.toURI().toURL()}, getClass().getClassLoader())) {
+            // the types of a loader with directories are not cached for the loader dependent plugins.
+            MatchCache plain = MatchCache.of(directory, "1.0.0", new TestDeclare("plain", new Plain()), 100);
+            MatchCache property = MatchCache.of(directory, "1.0.0", new TestDeclare("property", new Property()), 100);
+            MatchCache direct = MatchCache.of(directory, "1.0.0", new TestDeclare("direct", new Direct()), 100);
+            MatchCache meta = MatchCache.of(directory, "1.0.0", new TestDeclare("meta", new Meta()), 100);
+            Assertions.assertNotNull(plain.getKey("app.Foo", classes, domain));
+            Assertions.assertNotNull(property.getKey("app.Foo", classes, domain));
+            Assertions.assertNull(direct.getKey("app.Foo", classes, domain));
+            Assertions.assertNull(meta.getKey("app.Foo", classes, domain));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws IOException {
+        ProtectionDomain domain = createDomain(createJar("app.jar"));
+        ClassLoader loader = getClass().getClassLoader();
+        File file = new File(directory, "match.cache");
+        MatchCache cache = new MatchCache(file);
+        int count = 20000;
+        for (int i = 0; i < count; i++) {
+            cache.addMismatch(cache.getKey("app.Type" + i, loader, domain));
+        }
+        cache.flush();
+        for (int i = 0; i < 5; i++) {
+            long time = System.nanoTime();
+            MatchCache loaded = new MatchCache(file);
+            long loadTime = System.nanoTime() - time;
+            time = System.nanoTime();
+            int hits = 0;
+            for (int j = 0; j < count; j++) {
+                if (loaded.isMismatch(loaded.getKey("app.Type" + j, loader, domain))) {
+                    hits++;
+                }
+            }
+            long lookupTime = System.nanoTime() - time;
+            System.out.printf("types=%d, hits=%d, load=%dms, lookup=%dms, file=%dKB%n",
+                    count, hits, loadTime / 1000000, lookupTime / 1000000, file.length() / 1024);
+        }
+    }
+
+    private File createFile(String name) throws IOException {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), "app.Foo@0\n".getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private File createJar(String name) throws IOException {
+        File jar = new File(directory, name);
+        Files.write(jar.toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+        return jar;
+    }
+
+    private static ProtectionDomain createDomain(File file) throws MalformedURLException {
+        return new ProtectionDomain(new CodeSource(file.toURI().toURL(), (Certificate[]) null), null);
+    }
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @ConditionalOnClass("app.Foo")
+    private @interface ConditionalOnFoo {
+    }
+
+    @ConditionalOnFoo
+    private static class Meta extends Plain {
+    }
+
+    @ConditionalOnClass("app.Foo")
+    private static class Direct extends Plain {
+    }
+
+    @ConditionalOnProperty("agent.test.enabled")
+    private static class Property extends Plain {
+    }
+
+    private static class Plain implements PluginDefinition {
+
+        @Override
+        public ElementMatcher<TypeDesc> getMatcher() {
+            return type -> false;
+        }
+
+        @Override
+        public InterceptorDefinition[] getInterceptors() {
+            return new InterceptorDefinition[0];
+        }
+    }
+
+    private static class TestDeclare implements PluginDeclare {
+
+        private final String name;
+
+        private final List<PluginDefinition> definitions;
+
+        TestDeclare(String name, PluginDefinition definition) {
+            this.name = name;
+            this.definitions = Collections.singletonList(definition);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public List<PluginDefinition> getDefinitions() {
+            return definitions;
+        }
+
+        @Override
+        public List<PluginDefinition> match(TypeDesc typeDesc, ClassLoader classLoader) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void addListener(PluginListener listener) {
+        }
+    }
+}
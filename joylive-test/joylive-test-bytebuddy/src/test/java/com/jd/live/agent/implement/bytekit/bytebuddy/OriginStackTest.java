@@ -0,0 +1,121 @@
+/*
+ * Copyright © ${year} ${owner} (${email})
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jd.live.agent.implement.bytekit.bytebuddy;
+
+import com.jd.live.agent.bootstrap.bytekit.context.OriginStack;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tests the origin stack and measures the cost of nested interception.
+ * <p>
+ * Run the benchmark with {@code mvn test -Dtest=OriginStackTest -Dbenchmark=true}.
+ * </p>
+ */
+public class OriginStackTest {
+
+    @Test
+    void testNested() {
+        Object target = new Object();
+        int depth = 20;
+        for (int i = 0; i < depth; i++) {
+            OriginStack.push(target, i);
+        }
+        // only the innermost invocation is the origin one
+        Assertions.assertFalse(OriginStack.tryPop(target, 0));
+        Assertions.assertFalse(OriginStack.tryPop(new Object(), depth - 1));
+        for (int i = depth - 1; i >= 0; i--) {
+            Assertions.assertTrue(OriginStack.tryPop(target, i));
+        }
+        Assertions.assertFalse(OriginStack.tryPop(target, 0));
+    }
+
+    @Test
+    void testStatic() {
+        OriginStack.push(null, 1);
+        Assertions.assertFalse(OriginStack.tryPop(null, 2));
+        Assertions.assertTrue(OriginStack.tryPop(null, 1));
+    }
+
+    @Test
+    void testThreads() throws InterruptedException {
+        Object target = new Object();
+        OriginStack.push(target, 1);
+        AtomicBoolean popped = new AtomicBoolean(true);
+        Thread thread = new Thread(() -> popped.set(OriginStack.tryPop(target, 1)));
+        thread.start();
+        thread.join();
+        Assertions.assertFalse(popped.get());
+        Assertions.assertTrue(OriginStack.tryPop(target, 1));
+    }
+
+    @Test
+    void testUnknownAdvice() throws NoSuchMethodException {
+        Object target = new Object();
+        Method method = Object.class.getMethod("toString");
+        OriginStack.push(target, method);
+        Assertions.assertFalse(OriginStack.tryPop(target, 1, Object.class.getMethod("hashCode")));
+        // the method is matched whatever the advice id
+        Assertions.assertTrue(OriginStack.tryPop(target, 1, Object.class.getMethod("toString")));
+        OriginStack.push(target, 1);
+        Assertions.assertFalse(OriginStack.tryPop(target, OriginStack.UNKNOWN_ADVICE, method));
+        Assertions.assertTrue(OriginStack.tryPop(target, 1, method));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws Exception {
+        Method method = Object.class.getMethod("toString");
+        for (int depth = 1; depth <= 16; depth <<= 1) {
+            for (int threads = 1; threads <= 32; threads <<= 1) {
+                System.out.printf("depth=%d, threads=%d, %d ops/s%n", depth, threads, run(method, depth, threads));
+            }
+        }
+    }
+
+    private long run(Method method, int depth, int threads) throws InterruptedException {
+        LongAdder counter = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                Object target = new Object();
+                while (running.get()) {
+                    // each level is entered by the interceptor and then re-entered by the origin invocation
+                    for (int j = 0; j < depth; j++) {
+                        OriginStack.tryPop(target, j, method);
+                        OriginStack.push(target, j);
+                        OriginStack.tryPop(target, j, method);
+                    }
+                    counter.increment();
+                }
+                latch.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(1000);
+        running.set(false);
+        latch.await();
+        return counter.sum();
+    }
+}